@@ -0,0 +1,56 @@
+package org.daniel.jmh;
+
+import com.couchbase.client.java.json.JsonObject;
+import org.daniel.util.JsonUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of preparing a benchmark document: loading it from disk, wrapping it in a JsonObject and encoding it,
+ * which the SDK does on every mutation unless the payload is pre-encoded.
+ * Runs from the project directory, where the json-files directory is.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DocumentEncodingBenchmark {
+    private String jsonFilePath;
+    private Map<String, Object> jsonData;
+    private JsonObject jsonObject;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Path> jsonFilePaths = JsonUtils.loadJsonFilePaths("json-files");
+        jsonFilePath = jsonFilePaths.get(0).toString();
+        jsonData = JsonUtils.loadJsonData(jsonFilePath);
+        jsonObject = JsonObject.from(jsonData);
+    }
+
+    @Benchmark
+    public Map<String, Object> loadJsonData() throws IOException {
+        return JsonUtils.loadJsonData(jsonFilePath);
+    }
+
+    @Benchmark
+    public JsonObject jsonObjectFrom() {
+        return JsonObject.from(jsonData);
+    }
+
+    @Benchmark
+    public byte[] jsonObjectEncode() {
+        return jsonObject.toBytes();
+    }
+
+    @Benchmark
+    public byte[] jacksonEncode() {
+        return JsonUtils.toBytes(jsonData);
+    }
+}
@@ -0,0 +1,41 @@
+package org.daniel.jmh;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the harness microbenchmarks once per thread count, since contention on the shared recording and
+ * key paths only shows with many threads. Writes one JSON result file per thread count.
+ * Arguments: an optional benchmark include pattern (default: all) and comma-separated thread counts (default: 1,8,64).
+ */
+public class HarnessBenchmarks {
+    private static final String RESULTS_DIRECTORY = "build/reports/jmh";
+
+    private HarnessBenchmarks() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : HarnessBenchmarks.class.getPackageName() + ".*Benchmark";
+        List<Integer> threadCounts = args.length > 1
+                ? Arrays.stream(args[1].split(",")).map(String::trim).map(Integer::parseInt).toList()
+                : List.of(1, 8, 64);
+
+        new File(RESULTS_DIRECTORY).mkdirs();
+        for (int threads : threadCounts) {
+            Options options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .result(RESULTS_DIRECTORY + "/results-" + threads + "-threads.json")
+                    .resultFormat(ResultFormatType.JSON)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.daniel.jmh;
+
+import org.daniel.workload.Operation;
+import org.daniel.workload.OperationGenerator;
+import org.daniel.workload.Workload;
+import org.daniel.workload.WorkloadDefinition;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cost of producing the document ID of the next operation.
+ * The workload reserves blocks of new keys per worker and renders them into a reusable buffer;
+ * the baselines use one shared counter with String.valueOf, a per-thread block with String.valueOf, or only pre-formatted keys.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyGenerationBenchmark {
+    private static final int CACHED_KEY_COUNT = 1 << 20;
+    private static final int BLOCK_SIZE = 1024;
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        final AtomicLong counter = new AtomicLong();
+        final Workload workload = new Workload(WorkloadDefinition.preset(WorkloadDefinition.WRITE_THEN_READ));
+        final String[] cachedKeys = new String[CACHED_KEY_COUNT];
+
+        @Setup
+        public void setUp() {
+            for (int i = 0; i < CACHED_KEY_COUNT; i++) {
+                cachedKeys[i] = String.valueOf(i);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PerThread {
+        OperationGenerator generator;
+        long blockNext;
+        long blockEnd;
+        int cachedIndex;
+
+        @Setup
+        public void setUp(Shared shared) {
+            generator = shared.workload.newGenerator();
+        }
+    }
+
+    @Benchmark
+    public String sharedCounter(Shared shared) {
+        return String.valueOf(shared.counter.getAndIncrement());
+    }
+
+    @Benchmark
+    public String threadLocalBlock(Shared shared, PerThread thread) {
+        if (thread.blockNext == thread.blockEnd) {
+            thread.blockNext = shared.counter.getAndAdd(BLOCK_SIZE);
+            thread.blockEnd = thread.blockNext + BLOCK_SIZE;
+        }
+        return String.valueOf(thread.blockNext++);
+    }
+
+    @Benchmark
+    public String cachedKey(Shared shared, PerThread thread) {
+        return shared.cachedKeys[thread.cachedIndex++ & (CACHED_KEY_COUNT - 1)];
+    }
+
+    @Benchmark
+    public Operation workloadGenerator(PerThread thread) {
+        return thread.generator.next();
+    }
+}
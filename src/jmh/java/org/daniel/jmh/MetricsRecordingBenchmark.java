@@ -0,0 +1,82 @@
+package org.daniel.jmh;
+
+import org.daniel.metrics.LatencyHistogram;
+import org.daniel.metrics.MetricsCollector;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cost of recording one latency, which every benchmark operation pays on its completing thread.
+ * Compares the real {@link MetricsCollector} path with its parts and with alternatives:
+ * unstriped atomic counters, striped counters alone, a shared striped histogram and one histogram per thread.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsRecordingBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        final MetricsCollector metricsCollector = new MetricsCollector();
+        final AtomicLong atomicTotal = new AtomicLong();
+        final AtomicLong atomicCount = new AtomicLong();
+        final LongAdder stripedTotal = new LongAdder();
+        final LongAdder stripedCount = new LongAdder();
+        final LatencyHistogram sharedHistogram = new LatencyHistogram();
+    }
+
+    @State(Scope.Thread)
+    public static class PerThread {
+        private static final int LATENCY_COUNT = 4096;
+
+        final LatencyHistogram histogram = new LatencyHistogram(1);
+        private final long[] latencies = new long[LATENCY_COUNT];
+        private int next;
+
+        @Setup
+        public void setUp() {
+            // Spread of realistic key-value latencies, so bucket indices vary as they do in a run
+            SplittableRandom random = new SplittableRandom(Thread.currentThread().threadId());
+            for (int i = 0; i < LATENCY_COUNT; i++) {
+                latencies[i] = 100_000 + (long) (-Math.log(1 - random.nextDouble()) * 400_000);
+            }
+        }
+
+        long nextLatency() {
+            return latencies[next++ & (LATENCY_COUNT - 1)];
+        }
+    }
+
+    @Benchmark
+    public void metricsCollector(Shared shared, PerThread thread) {
+        shared.metricsCollector.recordWriteLatency(thread.nextLatency());
+    }
+
+    @Benchmark
+    public void atomicCounters(Shared shared, PerThread thread) {
+        shared.atomicTotal.addAndGet(thread.nextLatency());
+        shared.atomicCount.incrementAndGet();
+    }
+
+    @Benchmark
+    public void stripedCounters(Shared shared, PerThread thread) {
+        shared.stripedTotal.add(thread.nextLatency());
+        shared.stripedCount.increment();
+    }
+
+    @Benchmark
+    public void sharedHistogram(Shared shared, PerThread thread) {
+        shared.sharedHistogram.record(thread.nextLatency());
+    }
+
+    @Benchmark
+    public void threadLocalHistogram(PerThread thread) {
+        thread.histogram.record(thread.nextLatency());
+    }
+}
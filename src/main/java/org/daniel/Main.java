@@ -1,33 +1,70 @@
 package org.daniel;
 
+import org.daniel.backend.KeyValueBackend;
+import org.daniel.backend.KeyValueBackendFactory;
+import org.daniel.benchmark.BenchmarkMatrix;
 import org.daniel.benchmark.BenchmarkRunner;
 import org.daniel.config.AppConfig;
-import org.daniel.couchbase.CouchbaseClientManagerFactory;
-import org.daniel.couchbase.CouchbaseClientManager;
+import org.daniel.distributed.DistributedCoordinator;
+import org.daniel.distributed.DistributedWorker;
+import org.daniel.results.ResultsComparison;
+import org.daniel.results.ResultsWriter;
+import org.daniel.util.JsonUtils;
+import org.daniel.util.PackedCorpus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Entry point of the application.
- * Initializes the configuration and starts the benchmark runner.
+ * Initializes the configuration and starts the benchmark runner. Other modes are selected by the arguments:
+ * <ul>
+ *     <li>{@code compare <baseline.json> <candidate.json> [alpha]} compares two result files and exits with
+ *     status 1 if the candidate has a significant regression</li>
+ *     <li>{@code coordinator} runs the benchmark with the load generated by distributed-workers worker processes</li>
+ *     <li>{@code worker <coordinator-host> [port]} runs a worker process for a coordinator</li>
+ *     <li>{@code pack <json-directory> <corpus-file>} packs a directory of JSON documents into a corpus file
+ *     for the corpus-file property</li>
+ *     <li>{@code matrix <scenario-file> [key=value ...]} runs every combination of the values listed in a scenario
+ *     file, which overrides application.properties and is itself overridden by the key=value arguments, resuming
+ *     an interrupted matrix</li>
+ * </ul>
  */
 public class Main {
     private static final Logger logger = LoggerFactory.getLogger(Main.class);
 
+    private static final double DEFAULT_ALPHA = 0.05;
+
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("compare")) {
+            System.exit(compare(args));
+        }
+        if (args.length > 0 && args[0].equals("worker")) {
+            System.exit(work(args));
+        }
+        if (args.length > 0 && args[0].equals("pack")) {
+            System.exit(pack(args));
+        }
+        if (args.length > 0 && args[0].equals("matrix")) {
+            System.exit(matrix(args));
+        }
+        boolean distributed = args.length > 0 && args[0].equals("coordinator");
 
         try {
             // Load application configuration from properties file
             AppConfig config = new AppConfig("application.properties");
 
-            // Create Couchbase client manager using the configuration
-            CouchbaseClientManager clusterManager = CouchbaseClientManagerFactory.create(config.getProperties());
-
-            // Initialize and run the benchmark
-            BenchmarkRunner benchmarkRunner = new BenchmarkRunner(config, clusterManager);
-            benchmarkRunner.runBenchmarks();
+            // Create the configured backend (Couchbase unless a local stand-in is selected)
+            try (KeyValueBackend backend = KeyValueBackendFactory.create(config.getProperties());
+                 DistributedCoordinator coordinator = distributed ? acceptWorkers(config) : null) {
+                // Initialize and run the benchmark
+                BenchmarkRunner benchmarkRunner = new BenchmarkRunner(config, backend, coordinator);
+                benchmarkRunner.runBenchmarks();
+            }
         } catch (IOException e) {
             logger.error("Application properties file not found on classpath.", e);
             throw new RuntimeException("application.properties file not found on classpath.", e);
@@ -36,4 +73,101 @@ public class Main {
             throw new RuntimeException("Error during benchmark execution", e);
         }
     }
+
+    private static DistributedCoordinator acceptWorkers(AppConfig config) throws IOException {
+        return DistributedCoordinator.accept(config.getDistributedPort(), config.getDistributedWorkers(),
+                config.getDistributedAcceptTimeoutSeconds(), config.getDistributedStartDelayMillis(),
+                config.getDistributedReplyTimeoutSeconds(), config.getProperties());
+    }
+
+    /**
+     * Runs a worker process of a distributed benchmark until its coordinator ends the session.
+     *
+     * @param args "worker", the coordinator's host and optionally its port.
+     * @return 0 when the coordinator ended the session, 1 if the connection failed, 2 on invalid usage.
+     */
+    private static int work(String[] args) {
+        if (args.length < 2) {
+            logger.error("Usage: worker <coordinator-host> [port]");
+            return 2;
+        }
+        try {
+            DistributedWorker.run(args[1], args.length > 2 ? Integer.parseInt(args[2]) : DistributedCoordinator.DEFAULT_PORT);
+            return 0;
+        } catch (IOException e) {
+            logger.error("Lost the connection to the coordinator: {}", e.getMessage(), e);
+            return 1;
+        }
+    }
+
+    /**
+     * Runs the cells of a benchmark matrix that have not completed yet.
+     *
+     * @param args "matrix", the scenario file and optionally property overrides of the form key=value.
+     * @return 0 when the matrix has run, 1 if the configuration could not be loaded, 2 on invalid usage.
+     */
+    private static int matrix(String[] args) {
+        if (args.length < 2) {
+            logger.error("Usage: matrix <scenario-file> [key=value ...]");
+            return 2;
+        }
+        try {
+            AppConfig config = new AppConfig("application.properties")
+                    .withScenario(Path.of(args[1]))
+                    .withOverrides(AppConfig.parseOverrides(Arrays.asList(args).subList(2, args.length)));
+            new BenchmarkMatrix(config).run();
+            return 0;
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid matrix configuration: {}", e.getMessage());
+            return 2;
+        } catch (IOException e) {
+            logger.error("Failed to load the matrix configuration: {}", e.getMessage(), e);
+            return 1;
+        }
+    }
+
+    /**
+     * Packs the JSON documents of a directory into a corpus file.
+     *
+     * @param args "pack", the directory and the corpus file to write.
+     * @return 0 on success, 1 if packing failed, 2 on invalid usage.
+     */
+    private static int pack(String[] args) {
+        if (args.length < 3) {
+            logger.error("Usage: pack <json-directory> <corpus-file>");
+            return 2;
+        }
+        try {
+            List<Path> jsonFilePaths = JsonUtils.loadJsonFilePaths(args[1]).stream().sorted().toList();
+            long bytes = PackedCorpus.pack(jsonFilePaths, Path.of(args[2]));
+            logger.info("Packed {} documents into {} ({} MB)", jsonFilePaths.size(), args[2], String.format("%.1f", bytes / 1e6));
+            return 0;
+        } catch (IOException e) {
+            logger.error("Failed to pack the corpus: {}", e.getMessage(), e);
+            return 1;
+        }
+    }
+
+    /**
+     * Compares a candidate result file against a baseline.
+     *
+     * @param args "compare", the baseline file, the candidate file and optionally the significance level.
+     * @return 0 if there is no significant regression, 1 if there is, 2 on invalid usage.
+     */
+    private static int compare(String[] args) {
+        if (args.length < 3) {
+            logger.error("Usage: compare <baseline.json> <candidate.json> [alpha]");
+            return 2;
+        }
+        try {
+            double alpha = args.length > 3 ? Double.parseDouble(args[3]) : DEFAULT_ALPHA;
+            List<ResultsComparison.Finding> findings = ResultsComparison.compare(
+                    ResultsWriter.read(Path.of(args[1])), ResultsWriter.read(Path.of(args[2])), alpha);
+            ResultsComparison.print(findings);
+            return findings.stream().anyMatch(ResultsComparison.Finding::regression) ? 1 : 0;
+        } catch (IOException e) {
+            logger.error("Failed to read result files: {}", e.getMessage(), e);
+            return 2;
+        }
+    }
 }
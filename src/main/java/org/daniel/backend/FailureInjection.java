@@ -0,0 +1,123 @@
+package org.daniel.backend;
+
+import org.daniel.couchbase.ClientSetting;
+import org.daniel.couchbase.ClientSettings;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Failures a local backend injects into its operations, and how the client reacts to them, so that retry strategies
+ * and timeouts can be benchmarked under partial failure without a server.
+ * The rates are parsed from specifications such as:
+ * <ul>
+ *     <li>none</li>
+ *     <li>temporary:0.05 - 5% of attempts fail with a temporary failure the client may retry</li>
+ *     <li>temporary:0.05,timeout:0.01 - in addition, 1% of attempts are never answered and time out</li>
+ * </ul>
+ * The client side follows the retry-strategy and kv-timeout-millis client settings, like the SDK would:
+ * best-effort retries temporary failures with exponential backoff until the timeout, fail-fast fails at once.
+ *
+ * @param temporaryFailureRate Fraction of attempts failing with a temporary failure.
+ * @param timeoutRate          Fraction of attempts that are never answered.
+ * @param failFast             Whether temporary failures fail the operation instead of being retried.
+ * @param timeoutNanos         Time after which an operation fails with a timeout.
+ */
+public record FailureInjection(double temporaryFailureRate, double timeoutRate, boolean failFast, long timeoutNanos) {
+
+    // The SDK's default KV timeout, and the backoff of its best-effort retry strategy
+    private static final long DEFAULT_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(2500);
+    private static final long MIN_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    /**
+     * No failures, with the SDK's default retry strategy and KV timeout.
+     */
+    public static final FailureInjection NONE = new FailureInjection(0, 0, false, DEFAULT_TIMEOUT_NANOS);
+
+    /**
+     * Failure of a single attempt.
+     */
+    public enum Failure {
+        /**
+         * The server answered with a temporary failure.
+         */
+        TEMPORARY,
+        /**
+         * The server never answered.
+         */
+        TIMEOUT
+    }
+
+    public FailureInjection {
+        if (temporaryFailureRate < 0 || timeoutRate < 0 || temporaryFailureRate + timeoutRate > 1) {
+            throw new IllegalArgumentException("Failure rates must be between 0 and 1 in total: temporary="
+                    + temporaryFailureRate + " timeout=" + timeoutRate);
+        }
+        if (timeoutNanos <= 0) {
+            throw new IllegalArgumentException("Timeout must be positive: " + timeoutNanos);
+        }
+    }
+
+    /**
+     * Parses a failure specification and takes the client's reaction from the client settings.
+     *
+     * @param spec           Specification, e.g. "temporary:0.05,timeout:0.01".
+     * @param clientSettings Client settings; retry-strategy and kv-timeout-millis are used, others are ignored.
+     * @return The failure injection.
+     */
+    public static FailureInjection parse(String spec, ClientSettings clientSettings) {
+        double temporaryFailureRate = 0;
+        double timeoutRate = 0;
+        if (!spec.trim().equals("none")) {
+            for (String failure : spec.split(",")) {
+                String[] parts = failure.trim().split(":");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Malformed failure specification: " + spec);
+                }
+                double rate = Double.parseDouble(parts[1]);
+                switch (parts[0]) {
+                    case "temporary" -> temporaryFailureRate = rate;
+                    case "timeout" -> timeoutRate = rate;
+                    default -> throw new IllegalArgumentException("Unknown failure type: " + parts[0]);
+                }
+            }
+        }
+        String retryStrategy = clientSettings.get(ClientSetting.RETRY_STRATEGY);
+        if (retryStrategy != null && !retryStrategy.equals("best-effort") && !retryStrategy.equals("fail-fast")) {
+            throw new IllegalArgumentException("Unknown retry strategy: " + retryStrategy);
+        }
+        String timeoutMillis = clientSettings.get(ClientSetting.KV_TIMEOUT_MILLIS);
+        return new FailureInjection(temporaryFailureRate, timeoutRate, "fail-fast".equals(retryStrategy),
+                timeoutMillis != null ? TimeUnit.MILLISECONDS.toNanos(Long.parseLong(timeoutMillis)) : DEFAULT_TIMEOUT_NANOS);
+    }
+
+    /**
+     * Whether any failures are injected.
+     */
+    public boolean isEnabled() {
+        return temporaryFailureRate > 0 || timeoutRate > 0;
+    }
+
+    /**
+     * Draws the outcome of the next attempt.
+     *
+     * @return The failure, or null if the attempt succeeds.
+     */
+    public Failure nextFailure() {
+        double u = ThreadLocalRandom.current().nextDouble();
+        if (u < timeoutRate) {
+            return Failure.TIMEOUT;
+        }
+        return u < timeoutRate + temporaryFailureRate ? Failure.TEMPORARY : null;
+    }
+
+    /**
+     * Returns the delay before retrying an attempt that failed temporarily.
+     *
+     * @param attempt Number of the failed attempt, starting at 0.
+     */
+    public long backoffNanos(int attempt) {
+        return attempt >= 10 ? MAX_BACKOFF_NANOS : Math.min(MAX_BACKOFF_NANOS, MIN_BACKOFF_NANOS << attempt);
+    }
+}
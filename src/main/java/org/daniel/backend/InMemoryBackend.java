@@ -0,0 +1,71 @@
+package org.daniel.backend;
+
+import com.couchbase.client.core.error.DocumentExistsException;
+import com.couchbase.client.core.error.DocumentNotFoundException;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stand-in backend that keeps document references in a ConcurrentHashMap.
+ * With no injected latency it costs little more than a map access, so it shows the ceiling of the harness itself.
+ */
+public class InMemoryBackend extends LocalBackend {
+    private final ConcurrentHashMap<String, Object> documents = new ConcurrentHashMap<>();
+
+    public InMemoryBackend(LatencyDistribution latency) {
+        super(latency);
+    }
+
+    public InMemoryBackend(LatencyDistribution latency, FailureInjection failures) {
+        super(latency, failures);
+    }
+
+    @Override
+    public String getName() {
+        return "memory";
+    }
+
+    @Override
+    protected Object doGet(String key) {
+        Object document = documents.get(key);
+        if (document == null) {
+            throw DocumentNotFoundException.forKey(key);
+        }
+        return document;
+    }
+
+    @Override
+    protected void doInsert(String key, Object document) {
+        if (documents.putIfAbsent(key, document) != null) {
+            throw DocumentExistsException.forKey(key);
+        }
+    }
+
+    @Override
+    protected void doUpsert(String key, Object document) {
+        documents.put(key, document);
+    }
+
+    @Override
+    protected void doReplace(String key, Object document) {
+        if (documents.replace(key, document) == null) {
+            throw DocumentNotFoundException.forKey(key);
+        }
+    }
+
+    @Override
+    protected void doRemove(String key) {
+        if (documents.remove(key) == null) {
+            throw DocumentNotFoundException.forKey(key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        documents.clear();
+    }
+
+    public int size() {
+        return documents.size();
+    }
+}
@@ -0,0 +1,109 @@
+package org.daniel.backend;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Key-value store the benchmark drives.
+ * Implemented by the Couchbase client manager and by local stand-in stores that need no server,
+ * which makes it possible to measure the harness itself and to run every execution mode in tests.
+ * Failed operations throw (or complete exceptionally with) the same exception types as the Couchbase SDK.
+ */
+public interface KeyValueBackend extends AutoCloseable {
+
+    /**
+     * Short name of the backend, for reporting.
+     */
+    String getName();
+
+    /**
+     * Reads a document.
+     *
+     * @param key Document key.
+     * @return The document content in the backend's native representation.
+     */
+    Object get(String key);
+
+    /**
+     * Creates a document, failing if it already exists.
+     */
+    void insert(String key, Object document);
+
+    /**
+     * Creates or overwrites a document.
+     */
+    void upsert(String key, Object document);
+
+    /**
+     * Creates or overwrites a document while the store is prepared for a run, before any load is measured.
+     * Backends that simulate failures load the document without them, so the key space is complete.
+     */
+    default void preload(String key, Object document) {
+        upsert(key, document);
+    }
+
+    /**
+     * Overwrites an existing document, failing if it does not exist.
+     */
+    void replace(String key, Object document);
+
+    /**
+     * Removes an existing document, failing if it does not exist.
+     */
+    void remove(String key);
+
+    /**
+     * Reads paths inside an existing document, failing if the document does not exist.
+     * Paths missing from the document do not fail the lookup.
+     *
+     * @param key   Document key.
+     * @param paths Paths to read, in sub-document path syntax such as "address.city" or "phoneNumbers[0]".
+     * @return The looked-up values in the backend's native representation.
+     */
+    Object lookupIn(String key, List<String> paths);
+
+    /**
+     * Sets paths inside an existing document to a value, creating missing paths and failing if the document does not exist.
+     *
+     * @param key   Document key.
+     * @param paths Paths to set.
+     * @param value Value written to every path.
+     */
+    void mutateIn(String key, List<String> paths, Object value);
+
+    /**
+     * Removes all documents; called before each run.
+     */
+    void clear();
+
+    default CompletableFuture<?> getAsync(String key) {
+        return CompletableFuture.supplyAsync(() -> get(key));
+    }
+
+    default CompletableFuture<?> insertAsync(String key, Object document) {
+        return CompletableFuture.runAsync(() -> insert(key, document));
+    }
+
+    default CompletableFuture<?> upsertAsync(String key, Object document) {
+        return CompletableFuture.runAsync(() -> upsert(key, document));
+    }
+
+    default CompletableFuture<?> replaceAsync(String key, Object document) {
+        return CompletableFuture.runAsync(() -> replace(key, document));
+    }
+
+    default CompletableFuture<?> removeAsync(String key) {
+        return CompletableFuture.runAsync(() -> remove(key));
+    }
+
+    default CompletableFuture<?> lookupInAsync(String key, List<String> paths) {
+        return CompletableFuture.supplyAsync(() -> lookupIn(key, paths));
+    }
+
+    default CompletableFuture<?> mutateInAsync(String key, List<String> paths, Object value) {
+        return CompletableFuture.runAsync(() -> mutateIn(key, paths, value));
+    }
+
+    @Override
+    void close();
+}
@@ -0,0 +1,35 @@
+package org.daniel.backend;
+
+import org.daniel.couchbase.ClientSettings;
+import org.daniel.couchbase.CouchbaseClientManagerFactory;
+
+import java.util.Properties;
+
+/**
+ * Factory class for creating the backend selected by the 'backend' property.
+ */
+public class KeyValueBackendFactory {
+    private KeyValueBackendFactory() {
+    }
+
+    // Creates a couchbase, memory or off-heap backend using the provided properties and the first configured client settings.
+    public static KeyValueBackend create(Properties properties) {
+        return create(properties, ClientSettings.combinations(properties).get(0));
+    }
+
+    // Creates a backend using the provided properties and client settings. Local backends take the retry strategy
+    // and KV timeout from the client settings, as the reaction to their injected failures.
+    public static KeyValueBackend create(Properties properties, ClientSettings clientSettings) {
+        String backend = properties.getProperty("backend", "couchbase").trim();
+        LatencyDistribution latency = LatencyDistribution.parse(properties.getProperty("backend.latency", "none"));
+        FailureInjection failures = FailureInjection.parse(properties.getProperty("backend.failures", "none"), clientSettings);
+        return switch (backend) {
+            case "couchbase" -> CouchbaseClientManagerFactory.create(properties, clientSettings);
+            case "memory" -> new InMemoryBackend(latency, failures);
+            case "off-heap" -> new OffHeapBackend(
+                    Long.parseLong(properties.getProperty("backend.off-heap-capacity-mb", "1024").trim()) << 20,
+                    latency, failures);
+            default -> throw new IllegalArgumentException("Unknown backend: " + backend);
+        };
+    }
+}
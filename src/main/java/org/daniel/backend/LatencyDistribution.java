@@ -0,0 +1,63 @@
+package org.daniel.backend;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distribution of the artificial service time a local backend adds to every operation.
+ * Parsed from specifications such as:
+ * <ul>
+ *     <li>none</li>
+ *     <li>fixed:200 - always 200µs</li>
+ *     <li>uniform:100:500 - between 100µs and 500µs</li>
+ *     <li>exponential:300 - exponential with a 300µs mean</li>
+ *     <li>lognormal:250:0.5 - log-normal with a 250µs median and shape 0.5, which gives a long tail</li>
+ * </ul>
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+    LatencyDistribution NONE = () -> 0;
+
+    /**
+     * Draws the delay of the next operation.
+     *
+     * @return Delay in nanoseconds.
+     */
+    long nextDelayNanos();
+
+    /**
+     * Parses a latency specification.
+     *
+     * @param spec Specification, e.g. "exponential:300"; all times are in microseconds.
+     * @return The latency distribution.
+     */
+    static LatencyDistribution parse(String spec) {
+        String[] parts = spec.trim().split(":");
+        return switch (parts[0]) {
+            case "none" -> NONE;
+            case "fixed" -> {
+                long nanos = micros(parts[1]);
+                yield () -> nanos;
+            }
+            case "uniform" -> {
+                long min = micros(parts[1]);
+                long max = micros(parts[2]);
+                yield () -> ThreadLocalRandom.current().nextLong(min, max + 1);
+            }
+            case "exponential" -> {
+                long mean = micros(parts[1]);
+                yield () -> (long) (-mean * Math.log(1 - ThreadLocalRandom.current().nextDouble()));
+            }
+            case "lognormal" -> {
+                double mu = Math.log(micros(parts[1]));
+                double sigma = Double.parseDouble(parts[2]);
+                yield () -> (long) Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian());
+            }
+            default -> throw new IllegalArgumentException("Unknown latency distribution: " + spec);
+        };
+    }
+
+    private static long micros(String value) {
+        return TimeUnit.MICROSECONDS.toNanos(Long.parseLong(value.trim()));
+    }
+}
@@ -0,0 +1,261 @@
+package org.daniel.backend;
+
+import com.couchbase.client.core.error.AmbiguousTimeoutException;
+import com.couchbase.client.core.error.CouchbaseException;
+import com.couchbase.client.core.error.TemporaryFailureException;
+import com.couchbase.client.core.error.UnambiguousTimeoutException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Base class of the in-process stand-in backends.
+ * Adds the configured artificial latency to every operation: blocking calls park the calling thread,
+ * async calls complete on a delayed executor without blocking the caller.
+ * Sub-document operations only model the round trip: by default a lookup reads the whole document and a mutation
+ * checks that the document exists, since the stored documents are shared with the corpus and must not be modified.
+ * With {@link FailureInjection} enabled, every attempt may fail temporarily or go unanswered; the backend then plays
+ * the client's part too, retrying or failing fast and timing operations out, and throws the SDK's exception types.
+ * A failed attempt does not apply the operation. Preloading bypasses both the latency and the failures.
+ */
+public abstract class LocalBackend implements KeyValueBackend {
+    private final LatencyDistribution latency;
+    private final FailureInjection failures;
+
+    protected LocalBackend(LatencyDistribution latency) {
+        this(latency, FailureInjection.NONE);
+    }
+
+    protected LocalBackend(LatencyDistribution latency, FailureInjection failures) {
+        this.latency = latency;
+        this.failures = failures;
+    }
+
+    protected abstract Object doGet(String key);
+
+    protected abstract void doInsert(String key, Object document);
+
+    protected abstract void doUpsert(String key, Object document);
+
+    protected abstract void doReplace(String key, Object document);
+
+    protected abstract void doRemove(String key);
+
+    protected Object doLookupIn(String key, List<String> paths) {
+        return doGet(key);
+    }
+
+    protected void doMutateIn(String key, List<String> paths, Object value) {
+        doGet(key);
+    }
+
+    @Override
+    public Object get(String key) {
+        awaitResponse(false);
+        return doGet(key);
+    }
+
+    @Override
+    public void insert(String key, Object document) {
+        awaitResponse(true);
+        doInsert(key, document);
+    }
+
+    @Override
+    public void upsert(String key, Object document) {
+        awaitResponse(true);
+        doUpsert(key, document);
+    }
+
+    @Override
+    public void preload(String key, Object document) {
+        doUpsert(key, document);
+    }
+
+    @Override
+    public void replace(String key, Object document) {
+        awaitResponse(true);
+        doReplace(key, document);
+    }
+
+    @Override
+    public void remove(String key) {
+        awaitResponse(true);
+        doRemove(key);
+    }
+
+    @Override
+    public Object lookupIn(String key, List<String> paths) {
+        awaitResponse(false);
+        return doLookupIn(key, paths);
+    }
+
+    @Override
+    public void mutateIn(String key, List<String> paths, Object value) {
+        awaitResponse(true);
+        doMutateIn(key, paths, value);
+    }
+
+    @Override
+    public CompletableFuture<?> getAsync(String key) {
+        return respondAsync(false, () -> doGet(key));
+    }
+
+    @Override
+    public CompletableFuture<?> insertAsync(String key, Object document) {
+        return respondAsync(true, () -> {
+            doInsert(key, document);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<?> upsertAsync(String key, Object document) {
+        return respondAsync(true, () -> {
+            doUpsert(key, document);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<?> replaceAsync(String key, Object document) {
+        return respondAsync(true, () -> {
+            doReplace(key, document);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<?> removeAsync(String key) {
+        return respondAsync(true, () -> {
+            doRemove(key);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<?> lookupInAsync(String key, List<String> paths) {
+        return respondAsync(false, () -> doLookupIn(key, paths));
+    }
+
+    @Override
+    public CompletableFuture<?> mutateInAsync(String key, List<String> paths, Object value) {
+        return respondAsync(true, () -> {
+            doMutateIn(key, paths, value);
+            return null;
+        });
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    /**
+     * Blocks until an attempt of the operation succeeds, retrying failed attempts as the client would.
+     *
+     * @param mutation Whether the operation modifies a document, which makes its timeout ambiguous.
+     * @throws CouchbaseException If the operation failed or timed out.
+     */
+    private void awaitResponse(boolean mutation) {
+        if (!failures.isEnabled()) {
+            injectLatency();
+            return;
+        }
+        long deadline = System.nanoTime() + failures.timeoutNanos();
+        for (int attempt = 0; ; attempt++) {
+            FailureInjection.Failure failure = failures.nextFailure();
+            if (failure == FailureInjection.Failure.TIMEOUT) {
+                parkUntil(deadline);
+                throw timeout(mutation);
+            }
+            injectLatency();
+            if (System.nanoTime() > deadline) {
+                throw timeout(mutation);
+            }
+            if (failure == null) {
+                return;
+            }
+            if (failures.failFast()) {
+                throw new TemporaryFailureException(null);
+            }
+            long retryAt = System.nanoTime() + failures.backoffNanos(attempt);
+            if (retryAt >= deadline) {
+                parkUntil(deadline);
+                throw timeout(mutation);
+            }
+            parkUntil(retryAt);
+        }
+    }
+
+    /**
+     * Runs the operation once an attempt of it succeeds, without blocking the caller.
+     *
+     * @param mutation  Whether the operation modifies a document.
+     * @param operation Operation applied by the successful attempt.
+     * @return A future completing with the operation's result, or exceptionally if it failed or timed out.
+     */
+    private <T> CompletableFuture<T> respondAsync(boolean mutation, Supplier<T> operation) {
+        if (!failures.isEnabled()) {
+            return CompletableFuture.supplyAsync(operation, delayedExecutor(latency.nextDelayNanos()));
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attemptAsync(mutation, operation, System.nanoTime() + failures.timeoutNanos(), 0, result);
+        return result;
+    }
+
+    private <T> void attemptAsync(boolean mutation, Supplier<T> operation, long deadline, int attempt, CompletableFuture<T> result) {
+        long now = System.nanoTime();
+        FailureInjection.Failure failure = failures.nextFailure();
+        long delay = latency.nextDelayNanos();
+        if (failure == FailureInjection.Failure.TIMEOUT || now + delay > deadline) {
+            delayedExecutor(deadline - now).execute(() -> result.completeExceptionally(timeout(mutation)));
+        } else if (failure == null) {
+            delayedExecutor(delay).execute(() -> {
+                try {
+                    result.complete(operation.get());
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } else if (failures.failFast()) {
+            delayedExecutor(delay).execute(() -> result.completeExceptionally(new TemporaryFailureException(null)));
+        } else if (now + delay + failures.backoffNanos(attempt) >= deadline) {
+            delayedExecutor(deadline - now).execute(() -> result.completeExceptionally(timeout(mutation)));
+        } else {
+            delayedExecutor(delay + failures.backoffNanos(attempt))
+                    .execute(() -> attemptAsync(mutation, operation, deadline, attempt + 1, result));
+        }
+    }
+
+    private static CouchbaseException timeout(boolean mutation) {
+        // A mutation that timed out may or may not have been applied
+        return mutation
+                ? new AmbiguousTimeoutException("Operation timed out", null)
+                : new UnambiguousTimeoutException("Operation timed out", null);
+    }
+
+    private void injectLatency() {
+        long delay = latency.nextDelayNanos();
+        if (delay > 0) {
+            LockSupport.parkNanos(delay);
+        }
+    }
+
+    private static void parkUntil(long deadline) {
+        long remaining;
+        // An interrupted thread does not park, so it stops waiting at once
+        while ((remaining = deadline - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static Executor delayedExecutor(long delay) {
+        return delay > 0 ? CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS) : ForkJoinPool.commonPool();
+    }
+}
@@ -0,0 +1,232 @@
+package org.daniel.backend;
+
+import com.couchbase.client.core.error.DocumentExistsException;
+import com.couchbase.client.core.error.DocumentNotFoundException;
+import org.daniel.util.JsonUtils;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stand-in backend that stores encoded documents outside the Java heap.
+ * Documents are serialized to JSON bytes and copied into direct ByteBuffer slabs; each read copies them back
+ * out, so the cost of moving payload bytes is paid as it would be over a network. Memory is handed out in
+ * power-of-two chunks which are recycled through per-size free lists when documents are overwritten or removed.
+ * Every write goes to a fresh chunk that is published in the index once it is complete, and the replaced chunk is
+ * only recycled after it has been unpublished. Readers take no lock: they copy the published chunk and retry if the
+ * key was rewritten meanwhile, so concurrent reads of a hot key are not serialized and never see a partial document.
+ */
+public class OffHeapBackend extends LocalBackend {
+    private static final int MIN_CHUNK_SHIFT = 6;
+    private static final int MAX_SLAB_SHIFT = 26;
+
+    private final int slabShift;
+    private final long capacity;
+    private final ConcurrentHashMap<Integer, ByteBuffer> slabs = new ConcurrentHashMap<>();
+    private final AtomicLong allocationPointer = new AtomicLong();
+    private final Queue<Long>[] freeChunks;
+    private final ConcurrentHashMap<String, Slot> index = new ConcurrentHashMap<>();
+
+    /**
+     * Location of a stored document.
+     *
+     * @param address   Offset of the chunk across all slabs.
+     * @param length    Length of the encoded document.
+     * @param sizeShift Chunk size as a power of two.
+     */
+    private record Slot(long address, int length, int sizeShift) {
+    }
+
+    /**
+     * @param capacityBytes Maximum off-heap memory to use; slabs are allocated as they are needed.
+     * @param latency       Artificial latency added to every operation.
+     */
+    public OffHeapBackend(long capacityBytes, LatencyDistribution latency) {
+        this(capacityBytes, latency, FailureInjection.NONE);
+    }
+
+    /**
+     * @param capacityBytes Maximum off-heap memory to use; slabs are allocated as they are needed.
+     * @param latency       Artificial latency added to every operation.
+     * @param failures      Failures injected into the operations.
+     */
+    @SuppressWarnings("unchecked")
+    public OffHeapBackend(long capacityBytes, LatencyDistribution latency, FailureInjection failures) {
+        super(latency, failures);
+        this.slabShift = Math.min(MAX_SLAB_SHIFT, 64 - Long.numberOfLeadingZeros(Math.max(capacityBytes, 1 << MIN_CHUNK_SHIFT) - 1));
+        long slabSize = 1L << slabShift;
+        int slabCount = (int) ((capacityBytes + slabSize - 1) / slabSize);
+        this.capacity = slabCount * slabSize;
+        this.freeChunks = new Queue[slabShift + 1];
+        for (int i = 0; i < freeChunks.length; i++) {
+            freeChunks[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "off-heap";
+    }
+
+    @Override
+    protected Object doGet(String key) {
+        while (true) {
+            Slot slot = index.get(key);
+            if (slot == null) {
+                throw DocumentNotFoundException.forKey(key);
+            }
+            byte[] content = read(slot);
+            // The chunk is only recycled after it was unpublished, so the copy is whole if the slot is still current
+            VarHandle.loadLoadFence();
+            if (index.get(key) == slot) {
+                return content;
+            }
+        }
+    }
+
+    @Override
+    protected void doInsert(String key, Object document) {
+        ByteBuffer content = encode(document);
+        index.compute(key, (k, existing) -> {
+            if (existing != null) {
+                throw DocumentExistsException.forKey(key);
+            }
+            return write(content);
+        });
+    }
+
+    @Override
+    protected void doUpsert(String key, Object document) {
+        ByteBuffer content = encode(document);
+        Slot[] replaced = new Slot[1];
+        index.compute(key, (k, existing) -> {
+            replaced[0] = existing;
+            return write(content);
+        });
+        release(replaced[0]);
+    }
+
+    @Override
+    protected void doReplace(String key, Object document) {
+        ByteBuffer content = encode(document);
+        Slot[] replaced = new Slot[1];
+        index.compute(key, (k, existing) -> {
+            if (existing == null) {
+                throw DocumentNotFoundException.forKey(key);
+            }
+            replaced[0] = existing;
+            return write(content);
+        });
+        release(replaced[0]);
+    }
+
+    @Override
+    protected void doRemove(String key) {
+        Slot removed = index.remove(key);
+        if (removed == null) {
+            throw DocumentNotFoundException.forKey(key);
+        }
+        release(removed);
+    }
+
+    /**
+     * Drops all documents and makes all memory available again. Must not run concurrently with other operations.
+     */
+    @Override
+    public void clear() {
+        index.clear();
+        for (Queue<Long> free : freeChunks) {
+            free.clear();
+        }
+        allocationPointer.set(0);
+    }
+
+    @Override
+    public void close() {
+        clear();
+        slabs.clear();
+    }
+
+    /**
+     * Bytes of off-heap memory handed out so far, including memory on the free lists.
+     */
+    public long getAllocatedBytes() {
+        return allocationPointer.get();
+    }
+
+    /**
+     * Returns the encoded bytes of a document between the position and limit of a buffer.
+     * Slices of a packed corpus are used as they are, so they are copied straight into the slab.
+     */
+    private static ByteBuffer encode(Object document) {
+        return document instanceof ByteBuffer buffer ? buffer : ByteBuffer.wrap(JsonUtils.toBytes(document));
+    }
+
+    /**
+     * Copies a document into a fresh chunk, which readers cannot see until the returned slot is published.
+     */
+    private Slot write(ByteBuffer content) {
+        int length = content.remaining();
+        int sizeShift = sizeShift(length);
+        long address = allocate(sizeShift);
+        slab(address).put(offsetInSlab(address), content, content.position(), length);
+        return new Slot(address, length, sizeShift);
+    }
+
+    /**
+     * Recycles the chunk of a slot that is no longer published.
+     */
+    private void release(Slot slot) {
+        if (slot != null) {
+            freeChunks[slot.sizeShift()].add(slot.address());
+        }
+    }
+
+    private byte[] read(Slot slot) {
+        byte[] content = new byte[slot.length()];
+        slab(slot.address()).get(offsetInSlab(slot.address()), content);
+        return content;
+    }
+
+    private long allocate(int sizeShift) {
+        Long recycled = freeChunks[sizeShift].poll();
+        if (recycled != null) {
+            return recycled;
+        }
+        long chunkSize = 1L << sizeShift;
+        while (true) {
+            long current = allocationPointer.get();
+            // Chunks are aligned to their size, so a chunk never spans two slabs
+            long start = (current + chunkSize - 1) & -chunkSize;
+            if (start + chunkSize > capacity) {
+                throw new IllegalStateException("Off-heap store is full (" + capacity + " bytes)");
+            }
+            if (allocationPointer.compareAndSet(current, start + chunkSize)) {
+                return start;
+            }
+        }
+    }
+
+    private int sizeShift(int length) {
+        int shift = Math.max(MIN_CHUNK_SHIFT, 32 - Integer.numberOfLeadingZeros(Math.max(length, 1) - 1));
+        if (shift > slabShift) {
+            throw new IllegalArgumentException("Document of " + length + " bytes exceeds the off-heap slab size");
+        }
+        return shift;
+    }
+
+    private ByteBuffer slab(long address) {
+        int slabIndex = (int) (address >>> slabShift);
+        ByteBuffer slab = slabs.get(slabIndex);
+        // Allocated under the map's lock, so racing writers never allocate the same slab twice
+        return slab != null ? slab : slabs.computeIfAbsent(slabIndex, i -> ByteBuffer.allocateDirect(1 << slabShift));
+    }
+
+    private int offsetInSlab(long address) {
+        return (int) (address & ((1L << slabShift) - 1));
+    }
+}
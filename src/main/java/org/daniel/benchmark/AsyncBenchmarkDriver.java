@@ -0,0 +1,122 @@
+package org.daniel.benchmark;
+
+import org.daniel.backend.KeyValueBackend;
+import org.daniel.util.PayloadCorpus;
+import org.daniel.workload.Operation;
+import org.daniel.workload.OperationGenerator;
+import org.daniel.workload.OperationType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Drives the operations of a workload through the backend's async API.
+ * Keeps up to a fixed number of operations in flight; once the window is full the driver blocks
+ * until an operation completes, which provides backpressure. Latencies are recorded in the completion callbacks.
+ * Operations are issued in the generator's order but may complete out of order, except that a read of the key this
+ * driver mutated last is chained on the completion of that mutation, so the reads of a write-then-read cycle never overtake
+ * their write. A chained read holds its window slot while it waits, and its latency starts when it is issued.
+ */
+public class AsyncBenchmarkDriver implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncBenchmarkDriver.class);
+
+    private final KeyValueBackend backend;
+    private final OperationGenerator operationGenerator;
+    private final MeasurementWindow measurementWindow;
+    private final PayloadCorpus documents;
+    private final AtomicBoolean isRunning;
+    private final int maxInFlight;
+    private final int drainTimeoutSeconds;
+    private final Semaphore inFlight;
+    private String lastWriteKey;
+    private CompletableFuture<?> lastWrite;
+
+    public AsyncBenchmarkDriver(KeyValueBackend backend, OperationGenerator operationGenerator, MeasurementWindow measurementWindow, PayloadCorpus documents, AtomicBoolean isRunning, int maxInFlight, int drainTimeoutSeconds) {
+        this.backend = backend;
+        this.operationGenerator = operationGenerator;
+        this.measurementWindow = measurementWindow;
+        this.documents = documents;
+        this.isRunning = isRunning;
+        this.maxInFlight = maxInFlight;
+        this.drainTimeoutSeconds = drainTimeoutSeconds;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Issues operations until the isRunning flag is set to false, then waits up to the drain timeout for the
+     * operations still in flight.
+     */
+    @Override
+    public void run() {
+        try {
+            while (isRunning.get()) {
+                if (!inFlight.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                    continue;
+                }
+                performOperation(operationGenerator.next());
+            }
+            // Drain: wait until every operation issued by this driver has completed
+            if (!inFlight.tryAcquire(maxInFlight, drainTimeoutSeconds, TimeUnit.SECONDS)) {
+                logger.warn("Async driver stopped with {} operations still in flight", maxInFlight - inFlight.availablePermits());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Starts an asynchronous operation, or chains it on the write it reads; its completion records the metrics and
+     * frees the window slot.
+     *
+     * @param operation Operation to start.
+     */
+    private void performOperation(Operation operation) {
+        CompletableFuture<?> completion = operation.type() == OperationType.READ && operation.key().equals(lastWriteKey)
+                ? lastWrite.handle((result, error) -> null).thenCompose(ignored -> issue(operation))
+                : issue(operation);
+        if (operation.type().isMutation()) {
+            lastWriteKey = operation.key();
+            lastWrite = completion;
+        }
+    }
+
+    private CompletableFuture<?> issue(Operation operation) {
+        long startTime = System.nanoTime();
+        return start(backend, operation, documents, startTime).whenComplete((result, error) -> {
+            long endTime = System.nanoTime();
+            if (error == null) {
+                measurementWindow.recordSuccess(operation, startTime, endTime);
+            } else {
+                measurementWindow.recordFailure(operation.type(), error, startTime, endTime);
+                logger.debug("Async {} operation failed for document ID {}: {}", operation.type(), operation.key(), error.getMessage(), error);
+            }
+            operationGenerator.completed(operation, error == null);
+            inFlight.release();
+        });
+    }
+
+    /**
+     * Starts an operation through the backend's async API.
+     *
+     * @param backend       Backend to run the operation against.
+     * @param operation     Operation to start.
+     * @param documents     Documents written by full-document mutations; each key gets the document of its number.
+     * @param startTime     Start time of the operation, the value a sub-document mutation writes.
+     * @return A future completing when the operation does.
+     */
+    static CompletableFuture<?> start(KeyValueBackend backend, Operation operation, PayloadCorpus documents, long startTime) {
+        return switch (operation.type()) {
+            case READ -> backend.getAsync(operation.key());
+            case INSERT -> backend.insertAsync(operation.key(), documents.get(operation.keyNumber()));
+            case UPDATE -> backend.upsertAsync(operation.key(), documents.get(operation.keyNumber()));
+            case REPLACE -> backend.replaceAsync(operation.key(), documents.get(operation.keyNumber()));
+            case DELETE -> backend.removeAsync(operation.key());
+            case LOOKUP_IN -> backend.lookupInAsync(operation.key(), operation.paths());
+            case MUTATE_IN -> backend.mutateInAsync(operation.key(), operation.paths(), startTime);
+        };
+    }
+}
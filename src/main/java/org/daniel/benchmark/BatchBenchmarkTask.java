@@ -0,0 +1,141 @@
+package org.daniel.benchmark;
+
+import org.daniel.backend.KeyValueBackend;
+import org.daniel.util.PayloadCorpus;
+import org.daniel.workload.Operation;
+import org.daniel.workload.OperationGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Benchmark task whose logical operation is a batch of workload operations issued concurrently through the
+ * backend's async API, like a bulk ingestion or fan-out read.
+ * Every batch holds exactly batchSize operations of one kind: the workload's mutations and reads are collected
+ * apart, and a batch is issued as soon as batchSize of one kind are ready. A read of a key whose mutation is still
+ * being collected waits for that mutation's batch, so reads of keys written by the workload find their documents.
+ * Every item is recorded by its operation type measured from the start of its batch, and every batch is recorded
+ * measured until its last item completed. Operations still being collected when the run stops are not issued.
+ * A batch whose items have not all completed within the drain timeout, or whose wait is interrupted, stops the task
+ * without being recorded; its items are still recorded if they complete.
+ */
+public class BatchBenchmarkTask implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(BatchBenchmarkTask.class);
+
+    private final KeyValueBackend backend;
+    private final OperationGenerator operationGenerator;
+    private final MeasurementWindow measurementWindow;
+    private final PayloadCorpus documents;
+    private final AtomicBoolean isRunning;
+    private final int batchSize;
+    private final int drainTimeoutSeconds;
+
+    public BatchBenchmarkTask(KeyValueBackend backend, OperationGenerator operationGenerator, MeasurementWindow measurementWindow, PayloadCorpus documents, AtomicBoolean isRunning, int batchSize, int drainTimeoutSeconds) {
+        this.backend = backend;
+        this.operationGenerator = operationGenerator;
+        this.measurementWindow = measurementWindow;
+        this.documents = documents;
+        this.isRunning = isRunning;
+        this.batchSize = batchSize;
+        this.drainTimeoutSeconds = drainTimeoutSeconds;
+    }
+
+    /**
+     * Executes batches until the isRunning flag is set to false.
+     */
+    @Override
+    public void run() {
+        List<Operation> mutations = new ArrayList<>(batchSize);
+        Set<String> mutatedKeys = new HashSet<>();
+        List<Operation> reads = new ArrayList<>(batchSize);
+        // Reads of keys in the mutations being collected, issued once those mutations have been
+        List<Operation> waitingReads = new ArrayList<>();
+        while (isRunning.get()) {
+            Operation operation = operationGenerator.next();
+            if (operation.type().isMutation()) {
+                mutations.add(operation);
+                mutatedKeys.add(operation.key());
+                if (mutations.size() == batchSize) {
+                    if (!executeBatch(mutations)) {
+                        return;
+                    }
+                    mutations.clear();
+                    mutatedKeys.clear();
+                    for (Operation read : waitingReads) {
+                        if (!addRead(reads, read)) {
+                            return;
+                        }
+                    }
+                    waitingReads.clear();
+                }
+            } else if (mutatedKeys.contains(operation.key())) {
+                waitingReads.add(operation);
+            } else if (!addRead(reads, operation)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Adds a read to the batch being collected, issuing the batch once it is full.
+     *
+     * @return false if the task must stop.
+     */
+    private boolean addRead(List<Operation> reads, Operation read) {
+        reads.add(read);
+        if (reads.size() < batchSize) {
+            return true;
+        }
+        boolean completed = executeBatch(reads);
+        reads.clear();
+        return completed;
+    }
+
+    /**
+     * Issues all operations at once and waits until every one of them has completed.
+     *
+     * @param operations Operations of the batch, all mutations or all reads.
+     * @return false if the batch did not complete within the drain timeout or the wait was interrupted.
+     */
+    private boolean executeBatch(List<Operation> operations) {
+        long startTime = System.nanoTime();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[operations.size()];
+        for (int i = 0; i < futures.length; i++) {
+            Operation operation = operations.get(i);
+            futures[i] = AsyncBenchmarkDriver.start(backend, operation, documents, startTime).whenComplete((result, error) -> {
+                long endTime = System.nanoTime();
+                if (error == null) {
+                    measurementWindow.recordSuccess(operation, startTime, endTime);
+                } else {
+                    measurementWindow.recordFailure(operation.type(), error, startTime, endTime);
+                    logger.debug("Batched {} operation failed for document ID {}: {}", operation.type(), operation.key(), error.getMessage(), error);
+                }
+                operationGenerator.completed(operation, error == null);
+            });
+        }
+        try {
+            // Failed items are already counted as errors; the batch completes once every item has
+            CompletableFuture.allOf(futures).exceptionally(error -> null).get(drainTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Batch of {} operations did not complete within {} s; stopping its task", futures.length, drainTimeoutSeconds);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            // Not reached: failed items are mapped to a normal completion above
+            throw new IllegalStateException(e);
+        }
+        measurementWindow.recordBatch(startTime, System.nanoTime());
+        return true;
+    }
+}
@@ -0,0 +1,291 @@
+package org.daniel.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.daniel.backend.KeyValueBackend;
+import org.daniel.backend.KeyValueBackendFactory;
+import org.daniel.config.AppConfig;
+import org.daniel.couchbase.ClientSetting;
+import org.daniel.couchbase.ClientSettings;
+import org.daniel.metrics.MetricPrinter;
+import org.daniel.metrics.MetricsCollector;
+import org.daniel.results.BenchmarkResults;
+import org.daniel.results.LevelResult;
+import org.daniel.results.ResultsWriter;
+import org.daniel.util.PayloadEncoding;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the cartesian product of the benchmark dimensions listed in a scenario: client settings x workload preset x
+ * executor strategy x payload encoding x concurrency level (thread count, target rate, or thread count and batch size).
+ * Each combination is a cell, benchmarked as a complete invocation of single values over its own results directory.
+ * A finished cell writes a completion marker, and cells with a marker are skipped, so a matrix interrupted after hours
+ * resumes with the cells it had not finished. Cells can run in random order, so that slow drift of a shared cluster
+ * over the day spreads over all cells instead of biasing those that happen to run last.
+ * After the last cell, the results of all completed cells are combined into one result file, one level per cell.
+ */
+public class BenchmarkMatrix {
+    private static final Logger logger = LoggerFactory.getLogger(BenchmarkMatrix.class);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final String COMPLETION_MARKER = "cell.json";
+    private static final String COMBINED_RESULTS = "matrix-results.json";
+
+    private final AppConfig config;
+    private final Path directory;
+
+    /**
+     * One combination of the matrix dimensions.
+     *
+     * @param id             Identifies the cell across restarts; also the name of its results directory.
+     * @param clientSettings Client settings the cell connects with.
+     * @param overrides      Properties giving every dimension the cell's single value.
+     */
+    public record Cell(String id, ClientSettings clientSettings, Map<String, String> overrides) {
+    }
+
+    /**
+     * Completion marker of a cell.
+     *
+     * @param cell        ID of the cell.
+     * @param overrides   Properties the cell ran with.
+     * @param resultsFile Name of the cell's JSON result file within its directory.
+     * @param completedAt Time the cell completed, ISO-8601.
+     */
+    public record CellCompletion(String cell, Map<String, String> overrides, String resultsFile, String completedAt) {
+    }
+
+    /**
+     * @param config Configuration listing the values of each dimension, e.g. thread-count=1,20,50 and workload=read-heavy,balanced.
+     */
+    public BenchmarkMatrix(AppConfig config) {
+        this.config = config;
+        this.directory = config.getMatrixDirectory();
+    }
+
+    /**
+     * Returns every cell of the matrix in the order the values are listed, the client settings varying slowest
+     * and the concurrency level fastest.
+     */
+    public List<Cell> cells() {
+        List<Cell> cells = new ArrayList<>();
+        for (ClientSettings settings : config.getClientSettings()) {
+            for (String workload : config.getWorkloadPresets()) {
+                for (ExecutorStrategy strategy : config.getExecutorStrategies()) {
+                    for (PayloadEncoding encoding : config.getPayloadEncodings()) {
+                        for (Map<String, String> level : levels()) {
+                            cells.add(cell(settings, workload, strategy, encoding, level));
+                        }
+                    }
+                }
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Returns the cells that have not completed yet, in the order they will run.
+     *
+     * @param random Shuffles the cells, or null to keep the listed order.
+     */
+    public List<Cell> schedule(Random random) {
+        List<Cell> pending = new ArrayList<>(cells().stream().filter(cell -> !isCompleted(cell)).toList());
+        if (random != null) {
+            Collections.shuffle(pending, random);
+        }
+        return pending;
+    }
+
+    /**
+     * Whether a cell has completed in an earlier or the current invocation.
+     */
+    public boolean isCompleted(Cell cell) {
+        return Files.exists(directory.resolve(cell.id()).resolve(COMPLETION_MARKER));
+    }
+
+    /**
+     * Runs the cells that have not completed yet, then prints and writes the combined results of all completed cells.
+     * A failed cell is logged and left without a marker, so it runs again on the next invocation.
+     */
+    public void run() {
+        List<Cell> cells = cells();
+        Random random = null;
+        if (config.isMatrixRandomOrder()) {
+            long seed = config.getMatrixSeed() != null ? config.getMatrixSeed() : ThreadLocalRandom.current().nextLong();
+            logger.info("Running matrix cells in random order, seed {} (set matrix.seed to repeat it)", seed);
+            random = new Random(seed);
+        }
+        List<Cell> pending = schedule(random);
+        logger.info("Benchmark matrix of {} cells in {}: {} completed earlier, {} to run",
+                cells.size(), directory, cells.size() - pending.size(), pending.size());
+
+        Map<ClientSettings, KeyValueBackend> backends = new LinkedHashMap<>();
+        try {
+            for (int i = 0; i < pending.size(); i++) {
+                Cell cell = pending.get(i);
+                logger.info("=== Matrix cell {}/{}: {} ===", i + 1, pending.size(), cell.id());
+                try {
+                    runCell(cell, backends);
+                } catch (IOException | RuntimeException e) {
+                    logger.error("Matrix cell {} failed and will run again on the next start: {}", cell.id(), e.getMessage(), e);
+                }
+                if (i < pending.size() - 1 && !sleepBetweenCells()) {
+                    break;
+                }
+            }
+        } finally {
+            for (KeyValueBackend backend : backends.values()) {
+                backend.close();
+            }
+        }
+        writeCombinedResults(cells);
+    }
+
+    /**
+     * Benchmarks one cell and marks it completed if every level completed at least one run.
+     *
+     * @param cell     Cell to benchmark.
+     * @param backends Open backends by client settings, shared by the cells connecting with the same settings.
+     * @throws IOException If the payload corpus cannot be loaded or the marker cannot be written.
+     */
+    private void runCell(Cell cell, Map<ClientSettings, KeyValueBackend> backends) throws IOException {
+        AppConfig cellConfig = config.withOverrides(cell.overrides());
+        KeyValueBackend backend = backends.get(cell.clientSettings());
+        if (backend == null) {
+            backend = KeyValueBackendFactory.create(cellConfig.getProperties(), cell.clientSettings());
+            backends.put(cell.clientSettings(), backend);
+        }
+        BenchmarkRunner runner = new BenchmarkRunner(cellConfig, backend);
+        Map<String, List<MetricsCollector>> results = runner.runBenchmarks();
+        if (results.isEmpty() || results.values().stream().anyMatch(List::isEmpty)) {
+            logger.warn("Matrix cell {} completed no runs and will run again on the next start", cell.id());
+            return;
+        }
+        CellCompletion completion = new CellCompletion(cell.id(), cell.overrides(),
+                runner.getResultsFile().getFileName().toString(), OffsetDateTime.now().toString());
+        // Written next to the marker and moved in place, so an interrupted write never marks the cell completed
+        Path marker = directory.resolve(cell.id()).resolve(COMPLETION_MARKER);
+        Path partial = marker.resolveSibling(COMPLETION_MARKER + ".tmp");
+        Files.createDirectories(marker.getParent());
+        OBJECT_MAPPER.writeValue(partial.toFile(), completion);
+        Files.move(partial, marker, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Combines the results of every completed cell into one result file, one level labeled with the cell ID per cell.
+     * Cells are listed in matrix order, whatever order they ran in.
+     */
+    private void writeCombinedResults(List<Cell> cells) {
+        List<LevelResult> levels = new ArrayList<>();
+        BenchmarkResults first = null;
+        for (Cell cell : cells) {
+            if (!isCompleted(cell)) {
+                continue;
+            }
+            Path cellDirectory = directory.resolve(cell.id());
+            try {
+                CellCompletion completion = OBJECT_MAPPER.readValue(cellDirectory.resolve(COMPLETION_MARKER).toFile(), CellCompletion.class);
+                BenchmarkResults results = ResultsWriter.read(cellDirectory.resolve(completion.resultsFile()));
+                first = first != null ? first : results;
+                for (LevelResult level : results.levels()) {
+                    String label = results.levels().size() == 1 ? cell.id() : cell.id() + " " + level.label();
+                    levels.add(new LevelResult(label, level.concurrency(), level.targetOpsPerSecond(), level.runs(), level.clusterMetrics()));
+                }
+            } catch (IOException e) {
+                logger.error("Failed to read the results of matrix cell {}: {}", cell.id(), e.getMessage(), e);
+            }
+        }
+        if (first == null) {
+            logger.warn("No matrix cell has completed yet");
+            return;
+        }
+        MetricPrinter.printMatrixSummary(levels, cells.size());
+        Path file = directory.resolve(COMBINED_RESULTS);
+        try {
+            ResultsWriter.write(file, new BenchmarkResults(OffsetDateTime.now().toString(), first.backend(),
+                    first.executionMode(), ResultsWriter.exportedConfig(config.getProperties()), levels));
+            logger.info("Combined matrix results written to {}", file);
+        } catch (IOException e) {
+            logger.error("Failed to write the combined matrix results to {}: {}", file, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the properties of each concurrency level of the execution mode.
+     */
+    private List<Map<String, String>> levels() {
+        List<Map<String, String>> levels = new ArrayList<>();
+        ExecutionMode executionMode = config.getExecutionMode();
+        if (executionMode == ExecutionMode.OPEN_LOOP) {
+            for (int targetOpsPerSecond : config.getTargetOpsPerSecond()) {
+                levels.add(Map.of("target-ops-per-second", String.valueOf(targetOpsPerSecond)));
+            }
+        } else if (executionMode == ExecutionMode.BATCH) {
+            for (int batchSize : config.getBatchSizes()) {
+                for (int threadCount : config.getThreadCounts()) {
+                    levels.add(Map.of("thread-count", String.valueOf(threadCount), "batch-sizes", String.valueOf(batchSize)));
+                }
+            }
+        } else {
+            for (int threadCount : config.getThreadCounts()) {
+                levels.add(Map.of("thread-count", String.valueOf(threadCount)));
+            }
+        }
+        return levels;
+    }
+
+    private Cell cell(ClientSettings settings, String workload, ExecutorStrategy strategy, PayloadEncoding encoding,
+                      Map<String, String> level) {
+        Map<String, String> overrides = new LinkedHashMap<>();
+        for (ClientSetting setting : ClientSetting.values()) {
+            overrides.put(setting.getPropertyKey(), settings.get(setting) != null ? settings.get(setting) : "");
+        }
+        overrides.put("workload", workload);
+        overrides.put("executor-strategy", strategy.label());
+        overrides.put("payload-encoding", encoding.name().toLowerCase().replace('_', '-'));
+        overrides.putAll(level);
+        // A cell is one level; searching would replace its concurrency
+        overrides.put("concurrency-search", "false");
+
+        String levelTag = level.containsKey("target-ops-per-second")
+                ? level.get("target-ops-per-second") + "ops"
+                : "t" + level.get("thread-count") + (level.containsKey("batch-sizes") ? "x" + level.get("batch-sizes") : "");
+        String id = String.join("-", workload, strategy.label().replace(':', '-'),
+                encoding.name().toLowerCase().replace('_', '-'), levelTag);
+        if (!settings.values().isEmpty()) {
+            id += "-" + settings.label().replaceAll("[^A-Za-z0-9.=-]", "_");
+        }
+        overrides.put("results-directory", directory.resolve(id).toString());
+        return new Cell(id, settings, overrides);
+    }
+
+    /**
+     * Sleeps for the configured time between runs, which also separates the cells.
+     *
+     * @return False if interrupted, which stops the matrix.
+     */
+    private boolean sleepBetweenCells() {
+        try {
+            Thread.sleep(TimeUnit.SECONDS.toMillis(config.getSleepBetweenRunsSeconds()));
+            return true;
+        } catch (InterruptedException e) {
+            logger.error("Matrix interrupted: {}", e.getMessage(), e);
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,19 +1,38 @@
 package org.daniel.benchmark;
 
+import org.daniel.backend.KeyValueBackend;
+import org.daniel.backend.KeyValueBackendFactory;
+import org.daniel.backend.LocalBackend;
 import org.daniel.config.AppConfig;
+import org.daniel.couchbase.ClientSettings;
 import org.daniel.couchbase.CouchbaseClientManager;
+import org.daniel.distributed.DistributedCoordinator;
+import org.daniel.distributed.RunPlan;
+import org.daniel.metrics.ClusterMetricsSampler;
 import org.daniel.metrics.CouchbaseMetricsRetriever;
+import org.daniel.metrics.IntervalCsvWriter;
 import org.daniel.metrics.MetricPrinter;
 import org.daniel.metrics.MetricsCollector;
+import org.daniel.metrics.MetricsEndpoint;
+import org.daniel.profiling.JfrRecorder;
+import org.daniel.profiling.JfrSummary;
+import org.daniel.results.LevelResult;
+import org.daniel.results.ResultsWriter;
+import org.daniel.results.RunResult;
 import org.daniel.util.JsonUtils;
+import org.daniel.util.PayloadCorpus;
+import org.daniel.util.PayloadEncoding;
+import org.daniel.workload.KeyFormat;
+import org.daniel.workload.Workload;
+import org.daniel.workload.WorkloadDefinition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Responsible for orchestrating the benchmark runs.
@@ -22,60 +41,450 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class BenchmarkRunner {
     private static final Logger logger = LoggerFactory.getLogger(BenchmarkRunner.class);
 
-    private final CouchbaseClientManager couchbaseClientManager;
-    private final CouchbaseMetricsRetriever metricsRetriever;
+    // Backend of the client settings currently being benchmarked
+    private KeyValueBackend backend;
+    private CouchbaseMetricsRetriever metricsRetriever;
+    private final List<ClientSettings> clientSettings;
+    // Label prefix and file name part of the client settings currently being benchmarked, empty without a sweep
+    private String clientSettingsLabel = "";
+    private String clientSettingsFileTag = "";
     private final List<Integer> threadCounts;
-    private final boolean useVirtualThreads;
+    // Executor strategies every level runs with, and the one currently being benchmarked
+    private final List<ExecutorStrategy> executorStrategies;
+    private ExecutorStrategy executorStrategy;
+    private final ExecutionMode executionMode;
+    private final int asyncDrivers;
+    private final AppConfig config;
+    private final WorkloadDefinition workloadDefinition;
+    private final KeyFormat keyFormat;
+    private final WarmupPolicy warmupPolicy;
     private final int processDurationSeconds;
     private final int runsPerThreadCount;
     private final int sleepBetweenRunsSeconds;
     private final List<Path> jsonFilePaths;
+    // Packed corpus file used instead of the JSON files, if set
+    private final Path corpusFile;
+    private final List<PayloadEncoding> payloadEncodings;
+    private final List<Integer> batchSizes;
+    private final ConcurrencySearch concurrencySearch;
+    private final ResultsWriter resultsWriter;
+    // Executes the runs on remote workers instead of in this process, if set
+    private final DistributedCoordinator coordinator;
+    // Corpus of the payload encoding currently being benchmarked
+    private PayloadCorpus payloadCorpus;
+    // Batch size currently being benchmarked in batch mode
+    private int batchSize;
+    // The sub-document payload sizes only depend on the documents, so they are printed once
+    private boolean subdocumentPayloadPrinted;
+    // Serves the progress and live metrics of the sweep while it runs, if enabled
+    private MetricsEndpoint metricsEndpoint;
 
     /**
-     * Constructs a BenchmarkRunner with the specified configuration and Couchbase client manager.
+     * Constructs a BenchmarkRunner with the specified configuration and key-value backend.
+     * Cluster metrics are only retrieved when the backend is Couchbase.
      *
-     * @param config                 Application configuration.
-     * @param couchbaseClientManager Manages Couchbase connections.
+     * @param config  Application configuration.
+     * @param backend Backend the benchmark runs against.
      * @throws IOException If JSON files cannot be loaded.
      */
-    public BenchmarkRunner(AppConfig config, CouchbaseClientManager couchbaseClientManager) throws IOException {
-        this.couchbaseClientManager = couchbaseClientManager;
+    public BenchmarkRunner(AppConfig config, KeyValueBackend backend) throws IOException {
+        this(config, backend, null);
+    }
+
+    /**
+     * Constructs a BenchmarkRunner whose runs are executed by the workers of a distributed benchmark.
+     * The backend of this process is then only used for its name and to retrieve the cluster metrics.
+     *
+     * @param config      Application configuration.
+     * @param backend     Backend the benchmark runs against.
+     * @param coordinator Coordinator of the workers, or null to run in this process.
+     * @throws IOException If JSON files cannot be loaded.
+     */
+    public BenchmarkRunner(AppConfig config, KeyValueBackend backend, DistributedCoordinator coordinator) throws IOException {
+        this.config = config;
+        this.coordinator = coordinator;
+        useBackend(backend);
+        this.clientSettings = config.getClientSettings();
         this.threadCounts = config.getThreadCounts();
         this.processDurationSeconds = config.getProcessSeconds();
         this.runsPerThreadCount = config.getThreadPoolRuns();
-        this.useVirtualThreads = config.isUseVirtualThreads();
+        this.executionMode = config.getExecutionMode();
+        List<ExecutorStrategy> strategies = config.getExecutorStrategies();
+        if (executionMode == ExecutionMode.ASYNC && strategies.size() > 1) {
+            logger.warn("Async runs issue operations from their own driver pool; executor strategies are ignored");
+            strategies = strategies.subList(0, 1);
+        }
+        this.executorStrategies = strategies;
+        this.executorStrategy = strategies.get(0);
+        this.asyncDrivers = config.getAsyncDrivers();
+        this.workloadDefinition = config.getWorkloadDefinition();
+        this.keyFormat = config.getKeyFormat();
+        this.warmupPolicy = config.getWarmupPolicy();
         this.sleepBetweenRunsSeconds = config.getSleepBetweenRunsSeconds();
-        this.metricsRetriever = new CouchbaseMetricsRetriever(
-                couchbaseClientManager.getCluster(),
-                couchbaseClientManager.getCollection().bucketName()
-        );
-        this.jsonFilePaths = JsonUtils.loadJsonFilePaths("json-files");
+        this.corpusFile = config.getCorpusFile();
+        this.jsonFilePaths = corpusFile == null ? JsonUtils.loadJsonFilePaths("json-files") : List.of();
+        this.payloadEncodings = config.getPayloadEncodings();
+        this.batchSizes = config.getBatchSizes();
+        this.concurrencySearch = config.isConcurrencySearch() ? config.createConcurrencySearch() : null;
+        if (coordinator != null) {
+            // Every worker needs at least one unit of each level, so a level is never raised to fit the workers
+            int lowestConcurrency = concurrencySearch != null ? concurrencySearch.getStartConcurrency() : Collections.min(threadCounts);
+            if (lowestConcurrency < coordinator.getWorkerCount()) {
+                throw new IllegalArgumentException("Concurrency " + lowestConcurrency + " cannot be split between "
+                        + coordinator.getWorkerCount() + " workers");
+            }
+        }
+        this.resultsWriter = new ResultsWriter(Path.of(config.getResultsDirectory()), backend.getName(),
+                executionMode.name().toLowerCase(), config.getProperties());
     }
 
     /**
      * Executes the benchmark runs based on the configuration.
+     * Each configured payload encoding gets a full sweep; with more than one encoding their client cost is compared at the end.
+     * With several client settings combinations, the whole sweep is repeated over a new connection for each.
+     * With several executor strategies, each level runs with every strategy and the strategies are compared per level.
+     * Local backends take only the retry strategy and KV timeout from the settings, for their injected failures.
+     * If the metrics endpoint is enabled, it serves the progress and live metrics for as long as the sweep runs.
+     *
+     * @return The metrics of the completed runs of each level, keyed by client settings, encoding and concurrency.
      */
-    public void runBenchmarks() {
-        for (int currentThreadCount : threadCounts) {
-            logger.info("Starting benchmark with {} threads.", currentThreadCount);
-            List<MetricsCollector> runMetricsCollectors = new ArrayList<>();
-
-            // Loop to execute multiple benchmark runs
-            for (int run = 1; run <= runsPerThreadCount; run++) {
-                logger.info("Starting run {}/{}", run, runsPerThreadCount);
-                try {
-                    runSingleBenchmark(runMetricsCollectors, currentThreadCount);
-                } catch (Exception e) {
-                    logger.error("Error during benchmark run {}/{} with {} threads: {}", run, runsPerThreadCount, currentThreadCount, e.getMessage(), e);
+    public Map<String, List<MetricsCollector>> runBenchmarks() {
+        logger.info("Using backend '{}' and workload: {}", backend.getName(), workloadDefinition);
+        if (coordinator != null) {
+            logger.info("Load is generated by {} workers; concurrency levels and target rates are split between them",
+                    coordinator.getWorkerCount());
+        }
+        metricsEndpoint = startMetricsEndpoint();
+        Map<String, List<MetricsCollector>> encodingResults = new LinkedHashMap<>();
+        try {
+            if (clientSettings.size() == 1 || coordinator != null) {
+                if (clientSettings.size() > 1) {
+                    logger.warn("Client settings are only swept for in-process runs; using {}", clientSettings.get(0).label());
                 }
+                runEncodings(encodingResults);
+            } else {
+                runClientSettingsSweep(encodingResults);
+            }
+
+            if (payloadEncodings.size() > 1 || !clientSettingsLabel.isEmpty() || executorStrategies.size() > 1) {
+                MetricPrinter.printClientCostComparison(encodingResults);
+            }
+        } finally {
+            if (metricsEndpoint != null) {
+                metricsEndpoint.close();
+                metricsEndpoint = null;
+            }
+        }
+        return encodingResults;
+    }
+
+    /**
+     * JSON file the results of the benchmark are written to.
+     */
+    public Path getResultsFile() {
+        return resultsWriter.getJsonFile();
+    }
+
+    /**
+     * Starts the metrics endpoint if it is enabled. A port that cannot be bound does not stop the benchmark.
+     *
+     * @return The endpoint, or null if it is disabled or failed to start.
+     */
+    private MetricsEndpoint startMetricsEndpoint() {
+        if (!config.isMetricsEndpointEnabled()) {
+            return null;
+        }
+        try {
+            MetricsEndpoint endpoint = MetricsEndpoint.start(config.getMetricsEndpointPort());
+            logger.info("Serving live metrics at http://localhost:{}/metrics", endpoint.getPort());
+            return endpoint;
+        } catch (IOException e) {
+            logger.error("Failed to start the metrics endpoint on port {}: {}", config.getMetricsEndpointPort(), e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Runs the full sweep once for every client settings combination, each over its own connection.
+     * The connection the runner was created with uses the first combination and is left to its owner to close.
+     *
+     * @param results Receives the run metrics of each level, keyed by client settings, encoding and concurrency.
+     */
+    private void runClientSettingsSweep(Map<String, List<MetricsCollector>> results) {
+        KeyValueBackend initialBackend = backend;
+        for (int i = 0; i < clientSettings.size(); i++) {
+            ClientSettings settings = clientSettings.get(i);
+            logger.info("Benchmarking client settings {}/{}: {}", i + 1, clientSettings.size(), settings.label());
+            clientSettingsLabel = "[" + settings.label() + "] ";
+            clientSettingsFileTag = "-client" + (i + 1);
+            if (i == 0) {
+                runEncodings(results);
+                continue;
+            }
+            try (KeyValueBackend settingsBackend = KeyValueBackendFactory.create(config.getProperties(), settings)) {
+                useBackend(settingsBackend);
+                runEncodings(results);
+            } catch (RuntimeException e) {
+                logger.error("Failed to benchmark client settings {}: {}", settings.label(), e.getMessage(), e);
+            } finally {
+                useBackend(initialBackend);
+            }
+        }
+    }
+
+    /**
+     * Selects the backend the following runs are executed against, and retrieves cluster metrics from it if it is Couchbase.
+     */
+    private void useBackend(KeyValueBackend backend) {
+        this.backend = backend;
+        if (backend instanceof CouchbaseClientManager couchbaseClientManager) {
+            this.metricsRetriever = new CouchbaseMetricsRetriever(
+                    couchbaseClientManager.getCluster(),
+                    couchbaseClientManager.getCollection().bucketName()
+            );
+        } else {
+            this.metricsRetriever = null;
+        }
+    }
+
+    /**
+     * Runs the full sweep with every configured payload encoding.
+     *
+     * @param encodingResults Receives the run metrics of each level.
+     */
+    private void runEncodings(Map<String, List<MetricsCollector>> encodingResults) {
+        for (PayloadEncoding encoding : payloadEncodings) {
+            try {
+                payloadCorpus = loadCorpus(encoding);
+            } catch (IOException e) {
+                logger.error("Failed to load the payload corpus for encoding {}: {}", encoding, e.getMessage(), e);
+                continue;
+            }
+            logger.info("Using payload encoding {} ({} documents)", encoding, payloadCorpus.size());
+            if (workloadDefinition.hasSubdocumentOperations() && !subdocumentPayloadPrinted) {
+                MetricPrinter.printSubdocumentPayloadSizes(payloadCorpus, workloadDefinition.lookupInPaths(), workloadDefinition.mutateInPaths());
+                subdocumentPayloadPrinted = true;
+            }
+            runSweep(encodingResults);
+        }
+    }
+
+    /**
+     * Loads the JSON files in the given encoding, or maps the packed corpus file if one is configured.
+     *
+     * @throws IOException If the corpus cannot be loaded, or a packed corpus is combined with an encoding other than raw.
+     */
+    private PayloadCorpus loadCorpus(PayloadEncoding encoding) throws IOException {
+        if (corpusFile == null) {
+            return PayloadCorpus.load(jsonFilePaths, encoding);
+        }
+        if (encoding != PayloadEncoding.RAW) {
+            throw new IOException("A packed corpus holds raw JSON and cannot be benchmarked with payload encoding " + encoding);
+        }
+        return PayloadCorpus.open(corpusFile);
+    }
 
-                if (run < runsPerThreadCount) {
-                    sleepBetweenRuns();
+    /**
+     * Runs all concurrency levels with the current payload corpus.
+     * Closed-loop modes sweep the configured thread counts; the open-loop mode sweeps the target rates.
+     * Batch mode sweeps every thread count for each batch size.
+     * Every level runs once with each executor strategy.
+     *
+     * @param results Receives the run metrics of each concurrency level, keyed by encoding and concurrency.
+     */
+    private void runSweep(Map<String, List<MetricsCollector>> results) {
+        String encoding = clientSettingsLabel + payloadCorpus.getEncoding().name().toLowerCase();
+        if (executionMode == ExecutionMode.OPEN_LOOP) {
+            int workers = config.getOpenLoopWorkers();
+            for (int targetOpsPerSecond : config.getTargetOpsPerSecond()) {
+                Map<String, List<MetricsCollector>> strategyResults = new LinkedHashMap<>();
+                for (ExecutorStrategy strategy : executorStrategies) {
+                    executorStrategy = strategy;
+                    logger.info("Starting open-loop benchmark at {} ops/s with {} workers ({}).",
+                            targetOpsPerSecond, workers, strategy.label());
+                    String label = encoding + strategyTag() + " @ " + targetOpsPerSecond + " ops/s";
+                    List<MetricsCollector> runs = runAllRuns(label, workers, targetOpsPerSecond);
+                    results.put(label, runs);
+                    strategyResults.put(strategy.label(), runs);
                 }
+                printStrategyComparison(targetOpsPerSecond + " ops/s", strategyResults);
+            }
+            return;
+        }
+
+        if (executionMode == ExecutionMode.BATCH) {
+            for (int currentBatchSize : batchSizes) {
+                batchSize = currentBatchSize;
+                runClosedLoopSweep(results, encoding + " batch " + batchSize);
+            }
+            return;
+        }
+        runClosedLoopSweep(results, encoding);
+    }
+
+    /**
+     * Runs the configured thread counts, or searches for the optimal concurrency if concurrency-search is enabled.
+     *
+     * @param results Receives the run metrics of each concurrency level.
+     * @param label   Prefix of the result keys.
+     */
+    private void runClosedLoopSweep(Map<String, List<MetricsCollector>> results, String label) {
+        if (concurrencySearch != null) {
+            for (ExecutorStrategy strategy : executorStrategies) {
+                executorStrategy = strategy;
+                searchConcurrency(results, label + strategyTag());
+            }
+            return;
+        }
+        for (int currentThreadCount : threadCounts) {
+            Map<String, List<MetricsCollector>> strategyResults = new LinkedHashMap<>();
+            for (ExecutorStrategy strategy : executorStrategies) {
+                executorStrategy = strategy;
+                logStart(currentThreadCount);
+                String levelLabel = label + strategyTag() + " @ " + currentThreadCount;
+                List<MetricsCollector> runs = runAllRuns(levelLabel, currentThreadCount, 0);
+                results.put(levelLabel, runs);
+                strategyResults.put(strategy.label(), runs);
+            }
+            printStrategyComparison(currentThreadCount + " threads", strategyResults);
+        }
+    }
+
+    /**
+     * Label part of the executor strategy currently being benchmarked: the strategy if several are compared, and the
+     * carrier parallelism if it runs on virtual threads, e.g. " [virtual, 8 carriers]". Empty for a single strategy
+     * on platform threads and in async mode.
+     */
+    private String strategyTag() {
+        List<String> parts = new ArrayList<>();
+        if (executorStrategies.size() > 1) {
+            parts.add(executorStrategy.label());
+        }
+        // Async mode drives operations from its own pool of platform threads
+        if (executorStrategy.usesVirtualThreads() && executionMode != ExecutionMode.ASYNC) {
+            parts.add(ExecutorStrategy.carrierParallelism() + " carriers");
+        }
+        return parts.isEmpty() ? "" : " [" + String.join(", ", parts) + "]";
+    }
+
+    /**
+     * Prints the executor strategies of a level side by side, if several were compared.
+     */
+    private void printStrategyComparison(String level, Map<String, List<MetricsCollector>> strategyResults) {
+        if (strategyResults.size() > 1) {
+            MetricPrinter.printExecutorStrategyComparison(level, strategyResults);
+        }
+    }
+
+    /**
+     * Probes increasing concurrency levels with one short run each until throughput saturates,
+     * then prints the optimal concurrency and the full results at that level.
+     *
+     * @param results Receives the run metrics at the optimal concurrency.
+     * @param label   Prefix of the result keys.
+     */
+    private void searchConcurrency(Map<String, List<MetricsCollector>> results, String label) {
+        int probeSeconds = config.getSearchProbeSeconds();
+        logger.info("Searching for the optimal concurrency with {} s probes.", probeSeconds);
+        long searchStart = System.nanoTime();
+        ConcurrencySearch.Result result = concurrencySearch.search(concurrency -> {
+            logStart(concurrency);
+            if (metricsEndpoint != null) {
+                metricsEndpoint.levelStarted(label + " @ " + concurrency + " (probe)", concurrency, 1);
+            }
+            List<MetricsCollector> probe = new ArrayList<>();
+            runSingleBenchmark(probe, concurrency, 0, probeSeconds);
+            saveLevel(label + " @ " + concurrency, concurrency, 0, probe, Map.of());
+            return probe.get(0);
+        });
+
+        logger.info("=== Concurrency Search Results ({} probes in {} s) ===",
+                result.probes().size(), TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - searchStart));
+        for (ConcurrencySearch.ProbeResult probe : result.probes().stream()
+                .sorted(Comparator.comparingInt(ConcurrencySearch.ProbeResult::concurrency)).toList()) {
+            if (probe.failed()) {
+                logger.info("Concurrency {}: failed", probe.concurrency());
+            } else {
+                logger.info("Concurrency {}: {} ops/s, p99 {} ns", probe.concurrency(),
+                        String.format("%.1f", probe.throughput()), probe.p99LatencyNanos());
+            }
+        }
+        ConcurrencySearch.ProbeResult optimal = result.optimal();
+        if (optimal == null) {
+            logger.warn("Even the lowest probed concurrency failed or exceeded the p99 latency budget.");
+            return;
+        }
+        logger.info("Optimal Concurrency: {} ({} ops/s), Max Sustainable Throughput (ops/s): {}",
+                optimal.concurrency(), String.format("%.1f", optimal.throughput()),
+                String.format("%.1f", result.maxSustainableThroughput()));
+        MetricPrinter.printBenchmarkResults(optimal.concurrency(), optimal.metrics());
+        results.put(label + " @ " + optimal.concurrency() + " (optimal)", List.of(optimal.metrics()));
+    }
+
+    private void logStart(int concurrency) {
+        if (executionMode == ExecutionMode.ASYNC) {
+            logger.info("Starting async benchmark with {} operations in flight across {} drivers.", concurrency, asyncDrivers);
+        } else if (executionMode == ExecutionMode.BATCH) {
+            logger.info("Starting batch benchmark with {} threads ({}) and batch size {}.", concurrency, executorStrategy.label(), batchSize);
+        } else {
+            logger.info("Starting benchmark with {} threads ({}).", concurrency, executorStrategy.label());
+        }
+    }
+
+    /**
+     * Executes all runs for one concurrency level, prints their results and adds them to the result files.
+     *
+     * @param label              Label of the level in the result files.
+     * @param threadCount        Thread count, in-flight window or open-loop worker count.
+     * @param targetOpsPerSecond Target arrival rate for open-loop runs, ignored otherwise.
+     * @return The metrics of each completed run.
+     */
+    private List<MetricsCollector> runAllRuns(String label, int threadCount, int targetOpsPerSecond) {
+        List<MetricsCollector> runMetricsCollectors = new ArrayList<>();
+        if (metricsEndpoint != null) {
+            metricsEndpoint.levelStarted(label, threadCount, runsPerThreadCount);
+        }
+
+        // Loop to execute multiple benchmark runs
+        for (int run = 1; run <= runsPerThreadCount; run++) {
+            logger.info("Starting run {}/{}", run, runsPerThreadCount);
+            try {
+                runSingleBenchmark(runMetricsCollectors, threadCount, targetOpsPerSecond, processDurationSeconds);
+            } catch (Exception e) {
+                logger.error("Error during benchmark run {}/{} with {} threads: {}", run, runsPerThreadCount, threadCount, e.getMessage(), e);
             }
 
-            // Print the results after all runs are completed
-            printBenchmarkResults(runMetricsCollectors, currentThreadCount);
+            if (run < runsPerThreadCount) {
+                sleepBetweenRuns();
+            }
+        }
+
+        // Print the results after all runs are completed
+        printBenchmarkResults(runMetricsCollectors, threadCount);
+        Map<String, Double> clusterMetrics = retrieveClusterMetrics(threadCount);
+        saveLevel(label, threadCount, targetOpsPerSecond, runMetricsCollectors, clusterMetrics);
+        return runMetricsCollectors;
+    }
+
+    /**
+     * Adds the runs of a level to the result files.
+     *
+     * @param label                Label of the level.
+     * @param threadCount          Thread count, in-flight window or open-loop worker count.
+     * @param targetOpsPerSecond   Target arrival rate for open-loop runs, 0 otherwise.
+     * @param runMetricsCollectors Metrics of each run.
+     * @param clusterMetrics       Cluster metrics retrieved after the runs.
+     */
+    private void saveLevel(String label, int threadCount, int targetOpsPerSecond, List<MetricsCollector> runMetricsCollectors, Map<String, Double> clusterMetrics) {
+        List<RunResult> runs = new ArrayList<>();
+        for (int run = 1; run <= runMetricsCollectors.size(); run++) {
+            runs.add(RunResult.of(run, runMetricsCollectors.get(run - 1)));
+        }
+        try {
+            resultsWriter.addLevel(new LevelResult(label, threadCount, targetOpsPerSecond, runs, clusterMetrics));
+            logger.info("Results written to {}", resultsWriter.getJsonFile());
+        } catch (IOException e) {
+            logger.error("Failed to write results to {}: {}", resultsWriter.getJsonFile(), e.getMessage(), e);
         }
     }
 
@@ -84,23 +493,182 @@ public class BenchmarkRunner {
      *
      * @param runMetricsCollectors List to collect metrics from each run.
      * @param threadCountCurrent   Current thread count for the benchmark.
+     * @param targetOpsPerSecond   Target arrival rate for open-loop runs, ignored otherwise.
+     * @param durationSeconds      Duration of the run in seconds.
+     */
+    private void runSingleBenchmark(List<MetricsCollector> runMetricsCollectors, int threadCountCurrent, int targetOpsPerSecond, int durationSeconds) {
+        // Poll the server-side metrics of every node alongside the load
+        ClusterMetricsSampler clusterSampler = metricsRetriever != null ? metricsRetriever.createSampler(config.getClusterSampleMillis()) : null;
+        if (clusterSampler != null) {
+            clusterSampler.start();
+        }
+        MetricsCollector metricsCollector;
+        try {
+            if (coordinator != null) {
+                if (metricsEndpoint != null) {
+                    // The workers record the metrics, so only the progress is published
+                    metricsEndpoint.runStarted(runMetricsCollectors.size() + 1, null);
+                }
+                RunPlan plan = new RunPlan(payloadCorpus.getEncoding().name(), threadCountCurrent, targetOpsPerSecond, batchSize,
+                        durationSeconds, executorStrategy.label());
+                metricsCollector = coordinator.run(plan, config.getIntervalMillis());
+            } else {
+                metricsCollector = new MetricsCollector(config.getIntervalMillis());
+                if (metricsEndpoint != null) {
+                    metricsEndpoint.runStarted(runMetricsCollectors.size() + 1, metricsCollector);
+                }
+                CouchbaseBenchmarkExecutor benchmarkExecutor = new CouchbaseBenchmarkExecutor(
+                        backend,
+                        payloadCorpus,
+                        metricsCollector,
+                        new Workload(workloadDefinition, keyFormat),
+                        warmupPolicy
+                );
+                benchmarkExecutor.setDrainTimeoutSeconds(config.getDrainTimeoutSeconds());
+                JfrRecorder jfrRecorder = null;
+                if (config.isJfrEnabled()) {
+                    jfrRecorder = config.createJfrRecorder(runFileName(threadCountCurrent, runMetricsCollectors.size() + 1));
+                    benchmarkExecutor.setMeasurementListener(jfrRecorder);
+                }
+                execute(benchmarkExecutor, threadCountCurrent, targetOpsPerSecond, durationSeconds);
+                if (jfrRecorder != null) {
+                    writeJfrRecording(jfrRecorder);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lost the connection to a worker", e);
+        } finally {
+            if (metricsEndpoint != null) {
+                metricsEndpoint.runFinished();
+            }
+            if (clusterSampler != null) {
+                clusterSampler.stop();
+            }
+        }
+        if (clusterSampler != null) {
+            metricsCollector.setClusterSamples(clusterSampler.getSamples());
+        }
+
+        // Collect metrics from this run
+        runMetricsCollectors.add(metricsCollector);
+    }
+
+    /**
+     * Writes the JFR recording of a run and prints its summary.
+     */
+    private void writeJfrRecording(JfrRecorder jfrRecorder) {
+        try {
+            JfrSummary summary = jfrRecorder.finish();
+            if (summary != null) {
+                logger.info("JFR recording written to {}, summary to {}", jfrRecorder.getRecordingFile(), jfrRecorder.getSummaryFile());
+                MetricPrinter.printJfrSummary(summary);
+            }
+        } catch (IOException e) {
+            logger.error("Failed to write the JFR recording to {}: {}", jfrRecorder.getRecordingFile(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Executes one run of a distributed benchmark as one of its workers.
+     * Only worker 0 clears and pre-loads a shared store; the in-process backends are not shared, so there every
+     * worker prepares its own. The coordinator retrieves the cluster metrics.
+     *
+     * @param plan        This worker's share of the run.
+     * @param workerIndex Index of this worker, starting at 0.
+     * @param workerCount Number of workers.
+     * @param startGate   Gate the run waits at until the coordinator starts all workers.
+     * @return The metrics of this worker's run.
+     * @throws IOException If the payload corpus cannot be loaded.
      */
-    private void runSingleBenchmark(List<MetricsCollector> runMetricsCollectors, int threadCountCurrent) throws IOException {
-        MetricsCollector metricsCollector = new MetricsCollector();
-        AtomicInteger documentIdCounter = new AtomicInteger();
+    public MetricsCollector runWorkerRun(RunPlan plan, int workerIndex, int workerCount, StartGate startGate) throws IOException {
+        PayloadEncoding encoding = PayloadEncoding.valueOf(plan.payloadEncoding());
+        if (payloadCorpus == null || payloadCorpus.getEncoding() != encoding) {
+            payloadCorpus = loadCorpus(encoding);
+        }
+        batchSize = plan.batchSize();
+        executorStrategy = ExecutorStrategy.parse(plan.executorStrategy());
 
+        MetricsCollector metricsCollector = new MetricsCollector(config.getIntervalMillis());
         CouchbaseBenchmarkExecutor benchmarkExecutor = new CouchbaseBenchmarkExecutor(
-                couchbaseClientManager,
-                jsonFilePaths,
+                backend,
+                payloadCorpus,
                 metricsCollector,
-                documentIdCounter
+                new Workload(workloadDefinition, keyFormat, workerIndex, workerCount),
+                warmupPolicy
         );
+        benchmarkExecutor.setStartGate(startGate, workerIndex == 0 || backend instanceof LocalBackend);
+        benchmarkExecutor.setDrainTimeoutSeconds(config.getDrainTimeoutSeconds());
+        execute(benchmarkExecutor, plan.concurrency(), plan.targetOpsPerSecond(), plan.durationSeconds());
+        return metricsCollector;
+    }
 
-        // Run the benchmark with the specified thread count and duration
-        benchmarkExecutor.runBenchmarkWithThreadCount(threadCountCurrent, processDurationSeconds, useVirtualThreads);
+    /**
+     * Runs the benchmark in the configured execution mode with the specified concurrency and duration.
+     */
+    private void execute(CouchbaseBenchmarkExecutor benchmarkExecutor, int threadCount, int targetOpsPerSecond, int durationSeconds) {
+        if (executionMode == ExecutionMode.ASYNC) {
+            benchmarkExecutor.runAsyncBenchmark(threadCount, durationSeconds, asyncDrivers);
+        } else if (executionMode == ExecutionMode.BATCH) {
+            benchmarkExecutor.runBatchBenchmark(threadCount, batchSize, durationSeconds, executorStrategy);
+        } else if (executionMode == ExecutionMode.OPEN_LOOP) {
+            benchmarkExecutor.runOpenLoopBenchmark(threadCount, durationSeconds, createRateSchedule(targetOpsPerSecond), executorStrategy);
+        } else {
+            benchmarkExecutor.runBenchmarkWithThreadCount(threadCount, durationSeconds, executorStrategy);
+        }
+    }
 
-        // Collect metrics from this run
-        runMetricsCollectors.add(metricsCollector);
+    /**
+     * Creates the arrival-rate schedule of an open-loop run from the configured schedule type.
+     *
+     * @param targetOpsPerSecond Rate the schedule holds or ends at.
+     * @return The rate schedule.
+     */
+    private RateSchedule createRateSchedule(int targetOpsPerSecond) {
+        return switch (config.getRateSchedule()) {
+            case "ramp" -> RateSchedule.ramp(config.getRateRampStartOpsPerSecond(), targetOpsPerSecond, processDurationSeconds);
+            case "step" -> RateSchedule.step(config.getRateRampStartOpsPerSecond(), targetOpsPerSecond, config.getRateSteps(), processDurationSeconds);
+            case "constant" -> RateSchedule.constant(targetOpsPerSecond);
+            default -> throw new IllegalArgumentException("Unknown rate-schedule: " + config.getRateSchedule());
+        };
+    }
+
+    /**
+     * Returns the common start of the names of a run's output files.
+     *
+     * @param threadCountCurrent Current thread count for the benchmark.
+     * @param run                Run number, starting at 1.
+     */
+    private String runFileName(int threadCountCurrent, int run) {
+        String concurrency = executionMode == ExecutionMode.BATCH
+                ? threadCountCurrent + "x" + batchSize
+                : String.valueOf(threadCountCurrent);
+        String strategy = executorStrategies.size() > 1 ? "-" + executorStrategy.label().replace(':', '-') : "";
+        return String.format("%s%s-%s-%s%s-%s-run%d",
+                backend.getName(), clientSettingsFileTag, executionMode.name().toLowerCase(),
+                payloadCorpus.getEncoding().name().toLowerCase(), strategy, concurrency, run);
+    }
+
+    /**
+     * Writes the interval time series of a run to a CSV file in the results directory.
+     *
+     * @param metricsCollector   Metrics collected during the run.
+     * @param threadCountCurrent Current thread count for the benchmark.
+     * @param run                Run number, starting at 1.
+     */
+    private void exportIntervals(MetricsCollector metricsCollector, int threadCountCurrent, int run) {
+        String fileName = runFileName(threadCountCurrent, run) + "-intervals.csv";
+        Path file = Path.of(config.getResultsDirectory(), fileName);
+        try {
+            IntervalCsvWriter.write(file, metricsCollector.getIntervals());
+            logger.info("Interval metrics written to {}", file);
+            if (!metricsCollector.getClusterSamples().isEmpty()) {
+                Path clusterFile = Path.of(config.getResultsDirectory(), fileName.replace("-intervals.csv", "-cluster.csv"));
+                IntervalCsvWriter.writeClusterSamples(clusterFile, metricsCollector.getClusterSamples(), metricsCollector.getRunStartEpochMillis());
+                logger.info("Cluster metrics written to {}", clusterFile);
+            }
+        } catch (IOException e) {
+            logger.error("Failed to write interval metrics to {}: {}", file, e.getMessage(), e);
+        }
     }
 
     /**
@@ -124,17 +692,31 @@ public class BenchmarkRunner {
      */
     private void printBenchmarkResults(List<MetricsCollector> runMetricsCollectors, int threadCountCurrent) {
         // Print benchmark results for each run
-        for (int run = 1; run <= runsPerThreadCount; run++) {
-            logger.info("=== Results for Run {}/{} ===", run, runsPerThreadCount);
+        // A failed run is not collected, so iterate over the runs that completed
+        for (int run = 1; run <= runMetricsCollectors.size(); run++) {
+            logger.info("=== Results for Run {}/{} ===", run, runMetricsCollectors.size());
             MetricsCollector metricsCollector = runMetricsCollectors.get(run - 1);
             MetricPrinter.printBenchmarkResults(threadCountCurrent, metricsCollector);
+            MetricPrinter.printIntervals(metricsCollector);
+            exportIntervals(metricsCollector, threadCountCurrent, run);
         }
 
         // Print the average metrics over all runs
         MetricPrinter.printAverageBenchmarkResults(threadCountCurrent, runMetricsCollectors);
+    }
 
-        // Retrieve and print Couchbase metrics
+    /**
+     * Retrieves and prints the Couchbase cluster metrics.
+     *
+     * @param threadCountCurrent Current thread count for the benchmark.
+     * @return The cluster metrics, or an empty map for local backends.
+     */
+    private Map<String, Double> retrieveClusterMetrics(int threadCountCurrent) {
+        if (metricsRetriever == null) {
+            return Map.of();
+        }
         Map<String, Double> couchbaseMetrics = metricsRetriever.retrieveMetrics();
         MetricPrinter.printCouchbaseMetrics(threadCountCurrent, couchbaseMetrics);
+        return couchbaseMetrics;
     }
 }
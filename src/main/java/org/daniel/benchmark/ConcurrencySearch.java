@@ -0,0 +1,198 @@
+package org.daniel.benchmark;
+
+import org.daniel.metrics.HistogramSnapshot;
+import org.daniel.metrics.MetricsCollector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches for the concurrency at which throughput saturates, instead of running a fixed grid of thread counts.
+ * Concurrency grows geometrically until the throughput gained per added worker falls below a fraction of the
+ * per-worker throughput before the step, or the p99 latency exceeds the budget. The search then bisects between
+ * the last good and the first saturated concurrency until the interval is narrower than the resolution.
+ * A probe that fails is recorded as failed and counts as saturated, so the search continues below it.
+ */
+public class ConcurrencySearch {
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencySearch.class);
+
+    /**
+     * Runs the benchmark at one concurrency level.
+     */
+    @FunctionalInterface
+    public interface Probe {
+        MetricsCollector run(int concurrency);
+    }
+
+    /**
+     * Metrics of one probed concurrency level.
+     *
+     * @param concurrency Probed concurrency.
+     * @param metrics     Metrics of the probe, or null if it failed.
+     */
+    public record ProbeResult(int concurrency, MetricsCollector metrics) {
+
+        public boolean failed() {
+            return metrics == null;
+        }
+
+        /**
+         * Throughput of the probe, 0 if it failed.
+         */
+        public double throughput() {
+            return failed() ? 0 : metrics.getOperationsPerSecond();
+        }
+
+        /**
+         * 99th percentile latency over reads and writes together, in nanoseconds, or -1 if the probe failed.
+         */
+        public long p99LatencyNanos() {
+            if (failed()) {
+                return -1;
+            }
+            return HistogramSnapshot.merge(List.of(metrics.getWriteLatencySnapshot(), metrics.getReadLatencySnapshot()))
+                    .getValueAtPercentile(99);
+        }
+    }
+
+    /**
+     * Outcome of a search.
+     *
+     * @param optimal                  The highest concurrency before saturation, or null if even the first probe
+     *                                 exceeded the latency budget or failed.
+     * @param probes                   Every probed level, in the order they were run.
+     * @param maxSustainableThroughput Highest throughput of any completed probe within the latency budget, 0 if none.
+     *                                 It can exceed the optimum's, as probes past the knee still gain a little.
+     */
+    public record Result(ProbeResult optimal, List<ProbeResult> probes, double maxSustainableThroughput) {
+    }
+
+    private final int startConcurrency;
+    private final int maxConcurrency;
+    private final double growthFactor;
+    private final double minGainRatio;
+    private final long p99BudgetNanos;
+    private final double resolution;
+
+    /**
+     * @param startConcurrency Concurrency of the first probe.
+     * @param maxConcurrency   Highest concurrency probed.
+     * @param growthFactor     Factor the concurrency grows by before saturation is found, greater than 1.
+     * @param minGainRatio     Saturation threshold: throughput gained per added worker relative to the
+     *                         per-worker throughput of the previous probe.
+     * @param p99BudgetMillis  p99 latency above which a probe counts as saturated, or 0 for no budget.
+     * @param resolution       Bisection stops once the interval is narrower than this fraction of its lower end.
+     */
+    public ConcurrencySearch(int startConcurrency, int maxConcurrency, double growthFactor, double minGainRatio, long p99BudgetMillis, double resolution) {
+        if (startConcurrency < 1 || maxConcurrency < startConcurrency) {
+            throw new IllegalArgumentException("Concurrency range must satisfy 1 <= start <= max");
+        }
+        if (growthFactor <= 1) {
+            throw new IllegalArgumentException("Growth factor must be greater than 1");
+        }
+        this.startConcurrency = startConcurrency;
+        this.maxConcurrency = maxConcurrency;
+        this.growthFactor = growthFactor;
+        this.minGainRatio = minGainRatio;
+        this.p99BudgetNanos = TimeUnit.MILLISECONDS.toNanos(p99BudgetMillis);
+        this.resolution = resolution;
+    }
+
+    /**
+     * Returns the concurrency of the first probe, the lowest the search runs.
+     */
+    public int getStartConcurrency() {
+        return startConcurrency;
+    }
+
+    /**
+     * Runs the search.
+     *
+     * @param probe Runs the benchmark at a concurrency level.
+     * @return The optimal concurrency and all probes.
+     */
+    public Result search(Probe probe) {
+        List<ProbeResult> probes = new ArrayList<>();
+        ProbeResult good = null;
+        ProbeResult saturated = null;
+
+        // Geometric growth until the first saturated probe
+        int concurrency = startConcurrency;
+        while (true) {
+            ProbeResult result = run(probe, concurrency, probes);
+            if (isSaturated(good, result)) {
+                saturated = result;
+                break;
+            }
+            good = result;
+            if (concurrency == maxConcurrency) {
+                break;
+            }
+            concurrency = (int) Math.min(maxConcurrency, Math.max(concurrency + 1, Math.round(concurrency * growthFactor)));
+        }
+        if (good == null || saturated == null) {
+            return result(good, probes);
+        }
+
+        // Bisection between the last good and the first saturated probe
+        while (saturated.concurrency() - good.concurrency() > Math.max(1, good.concurrency() * resolution)) {
+            int middle = (good.concurrency() + saturated.concurrency()) >>> 1;
+            ProbeResult result = run(probe, middle, probes);
+            if (isSaturated(good, result)) {
+                saturated = result;
+            } else {
+                good = result;
+            }
+        }
+        return result(good, probes);
+    }
+
+    private Result result(ProbeResult optimal, List<ProbeResult> probes) {
+        double maxSustainableThroughput = probes.stream()
+                .filter(probe -> !probe.failed() && !isOverBudget(probe))
+                .mapToDouble(ProbeResult::throughput)
+                .max()
+                .orElse(0);
+        return new Result(optimal, probes, maxSustainableThroughput);
+    }
+
+    /**
+     * Runs one probe. A probe that throws is logged and recorded as failed instead of aborting the search.
+     */
+    private ProbeResult run(Probe probe, int concurrency, List<ProbeResult> probes) {
+        ProbeResult result;
+        try {
+            result = new ProbeResult(concurrency, probe.run(concurrency));
+            logger.info("Concurrency {}: {} ops/s, p99 {} ns", concurrency,
+                    String.format("%.1f", result.throughput()), result.p99LatencyNanos());
+        } catch (RuntimeException e) {
+            logger.error("Probe at concurrency {} failed and counts as saturated: {}", concurrency, e.getMessage(), e);
+            result = new ProbeResult(concurrency, null);
+        }
+        probes.add(result);
+        return result;
+    }
+
+    private boolean isOverBudget(ProbeResult probe) {
+        return p99BudgetNanos > 0 && probe.p99LatencyNanos() > p99BudgetNanos;
+    }
+
+    /**
+     * Whether a probe is past the knee: failed, over the latency budget, or adding workers since the previous good
+     * probe gained too little throughput.
+     */
+    private boolean isSaturated(ProbeResult previous, ProbeResult current) {
+        if (current.failed() || isOverBudget(current)) {
+            return true;
+        }
+        if (previous == null || previous.throughput() <= 0) {
+            return false;
+        }
+        double gainPerWorker = (current.throughput() - previous.throughput()) / (current.concurrency() - previous.concurrency());
+        double previousPerWorker = previous.throughput() / previous.concurrency();
+        return gainPerWorker < minGainRatio * previousPerWorker;
+    }
+}
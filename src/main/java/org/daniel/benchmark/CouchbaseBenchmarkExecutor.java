@@ -1,33 +1,71 @@
 package org.daniel.benchmark;
 
-import com.couchbase.client.java.json.JsonObject;
-import org.daniel.couchbase.CouchbaseClientManager;
+import org.daniel.backend.KeyValueBackend;
+import org.daniel.metrics.ClientResourceSample;
+import org.daniel.metrics.IntervalSnapshot;
 import org.daniel.metrics.MetricsCollector;
-import org.daniel.util.JsonUtils;
+import org.daniel.util.PayloadCorpus;
+import org.daniel.workload.KeyGenerationCost;
+import org.daniel.workload.Workload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
-import java.nio.file.Path;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.*;
 
 /**
- * Executes the benchmark by creating and managing threads that perform read/write operations on Couchbase.
+ * Executes the benchmark by creating and managing threads that perform read/write operations on a key-value backend,
+ * normally Couchbase.
  */
 public class CouchbaseBenchmarkExecutor {
-    private final CouchbaseClientManager couchbaseClientManager;
-    private final List<Path> jsonFilePaths;
-    private final String bucketName;
+    private static final Logger logger = LoggerFactory.getLogger(CouchbaseBenchmarkExecutor.class);
+    private static final int PRELOAD_CONCURRENCY = 64;
+    private static final int PRELOAD_ATTEMPTS = 3;
+    private static final int DEFAULT_DRAIN_TIMEOUT_SECONDS = 30;
+
+    private final KeyValueBackend backend;
+    private final PayloadCorpus payloadCorpus;
     private final MetricsCollector metricsCollector;
-    private final AtomicInteger documentIdCounter;
+    private final Workload workload;
+    private final WarmupPolicy warmupPolicy;
+    private StartGate startGate = StartGate.NONE;
+    private boolean prepareBucket = true;
+    private int drainTimeoutSeconds = DEFAULT_DRAIN_TIMEOUT_SECONDS;
+    private MeasurementListener measurementListener = MeasurementListener.NONE;
 
-    public CouchbaseBenchmarkExecutor(CouchbaseClientManager couchbaseClientManager, List<Path> jsonFilePaths, MetricsCollector metricsCollector, AtomicInteger documentIdCounter) {
-        this.couchbaseClientManager = couchbaseClientManager;
+    public CouchbaseBenchmarkExecutor(KeyValueBackend backend, PayloadCorpus payloadCorpus, MetricsCollector metricsCollector, Workload workload, WarmupPolicy warmupPolicy) {
+        this.backend = backend;
         this.metricsCollector = metricsCollector;
-        this.jsonFilePaths = jsonFilePaths;
-        this.documentIdCounter = documentIdCounter;
-        this.bucketName = couchbaseClientManager.getCollection().bucketName();
+        this.payloadCorpus = payloadCorpus;
+        this.workload = workload;
+        this.warmupPolicy = warmupPolicy;
+    }
+
+    /**
+     * Makes every run wait at a gate after the store is prepared and before the load starts, so that the load of
+     * several processes can start together.
+     *
+     * @param startGate     Gate to wait at.
+     * @param prepareBucket Whether this executor clears and pre-loads the store; with several processes only one should.
+     */
+    public void setStartGate(StartGate startGate, boolean prepareBucket) {
+        this.startGate = startGate;
+        this.prepareBucket = prepareBucket;
+    }
+
+    /**
+     * Sets how long the workers may take to finish their last operations after the measured window before they are interrupted.
+     */
+    public void setDrainTimeoutSeconds(int drainTimeoutSeconds) {
+        this.drainTimeoutSeconds = drainTimeoutSeconds;
+    }
+
+    /**
+     * Sets the listener notified when the measured window of each run opens and closes.
+     */
+    public void setMeasurementListener(MeasurementListener measurementListener) {
+        this.measurementListener = measurementListener;
     }
 
     /**
@@ -35,41 +73,360 @@ public class CouchbaseBenchmarkExecutor {
      *
      * @param threadCount     Number of concurrent threads to run.
      * @param durationSeconds Duration of the benchmark in seconds.
-     * @throws IOException if there is an error loading JSON files.
      */
-    public void runBenchmarkWithThreadCount(int threadCount, int durationSeconds, boolean virtualThreads) throws IOException {
-        // Flush the bucket before each run
-        couchbaseClientManager.getCluster().buckets().flushBucket(bucketName);
-        ExecutorService executorService;
-        if (virtualThreads) {
-            executorService = Executors.newVirtualThreadPerTaskExecutor();
-        }else{
-            executorService = Executors.newFixedThreadPool(threadCount);
+    public void runBenchmarkWithThreadCount(int threadCount, int durationSeconds, boolean virtualThreads) {
+        runBenchmarkWithThreadCount(threadCount, durationSeconds, ExecutorStrategy.of(virtualThreads));
+    }
+
+    /**
+     * Runs the benchmark with the specified number of threads and duration.
+     *
+     * @param threadCount      Number of concurrent threads to run.
+     * @param durationSeconds  Duration of the benchmark in seconds.
+     * @param executorStrategy How the threads are created and scheduled.
+     */
+    public void runBenchmarkWithThreadCount(int threadCount, int durationSeconds, ExecutorStrategy executorStrategy) {
+        if (!prepare()) {
+            return;
         }
+        ExecutorService executorService = executorStrategy.create(threadCount);
         AtomicBoolean isRunning = new AtomicBoolean(true);
+        MeasurementWindow measurementWindow = createWindow();
+        StartBarrier startBarrier = new StartBarrier();
 
-        // Submit benchmark tasks to the executor service
+        // Submit benchmark tasks to the executor service; they wait at the barrier until all are submitted
         for (int i = 0; i < threadCount; i++) {
-            Path jsonFilePath = jsonFilePaths.get(i % jsonFilePaths.size());
-            Map<String, Object> jsonData = JsonUtils.loadJsonData(jsonFilePath.toString());
-            JsonObject documentToAdd = JsonObject.from(jsonData);
-            executorService.submit(new BenchmarkTask(
-                    couchbaseClientManager.getCollection(),
-                    documentIdCounter,
-                    metricsCollector,
-                    documentToAdd,
+            executorService.submit(startBarrier.guard(new BenchmarkTask(
+                    new OperationExecutor(backend, measurementWindow, payloadCorpus),
+                    workload.newGenerator(),
                     isRunning
-            ));
+            )));
+        }
+
+        runMeasuredWindow(executorService, isRunning, startBarrier, measurementWindow, durationSeconds);
+    }
+
+    /**
+     * Runs the benchmark through the async API, keeping a bounded number of operations in flight.
+     *
+     * @param totalInFlight   Total number of operations kept in flight, split evenly across the drivers.
+     * @param durationSeconds Duration of the benchmark in seconds.
+     * @param driverCount     Number of driver threads issuing operations.
+     */
+    public void runAsyncBenchmark(int totalInFlight, int durationSeconds, int driverCount) {
+        if (!prepare()) {
+            return;
+        }
+        int drivers = Math.min(driverCount, totalInFlight);
+        ExecutorService executorService = Executors.newFixedThreadPool(drivers);
+        AtomicBoolean isRunning = new AtomicBoolean(true);
+        MeasurementWindow measurementWindow = createWindow();
+        StartBarrier startBarrier = new StartBarrier();
+
+        for (int i = 0; i < drivers; i++) {
+            executorService.submit(startBarrier.guard(new AsyncBenchmarkDriver(
+                    backend,
+                    workload.newGenerator(),
+                    measurementWindow,
+                    payloadCorpus,
+                    isRunning,
+                    // The first drivers take the remainder, so the windows add up to exactly the total
+                    totalInFlight / drivers + (i < totalInFlight % drivers ? 1 : 0),
+                    drainTimeoutSeconds
+            )));
+        }
+
+        runMeasuredWindow(executorService, isRunning, startBarrier, measurementWindow, durationSeconds);
+    }
+
+    /**
+     * Runs the benchmark with tasks that each issue batches of operations through the async API.
+     *
+     * @param threadCount     Number of concurrent tasks, each with one batch in flight.
+     * @param batchSize       Number of operations per batch.
+     * @param durationSeconds Duration of the benchmark in seconds.
+     * @param virtualThreads  Whether tasks run on virtual threads.
+     */
+    public void runBatchBenchmark(int threadCount, int batchSize, int durationSeconds, boolean virtualThreads) {
+        runBatchBenchmark(threadCount, batchSize, durationSeconds, ExecutorStrategy.of(virtualThreads));
+    }
+
+    /**
+     * Runs the benchmark with tasks that each issue batches of operations through the async API.
+     *
+     * @param threadCount      Number of concurrent tasks, each with one batch in flight.
+     * @param batchSize        Number of operations per batch.
+     * @param durationSeconds  Duration of the benchmark in seconds.
+     * @param executorStrategy How the tasks' threads are created and scheduled.
+     */
+    public void runBatchBenchmark(int threadCount, int batchSize, int durationSeconds, ExecutorStrategy executorStrategy) {
+        if (!prepare()) {
+            return;
+        }
+        ExecutorService executorService = executorStrategy.create(threadCount);
+        AtomicBoolean isRunning = new AtomicBoolean(true);
+        MeasurementWindow measurementWindow = createWindow();
+        StartBarrier startBarrier = new StartBarrier();
+
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(startBarrier.guard(new BatchBenchmarkTask(
+                    backend,
+                    workload.newGenerator(),
+                    measurementWindow,
+                    payloadCorpus,
+                    isRunning,
+                    batchSize,
+                    drainTimeoutSeconds
+            )));
+        }
+
+        runMeasuredWindow(executorService, isRunning, startBarrier, measurementWindow, durationSeconds);
+    }
+
+    /**
+     * Runs an open-loop benchmark in which operations are issued at the arrival rate of the schedule,
+     * independently of how quickly earlier operations complete.
+     * The schedule starts with the warmup, so a ramp or step schedule is partly consumed before measurement begins.
+     *
+     * @param workerCount     Number of workers available to execute scheduled operations.
+     * @param durationSeconds Duration of the benchmark in seconds.
+     * @param rateSchedule    Arrival-rate schedule of the run.
+     * @param virtualThreads  Whether workers run on virtual threads.
+     */
+    public void runOpenLoopBenchmark(int workerCount, int durationSeconds, RateSchedule rateSchedule, boolean virtualThreads) {
+        runOpenLoopBenchmark(workerCount, durationSeconds, rateSchedule, ExecutorStrategy.of(virtualThreads));
+    }
+
+    /**
+     * Runs an open-loop benchmark in which operations are issued at the arrival rate of the schedule,
+     * independently of how quickly earlier operations complete.
+     *
+     * @param workerCount      Number of workers available to execute scheduled operations.
+     * @param durationSeconds  Duration of the benchmark in seconds.
+     * @param rateSchedule     Arrival-rate schedule of the run.
+     * @param executorStrategy How the workers' threads are created and scheduled.
+     */
+    public void runOpenLoopBenchmark(int workerCount, int durationSeconds, RateSchedule rateSchedule, ExecutorStrategy executorStrategy) {
+        if (!prepare()) {
+            return;
+        }
+        ExecutorService executorService = executorStrategy.create(workerCount);
+        AtomicBoolean isRunning = new AtomicBoolean(true);
+        AtomicLong operationSequence = new AtomicLong();
+        metricsCollector.setTargetOpsPerSecond(rateSchedule.getTargetOpsPerSecond());
+        MeasurementWindow measurementWindow = createWindow();
+        StartBarrier startBarrier = new StartBarrier();
+
+        for (int i = 0; i < workerCount; i++) {
+            executorService.submit(startBarrier.guard(new OpenLoopBenchmarkTask(
+                    new OperationExecutor(backend, measurementWindow, payloadCorpus),
+                    workload.newGenerator(),
+                    isRunning,
+                    rateSchedule,
+                    operationSequence,
+                    startBarrier
+            )));
         }
 
+        runMeasuredWindow(executorService, isRunning, startBarrier, measurementWindow, durationSeconds);
+    }
+
+    /**
+     * Creates the measurement window of a run, with a fresh warmup collector if warmup is enabled.
+     * Workloads with sub-document operations break their latencies down by document size, to compare the two kinds.
+     */
+    private MeasurementWindow createWindow() {
+        PayloadCorpus documentSizes = workload.getDefinition().hasSubdocumentOperations() ? payloadCorpus : null;
+        if (!warmupPolicy.isEnabled()) {
+            return new MeasurementWindow(metricsCollector, null, documentSizes);
+        }
+        MetricsCollector warmupCollector = new MetricsCollector(metricsCollector.getIntervalMillis());
+        warmupCollector.setTargetOpsPerSecond(metricsCollector.getTargetOpsPerSecond());
+        return new MeasurementWindow(metricsCollector, warmupCollector, documentSizes);
+    }
+
+    /**
+     * Drives the lifecycle of a run whose tasks have been submitted: releases them all at once, waits out the warmup,
+     * opens the measured window and keeps it open until its monotonic deadline, then stops the tasks and drains them
+     * before the results are read. Operations crossing either boundary of the window are excluded, so the measured
+     * duration is exactly the window length.
+     *
+     * @param executorService   Executor running the tasks.
+     * @param isRunning         Flag the tasks stop on.
+     * @param startBarrier      Barrier the submitted tasks wait at.
+     * @param measurementWindow Window the tasks record into.
+     * @param durationSeconds   Duration of the measured window in seconds.
+     * @throws IllegalStateException If a worker of a structured run failed and cancelled the others, since the
+     *                               metrics of the cancelled run would understate what the workers could do.
+     */
+    private void runMeasuredWindow(ExecutorService executorService, AtomicBoolean isRunning, StartBarrier startBarrier,
+                                   MeasurementWindow measurementWindow, int durationSeconds) {
+        MetricsCollector warmupCollector = measurementWindow.getWarmupCollector();
         try {
-            // Let the benchmark run for the specified duration
-            Thread.sleep(TimeUnit.SECONDS.toMillis(durationSeconds));
+            startBarrier.release();
+            if (warmupCollector != null) {
+                warmupCollector.startIntervalSampling();
+                awaitWarmup(warmupCollector);
+            }
+
+            measurementListener.windowOpened();
+            long durationNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+            long startTime = System.nanoTime();
+            ClientResourceSample.resetPeakThreadCount();
+            ClientResourceSample startResources = ClientResourceSample.now();
+            KeyGenerationCost startKeyGeneration = workload.getKeyGenerationCost();
+            metricsCollector.startIntervalSampling(startTime, startTime + durationNanos);
+            measurementWindow.open(startTime, durationNanos);
+            sleepUntil(measurementWindow.getEndNanos());
             isRunning.set(false);  // Signal tasks to stop
-            executorService.shutdown();  // Initiate shutdown
+            measurementListener.windowClosed();
+            metricsCollector.setMeasuredDurationNanos(durationNanos);
+            metricsCollector.setClientResourceUsage(ClientResourceSample.now().minus(startResources));
+            metricsCollector.setKeyGenerationNanosPerOperation(workload.getKeyGenerationCost().minus(startKeyGeneration).nanosPerKey());
+            drain(executorService);
         } catch (InterruptedException e) {
             executorService.shutdownNow(); // Force shutdown
             Thread.currentThread().interrupt();
+        } finally {
+            isRunning.set(false);
+            // Recorded after the drain, so the last interval includes operations that completed just before the end
+            metricsCollector.stopIntervalSampling();
+            if (warmupCollector != null) {
+                warmupCollector.stopIntervalSampling();
+            }
+        }
+        if (executorService instanceof RunScope scope && scope.isFailed()) {
+            throw new IllegalStateException("A worker of the run failed and cancelled the others; the run is discarded",
+                    scope.getFailure());
+        }
+    }
+
+    private static void sleepUntil(long deadlineNanos) throws InterruptedException {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+
+    /**
+     * Waits for the stopped tasks to finish their last operations, interrupting them after the drain timeout.
+     */
+    private void drain(ExecutorService executorService) throws InterruptedException {
+        executorService.shutdown();
+        if (!executorService.awaitTermination(drainTimeoutSeconds, TimeUnit.SECONDS)) {
+            logger.warn("Workers did not finish within {} s after the measured window; interrupting them", drainTimeoutSeconds);
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Blocks for the fixed warmup duration or, in auto mode, until the throughput of the most recent
+     * warmup intervals is steady or the maximum warmup duration has passed.
+     *
+     * @param warmupCollector Collector recording the warmup.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    private void awaitWarmup(MetricsCollector warmupCollector) throws InterruptedException {
+        long warmupStart = System.nanoTime();
+        Thread.sleep(TimeUnit.SECONDS.toMillis(warmupPolicy.warmupSeconds()));
+        if (warmupPolicy.mode() == WarmupPolicy.Mode.FIXED) {
+            logger.info("Warmup finished after {} s", warmupPolicy.warmupSeconds());
+            return;
+        }
+
+        long deadline = warmupStart + TimeUnit.SECONDS.toNanos(warmupPolicy.maxSeconds());
+        int window = Math.max(2, warmupPolicy.windowIntervals());
+        double coefficientOfVariation = Double.NaN;
+        while (System.nanoTime() < deadline) {
+            List<IntervalSnapshot> intervals = warmupCollector.getIntervals();
+            if (intervals.size() >= window) {
+                coefficientOfVariation = IntervalSnapshot.throughputCoefficientOfVariation(
+                        intervals.subList(intervals.size() - window, intervals.size()));
+                if (coefficientOfVariation < warmupPolicy.cvThreshold()) {
+                    logger.info("Throughput steady after {} s of warmup (CV {})",
+                            TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - warmupStart), String.format("%.3f", coefficientOfVariation));
+                    return;
+                }
+            }
+            Thread.sleep(warmupCollector.getIntervalMillis());
+        }
+        logger.warn("Throughput did not become steady within {} s of warmup (last CV {}); measuring anyway",
+                warmupPolicy.maxSeconds(), String.format("%.3f", coefficientOfVariation));
+    }
+
+    /**
+     * Prepares the store if this executor is responsible for it and waits at the start gate.
+     *
+     * @return false if interrupted while waiting, in which case the run is skipped.
+     */
+    private boolean prepare() {
+        if (prepareBucket) {
+            prepareBucket();
+        }
+        try {
+            startGate.await();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Clears the backend and loads the workload's key space so that reads and updates find existing documents.
+     * A document that fails to load is retried a few times; if it still fails, the run is aborted rather than measured
+     * against an incomplete key space, where reads of the missing documents would count as errors.
+     *
+     * @throws IllegalStateException If a document could not be loaded.
+     */
+    private void prepareBucket() {
+        // Start each run from an empty store (flushes the bucket on Couchbase)
+        backend.clear();
+
+        long keyCount = workload.getDefinition().preloadKeyCount();
+        if (keyCount == 0) {
+            return;
+        }
+        logger.info("Loading {} documents for workload '{}'", keyCount, workload.getDefinition().name());
+        Semaphore permits = new Semaphore(PRELOAD_CONCURRENCY);
+        AtomicLong failedDocuments = new AtomicLong();
+        AtomicReference<RuntimeException> firstFailure = new AtomicReference<>();
+        try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long key = 0; key < keyCount && failedDocuments.get() == 0; key++) {
+                permits.acquire();
+                String documentId = workload.documentId(key);
+                Object document = payloadCorpus.get(key);
+                executorService.submit(() -> {
+                    try {
+                        preload(documentId, document);
+                    } catch (RuntimeException e) {
+                        failedDocuments.incrementAndGet();
+                        firstFailure.compareAndSet(null, e);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failedDocuments.get() > 0) {
+            throw new IllegalStateException("Failed to load " + failedDocuments.get() + " of " + keyCount
+                    + " documents for workload '" + workload.getDefinition().name() + "'", firstFailure.get());
+        }
+    }
+
+    private void preload(String documentId, Object document) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                backend.preload(documentId, document);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt == PRELOAD_ATTEMPTS) {
+                    throw e;
+                }
+                logger.debug("Retrying the load of document {} after: {}", documentId, e.toString());
+            }
         }
     }
 }
@@ -0,0 +1,28 @@
+package org.daniel.benchmark;
+
+/**
+ * How the benchmark load is generated.
+ */
+public enum ExecutionMode {
+    /**
+     * One blocking task per thread; concurrency equals the thread count.
+     */
+    THREADS,
+    /**
+     * A few drivers pipeline operations through the SDK's async API with a bounded in-flight window.
+     */
+    ASYNC,
+    /**
+     * Operations are issued at a target arrival rate regardless of how fast earlier ones complete.
+     */
+    OPEN_LOOP,
+    /**
+     * Each logical operation is a batch of operations issued concurrently through the async API;
+     * concurrency equals the thread count times the batch size.
+     */
+    BATCH;
+
+    public static ExecutionMode fromProperty(String value) {
+        return valueOf(value.trim().toUpperCase().replace('-', '_'));
+    }
+}
@@ -0,0 +1,125 @@
+package org.daniel.benchmark;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * How the workers of a run are mapped onto threads, so that thread type and scheduler can be compared one at a time.
+ * Parsed from specifications such as:
+ * <ul>
+ *     <li>platform - a fixed pool with one platform thread per worker</li>
+ *     <li>platform:256 - the same with 256 KB thread stacks</li>
+ *     <li>virtual - one virtual thread per worker on the JVM's default scheduler</li>
+ *     <li>fork-join - a work-stealing ForkJoinPool with one worker thread per worker</li>
+ *     <li>structured - one virtual thread per worker, forked into a scope per run that cancels all workers
+ *     as soon as one fails</li>
+ * </ul>
+ * Java 21 has no public API for a virtual-thread scheduler of its own, so all virtual threads of a process share the
+ * default scheduler; its carrier parallelism is set per process with the JVM option
+ * {@code -Djdk.virtualThreadScheduler.parallelism=<n>}, which runs record through {@link #carrierParallelism()}.
+ *
+ * @param kind        How workers are scheduled.
+ * @param stackSizeKb Stack size of platform threads in KB, or 0 for the JVM default.
+ */
+public record ExecutorStrategy(Kind kind, int stackSizeKb) {
+
+    public static final String CARRIER_PARALLELISM_PROPERTY = "jdk.virtualThreadScheduler.parallelism";
+
+    public static final ExecutorStrategy PLATFORM = new ExecutorStrategy(Kind.PLATFORM, 0);
+    public static final ExecutorStrategy VIRTUAL = new ExecutorStrategy(Kind.VIRTUAL, 0);
+
+    /**
+     * How workers are scheduled.
+     */
+    public enum Kind {
+        PLATFORM,
+        VIRTUAL,
+        FORK_JOIN,
+        STRUCTURED
+    }
+
+    public ExecutorStrategy {
+        if (stackSizeKb < 0) {
+            throw new IllegalArgumentException("Stack size cannot be negative");
+        }
+        if (stackSizeKb > 0 && kind != Kind.PLATFORM) {
+            throw new IllegalArgumentException("Only platform threads take a stack size");
+        }
+    }
+
+    /**
+     * Returns the strategy selected by the virtual-threads property.
+     */
+    public static ExecutorStrategy of(boolean virtualThreads) {
+        return virtualThreads ? VIRTUAL : PLATFORM;
+    }
+
+    /**
+     * Parses a strategy specification.
+     *
+     * @param spec Specification, e.g. "platform:256".
+     * @return The strategy.
+     */
+    public static ExecutorStrategy parse(String spec) {
+        String[] parts = spec.trim().split(":");
+        if (parts[0].equals("platform")) {
+            return new ExecutorStrategy(Kind.PLATFORM, parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 0);
+        }
+        if (parts[0].equals("virtual") && parts.length > 1) {
+            throw new IllegalArgumentException("Carrier parallelism is set per process with "
+                    + "-Djdk.virtualThreadScheduler.parallelism=<n>, not per strategy: " + spec);
+        }
+        Kind kind = switch (parts[0]) {
+            case "virtual" -> Kind.VIRTUAL;
+            case "fork-join" -> Kind.FORK_JOIN;
+            case "structured" -> Kind.STRUCTURED;
+            default -> throw new IllegalArgumentException("Unknown executor strategy: " + spec);
+        };
+        if (parts.length > 1) {
+            throw new IllegalArgumentException("Executor strategy " + parts[0] + " takes no parameter: " + spec);
+        }
+        return new ExecutorStrategy(kind, 0);
+    }
+
+    /**
+     * Returns the number of carrier threads of this process's virtual-thread scheduler: the value of the
+     * jdk.virtualThreadScheduler.parallelism system property if set, otherwise the number of available processors,
+     * which is the JVM's default.
+     */
+    public static int carrierParallelism() {
+        return Integer.getInteger(CARRIER_PARALLELISM_PROPERTY, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Whether the workers run on virtual threads, and so on the carriers of {@link #carrierParallelism()}.
+     */
+    public boolean usesVirtualThreads() {
+        return kind == Kind.VIRTUAL || kind == Kind.STRUCTURED;
+    }
+
+    /**
+     * Returns the specification of the strategy, e.g. "platform:256".
+     */
+    public String label() {
+        String name = kind.name().toLowerCase().replace('_', '-');
+        return stackSizeKb > 0 ? name + ":" + stackSizeKb : name;
+    }
+
+    /**
+     * Creates the executor of one run. Every worker of the run is a long-running task, so executors with a
+     * bounded number of threads get one per worker.
+     *
+     * @param workers Number of workers the run submits.
+     * @return The executor; the run shuts it down.
+     */
+    public ExecutorService create(int workers) {
+        return switch (kind) {
+            case PLATFORM -> stackSizeKb > 0
+                    ? Executors.newFixedThreadPool(workers, Thread.ofPlatform().stackSize(stackSizeKb * 1024L).factory())
+                    : Executors.newFixedThreadPool(workers);
+            case VIRTUAL -> Executors.newVirtualThreadPerTaskExecutor();
+            case FORK_JOIN -> Executors.newWorkStealingPool(workers);
+            case STRUCTURED -> new RunScope(Thread.ofVirtual().factory());
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package org.daniel.benchmark;
+
+/**
+ * Notified when the measured window of a run opens and closes, for tools that should only observe the measured load,
+ * such as a profiler. Both calls are made on the thread driving the run.
+ */
+public interface MeasurementListener {
+
+    /**
+     * A listener that does nothing.
+     */
+    MeasurementListener NONE = new MeasurementListener() {
+    };
+
+    /**
+     * Called after the warmup, just before the measured window opens.
+     */
+    default void windowOpened() {
+    }
+
+    /**
+     * Called as soon as the measured window has closed, before the workers are drained.
+     */
+    default void windowClosed() {
+    }
+}
@@ -0,0 +1,143 @@
+package org.daniel.benchmark;
+
+import org.daniel.metrics.DocumentSizeLatencies;
+import org.daniel.metrics.MetricsCollector;
+import org.daniel.util.PayloadCorpus;
+import org.daniel.workload.Operation;
+import org.daniel.workload.OperationType;
+
+/**
+ * Measured window of a run, bounded by System.nanoTime() deadlines, and the collectors its operations are recorded into.
+ * An operation is measured only if it both starts and completes inside the window, so the measured operations divided
+ * by the window length is the real throughput. Operations that complete before the window opens are recorded into the
+ * warmup collector, if there is one; operations that cross a boundary of the window or run after it are only counted
+ * as excluded. When given the corpus, successful operations are also recorded by the size of the document of their key.
+ */
+public class MeasurementWindow {
+    private final MetricsCollector measuredCollector;
+    private final MetricsCollector warmupCollector;
+    private final PayloadCorpus documentSizes;
+    // Until the window opens every operation completes before it
+    private volatile long startNanos = Long.MAX_VALUE;
+    private volatile long endNanos = Long.MAX_VALUE;
+
+    /**
+     * @param measuredCollector Collector of the operations inside the window.
+     * @param warmupCollector   Collector of the operations before the window, or null to discard them.
+     */
+    public MeasurementWindow(MetricsCollector measuredCollector, MetricsCollector warmupCollector) {
+        this(measuredCollector, warmupCollector, null);
+    }
+
+    /**
+     * @param measuredCollector Collector of the operations inside the window.
+     * @param warmupCollector   Collector of the operations before the window, or null to discard them.
+     * @param documentSizes     Corpus the documents of the keys come from, to break latencies down by document size,
+     *                          or null not to.
+     */
+    public MeasurementWindow(MetricsCollector measuredCollector, MetricsCollector warmupCollector, PayloadCorpus documentSizes) {
+        this.measuredCollector = measuredCollector;
+        this.warmupCollector = warmupCollector;
+        this.documentSizes = documentSizes;
+    }
+
+    /**
+     * Opens the window.
+     *
+     * @param startNanos    Start of the window, in System.nanoTime() terms.
+     * @param durationNanos Length of the window.
+     */
+    public void open(long startNanos, long durationNanos) {
+        // The end is published first, so a reader that sees the new start also sees the new end
+        this.endNanos = startNanos + durationNanos;
+        this.startNanos = startNanos;
+    }
+
+    public long getEndNanos() {
+        return endNanos;
+    }
+
+    public MetricsCollector getWarmupCollector() {
+        return warmupCollector;
+    }
+
+    /**
+     * Records a successful operation. Sub-document lookups and mutations are recorded as such; other mutations as
+     * writes and other operations as reads.
+     *
+     * @param operation           The operation.
+     * @param operationStartNanos Time the operation's latency is measured from.
+     * @param operationEndNanos   Time the operation completed.
+     */
+    public void recordSuccess(Operation operation, long operationStartNanos, long operationEndNanos) {
+        MetricsCollector metricsCollector = collectorFor(operationStartNanos, operationEndNanos);
+        if (metricsCollector == null) {
+            return;
+        }
+        long latency = operationEndNanos - operationStartNanos;
+        switch (operation.type()) {
+            case LOOKUP_IN -> metricsCollector.recordLookupInLatency(latency);
+            case MUTATE_IN -> metricsCollector.recordMutateInLatency(latency);
+            case READ -> metricsCollector.recordReadLatency(latency);
+            default -> metricsCollector.recordWriteLatency(latency);
+        }
+        if (documentSizes != null && operation.keyNumber() >= 0) {
+            int documentBytes = documentSizes.documentBytes(operation.keyNumber());
+            DocumentSizeLatencies latencyBySize = switch (operation.type()) {
+                case LOOKUP_IN -> metricsCollector.getLookupInLatencyBySize();
+                case MUTATE_IN -> metricsCollector.getMutateInLatencyBySize();
+                case READ -> metricsCollector.getReadLatencyBySize();
+                default -> metricsCollector.getWriteLatencyBySize();
+            };
+            latencyBySize.record(documentBytes, latency);
+        }
+    }
+
+    /**
+     * Records a failed operation, in the same category as a successful one, along with its exception type and
+     * the time it took to fail.
+     *
+     * @param type                Type of the operation.
+     * @param error               Exception the operation failed with.
+     * @param operationStartNanos Time the operation started.
+     * @param operationEndNanos   Time the operation failed.
+     */
+    public void recordFailure(OperationType type, Throwable error, long operationStartNanos, long operationEndNanos) {
+        MetricsCollector metricsCollector = collectorFor(operationStartNanos, operationEndNanos);
+        if (metricsCollector == null) {
+            return;
+        }
+        metricsCollector.recordFailedOperation(error, operationEndNanos - operationStartNanos);
+        switch (type) {
+            case LOOKUP_IN -> metricsCollector.incrementLookupInErrors();
+            case MUTATE_IN -> metricsCollector.incrementMutateInErrors();
+            case READ -> metricsCollector.incrementReadErrors();
+            default -> metricsCollector.incrementWriteErrors();
+        }
+    }
+
+    /**
+     * Records a whole batch; batches follow the same window rules as single operations.
+     *
+     * @param batchStartNanos Time the batch was issued.
+     * @param batchEndNanos   Time its last item completed.
+     */
+    public void recordBatch(long batchStartNanos, long batchEndNanos) {
+        MetricsCollector metricsCollector = collectorFor(batchStartNanos, batchEndNanos);
+        if (metricsCollector != null) {
+            metricsCollector.recordBatchLatency(batchEndNanos - batchStartNanos);
+        }
+    }
+
+    private MetricsCollector collectorFor(long operationStartNanos, long operationEndNanos) {
+        long start = startNanos;
+        if (operationEndNanos < start) {
+            return warmupCollector;
+        }
+        if (operationStartNanos >= start && operationEndNanos <= endNanos) {
+            return measuredCollector;
+        }
+        measuredCollector.incrementExcludedOperations();
+        return null;
+    }
+}
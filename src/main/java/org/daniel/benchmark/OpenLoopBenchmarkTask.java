@@ -0,0 +1,78 @@
+package org.daniel.benchmark;
+
+import org.daniel.workload.Operation;
+import org.daniel.workload.OperationGenerator;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop worker that issues operations at the start times dictated by a {@link RateSchedule}.
+ * All workers share one operation sequence; each claims the next operation, waits until its intended
+ * start time and executes the next operation of its workload. Latency is measured from the intended start
+ * time rather than the actual send time, so time an operation spends waiting for a free worker during a
+ * server stall is included (coordinated-omission correction).
+ */
+public class OpenLoopBenchmarkTask implements Runnable {
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final OperationExecutor operationExecutor;
+    private final OperationGenerator operationGenerator;
+    private final AtomicBoolean isRunning;
+    private final RateSchedule rateSchedule;
+    private final AtomicLong operationSequence;
+    private final StartBarrier startBarrier;
+
+    public OpenLoopBenchmarkTask(OperationExecutor operationExecutor, OperationGenerator operationGenerator, AtomicBoolean isRunning, RateSchedule rateSchedule, AtomicLong operationSequence, StartBarrier startBarrier) {
+        this.operationExecutor = operationExecutor;
+        this.operationGenerator = operationGenerator;
+        this.isRunning = isRunning;
+        this.rateSchedule = rateSchedule;
+        this.operationSequence = operationSequence;
+        this.startBarrier = startBarrier;
+    }
+
+    /**
+     * Claims and executes scheduled operations until the isRunning flag is set to false.
+     * The schedule starts when the start barrier releases the run's workers.
+     */
+    @Override
+    public void run() {
+        long runStartNanos;
+        try {
+            runStartNanos = startBarrier.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        while (isRunning.get()) {
+            long operationIndex = operationSequence.getAndIncrement();
+            long intendedStartTime = runStartNanos + rateSchedule.intendedOffsetNanos(operationIndex);
+            if (!awaitIntendedStart(intendedStartTime)) {
+                return;
+            }
+            Operation operation = operationGenerator.next();
+            boolean succeeded = operationExecutor.execute(operation, intendedStartTime);
+            operationGenerator.completed(operation, succeeded);
+        }
+    }
+
+    /**
+     * Parks until the intended start time, waking periodically to honour the isRunning flag.
+     *
+     * @param intendedStartTime Intended start of the operation, in System.nanoTime() terms.
+     * @return false if the run ended before the intended start time was reached.
+     */
+    private boolean awaitIntendedStart(long intendedStartTime) {
+        long remaining;
+        while ((remaining = intendedStartTime - System.nanoTime()) > 0) {
+            if (!isRunning.get()) {
+                return false;
+            }
+            LockSupport.parkNanos(Math.min(remaining, MAX_PARK_NANOS));
+        }
+        return isRunning.get();
+    }
+}
@@ -0,0 +1,61 @@
+package org.daniel.benchmark;
+
+import org.daniel.backend.KeyValueBackend;
+import org.daniel.util.PayloadCorpus;
+import org.daniel.workload.Operation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes workload operations against a key-value backend with the blocking API and records their metrics.
+ * Reads are recorded as read operations; inserts, updates, deletes and replaces as write operations.
+ * Sub-document lookups and mutations are recorded separately; a mutation writes its start time to each of its paths.
+ * Whether an operation is measured is decided by the {@link MeasurementWindow} from its start and completion times.
+ */
+public class OperationExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(OperationExecutor.class);
+
+    private final KeyValueBackend backend;
+    private final MeasurementWindow measurementWindow;
+    private final PayloadCorpus documents;
+
+    /**
+     * @param backend           Backend to execute operations against.
+     * @param measurementWindow Window the metrics are recorded through.
+     * @param documents         Documents written by full-document mutations; each key gets the document of its number.
+     */
+    public OperationExecutor(KeyValueBackend backend, MeasurementWindow measurementWindow, PayloadCorpus documents) {
+        this.backend = backend;
+        this.measurementWindow = measurementWindow;
+        this.documents = documents;
+    }
+
+    /**
+     * Executes a single operation.
+     *
+     * @param operation Operation to execute.
+     * @param startTime Time from which latency is measured, in System.nanoTime() terms.
+     * @return Whether the operation succeeded.
+     */
+    public boolean execute(Operation operation, long startTime) {
+        try {
+            switch (operation.type()) {
+                case READ -> backend.get(operation.key());
+                case INSERT -> backend.insert(operation.key(), documents.get(operation.keyNumber()));
+                case UPDATE -> backend.upsert(operation.key(), documents.get(operation.keyNumber()));
+                case REPLACE -> backend.replace(operation.key(), documents.get(operation.keyNumber()));
+                case DELETE -> backend.remove(operation.key());
+                case LOOKUP_IN -> backend.lookupIn(operation.key(), operation.paths());
+                case MUTATE_IN -> backend.mutateIn(operation.key(), operation.paths(), startTime);
+            }
+            measurementWindow.recordSuccess(operation, startTime, System.nanoTime());
+            return true;
+        } catch (Exception e) {
+            measurementWindow.recordFailure(operation.type(), e, startTime, System.nanoTime());
+            if (logger.isDebugEnabled()) {
+                logger.debug("{} operation failed for document ID {}: {}", operation.type(), operation.key(), e.getMessage(), e);
+            }
+            return false;
+        }
+    }
+}
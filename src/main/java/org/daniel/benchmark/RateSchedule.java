@@ -0,0 +1,128 @@
+package org.daniel.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Arrival-rate schedule for open-loop load generation.
+ * The schedule is a sequence of segments in which the rate is constant or changes linearly;
+ * it maps the index of an operation to the time, relative to the start of the run, at which that
+ * operation is intended to start. After the last segment the final rate is held.
+ */
+public final class RateSchedule {
+    private final List<Segment> segments;
+    private final double targetOpsPerSecond;
+
+    private RateSchedule(List<Segment> segments, double targetOpsPerSecond) {
+        this.segments = segments;
+        this.targetOpsPerSecond = targetOpsPerSecond;
+    }
+
+    /**
+     * Creates a schedule that issues operations at a fixed rate.
+     *
+     * @param opsPerSecond Target rate.
+     * @return The schedule.
+     */
+    public static RateSchedule constant(double opsPerSecond) {
+        return new Builder().linear(opsPerSecond, opsPerSecond, 1).build(opsPerSecond);
+    }
+
+    /**
+     * Creates a schedule whose rate grows linearly from startOpsPerSecond to endOpsPerSecond.
+     *
+     * @param startOpsPerSecond Rate at the start of the run.
+     * @param endOpsPerSecond   Rate at the end of the ramp, held afterwards.
+     * @param durationSeconds   Length of the ramp in seconds.
+     * @return The schedule.
+     */
+    public static RateSchedule ramp(double startOpsPerSecond, double endOpsPerSecond, int durationSeconds) {
+        return new Builder().linear(startOpsPerSecond, endOpsPerSecond, durationSeconds).build(endOpsPerSecond);
+    }
+
+    /**
+     * Creates a schedule that raises the rate in equal steps from startOpsPerSecond to endOpsPerSecond.
+     *
+     * @param startOpsPerSecond Rate of the first step.
+     * @param endOpsPerSecond   Rate of the last step.
+     * @param steps             Number of steps.
+     * @param durationSeconds   Total duration of all steps in seconds.
+     * @return The schedule.
+     */
+    public static RateSchedule step(double startOpsPerSecond, double endOpsPerSecond, int steps, int durationSeconds) {
+        Builder builder = new Builder();
+        double stepSeconds = (double) durationSeconds / steps;
+        for (int i = 0; i < steps; i++) {
+            double rate = steps == 1 ? endOpsPerSecond : startOpsPerSecond + (endOpsPerSecond - startOpsPerSecond) * i / (steps - 1);
+            builder.linear(rate, rate, stepSeconds);
+        }
+        return builder.build(endOpsPerSecond);
+    }
+
+    /**
+     * Rate the schedule ends at; used when reporting target versus achieved throughput.
+     */
+    public double getTargetOpsPerSecond() {
+        return targetOpsPerSecond;
+    }
+
+    /**
+     * Returns when the operation with the given index should start.
+     *
+     * @param opIndex Zero-based index of the operation in the run.
+     * @return Offset in nanoseconds from the start of the run.
+     */
+    public long intendedOffsetNanos(long opIndex) {
+        for (Segment segment : segments) {
+            if (opIndex < segment.opsBefore + segment.ops || segment == segments.get(segments.size() - 1)) {
+                double seconds = segment.startSeconds + segment.secondsToReach(opIndex - segment.opsBefore);
+                return (long) (seconds * TimeUnit.SECONDS.toNanos(1));
+            }
+        }
+        throw new IllegalStateException("Rate schedule has no segments");
+    }
+
+    /**
+     * A segment whose rate goes linearly from startRate to endRate.
+     */
+    private record Segment(double startSeconds, double durationSeconds, double startRate, double endRate, double opsBefore, double ops) {
+
+        // Solves startRate * t + slope * t^2 / 2 = n for t
+        double secondsToReach(double n) {
+            if (n >= ops) {
+                return durationSeconds + (n - ops) / endRate;
+            }
+            double slope = (endRate - startRate) / durationSeconds;
+            if (Math.abs(slope) < 1e-9) {
+                return n / startRate;
+            }
+            double discriminant = Math.max(0, startRate * startRate + 2 * slope * n);
+            return (Math.sqrt(discriminant) - startRate) / slope;
+        }
+    }
+
+    private static final class Builder {
+        // Keeps the rate positive so that every operation has a finite intended start time
+        private static final double MIN_RATE = 0.001;
+
+        private final List<Segment> segments = new ArrayList<>();
+        private double elapsedSeconds;
+        private double opsSoFar;
+
+        Builder linear(double startRate, double endRate, double durationSeconds) {
+            double from = Math.max(startRate, MIN_RATE);
+            double to = Math.max(endRate, MIN_RATE);
+            double seconds = Math.max(durationSeconds, 1e-3);
+            double ops = (from + to) / 2 * seconds;
+            segments.add(new Segment(elapsedSeconds, seconds, from, to, opsSoFar, ops));
+            elapsedSeconds += seconds;
+            opsSoFar += ops;
+            return this;
+        }
+
+        RateSchedule build(double targetOpsPerSecond) {
+            return new RateSchedule(List.copyOf(segments), targetOpsPerSecond);
+        }
+    }
+}
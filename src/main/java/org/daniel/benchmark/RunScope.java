@@ -0,0 +1,115 @@
+package org.daniel.benchmark;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Structured-concurrency scope of one run: every worker is forked on a thread of its own, the scope owns the workers
+ * until the run shuts it down and joins them, and the first worker that fails cancels its siblings by interrupting
+ * them, like a shut-down-on-failure StructuredTaskScope. StructuredTaskScope itself is a preview API in Java 21,
+ * which the build does not enable.
+ */
+class RunScope extends AbstractExecutorService {
+    private static final Logger logger = LoggerFactory.getLogger(RunScope.class);
+
+    private final ThreadFactory threadFactory;
+    private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile boolean shutdown;
+
+    RunScope(ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (shutdown) {
+            throw new RejectedExecutionException("The scope of the run is closed");
+        }
+        Thread thread = threadFactory.newThread(() -> {
+            try {
+                task.run();
+                // Submitted workers are futures that hold their failure rather than throw it
+                if (task instanceof Future<?> future && future.state() == Future.State.FAILED) {
+                    fail(future.exceptionNow());
+                }
+            } catch (RuntimeException | Error e) {
+                fail(e);
+            } finally {
+                threads.remove(Thread.currentThread());
+            }
+        });
+        threads.add(thread);
+        thread.start();
+    }
+
+    /**
+     * Whether a worker failed, which cancelled the others.
+     */
+    boolean isFailed() {
+        return failure.get() != null;
+    }
+
+    /**
+     * Returns the failure of the first worker that failed, or null if none did.
+     */
+    Throwable getFailure() {
+        return failure.get();
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        interruptAll();
+        return List.of();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && threads.isEmpty();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Thread thread : threads) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !thread.join(Duration.ofNanos(remaining))) {
+                return isTerminated();
+            }
+        }
+        return isTerminated();
+    }
+
+    private void fail(Throwable cause) {
+        if (failure.compareAndSet(null, cause)) {
+            logger.error("A worker failed; cancelling the other workers of the run: {}", cause.getMessage(), cause);
+            interruptAll();
+        }
+    }
+
+    private void interruptAll() {
+        threads.forEach(Thread::interrupt);
+    }
+}
@@ -0,0 +1,51 @@
+package org.daniel.benchmark;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Holds back the tasks of a run until all of them have been submitted, then releases them at the same instant.
+ */
+public class StartBarrier {
+    private final CountDownLatch released = new CountDownLatch(1);
+    private volatile long releaseNanos;
+
+    /**
+     * Wraps a task so that it waits for the release before running.
+     *
+     * @param task Task to hold back.
+     * @return The guarded task; it returns without running the task if interrupted while waiting.
+     */
+    public Runnable guard(Runnable task) {
+        return () -> {
+            try {
+                await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            task.run();
+        };
+    }
+
+    /**
+     * Blocks until the barrier is released.
+     *
+     * @return The time of the release, in System.nanoTime() terms.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public long await() throws InterruptedException {
+        released.await();
+        return releaseNanos;
+    }
+
+    /**
+     * Releases all waiting tasks.
+     *
+     * @return The time of the release, in System.nanoTime() terms.
+     */
+    public long release() {
+        releaseNanos = System.nanoTime();
+        released.countDown();
+        return releaseNanos;
+    }
+}
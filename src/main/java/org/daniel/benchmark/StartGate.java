@@ -0,0 +1,22 @@
+package org.daniel.benchmark;
+
+/**
+ * Point a run waits at after the store has been prepared and before any load is applied.
+ * Lets several processes start their load at the same instant.
+ */
+@FunctionalInterface
+public interface StartGate {
+
+    /**
+     * A gate that opens immediately.
+     */
+    StartGate NONE = () -> {
+    };
+
+    /**
+     * Blocks until the load may start.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    void await() throws InterruptedException;
+}
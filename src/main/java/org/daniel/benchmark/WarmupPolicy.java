@@ -0,0 +1,35 @@
+package org.daniel.benchmark;
+
+/**
+ * How long load is applied before the measured window of a run starts.
+ * Operations issued during warmup are recorded into a separate collector and excluded from the results.
+ *
+ * @param mode           FIXED warms up for warmupSeconds; AUTO warms up for at least warmupSeconds and until
+ *                       the interval throughput is steady.
+ * @param warmupSeconds  Fixed warmup duration, or the minimum warmup duration in AUTO mode.
+ * @param cvThreshold    AUTO mode: throughput coefficient of variation below which the load counts as steady.
+ * @param windowIntervals AUTO mode: number of most recent intervals the coefficient of variation is computed over.
+ * @param maxSeconds     AUTO mode: warmup ends after this many seconds even if the load never becomes steady.
+ */
+public record WarmupPolicy(Mode mode, int warmupSeconds, double cvThreshold, int windowIntervals, int maxSeconds) {
+
+    public enum Mode {
+        FIXED,
+        AUTO;
+
+        public static Mode fromProperty(String value) {
+            return valueOf(value.trim().toUpperCase());
+        }
+    }
+
+    /**
+     * A policy without warmup; measurement starts as soon as the tasks are submitted.
+     */
+    public static WarmupPolicy none() {
+        return new WarmupPolicy(Mode.FIXED, 0, 0, 0, 0);
+    }
+
+    public boolean isEnabled() {
+        return mode == Mode.AUTO || warmupSeconds > 0;
+    }
+}
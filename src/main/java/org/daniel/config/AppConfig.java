@@ -1,9 +1,27 @@
 package org.daniel.config;
 
+import org.daniel.benchmark.ConcurrencySearch;
+import org.daniel.benchmark.ExecutionMode;
+import org.daniel.benchmark.ExecutorStrategy;
+import org.daniel.benchmark.WarmupPolicy;
+import org.daniel.couchbase.ClientSettings;
+import org.daniel.distributed.DistributedCoordinator;
+import org.daniel.profiling.JfrRecorder;
+import org.daniel.util.PayloadEncoding;
+import org.daniel.workload.KeyDistribution;
+import org.daniel.workload.KeyFormat;
+import org.daniel.workload.WorkloadDefinition;
+
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -22,17 +40,71 @@ public class AppConfig {
         }
     }
 
+    /**
+     * Creates a configuration from properties that were already loaded, e.g. received from a distributed coordinator.
+     */
+    public AppConfig(Properties properties) {
+        this.properties = properties;
+    }
+
     public Properties getProperties() {
         return properties;
     }
 
+    /**
+     * Returns a configuration whose properties are overridden by those of a scenario file.
+     *
+     * @param scenarioFile Properties file on the file system.
+     * @return The combined configuration; this one is left unchanged.
+     * @throws IOException If the file cannot be read.
+     */
+    public AppConfig withScenario(Path scenarioFile) throws IOException {
+        Properties scenario = new Properties();
+        try (Reader reader = Files.newBufferedReader(scenarioFile)) {
+            scenario.load(reader);
+        }
+        Map<String, String> overrides = new LinkedHashMap<>();
+        for (String key : scenario.stringPropertyNames()) {
+            overrides.put(key, scenario.getProperty(key));
+        }
+        return withOverrides(overrides);
+    }
+
+    /**
+     * Returns a configuration with some properties overridden.
+     *
+     * @param overrides Property values replacing those of this configuration.
+     * @return The combined configuration; this one is left unchanged.
+     */
+    public AppConfig withOverrides(Map<String, String> overrides) {
+        Properties combined = new Properties();
+        combined.putAll(properties);
+        combined.putAll(overrides);
+        return new AppConfig(combined);
+    }
+
+    /**
+     * Parses property overrides given as key=value arguments, e.g. on the command line.
+     *
+     * @param arguments Arguments of the form key=value.
+     * @return The overrides in the order given.
+     * @throws IllegalArgumentException If an argument is not of the form key=value.
+     */
+    public static Map<String, String> parseOverrides(List<String> arguments) {
+        Map<String, String> overrides = new LinkedHashMap<>();
+        for (String argument : arguments) {
+            int separator = argument.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected a property override of the form key=value: " + argument);
+            }
+            overrides.put(argument.substring(0, separator).trim(), argument.substring(separator + 1).trim());
+        }
+        return overrides;
+    }
+
     // Benchmark configuration getters with validation
     public List<Integer> getThreadCounts() {
-        String threadCountsStr = properties.getProperty("thread-count");
-        return Arrays.stream(threadCountsStr.split(","))
-                .map(String::trim)
-                .map(Integer::parseInt)
-                .toList();
+        return getIntegerList("thread-count");
     }
 
     public int getThreadPoolRuns() {
@@ -50,4 +122,307 @@ public class AppConfig {
     public boolean isUseVirtualThreads() {
         return Boolean.parseBoolean(properties.getProperty("virtual-threads"));
     }
+
+    /**
+     * Executor strategies every level runs with, side by side, e.g. executor-strategy=platform:256,virtual,fork-join.
+     * Without executor-strategy, virtual-threads selects platform or virtual threads; listing true,false selects both.
+     */
+    public List<ExecutorStrategy> getExecutorStrategies() {
+        List<String> specs = getStringList("executor-strategy", List.of());
+        if (!specs.isEmpty()) {
+            return specs.stream().map(ExecutorStrategy::parse).distinct().toList();
+        }
+        return getStringList("virtual-threads", List.of("false")).stream()
+                .map(value -> ExecutorStrategy.of(Boolean.parseBoolean(value)))
+                .distinct()
+                .toList();
+    }
+
+    public long getIntervalMillis() {
+        return getLong("interval-millis", 1000);
+    }
+
+    /**
+     * Time between polls of the server-side metrics during a run, in milliseconds.
+     */
+    public long getClusterSampleMillis() {
+        return getLong("cluster-sample-millis", 5000);
+    }
+
+    public String getResultsDirectory() {
+        return properties.getProperty("results-directory", "results").trim();
+    }
+
+    /**
+     * Whether the progress and live metrics of the sweep are served for Prometheus to scrape.
+     */
+    public boolean isMetricsEndpointEnabled() {
+        return Boolean.parseBoolean(properties.getProperty("metrics-endpoint-enabled", "false"));
+    }
+
+    public int getMetricsEndpointPort() {
+        return getInt("metrics-endpoint-port", 9464);
+    }
+
+    public WarmupPolicy getWarmupPolicy() {
+        return new WarmupPolicy(
+                WarmupPolicy.Mode.fromProperty(properties.getProperty("warmup-mode", "fixed")),
+                getInt("warmup-seconds", 0),
+                getDouble("warmup-cv-threshold", 0.05),
+                getInt("warmup-window-intervals", 5),
+                getInt("warmup-max-seconds", 120)
+        );
+    }
+
+    /**
+     * How long workers may take to finish their last operations after the measured window before they are interrupted.
+     */
+    public int getDrainTimeoutSeconds() {
+        return getInt("drain-timeout-seconds", 30);
+    }
+
+    /**
+     * Whether each in-process run's measured window is recorded with JDK Flight Recorder.
+     */
+    public boolean isJfrEnabled() {
+        return Boolean.parseBoolean(properties.getProperty("jfr-enabled", "false"));
+    }
+
+    /**
+     * Creates a recorder for one run whose files are written to the results directory.
+     *
+     * @param baseName File name of the run's output files without extension.
+     */
+    public JfrRecorder createJfrRecorder(String baseName) {
+        return new JfrRecorder(
+                Path.of(getResultsDirectory(), baseName),
+                Duration.ofMillis(getLong("jfr-pinned-threshold-millis", 0)),
+                Duration.ofMillis(getLong("jfr-sampling-millis", 10)),
+                getInt("jfr-top-frames", 10)
+        );
+    }
+
+    /**
+     * Couchbase cluster environment settings to benchmark: every combination of the values listed in the
+     * couchbase.env.* properties, or just the SDK defaults if none is set.
+     */
+    public List<ClientSettings> getClientSettings() {
+        return ClientSettings.combinations(properties);
+    }
+
+    /**
+     * Packed corpus file the documents are memory-mapped from instead of loading the json-files directory, or null.
+     */
+    public Path getCorpusFile() {
+        String corpusFile = properties.getProperty("corpus-file", "").trim();
+        return corpusFile.isEmpty() ? null : Path.of(corpusFile);
+    }
+
+    /**
+     * Payload encodings to benchmark; listing several compares their client cost.
+     */
+    public List<PayloadEncoding> getPayloadEncodings() {
+        return Arrays.stream(properties.getProperty("payload-encoding", "raw").split(","))
+                .map(PayloadEncoding::fromProperty)
+                .toList();
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return ExecutionMode.fromProperty(properties.getProperty("execution-mode", "threads"));
+    }
+
+    public int getAsyncDrivers() {
+        return Integer.parseInt(properties.getProperty("async-drivers", "2"));
+    }
+
+    public boolean isConcurrencySearch() {
+        return Boolean.parseBoolean(properties.getProperty("concurrency-search", "false"));
+    }
+
+    /**
+     * Creates the search that replaces the thread-count grid when concurrency-search is enabled.
+     */
+    public ConcurrencySearch createConcurrencySearch() {
+        return new ConcurrencySearch(
+                getInt("search-start-concurrency", 1),
+                getInt("search-max-concurrency", 1024),
+                getDouble("search-growth-factor", 2.0),
+                getDouble("search-min-gain", 0.25),
+                getLong("search-p99-budget-millis", 0),
+                getDouble("search-resolution", 0.1)
+        );
+    }
+
+    /**
+     * Duration of each concurrency probe in seconds; shorter than process-seconds to keep searches quick.
+     */
+    public int getSearchProbeSeconds() {
+        return getInt("search-probe-seconds", 30);
+    }
+
+    /**
+     * Batch sizes to test in batch mode, each combined with every thread count.
+     */
+    public List<Integer> getBatchSizes() {
+        return getIntegerList("batch-sizes", "10");
+    }
+
+    public List<Integer> getTargetOpsPerSecond() {
+        return getIntegerList("target-ops-per-second");
+    }
+
+    public int getOpenLoopWorkers() {
+        return Integer.parseInt(properties.getProperty("open-loop-workers", "256"));
+    }
+
+    public String getRateSchedule() {
+        return properties.getProperty("rate-schedule", "constant").trim();
+    }
+
+    public int getRateRampStartOpsPerSecond() {
+        return Integer.parseInt(properties.getProperty("rate-ramp-start-ops-per-second", "0"));
+    }
+
+    public int getRateSteps() {
+        return Integer.parseInt(properties.getProperty("rate-steps", "5"));
+    }
+
+    /**
+     * Workload presets a benchmark matrix runs: the 'workload' property holds one preset or a list.
+     */
+    public List<String> getWorkloadPresets() {
+        return getStringList("workload", List.of(WorkloadDefinition.WRITE_THEN_READ));
+    }
+
+    /**
+     * Directory the cells of a benchmark matrix write their results and completion markers to.
+     */
+    public Path getMatrixDirectory() {
+        String directory = properties.getProperty("matrix.directory", "").trim();
+        return directory.isEmpty() ? Path.of(getResultsDirectory(), "matrix") : Path.of(directory);
+    }
+
+    /**
+     * Whether the cells of a benchmark matrix run in random order instead of the order their values are listed in.
+     */
+    public boolean isMatrixRandomOrder() {
+        String order = properties.getProperty("matrix.order", "sequential").trim();
+        return switch (order) {
+            case "random" -> true;
+            case "sequential" -> false;
+            default -> throw new IllegalArgumentException("Unknown matrix.order: " + order);
+        };
+    }
+
+    /**
+     * Seed of the random cell order, or null to draw a new one.
+     */
+    public Long getMatrixSeed() {
+        String seed = properties.getProperty("matrix.seed", "").trim();
+        return seed.isEmpty() ? null : Long.parseLong(seed);
+    }
+
+    /**
+     * Builds the workload from the 'workload' preset, overriding preset fields with any workload.* properties.
+     *
+     * @return The workload definition.
+     */
+    public WorkloadDefinition getWorkloadDefinition() {
+        WorkloadDefinition preset = WorkloadDefinition.preset(properties.getProperty("workload", WorkloadDefinition.WRITE_THEN_READ));
+        String distribution = properties.getProperty("workload.key-distribution");
+        return new WorkloadDefinition(
+                preset.name(),
+                getInt("workload.reads-per-write", preset.readsPerWrite()),
+                getDouble("workload.read-proportion", preset.readProportion()),
+                getDouble("workload.insert-proportion", preset.insertProportion()),
+                getDouble("workload.update-proportion", preset.updateProportion()),
+                getDouble("workload.delete-proportion", preset.deleteProportion()),
+                getDouble("workload.replace-proportion", preset.replaceProportion()),
+                getDouble("workload.lookup-in-proportion", preset.lookupInProportion()),
+                getDouble("workload.mutate-in-proportion", preset.mutateInProportion()),
+                distribution != null ? KeyDistribution.fromProperty(distribution) : preset.keyDistribution(),
+                getLong("workload.key-space-size", preset.keySpaceSize()),
+                getDouble("workload.zipfian-constant", preset.zipfianConstant()),
+                getDouble("workload.hotspot-data-fraction", preset.hotspotDataFraction()),
+                getDouble("workload.hotspot-operation-fraction", preset.hotspotOperationFraction()),
+                getStringList("workload.lookup-in-paths", preset.lookupInPaths()),
+                getStringList("workload.mutate-in-paths", preset.mutateInPaths())
+        );
+    }
+
+    public int getDistributedWorkers() {
+        return getInt("distributed-workers", 2);
+    }
+
+    public int getDistributedPort() {
+        return getInt("distributed-port", DistributedCoordinator.DEFAULT_PORT);
+    }
+
+    public int getDistributedAcceptTimeoutSeconds() {
+        return getInt("distributed-accept-timeout-seconds", 300);
+    }
+
+    public long getDistributedStartDelayMillis() {
+        return getLong("distributed-start-delay-millis", 1000);
+    }
+
+    /**
+     * How long the coordinator and the workers wait for each other's messages before the other side is considered hung.
+     */
+    public int getDistributedReplyTimeoutSeconds() {
+        return getInt("distributed-reply-timeout-seconds", 600);
+    }
+
+    /**
+     * Builds the document ID format and key reservation settings from the key-* properties.
+     *
+     * @return The key format.
+     */
+    public KeyFormat getKeyFormat() {
+        KeyFormat defaults = KeyFormat.DEFAULT;
+        return new KeyFormat(
+                properties.getProperty("key-prefix", defaults.prefix()),
+                getInt("key-padding", defaults.padding()),
+                getInt("key-block-size", defaults.blockSize()),
+                getInt("key-ring-size", defaults.ringSize())
+        );
+    }
+
+    private int getInt(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+    }
+
+    private long getLong(String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        return value != null ? Long.parseLong(value.trim()) : defaultValue;
+    }
+
+    private double getDouble(String key, double defaultValue) {
+        String value = properties.getProperty(key);
+        return value != null ? Double.parseDouble(value.trim()) : defaultValue;
+    }
+
+    private List<String> getStringList(String key, List<String> defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(item -> !item.isEmpty())
+                .toList();
+    }
+
+    private List<Integer> getIntegerList(String key) {
+        return getIntegerList(key, null);
+    }
+
+    private List<Integer> getIntegerList(String key, String defaultValue) {
+        String value = properties.getProperty(key, defaultValue);
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .map(Integer::parseInt)
+                .toList();
+    }
 }
@@ -0,0 +1,74 @@
+package org.daniel.couchbase;
+
+import com.couchbase.client.core.retry.BestEffortRetryStrategy;
+import com.couchbase.client.core.retry.FailFastRetryStrategy;
+import com.couchbase.client.java.env.ClusterEnvironment;
+
+import java.time.Duration;
+
+/**
+ * A setting of the Couchbase SDK's cluster environment that can be tuned, and swept, through the properties.
+ * Each is configured by a property named {@code couchbase.env.<name>} holding one value or a comma-separated list.
+ */
+public enum ClientSetting {
+    /**
+     * Number of KV connections to each node.
+     */
+    KV_CONNECTIONS,
+    /**
+     * Number of IO event-loop threads.
+     */
+    IO_THREADS,
+    /**
+     * Whether documents are compressed on the wire, true or false.
+     */
+    COMPRESSION,
+    /**
+     * Timeout of KV operations, in milliseconds.
+     */
+    KV_TIMEOUT_MILLIS,
+    /**
+     * Retry strategy: best-effort or fail-fast.
+     */
+    RETRY_STRATEGY,
+    /**
+     * Whether responses arriving after their operation timed out are logged, true or false.
+     */
+    ORPHAN_REPORTING;
+
+    /**
+     * Returns the name of the setting as used in properties and labels, e.g. "kv-connections".
+     */
+    public String getName() {
+        return name().toLowerCase().replace('_', '-');
+    }
+
+    /**
+     * Returns the property the values of the setting are read from.
+     */
+    public String getPropertyKey() {
+        return "couchbase.env." + getName();
+    }
+
+    /**
+     * Applies a value of the setting to a cluster environment.
+     *
+     * @param builder Builder of the cluster environment.
+     * @param value   Value of the setting.
+     * @throws IllegalArgumentException If the value is not valid for the setting.
+     */
+    public void apply(ClusterEnvironment.Builder builder, String value) {
+        switch (this) {
+            case KV_CONNECTIONS -> builder.ioConfig(io -> io.numKvConnections(Integer.parseInt(value)));
+            case IO_THREADS -> builder.ioEnvironment(io -> io.eventLoopThreadCount(Integer.parseInt(value)));
+            case COMPRESSION -> builder.compressionConfig(compression -> compression.enable(Boolean.parseBoolean(value)));
+            case KV_TIMEOUT_MILLIS -> builder.timeoutConfig(timeouts -> timeouts.kvTimeout(Duration.ofMillis(Long.parseLong(value))));
+            case RETRY_STRATEGY -> builder.retryStrategy(switch (value) {
+                case "best-effort" -> BestEffortRetryStrategy.INSTANCE;
+                case "fail-fast" -> FailFastRetryStrategy.INSTANCE;
+                default -> throw new IllegalArgumentException("Unknown retry strategy: " + value);
+            });
+            case ORPHAN_REPORTING -> builder.orphanReporterConfig(orphans -> orphans.enabled(Boolean.parseBoolean(value)));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.daniel.couchbase;
+
+import com.couchbase.client.java.env.ClusterEnvironment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+/**
+ * One combination of cluster environment settings the Couchbase client connects with.
+ * Settings that are not present keep the SDK default.
+ *
+ * @param values Value of each configured setting.
+ */
+public record ClientSettings(Map<ClientSetting, String> values) {
+
+    /**
+     * The SDK defaults.
+     */
+    public static final ClientSettings DEFAULT = new ClientSettings(Map.of());
+
+    public ClientSettings {
+        values = Collections.unmodifiableMap(values.isEmpty() ? new EnumMap<>(ClientSetting.class) : new EnumMap<>(values));
+    }
+
+    /**
+     * Returns every combination of the setting values listed in the properties, in the order they are listed,
+     * the first setting varying slowest. Without any setting configured this is just the SDK defaults.
+     *
+     * @param properties Application properties.
+     * @return The combinations, at least one.
+     */
+    public static List<ClientSettings> combinations(Properties properties) {
+        List<Map<ClientSetting, String>> combinations = new ArrayList<>();
+        combinations.add(new EnumMap<>(ClientSetting.class));
+        for (ClientSetting setting : ClientSetting.values()) {
+            String property = properties.getProperty(setting.getPropertyKey(), "").trim();
+            if (property.isEmpty()) {
+                continue;
+            }
+            List<String> settingValues = Arrays.stream(property.split(",")).map(String::trim).toList();
+            List<Map<ClientSetting, String>> extended = new ArrayList<>();
+            for (Map<ClientSetting, String> combination : combinations) {
+                for (String value : settingValues) {
+                    Map<ClientSetting, String> next = new EnumMap<>(combination);
+                    next.put(setting, value);
+                    extended.add(next);
+                }
+            }
+            combinations = extended;
+        }
+        return combinations.stream().map(ClientSettings::new).toList();
+    }
+
+    /**
+     * Returns the configured value of a setting, or null if it keeps the SDK default.
+     */
+    public String get(ClientSetting setting) {
+        return values.get(setting);
+    }
+
+    /**
+     * Applies the settings to a cluster environment.
+     *
+     * @param builder Builder of the cluster environment.
+     */
+    public void apply(ClusterEnvironment.Builder builder) {
+        values.forEach((setting, value) -> setting.apply(builder, value));
+    }
+
+    /**
+     * Returns a short description of the settings, e.g. "kv-connections=4 compression=false".
+     */
+    public String label() {
+        if (values.isEmpty()) {
+            return "sdk-defaults";
+        }
+        return values.entrySet().stream()
+                .map(entry -> entry.getKey().getName() + "=" + entry.getValue())
+                .collect(Collectors.joining(" "));
+    }
+}
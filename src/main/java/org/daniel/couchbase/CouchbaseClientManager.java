@@ -1,20 +1,49 @@
 package org.daniel.couchbase;
 
 import com.couchbase.client.core.error.CouchbaseException;
+import com.couchbase.client.java.AsyncCollection;
 import com.couchbase.client.java.Bucket;
 import com.couchbase.client.java.Cluster;
+import com.couchbase.client.java.ClusterOptions;
 import com.couchbase.client.java.Collection;
+import com.couchbase.client.java.codec.RawJsonTranscoder;
+import com.couchbase.client.java.kv.InsertOptions;
+import com.couchbase.client.java.kv.LookupInSpec;
+import com.couchbase.client.java.kv.MutateInSpec;
+import com.couchbase.client.java.kv.ReplaceOptions;
+import com.couchbase.client.java.kv.UpsertOptions;
+import org.daniel.backend.KeyValueBackend;
+import org.daniel.util.JsonUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Manages the Couchbase cluster connection and provides access to the collection.
+ * Serves as the Couchbase implementation of the benchmark's key-value backend.
+ * Documents passed as byte arrays are treated as pre-encoded JSON and stored through the raw JSON transcoder,
+ * so the SDK does not serialize them again on every mutation. ByteBuffer slices of a packed corpus are raw JSON too;
+ * the transcoder only accepts byte arrays, so they are copied once on the way in. Maps are encoded with the
+ * application's Jackson ObjectMapper on every mutation and stored through the raw transcoder as well, so the jackson
+ * payload encoding measures Jackson rather than the SDK's own serializer.
+ * Sub-document lookups reuse the specs built for their path set; mutations build theirs per operation, as the value varies.
  */
-public class CouchbaseClientManager implements AutoCloseable {
+public class CouchbaseClientManager implements KeyValueBackend {
     private static final Logger logger = LoggerFactory.getLogger(CouchbaseClientManager.class);
+    private static final InsertOptions RAW_INSERT_OPTIONS = InsertOptions.insertOptions().transcoder(RawJsonTranscoder.INSTANCE);
+    private static final UpsertOptions RAW_UPSERT_OPTIONS = UpsertOptions.upsertOptions().transcoder(RawJsonTranscoder.INSTANCE);
+    private static final ReplaceOptions RAW_REPLACE_OPTIONS = ReplaceOptions.replaceOptions().transcoder(RawJsonTranscoder.INSTANCE);
 
     private final Cluster cluster;
     private final Collection collection;
+    private final AsyncCollection asyncCollection;
+    private final ConcurrentHashMap<List<String>, List<LookupInSpec>> lookupInSpecs = new ConcurrentHashMap<>();
 
     /**
      * Connects to the Couchbase cluster and initializes the collection.
@@ -26,12 +55,28 @@ public class CouchbaseClientManager implements AutoCloseable {
      * @throws CouchbaseException If connection to Couchbase fails.
      */
     public CouchbaseClientManager(String host, String username, String password, String bucketName) {
+        this(host, username, password, bucketName, ClientSettings.DEFAULT);
+    }
+
+    /**
+     * Connects to the Couchbase cluster with a tuned cluster environment and initializes the collection.
+     * The environment is owned by the connection and shut down when it is closed.
+     *
+     * @param host           Couchbase host address.
+     * @param username       Username for authentication.
+     * @param password       Password for authentication.
+     * @param bucketName     Name of the bucket to use.
+     * @param clientSettings Cluster environment settings to connect with.
+     * @throws CouchbaseException If connection to Couchbase fails.
+     */
+    public CouchbaseClientManager(String host, String username, String password, String bucketName, ClientSettings clientSettings) {
         try {
-            this.cluster = Cluster.connect(host, username, password);
+            this.cluster = Cluster.connect(host, ClusterOptions.clusterOptions(username, password).environment(clientSettings::apply));
             Bucket bucket = this.cluster.bucket(bucketName);
             bucket.waitUntilReady(java.time.Duration.ofSeconds(10));
             this.collection = bucket.defaultCollection();
-            logger.info("Successfully connected to Couchbase bucket '{}'", bucketName);
+            this.asyncCollection = collection.async();
+            logger.info("Successfully connected to Couchbase bucket '{}' with client settings: {}", bucketName, clientSettings.label());
         } catch (CouchbaseException e) {
             throw new CouchbaseException("Failed to connect to Couchbase cluster", e);
         }
@@ -55,6 +100,130 @@ public class CouchbaseClientManager implements AutoCloseable {
         return cluster;
     }
 
+    @Override
+    public String getName() {
+        return "couchbase";
+    }
+
+    @Override
+    public Object get(String key) {
+        return collection.get(key);
+    }
+
+    @Override
+    public void insert(String key, Object document) {
+        if (isRaw(document)) {
+            collection.insert(key, JsonUtils.toBytes(document), RAW_INSERT_OPTIONS);
+        } else {
+            collection.insert(key, document);
+        }
+    }
+
+    @Override
+    public void upsert(String key, Object document) {
+        if (isRaw(document)) {
+            collection.upsert(key, JsonUtils.toBytes(document), RAW_UPSERT_OPTIONS);
+        } else {
+            collection.upsert(key, document);
+        }
+    }
+
+    @Override
+    public void replace(String key, Object document) {
+        if (isRaw(document)) {
+            collection.replace(key, JsonUtils.toBytes(document), RAW_REPLACE_OPTIONS);
+        } else {
+            collection.replace(key, document);
+        }
+    }
+
+    @Override
+    public void remove(String key) {
+        collection.remove(key);
+    }
+
+    @Override
+    public Object lookupIn(String key, List<String> paths) {
+        return collection.lookupIn(key, lookupInSpecs(paths));
+    }
+
+    @Override
+    public void mutateIn(String key, List<String> paths, Object value) {
+        collection.mutateIn(key, mutateInSpecs(paths, value));
+    }
+
+    /**
+     * Flushes the bucket; flush must be enabled on the bucket.
+     */
+    @Override
+    public void clear() {
+        cluster.buckets().flushBucket(collection.bucketName());
+    }
+
+    @Override
+    public CompletableFuture<?> getAsync(String key) {
+        return asyncCollection.get(key);
+    }
+
+    @Override
+    public CompletableFuture<?> insertAsync(String key, Object document) {
+        if (isRaw(document)) {
+            return asyncCollection.insert(key, JsonUtils.toBytes(document), RAW_INSERT_OPTIONS);
+        }
+        return asyncCollection.insert(key, document);
+    }
+
+    @Override
+    public CompletableFuture<?> upsertAsync(String key, Object document) {
+        if (isRaw(document)) {
+            return asyncCollection.upsert(key, JsonUtils.toBytes(document), RAW_UPSERT_OPTIONS);
+        }
+        return asyncCollection.upsert(key, document);
+    }
+
+    @Override
+    public CompletableFuture<?> replaceAsync(String key, Object document) {
+        if (isRaw(document)) {
+            return asyncCollection.replace(key, JsonUtils.toBytes(document), RAW_REPLACE_OPTIONS);
+        }
+        return asyncCollection.replace(key, document);
+    }
+
+    @Override
+    public CompletableFuture<?> removeAsync(String key) {
+        return asyncCollection.remove(key);
+    }
+
+    @Override
+    public CompletableFuture<?> lookupInAsync(String key, List<String> paths) {
+        return asyncCollection.lookupIn(key, lookupInSpecs(paths));
+    }
+
+    @Override
+    public CompletableFuture<?> mutateInAsync(String key, List<String> paths, Object value) {
+        return asyncCollection.mutateIn(key, mutateInSpecs(paths, value));
+    }
+
+    private List<LookupInSpec> lookupInSpecs(List<String> paths) {
+        return lookupInSpecs.computeIfAbsent(paths, p -> p.stream().<LookupInSpec>map(LookupInSpec::get).toList());
+    }
+
+    private static List<MutateInSpec> mutateInSpecs(List<String> paths, Object value) {
+        List<MutateInSpec> specs = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            specs.add(MutateInSpec.upsert(path, value).createPath());
+        }
+        return specs;
+    }
+
+    /**
+     * Whether a document is stored through the raw JSON transcoder: encoded bytes as they are, Maps after encoding
+     * them with Jackson.
+     */
+    private static boolean isRaw(Object document) {
+        return document instanceof byte[] || document instanceof ByteBuffer || document instanceof Map;
+    }
+
     /**
      * Closes the Couchbase cluster connection.
      */
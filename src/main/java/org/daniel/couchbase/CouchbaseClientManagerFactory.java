@@ -9,13 +9,19 @@ public class CouchbaseClientManagerFactory {
     private CouchbaseClientManagerFactory() {
     }
 
-    // Creates a CouchbaseClientManager using the provided properties.
+    // Creates a CouchbaseClientManager using the provided properties and the first configured client settings.
     public static CouchbaseClientManager create(Properties properties) {
+        return create(properties, ClientSettings.combinations(properties).get(0));
+    }
+
+    // Creates a CouchbaseClientManager using the provided properties and client settings.
+    public static CouchbaseClientManager create(Properties properties, ClientSettings clientSettings) {
         return new CouchbaseClientManager(
                 properties.getProperty("couchbase.host"),
                 properties.getProperty("couchbase.username"),
                 properties.getProperty("couchbase.password"),
-                properties.getProperty("couchbase.bucket")
+                properties.getProperty("couchbase.bucket"),
+                clientSettings
         );
     }
 }
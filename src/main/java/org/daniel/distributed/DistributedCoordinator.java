@@ -0,0 +1,161 @@
+package org.daniel.distributed;
+
+import org.daniel.metrics.MetricsCollector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordinates a benchmark whose load is generated by several worker processes.
+ * Workers connect to the coordinator and receive its configuration. For every run the coordinator sends each worker
+ * its share of the run plan, waits until all of them have prepared, starts them at the same instant and merges
+ * their metrics, including their full latency histograms, into the metrics of one run.
+ */
+public class DistributedCoordinator implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(DistributedCoordinator.class);
+
+    public static final int DEFAULT_PORT = 7070;
+
+    private final List<MessageChannel> workers;
+    private final long startDelayMillis;
+    private final long replyTimeoutMillis;
+    private List<WorkerRunResult> lastRunResults = List.of();
+
+    private DistributedCoordinator(List<MessageChannel> workers, long startDelayMillis, long replyTimeoutMillis) {
+        this.workers = workers;
+        this.startDelayMillis = startDelayMillis;
+        this.replyTimeoutMillis = replyTimeoutMillis;
+    }
+
+    /**
+     * Waits until the expected number of workers has connected and sends each of them the configuration.
+     *
+     * @param port                 Port to listen on.
+     * @param workerCount          Number of workers to wait for.
+     * @param acceptTimeoutSeconds How long to wait for each worker to connect.
+     * @param startDelayMillis     Delay between the start message and the start of the load, which covers the time
+     *                             needed to reach every worker.
+     * @param replyTimeoutSeconds  How long to wait for a worker to reply before it is considered hung; the wait for
+     *                             the results of a run also allows the run's duration.
+     * @param properties           Configuration sent to the workers.
+     * @return The coordinator, connected to all workers.
+     * @throws IOException If not all workers connect in time.
+     */
+    public static DistributedCoordinator accept(int port, int workerCount, int acceptTimeoutSeconds, long startDelayMillis,
+                                                int replyTimeoutSeconds, Properties properties) throws IOException {
+        Map<String, String> configuration = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            configuration.put(key, properties.getProperty(key));
+        }
+        List<MessageChannel> workers = new ArrayList<>();
+        try (ServerSocket serverSocket = new ServerSocket(port)) {
+            serverSocket.setSoTimeout((int) TimeUnit.SECONDS.toMillis(acceptTimeoutSeconds));
+            logger.info("Waiting for {} workers on port {}", workerCount, serverSocket.getLocalPort());
+            while (workers.size() < workerCount) {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                MessageChannel worker = new MessageChannel(socket);
+                worker.send(new Message.Setup(workers.size(), workerCount, configuration));
+                workers.add(worker);
+                logger.info("Worker {}/{} connected from {}", workers.size(), workerCount, worker.getRemoteAddress());
+            }
+        } catch (IOException e) {
+            for (MessageChannel worker : workers) {
+                worker.close();
+            }
+            throw e;
+        }
+        return new DistributedCoordinator(workers, startDelayMillis, TimeUnit.SECONDS.toMillis(replyTimeoutSeconds));
+    }
+
+    public int getWorkerCount() {
+        return workers.size();
+    }
+
+    /**
+     * Returns the metrics each worker sent for the last completed run, before they were merged.
+     */
+    public List<WorkerRunResult> getLastRunResults() {
+        return lastRunResults;
+    }
+
+    /**
+     * Executes one run on all workers and merges their metrics.
+     *
+     * @param plan           Plan of the run; concurrency and target rate are split between the workers.
+     * @param intervalMillis Length of the reporting intervals.
+     * @return The merged metrics of the run.
+     * @throws IOException           If the connection to a worker fails or a worker does not reply in time.
+     * @throws IllegalStateException If a worker could not execute the run.
+     */
+    public MetricsCollector run(RunPlan plan, long intervalMillis) throws IOException {
+        int workerCount = workers.size();
+        for (int i = 0; i < workerCount; i++) {
+            workers.get(i).send(new Message.Prepare(plan.forWorker(i, workerCount)));
+        }
+
+        // Worker 0 prepares the store, so the others only report ready
+        List<String> failures = new ArrayList<>();
+        List<MessageChannel> ready = new ArrayList<>();
+        for (MessageChannel worker : workers) {
+            switch (worker.receive(replyTimeoutMillis)) {
+                case Message.Ready r -> ready.add(worker);
+                case Message.Failed failed -> failures.add(worker.getRemoteAddress() + ": " + failed.reason());
+                case Message other -> throw unexpected(worker, other);
+            }
+        }
+        if (!failures.isEmpty()) {
+            for (MessageChannel worker : ready) {
+                worker.send(new Message.Abort());
+                worker.receive(replyTimeoutMillis);
+            }
+            throw new IllegalStateException("Workers failed to prepare the run: " + failures);
+        }
+
+        long startAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(startDelayMillis);
+        for (MessageChannel worker : workers) {
+            worker.send(new Message.Start(Math.max(0, TimeUnit.NANOSECONDS.toMillis(startAt - System.nanoTime()))));
+        }
+
+        // The results arrive once the warmup, the measured window and the drain are over
+        long resultTimeoutMillis = startDelayMillis + TimeUnit.SECONDS.toMillis(plan.durationSeconds()) + replyTimeoutMillis;
+        List<WorkerRunResult> results = new ArrayList<>();
+        for (MessageChannel worker : workers) {
+            switch (worker.receive(resultTimeoutMillis)) {
+                case Message.Result result -> results.add(result.result());
+                case Message.Failed failed -> failures.add(worker.getRemoteAddress() + ": " + failed.reason());
+                case Message other -> throw unexpected(worker, other);
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("Workers failed during the run: " + failures);
+        }
+        lastRunResults = List.copyOf(results);
+        return WorkerRunResult.merge(results, intervalMillis);
+    }
+
+    /**
+     * Tells the workers to exit and closes the connections.
+     */
+    @Override
+    public void close() throws IOException {
+        for (MessageChannel worker : workers) {
+            try {
+                worker.send(new Message.Shutdown());
+            } catch (IOException e) {
+                logger.warn("Failed to shut down worker {}: {}", worker.getRemoteAddress(), e.getMessage());
+            }
+            worker.close();
+        }
+    }
+
+    private static IOException unexpected(MessageChannel worker, Message message) {
+        return new IOException("Unexpected message from worker " + worker.getRemoteAddress() + ": " + message);
+    }
+}
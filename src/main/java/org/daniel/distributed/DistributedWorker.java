@@ -0,0 +1,110 @@
+package org.daniel.distributed;
+
+import org.daniel.backend.KeyValueBackend;
+import org.daniel.backend.KeyValueBackendFactory;
+import org.daniel.benchmark.BenchmarkRunner;
+import org.daniel.config.AppConfig;
+import org.daniel.metrics.MetricsCollector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Worker process of a distributed benchmark. Connects to the coordinator, takes its configuration and
+ * executes the runs it is sent until the coordinator shuts the session down.
+ */
+public class DistributedWorker {
+    private static final Logger logger = LoggerFactory.getLogger(DistributedWorker.class);
+    // The coordinator sends the setup as soon as it accepts the connection
+    private static final long SETUP_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
+    private DistributedWorker() {
+    }
+
+    /**
+     * Connects to the coordinator and executes runs until it ends the session.
+     *
+     * @param host Host of the coordinator.
+     * @param port Port the coordinator listens on.
+     * @throws IOException If the connection to the coordinator fails.
+     */
+    public static void run(String host, int port) throws IOException {
+        Socket socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        try (MessageChannel coordinator = new MessageChannel(socket)) {
+            if (!(coordinator.receive(SETUP_TIMEOUT_MILLIS) instanceof Message.Setup setup)) {
+                throw new IOException("Coordinator did not send the setup");
+            }
+            logger.info("Connected to coordinator {} as worker {}/{}", coordinator.getRemoteAddress(),
+                    setup.workerIndex() + 1, setup.workerCount());
+            AppConfig config = new AppConfig(toProperties(setup));
+            long replyTimeoutMillis = TimeUnit.SECONDS.toMillis(config.getDistributedReplyTimeoutSeconds());
+            try (KeyValueBackend backend = KeyValueBackendFactory.create(config.getProperties())) {
+                BenchmarkRunner benchmarkRunner = new BenchmarkRunner(config, backend);
+                while (true) {
+                    Message message = coordinator.receive(replyTimeoutMillis);
+                    if (message instanceof Message.Shutdown) {
+                        logger.info("Coordinator ended the session");
+                        return;
+                    }
+                    if (!(message instanceof Message.Prepare prepare)) {
+                        throw new IOException("Unexpected message from the coordinator: " + message);
+                    }
+                    coordinator.send(execute(benchmarkRunner, prepare.plan(), setup, coordinator, replyTimeoutMillis));
+                }
+            }
+        }
+    }
+
+    private static Message execute(BenchmarkRunner benchmarkRunner, RunPlan plan, Message.Setup setup, MessageChannel coordinator,
+                                   long replyTimeoutMillis) {
+        logger.info("Preparing run: {}", plan);
+        try {
+            MetricsCollector metricsCollector = benchmarkRunner.runWorkerRun(plan, setup.workerIndex(), setup.workerCount(),
+                    () -> awaitStart(coordinator, replyTimeoutMillis));
+            return new Message.Result(WorkerRunResult.of(setup.workerIndex(), metricsCollector));
+        } catch (UncheckedIOException e) {
+            // The connection is gone, so there is nobody to report the failure to
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Run failed: {}", e.getMessage(), e);
+            return new Message.Failed(String.valueOf(e.getMessage()));
+        }
+    }
+
+    /**
+     * Reports ready and waits for the coordinator to start the load.
+     */
+    private static void awaitStart(MessageChannel coordinator, long replyTimeoutMillis) throws InterruptedException {
+        try {
+            coordinator.send(new Message.Ready());
+            // The coordinator starts the run once every worker has prepared
+            Message message = coordinator.receive(replyTimeoutMillis);
+            if (message instanceof Message.Start start) {
+                Thread.sleep(start.delayMillis());
+                return;
+            }
+            throw new IllegalStateException(message instanceof Message.Abort
+                    ? "Run aborted by the coordinator"
+                    : "Unexpected message from the coordinator: " + message);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Properties toProperties(Message.Setup setup) {
+        Properties properties = new Properties();
+        properties.putAll(setup.properties());
+        // An auto warmup ends at a different time in every worker, which would misalign their measured windows
+        if ("auto".equalsIgnoreCase(properties.getProperty("warmup-mode", "fixed").trim())) {
+            logger.warn("Distributed runs use a fixed warmup of warmup-seconds instead of the auto warmup");
+            properties.setProperty("warmup-mode", "fixed");
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,63 @@
+package org.daniel.distributed;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+import java.util.Map;
+
+/**
+ * Messages exchanged between the coordinator and its workers, one JSON object per line.
+ * <p>
+ * After connecting, a worker receives {@link Setup}. Every run then goes through two phases:
+ * the coordinator sends {@link Prepare} to all workers and each answers {@link Ready} once its store is prepared;
+ * the coordinator then sends {@link Start} to all workers and each answers {@link Result} when its run is done.
+ * A worker that cannot run answers {@link Failed}, after which the coordinator sends {@link Abort} to the workers
+ * still waiting to start. {@link Shutdown} ends the session.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+@JsonSubTypes({
+        @JsonSubTypes.Type(value = Message.Setup.class, name = "setup"),
+        @JsonSubTypes.Type(value = Message.Prepare.class, name = "prepare"),
+        @JsonSubTypes.Type(value = Message.Ready.class, name = "ready"),
+        @JsonSubTypes.Type(value = Message.Start.class, name = "start"),
+        @JsonSubTypes.Type(value = Message.Abort.class, name = "abort"),
+        @JsonSubTypes.Type(value = Message.Result.class, name = "result"),
+        @JsonSubTypes.Type(value = Message.Failed.class, name = "failed"),
+        @JsonSubTypes.Type(value = Message.Shutdown.class, name = "shutdown")
+})
+public sealed interface Message {
+
+    /**
+     * Configuration of the session; the worker uses the coordinator's properties instead of its own.
+     */
+    record Setup(int workerIndex, int workerCount, Map<String, String> properties) implements Message {
+    }
+
+    /**
+     * Prepares a run; the worker's share of the plan is already applied.
+     */
+    record Prepare(RunPlan plan) implements Message {
+    }
+
+    record Ready() implements Message {
+    }
+
+    /**
+     * Starts the load after the given delay. The coordinator shortens the delay of each worker by the time spent
+     * sending to the workers before it, so that all workers start at the same instant.
+     */
+    record Start(long delayMillis) implements Message {
+    }
+
+    record Abort() implements Message {
+    }
+
+    record Result(WorkerRunResult result) implements Message {
+    }
+
+    record Failed(String reason) implements Message {
+    }
+
+    record Shutdown() implements Message {
+    }
+}
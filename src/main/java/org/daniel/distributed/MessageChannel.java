@@ -0,0 +1,65 @@
+package org.daniel.distributed;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.*;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Sends and receives {@link Message}s over a socket as newline-delimited JSON.
+ * Not thread-safe; each side uses a channel from a single thread.
+ */
+class MessageChannel implements Closeable {
+    // Messages without fields, such as Ready, are written as just their type
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
+
+    private final Socket socket;
+    private final BufferedReader reader;
+    private final BufferedWriter writer;
+
+    MessageChannel(Socket socket) throws IOException {
+        this.socket = socket;
+        this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        this.writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+    }
+
+    void send(Message message) throws IOException {
+        writer.write(OBJECT_MAPPER.writeValueAsString(message));
+        writer.newLine();
+        writer.flush();
+    }
+
+    /**
+     * Blocks until the next message arrives.
+     *
+     * @param timeoutMillis How long to wait for the message; the other side is considered hung after that.
+     * @return The message.
+     * @throws EOFException           If the other side closed the connection.
+     * @throws SocketTimeoutException If no message arrived in time.
+     */
+    Message receive(long timeoutMillis) throws IOException {
+        socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, Math.max(1, timeoutMillis)));
+        String line;
+        try {
+            line = reader.readLine();
+        } catch (SocketTimeoutException e) {
+            throw new SocketTimeoutException("No message from " + socket.getRemoteSocketAddress() + " within " + timeoutMillis + " ms");
+        }
+        if (line == null) {
+            throw new EOFException("Connection to " + socket.getRemoteSocketAddress() + " closed");
+        }
+        return OBJECT_MAPPER.readValue(line, Message.class);
+    }
+
+    String getRemoteAddress() {
+        return String.valueOf(socket.getRemoteSocketAddress());
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,41 @@
+package org.daniel.distributed;
+
+/**
+ * One run of a distributed benchmark, as planned by the coordinator.
+ * Concurrency and target rate are totals across all workers; {@link #forWorker} gives each worker its share.
+ *
+ * @param payloadEncoding    Name of the payload encoding to use.
+ * @param concurrency        Thread count, in-flight window or open-loop worker count.
+ * @param targetOpsPerSecond Target arrival rate for open-loop runs, 0 otherwise.
+ * @param batchSize          Operations per batch in batch mode.
+ * @param durationSeconds    Duration of the measured window in seconds.
+ * @param executorStrategy   Specification of the executor strategy the workers run on, e.g. "platform:256".
+ */
+public record RunPlan(String payloadEncoding, int concurrency, int targetOpsPerSecond, int batchSize, int durationSeconds,
+                      String executorStrategy) {
+
+    /**
+     * Returns the part of this plan one worker executes. Remainders go to the lowest worker indexes.
+     *
+     * @param workerIndex Index of the worker, starting at 0.
+     * @param workerCount Number of workers.
+     * @return The worker's plan.
+     * @throws IllegalArgumentException If the concurrency is lower than the number of workers, which would leave a
+     *                                  worker without any, or raise the total if each were given one.
+     */
+    public RunPlan forWorker(int workerIndex, int workerCount) {
+        if (concurrency < workerCount) {
+            throw new IllegalArgumentException("Concurrency " + concurrency + " cannot be split between " + workerCount + " workers");
+        }
+        return new RunPlan(payloadEncoding,
+                share(concurrency, workerIndex, workerCount),
+                share(targetOpsPerSecond, workerIndex, workerCount),
+                batchSize,
+                durationSeconds,
+                executorStrategy);
+    }
+
+    private static int share(int total, int workerIndex, int workerCount) {
+        return total / workerCount + (workerIndex < total % workerCount ? 1 : 0);
+    }
+}
@@ -0,0 +1,170 @@
+package org.daniel.distributed;
+
+import org.daniel.metrics.ClientResourceSample;
+import org.daniel.metrics.HistogramSnapshot;
+import org.daniel.metrics.IntervalSnapshot;
+import org.daniel.metrics.MetricsCollector;
+import org.daniel.results.HistogramData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Metrics of one worker's run as sent to the coordinator. Latencies are sent as full histograms,
+ * so the runs of all workers merge into exact percentiles rather than averages of percentiles.
+ */
+public record WorkerRunResult(int workerIndex, long measuredDurationNanos, long runStartEpochMillis, double targetOpsPerSecond,
+                              long totalWriteLatency, long writeErrors, long totalReadLatency, long readErrors,
+                              long totalLookupInLatency, long lookupInErrors, long totalMutateInLatency, long mutateInErrors,
+                              Map<String, Long> errorsByType, long totalFailedLatency,
+                              long excludedOperations, ClientResourceSample clientResources, double keyGenerationNanosPerOperation,
+                              HistogramData writeLatency, HistogramData readLatency, HistogramData lookupInLatency,
+                              HistogramData mutateInLatency, HistogramData failedLatency, HistogramData batchLatency,
+                              Map<String, Map<Integer, HistogramData>> latencyByDocumentSize, List<Interval> intervals) {
+
+    /**
+     * One reporting interval of a worker's run.
+     */
+    public record Interval(long startOffsetNanos, long durationNanos, long writeOperations, long readOperations,
+                           long writeErrors, long readErrors, HistogramData writeLatency, HistogramData readLatency,
+                           long lookupInOperations, long mutateInOperations, long lookupInErrors, long mutateInErrors,
+                           HistogramData lookupInLatency, HistogramData mutateInLatency) {
+
+        static Interval of(IntervalSnapshot interval) {
+            return new Interval(interval.startOffsetNanos(), interval.durationNanos(),
+                    interval.writeOperations(), interval.readOperations(), interval.writeErrors(), interval.readErrors(),
+                    HistogramData.of(interval.writeLatency()), HistogramData.of(interval.readLatency()),
+                    interval.lookupInOperations(), interval.mutateInOperations(), interval.lookupInErrors(), interval.mutateInErrors(),
+                    HistogramData.of(interval.lookupInLatency()), HistogramData.of(interval.mutateInLatency()));
+        }
+    }
+
+    /**
+     * @param workerIndex      Index of the worker.
+     * @param metricsCollector Metrics collected by the worker during the run.
+     */
+    public static WorkerRunResult of(int workerIndex, MetricsCollector metricsCollector) {
+        return new WorkerRunResult(
+                workerIndex,
+                metricsCollector.getMeasuredDurationNanos(),
+                metricsCollector.getRunStartEpochMillis(),
+                metricsCollector.getTargetOpsPerSecond(),
+                metricsCollector.getTotalWriteLatency(),
+                metricsCollector.getWriteErrors(),
+                metricsCollector.getTotalReadLatency(),
+                metricsCollector.getReadErrors(),
+                metricsCollector.getTotalLookupInLatency(),
+                metricsCollector.getLookupInErrors(),
+                metricsCollector.getTotalMutateInLatency(),
+                metricsCollector.getMutateInErrors(),
+                metricsCollector.getErrorsByType(),
+                metricsCollector.getTotalFailedLatency(),
+                metricsCollector.getExcludedOperations(),
+                metricsCollector.getClientResourceUsage(),
+                metricsCollector.getKeyGenerationNanosPerOperation(),
+                HistogramData.of(metricsCollector.getWriteLatencySnapshot()),
+                HistogramData.of(metricsCollector.getReadLatencySnapshot()),
+                HistogramData.of(metricsCollector.getLookupInLatencySnapshot()),
+                HistogramData.of(metricsCollector.getMutateInLatencySnapshot()),
+                HistogramData.of(metricsCollector.getFailedLatencySnapshot()),
+                HistogramData.of(metricsCollector.getBatchLatencySnapshot()),
+                HistogramData.of(metricsCollector.getLatencyByDocumentSize()),
+                metricsCollector.getIntervals().stream().map(Interval::of).toList()
+        );
+    }
+
+    /**
+     * Combines the runs of all workers into the metrics of one run.
+     * Counts and histograms are added up; the measured duration is the longest of the workers, so throughput is
+     * the combined throughput. Client resource usage is summed over the workers' processes. Intervals are combined by position,
+     * which lines up because the workers start together and use a fixed warmup.
+     *
+     * @param results        Results of all workers.
+     * @param intervalMillis Length of the reporting intervals.
+     * @return The combined metrics.
+     */
+    public static MetricsCollector merge(List<WorkerRunResult> results, long intervalMillis) {
+        MetricsCollector merged = new MetricsCollector(intervalMillis);
+        long measuredDurationNanos = 0;
+        long runStartEpochMillis = Long.MAX_VALUE;
+        double targetOpsPerSecond = 0;
+        ClientResourceSample clientResources = null;
+        boolean clientResourcesMeasured = !results.isEmpty();
+        double keyGenerationNanos = 0;
+        int maxIntervals = 0;
+        for (WorkerRunResult result : results) {
+            merged.addRecorded(result.writeLatency.toSnapshot(), result.totalWriteLatency, result.writeErrors,
+                    result.readLatency.toSnapshot(), result.totalReadLatency, result.readErrors,
+                    result.batchLatency.toSnapshot());
+            merged.addRecordedSubdocument(result.lookupInLatency.toSnapshot(), result.totalLookupInLatency, result.lookupInErrors,
+                    result.mutateInLatency.toSnapshot(), result.totalMutateInLatency, result.mutateInErrors);
+            merged.addRecordedFailures(result.errorsByType, result.failedLatency.toSnapshot(), result.totalFailedLatency);
+            merged.addExcludedOperations(result.excludedOperations);
+            if (result.latencyByDocumentSize != null) {
+                merged.addLatencyByDocumentSize(HistogramData.toSnapshots(result.latencyByDocumentSize));
+            }
+            measuredDurationNanos = Math.max(measuredDurationNanos, result.measuredDurationNanos);
+            runStartEpochMillis = Math.min(runStartEpochMillis, result.runStartEpochMillis);
+            targetOpsPerSecond += result.targetOpsPerSecond;
+            if (result.clientResources == null) {
+                clientResourcesMeasured = false;
+            } else {
+                clientResources = clientResources == null ? result.clientResources : clientResources.plus(result.clientResources);
+            }
+            keyGenerationNanos = keyGenerationNanos < 0 || result.keyGenerationNanosPerOperation < 0
+                    ? -1 : keyGenerationNanos + result.keyGenerationNanosPerOperation;
+            maxIntervals = Math.max(maxIntervals, result.intervals.size());
+        }
+        merged.setMeasuredDurationNanos(measuredDurationNanos);
+        merged.setRunStartEpochMillis(results.isEmpty() ? 0 : runStartEpochMillis);
+        merged.setTargetOpsPerSecond(targetOpsPerSecond);
+        merged.setClientResourceUsage(clientResourcesMeasured ? clientResources : null, results.size());
+        merged.setKeyGenerationNanosPerOperation(keyGenerationNanos < 0 || results.isEmpty() ? -1 : keyGenerationNanos / results.size());
+        for (int i = 0; i < maxIntervals; i++) {
+            merged.addInterval(mergeIntervals(results, i));
+        }
+        return merged;
+    }
+
+    private static IntervalSnapshot mergeIntervals(List<WorkerRunResult> results, int index) {
+        long startOffsetNanos = Long.MAX_VALUE;
+        long durationNanos = 0;
+        long writeOperations = 0;
+        long readOperations = 0;
+        long writeErrors = 0;
+        long readErrors = 0;
+        long lookupInOperations = 0;
+        long mutateInOperations = 0;
+        long lookupInErrors = 0;
+        long mutateInErrors = 0;
+        List<HistogramSnapshot> writeLatencies = new ArrayList<>();
+        List<HistogramSnapshot> readLatencies = new ArrayList<>();
+        List<HistogramSnapshot> lookupInLatencies = new ArrayList<>();
+        List<HistogramSnapshot> mutateInLatencies = new ArrayList<>();
+        for (WorkerRunResult result : results) {
+            if (index >= result.intervals.size()) {
+                continue;
+            }
+            Interval interval = result.intervals.get(index);
+            startOffsetNanos = Math.min(startOffsetNanos, interval.startOffsetNanos);
+            durationNanos = Math.max(durationNanos, interval.durationNanos);
+            writeOperations += interval.writeOperations;
+            readOperations += interval.readOperations;
+            writeErrors += interval.writeErrors;
+            readErrors += interval.readErrors;
+            lookupInOperations += interval.lookupInOperations;
+            mutateInOperations += interval.mutateInOperations;
+            lookupInErrors += interval.lookupInErrors;
+            mutateInErrors += interval.mutateInErrors;
+            writeLatencies.add(interval.writeLatency.toSnapshot());
+            readLatencies.add(interval.readLatency.toSnapshot());
+            lookupInLatencies.add(interval.lookupInLatency.toSnapshot());
+            mutateInLatencies.add(interval.mutateInLatency.toSnapshot());
+        }
+        return new IntervalSnapshot(startOffsetNanos, durationNanos, writeOperations, readOperations, writeErrors, readErrors,
+                HistogramSnapshot.merge(writeLatencies), HistogramSnapshot.merge(readLatencies),
+                lookupInOperations, mutateInOperations, lookupInErrors, mutateInErrors,
+                HistogramSnapshot.merge(lookupInLatencies), HistogramSnapshot.merge(mutateInLatencies));
+    }
+}
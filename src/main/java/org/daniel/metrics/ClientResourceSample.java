@@ -0,0 +1,101 @@
+package org.daniel.metrics;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * CPU time, heap allocation, garbage collection and thread counts of the benchmark process at one point in time.
+ * The difference between two samples is the client-side cost of the work done in between.
+ *
+ * @param cpuNanos       CPU time used by the process, or -1 if the JVM does not report it.
+ * @param allocatedBytes Bytes allocated on the heap by all threads, or -1 if the JVM does not report it.
+ * @param gcCount        Number of garbage collections, or -1 if the JVM does not report it.
+ * @param gcPauseNanos   Time spent in stop-the-world collections, or -1 if the JVM does not report it.
+ * @param liveThreads    Live platform threads, including the carriers of virtual threads.
+ * @param peakThreads    Peak number of live platform threads since the peak was last reset.
+ * @param processors     Processors available to the process.
+ */
+public record ClientResourceSample(long cpuNanos, long allocatedBytes, long gcCount, long gcPauseNanos,
+                                   int liveThreads, int peakThreads, int processors) {
+
+    /**
+     * Samples the current resource usage through the platform and HotSpot management extensions.
+     */
+    public static ClientResourceSample now() {
+        long cpuNanos = ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os
+                ? os.getProcessCpuTime()
+                : -1;
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        long allocatedBytes = -1;
+        if (threadBean instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+            allocatedBytes = threads.getTotalThreadAllocatedBytes();
+        }
+        long gcCount = 0;
+        long gcPauseMillis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            // Concurrent cycles (G1 Concurrent GC, ZGC and Shenandoah Cycles) run beside the application, not in pauses
+            String name = collector.getName();
+            if (name.contains("Concurrent") || name.contains("Cycles")) {
+                continue;
+            }
+            if (collector.getCollectionCount() < 0 || collector.getCollectionTime() < 0) {
+                gcCount = -1;
+                gcPauseMillis = -1;
+                break;
+            }
+            gcCount += collector.getCollectionCount();
+            gcPauseMillis += collector.getCollectionTime();
+        }
+        return new ClientResourceSample(cpuNanos, allocatedBytes, gcCount, gcPauseMillis < 0 ? -1 : gcPauseMillis * 1_000_000,
+                threadBean.getThreadCount(), threadBean.getPeakThreadCount(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Resets the peak thread count to the current number of live threads, so the next samples report the peak
+     * from now on. Call before the start sample of a window.
+     */
+    public static void resetPeakThreadCount() {
+        ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+    }
+
+    /**
+     * Returns the resources used since an earlier sample; values the JVM does not report stay -1.
+     * The thread counts and processors are those of this sample.
+     *
+     * @param earlier Earlier sample.
+     * @return The difference between the samples.
+     */
+    public ClientResourceSample minus(ClientResourceSample earlier) {
+        return new ClientResourceSample(
+                difference(cpuNanos, earlier.cpuNanos),
+                difference(allocatedBytes, earlier.allocatedBytes),
+                difference(gcCount, earlier.gcCount),
+                difference(gcPauseNanos, earlier.gcPauseNanos),
+                liveThreads, peakThreads, processors);
+    }
+
+    /**
+     * Adds up the usage of two processes, such as two workers of a distributed benchmark.
+     *
+     * @param other Usage of the other process.
+     * @return The combined usage.
+     */
+    public ClientResourceSample plus(ClientResourceSample other) {
+        return new ClientResourceSample(
+                sum(cpuNanos, other.cpuNanos),
+                sum(allocatedBytes, other.allocatedBytes),
+                sum(gcCount, other.gcCount),
+                sum(gcPauseNanos, other.gcPauseNanos),
+                liveThreads + other.liveThreads, peakThreads + other.peakThreads, processors + other.processors);
+    }
+
+    private static long difference(long later, long earlier) {
+        return later < 0 || earlier < 0 ? -1 : later - earlier;
+    }
+
+    private static long sum(long first, long second) {
+        return first < 0 || second < 0 ? -1 : first + second;
+    }
+}
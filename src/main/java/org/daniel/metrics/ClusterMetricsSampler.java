@@ -0,0 +1,229 @@
+package org.daniel.metrics;
+
+import com.couchbase.client.java.Cluster;
+import com.couchbase.client.java.http.HttpGetOptions;
+import com.couchbase.client.java.http.HttpPath;
+import com.couchbase.client.java.http.HttpResponse;
+import com.couchbase.client.java.http.HttpTarget;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls the cluster and bucket statistics of every node in the background while a run is in progress.
+ * Each bucket stats response carries the server's recent per-second sample arrays, so polling every few seconds
+ * keeps the complete series; samples already seen in an earlier poll are skipped. Per-node system CPU and memory
+ * are sampled at poll time, under names of their own, as they measure the whole host rather than the bucket.
+ * The bucket stats samples are stamped by the server's clock. They are moved onto the client clock, which the client
+ * intervals use, by the smallest difference seen between the time a response arrived and its newest sample; as the
+ * server samples once per second, the alignment is accurate to about a second.
+ * Request paths are built once per node and responses are parsed from bytes with a shared reader, so polling adds
+ * little client-side work.
+ */
+public class ClusterMetricsSampler {
+    private static final Logger logger = LoggerFactory.getLogger(ClusterMetricsSampler.class);
+
+    private static final ObjectReader JSON_READER = new ObjectMapper().reader();
+    private static final HttpGetOptions GET_OPTIONS = HttpGetOptions.httpGetOptions().header("Content-Type", "application/json");
+    private static final HttpPath CLUSTER_PATH = HttpPath.of("/pools/default");
+    private static final List<String> BUCKET_METRICS = List.of(
+            "ops", "ep_cache_miss_rate", "disk_write_queue", "vb_active_resident_items_ratio", "cpu_utilization_rate");
+    // Host CPU from the node's systemStats, distinct from the bucket stats series of cpu_utilization_rate
+    static final String SYSTEM_CPU = "system_cpu_utilization_rate";
+
+    private final Cluster cluster;
+    private final String bucketName;
+    private final long intervalMillis;
+    private final HttpPath bucketStatsPath;
+    private final Map<String, HttpPath> nodeStatsPaths = new HashMap<>();
+    // Keyed by node, metric and timestamp so that overlapping sample arrays of consecutive polls are stored once.
+    // Samples taken at poll time carry the client clock, bucket stats samples the server clock
+    private final Map<String, ClusterSample> samples = new LinkedHashMap<>();
+    private final Map<String, ClusterSample> serverSamples = new LinkedHashMap<>();
+    // Client clock minus server clock, as estimated from the responses so far
+    private long clockOffsetMillis = Long.MAX_VALUE;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param cluster        Cluster to poll.
+     * @param bucketName     Bucket whose statistics are polled.
+     * @param intervalMillis Time between polls.
+     */
+    public ClusterMetricsSampler(Cluster cluster, String bucketName, long intervalMillis) {
+        this.cluster = cluster;
+        this.bucketName = bucketName;
+        this.intervalMillis = intervalMillis;
+        this.bucketStatsPath = HttpPath.of("/pools/default/buckets/{}/stats", bucketName);
+    }
+
+    /**
+     * Starts polling on a daemon thread.
+     */
+    public synchronized void start() {
+        samples.clear();
+        serverSamples.clear();
+        clockOffsetMillis = Long.MAX_VALUE;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cluster-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::poll, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops polling after a final poll, so the samples cover the end of the run.
+     */
+    public void stop() {
+        ScheduledExecutorService stopping;
+        synchronized (this) {
+            stopping = scheduler;
+            scheduler = null;
+        }
+        if (stopping == null) {
+            return;
+        }
+        stopping.shutdown();
+        try {
+            stopping.awaitTermination(intervalMillis + 5000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        poll();
+    }
+
+    /**
+     * Returns the samples collected so far on the client clock, ordered by time.
+     */
+    public synchronized List<ClusterSample> getSamples() {
+        List<ClusterSample> ordered = new ArrayList<>(samples.values());
+        long offset = clockOffsetMillis == Long.MAX_VALUE ? 0 : clockOffsetMillis;
+        for (ClusterSample sample : serverSamples.values()) {
+            ordered.add(new ClusterSample(sample.timestampMillis() + offset, sample.node(), sample.metric(), sample.value()));
+        }
+        ordered.sort(Comparator.comparingLong(ClusterSample::timestampMillis));
+        return ordered;
+    }
+
+    /**
+     * Estimated difference between the client and the server clock, in milliseconds, or 0 before the first response.
+     */
+    public synchronized long getClockOffsetMillis() {
+        return clockOffsetMillis == Long.MAX_VALUE ? 0 : clockOffsetMillis;
+    }
+
+    private void poll() {
+        try {
+            long now = System.currentTimeMillis();
+            JsonNode pool = get(CLUSTER_PATH);
+            List<String> hostnames = new ArrayList<>();
+            for (JsonNode node : pool.path("nodes")) {
+                String hostname = node.path("hostname").asText();
+                hostnames.add(hostname);
+                JsonNode systemStats = node.path("systemStats");
+                add(samples, new ClusterSample(now, hostname, SYSTEM_CPU, systemStats.path("cpu_utilization_rate").asDouble(-1)));
+                double memTotal = systemStats.path("mem_total").asDouble(-1);
+                double memFree = systemStats.path("mem_free").asDouble(-1);
+                if (memTotal >= 0 && memFree >= 0) {
+                    add(samples, new ClusterSample(now, hostname, "mem_used_mb", (memTotal - memFree) / (1024 * 1024)));
+                }
+            }
+            List<ClusterSample> bucketSamples = parseBucketStats(ClusterSample.BUCKET, get(bucketStatsPath));
+            updateClockOffset(estimateClockOffset(System.currentTimeMillis(), bucketSamples));
+            bucketSamples.forEach(sample -> add(serverSamples, sample));
+            for (String hostname : hostnames) {
+                HttpPath path = nodeStatsPaths.computeIfAbsent(hostname,
+                        host -> HttpPath.of("/pools/default/buckets/{}/nodes/{}/stats", bucketName, host));
+                parseBucketStats(hostname, get(path)).forEach(sample -> add(serverSamples, sample));
+            }
+        } catch (Exception e) {
+            // A failed poll leaves a gap in the series but must not end the sampling
+            logger.warn("Failed to poll cluster metrics: {}", e.getMessage());
+        }
+    }
+
+    private JsonNode get(HttpPath path) throws IOException {
+        HttpResponse response = cluster.httpClient().get(HttpTarget.manager(), path, GET_OPTIONS);
+        return JSON_READER.readTree(response.content());
+    }
+
+    private synchronized void add(Map<String, ClusterSample> series, ClusterSample sample) {
+        if (sample.value() >= 0) {
+            series.putIfAbsent(sample.node() + '|' + sample.metric() + '|' + sample.timestampMillis(), sample);
+        }
+    }
+
+    private synchronized void updateClockOffset(long offsetMillis) {
+        clockOffsetMillis = Math.min(clockOffsetMillis, offsetMillis);
+    }
+
+    /**
+     * Estimates the client clock minus the server clock from one bucket stats response. The newest sample is at most
+     * a second old when the response arrives, so the smallest estimate over several polls is the closest.
+     *
+     * @param receivedAtMillis Client time the response arrived, in epoch milliseconds.
+     * @param serverSamples    Samples of the response, stamped by the server.
+     * @return The estimate, or Long.MAX_VALUE if the response holds no samples.
+     */
+    public static long estimateClockOffset(long receivedAtMillis, List<ClusterSample> serverSamples) {
+        OptionalLong newest = serverSamples.stream().mapToLong(ClusterSample::timestampMillis).max();
+        return newest.isPresent() ? receivedAtMillis - newest.getAsLong() : Long.MAX_VALUE;
+    }
+
+    /**
+     * Extracts the sample arrays of the tracked metrics from a bucket stats response.
+     *
+     * @param node     Node the statistics belong to, or {@link ClusterSample#BUCKET}.
+     * @param response Parsed bucket stats response, with an "op.samples" object holding a "timestamp" array.
+     * @return One sample per tracked metric and timestamp.
+     */
+    public static List<ClusterSample> parseBucketStats(String node, JsonNode response) {
+        List<ClusterSample> parsed = new ArrayList<>();
+        JsonNode opSamples = response.at("/op/samples");
+        JsonNode timestamps = opSamples.path("timestamp");
+        for (String metric : BUCKET_METRICS) {
+            JsonNode values = opSamples.path(metric);
+            int count = Math.min(values.size(), timestamps.size());
+            for (int i = 0; i < count; i++) {
+                parsed.add(new ClusterSample(timestamps.get(i).asLong(), node, metric, values.get(i).asDouble()));
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * Averages the samples of each node and metric within a time window, to line them up with a client interval.
+     *
+     * @param samples    Samples ordered by time.
+     * @param fromMillis Start of the window, inclusive, in epoch milliseconds.
+     * @param toMillis   End of the window, exclusive, in epoch milliseconds.
+     * @return Average per "node metric" key, in the order the keys first appear.
+     */
+    public static Map<String, Double> averageBetween(List<ClusterSample> samples, long fromMillis, long toMillis) {
+        Map<String, double[]> sums = new LinkedHashMap<>();
+        for (ClusterSample sample : samples) {
+            if (sample.timestampMillis() >= fromMillis && sample.timestampMillis() < toMillis) {
+                double[] sum = sums.computeIfAbsent(sample.node() + " " + sample.metric(), key -> new double[2]);
+                sum[0] += sample.value();
+                sum[1]++;
+            }
+        }
+        Map<String, Double> averages = new LinkedHashMap<>();
+        sums.forEach((key, sum) -> averages.put(key, sum[0] / sum[1]));
+        return averages;
+    }
+}
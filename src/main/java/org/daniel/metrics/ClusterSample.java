@@ -0,0 +1,14 @@
+package org.daniel.metrics;
+
+/**
+ * One server-side metric value of a node, or of the whole bucket, at one point in time.
+ *
+ * @param timestampMillis Wall-clock time of the sample, in epoch milliseconds; samples a sampler returns are on the
+ *                        client clock.
+ * @param node            Host name of the node, or {@link #BUCKET} for bucket-wide aggregates.
+ * @param metric          Name of the metric as reported by the server, e.g. "ops" or "cpu_utilization_rate".
+ * @param value           Value of the metric.
+ */
+public record ClusterSample(long timestampMillis, String node, String metric, double value) {
+    public static final String BUCKET = "bucket";
+}
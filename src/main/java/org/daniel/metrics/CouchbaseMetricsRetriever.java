@@ -30,6 +30,16 @@ public class CouchbaseMetricsRetriever {
         this.bucketName = bucketName;
     }
 
+    /**
+     * Creates a sampler that polls the metrics of every node of the cluster while a run is in progress.
+     *
+     * @param intervalMillis Time between polls.
+     * @return A sampler that has not been started yet.
+     */
+    public ClusterMetricsSampler createSampler(long intervalMillis) {
+        return new ClusterMetricsSampler(cluster, bucketName, intervalMillis);
+    }
+
     /**
      * Retrieves various metrics from the Couchbase cluster and bucket.
      *
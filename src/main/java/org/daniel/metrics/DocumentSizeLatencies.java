@@ -0,0 +1,74 @@
+package org.daniel.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Latencies of one kind of operation, kept per document size class: the JSON size of the targeted document rounded
+ * up to a power of two. A class's histogram is created by its first latency, so only the classes of the corpus take
+ * memory; they have fewer stripes than the run-wide histograms, as each sees only a part of the operations.
+ */
+public class DocumentSizeLatencies {
+    // Size classes 2^1 to 2^30 bytes
+    private static final int MAX_CLASS_BITS = 30;
+    private static final int STRIPES = 4;
+
+    private final AtomicReferenceArray<LatencyHistogram> histograms = new AtomicReferenceArray<>(MAX_CLASS_BITS + 1);
+
+    /**
+     * Returns the size class of a document: its size rounded up to a power of two, at least 2.
+     *
+     * @param documentBytes JSON size of the document.
+     */
+    public static int sizeClass(int documentBytes) {
+        return 1 << classBits(documentBytes);
+    }
+
+    /**
+     * Records the latency of an operation on a document.
+     *
+     * @param documentBytes JSON size of the document the operation targeted.
+     * @param latency       Latency in nanoseconds.
+     */
+    public void record(int documentBytes, long latency) {
+        histogram(classBits(documentBytes)).record(latency);
+    }
+
+    /**
+     * Adds latencies recorded elsewhere, such as by another process, to a size class.
+     *
+     * @param sizeClass Size class, as returned by {@link #sizeClass(int)}.
+     * @param snapshot  Latencies to add.
+     */
+    public void add(int sizeClass, HistogramSnapshot snapshot) {
+        histogram(classBits(sizeClass)).add(snapshot);
+    }
+
+    /**
+     * Returns the latencies of every size class recorded so far, by size class in ascending order.
+     */
+    public Map<Integer, HistogramSnapshot> snapshots() {
+        Map<Integer, HistogramSnapshot> snapshots = new TreeMap<>();
+        for (int bits = 1; bits <= MAX_CLASS_BITS; bits++) {
+            LatencyHistogram histogram = histograms.get(bits);
+            if (histogram != null) {
+                snapshots.put(1 << bits, histogram.snapshot());
+            }
+        }
+        return snapshots;
+    }
+
+    private LatencyHistogram histogram(int bits) {
+        LatencyHistogram histogram = histograms.get(bits);
+        if (histogram == null) {
+            histograms.compareAndSet(bits, null, new LatencyHistogram(STRIPES));
+            histogram = histograms.get(bits);
+        }
+        return histogram;
+    }
+
+    private static int classBits(int documentBytes) {
+        return Math.min(32 - Integer.numberOfLeadingZeros(Math.max(documentBytes - 1, 1)), MAX_CLASS_BITS);
+    }
+}
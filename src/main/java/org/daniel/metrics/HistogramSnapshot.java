@@ -0,0 +1,125 @@
+package org.daniel.metrics;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable copy of the counts of a {@link LatencyHistogram}.
+ * Snapshots from different runs can be merged to compute percentiles across all of them.
+ */
+public final class HistogramSnapshot {
+    private static final HistogramSnapshot EMPTY = new HistogramSnapshot(new long[LatencyHistogram.COUNTS_LENGTH], 0);
+
+    private final long[] counts;
+    private final long totalCount;
+    private final long maxValue;
+
+    HistogramSnapshot(long[] counts, long maxValue) {
+        this.counts = counts;
+        this.totalCount = Arrays.stream(counts).sum();
+        this.maxValue = maxValue;
+    }
+
+    public static HistogramSnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Rebuilds a snapshot from the non-empty bucket counts returned by {@link #getNonZeroCounts()}.
+     *
+     * @param nonZeroCounts Count of each non-empty bucket, keyed by bucket index.
+     * @param maxValue      Highest recorded value.
+     * @return The snapshot.
+     */
+    public static HistogramSnapshot fromNonZeroCounts(Map<Integer, Long> nonZeroCounts, long maxValue) {
+        long[] counts = new long[LatencyHistogram.COUNTS_LENGTH];
+        nonZeroCounts.forEach((index, count) -> counts[index] = count);
+        return new HistogramSnapshot(counts, maxValue);
+    }
+
+    /**
+     * Merges several snapshots into one.
+     *
+     * @param snapshots Snapshots to merge.
+     * @return A snapshot holding the combined counts.
+     */
+    public static HistogramSnapshot merge(List<HistogramSnapshot> snapshots) {
+        long[] merged = new long[LatencyHistogram.COUNTS_LENGTH];
+        long max = 0;
+        for (HistogramSnapshot snapshot : snapshots) {
+            for (int i = 0; i < merged.length; i++) {
+                merged[i] += snapshot.counts[i];
+            }
+            max = Math.max(max, snapshot.maxValue);
+        }
+        return new HistogramSnapshot(merged, max);
+    }
+
+    /**
+     * Returns the counts recorded since an earlier snapshot of the same histogram.
+     * The maximum of the difference is estimated from its highest non-empty bucket.
+     *
+     * @param earlier Earlier snapshot of the same histogram.
+     * @return A snapshot holding only the values recorded in between.
+     */
+    public HistogramSnapshot minus(HistogramSnapshot earlier) {
+        long[] difference = new long[counts.length];
+        long max = 0;
+        for (int i = 0; i < counts.length; i++) {
+            difference[i] = Math.max(0, counts[i] - earlier.counts[i]);
+            if (difference[i] > 0) {
+                max = Math.min(LatencyHistogram.highestValueAt(i), maxValue);
+            }
+        }
+        return new HistogramSnapshot(difference, max);
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getMaxValue() {
+        return maxValue;
+    }
+
+    long getCountAt(int index) {
+        return counts[index];
+    }
+
+    /**
+     * Returns the count of each non-empty bucket, keyed by bucket index, as a compact form for export.
+     */
+    public Map<Integer, Long> getNonZeroCounts() {
+        Map<Integer, Long> nonZeroCounts = new TreeMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                nonZeroCounts.put(i, counts[i]);
+            }
+        }
+        return nonZeroCounts;
+    }
+
+    /**
+     * Returns the value at the given percentile.
+     *
+     * @param percentile Percentile between 0 and 100.
+     * @return The highest value equivalent to the percentile's bucket, capped at the recorded maximum, or 0 if empty.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        double clamped = Math.min(Math.max(percentile, 0.0), 100.0);
+        long countAtPercentile = Math.max(1, (long) Math.ceil(clamped / 100.0 * totalCount));
+        long runningCount = 0;
+        for (int i = 0; i < counts.length; i++) {
+            runningCount += counts[i];
+            if (runningCount >= countAtPercentile) {
+                return Math.min(LatencyHistogram.highestValueAt(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+}
@@ -0,0 +1,94 @@
+package org.daniel.metrics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes the interval time series of a run to a CSV file, one row per interval,
+ * and the server-side samples of a run on the same timeline, one row per sample.
+ */
+public class IntervalCsvWriter {
+    private static final String HEADER = "offset_s,duration_s,ops_per_sec,write_ops,read_ops,write_errors,read_errors,"
+            + "write_p50_ns,write_p99_ns,write_max_ns,read_p50_ns,read_p99_ns,read_max_ns,"
+            + "lookup_in_ops,mutate_in_ops,lookup_in_errors,mutate_in_errors,"
+            + "lookup_in_p50_ns,lookup_in_p99_ns,mutate_in_p50_ns,mutate_in_p99_ns";
+
+    private static final String CLUSTER_HEADER = "offset_s,node,metric,value";
+
+    private IntervalCsvWriter() {
+    }
+
+    /**
+     * Writes the intervals to the given file, creating parent directories as needed.
+     *
+     * @param file      Target CSV file; overwritten if it exists.
+     * @param intervals Interval snapshots of a run.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(Path file, List<IntervalSnapshot> intervals) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (IntervalSnapshot interval : intervals) {
+                writer.write(String.format(Locale.ROOT, "%.3f,%.3f,%.1f,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d",
+                        interval.startOffsetNanos() / 1e9,
+                        interval.durationNanos() / 1e9,
+                        interval.getOperationsPerSecond(),
+                        interval.writeOperations(),
+                        interval.readOperations(),
+                        interval.writeErrors(),
+                        interval.readErrors(),
+                        interval.writeLatency().getValueAtPercentile(50),
+                        interval.writeLatency().getValueAtPercentile(99),
+                        interval.writeLatency().getMaxValue(),
+                        interval.readLatency().getValueAtPercentile(50),
+                        interval.readLatency().getValueAtPercentile(99),
+                        interval.readLatency().getMaxValue(),
+                        interval.lookupInOperations(),
+                        interval.mutateInOperations(),
+                        interval.lookupInErrors(),
+                        interval.mutateInErrors(),
+                        interval.lookupInLatency().getValueAtPercentile(50),
+                        interval.lookupInLatency().getValueAtPercentile(99),
+                        interval.mutateInLatency().getValueAtPercentile(50),
+                        interval.mutateInLatency().getValueAtPercentile(99)));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Writes server-side samples with their time as an offset from the start of the run's intervals,
+     * so they line up with the offsets of the interval file. Samples taken before the measured window
+     * have negative offsets.
+     *
+     * @param file                Target CSV file; overwritten if it exists.
+     * @param samples             Server-side samples of a run.
+     * @param runStartEpochMillis Wall-clock start of the run's intervals.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void writeClusterSamples(Path file, List<ClusterSample> samples, long runStartEpochMillis) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write(CLUSTER_HEADER);
+            writer.newLine();
+            for (ClusterSample sample : samples) {
+                writer.write(String.format(Locale.ROOT, "%.3f,%s,%s,%.3f",
+                        (sample.timestampMillis() - runStartEpochMillis) / 1e3,
+                        sample.node(),
+                        sample.metric(),
+                        sample.value()));
+                writer.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.daniel.metrics;
+
+import java.util.List;
+
+/**
+ * Metrics of one reporting interval within a run; counts and latencies cover only that interval.
+ *
+ * @param startOffsetNanos   Start of the interval relative to the start of the run.
+ * @param durationNanos      Length of the interval.
+ * @param writeOperations    Successful writes completed in the interval.
+ * @param readOperations     Successful reads completed in the interval.
+ * @param writeErrors        Failed writes in the interval.
+ * @param readErrors         Failed reads in the interval.
+ * @param writeLatency       Write latencies recorded in the interval.
+ * @param readLatency        Read latencies recorded in the interval.
+ * @param lookupInOperations Successful sub-document lookups completed in the interval.
+ * @param mutateInOperations Successful sub-document mutations completed in the interval.
+ * @param lookupInErrors     Failed sub-document lookups in the interval.
+ * @param mutateInErrors     Failed sub-document mutations in the interval.
+ * @param lookupInLatency    Sub-document lookup latencies recorded in the interval.
+ * @param mutateInLatency    Sub-document mutation latencies recorded in the interval.
+ */
+public record IntervalSnapshot(long startOffsetNanos,
+                               long durationNanos,
+                               long writeOperations,
+                               long readOperations,
+                               long writeErrors,
+                               long readErrors,
+                               HistogramSnapshot writeLatency,
+                               HistogramSnapshot readLatency,
+                               long lookupInOperations,
+                               long mutateInOperations,
+                               long lookupInErrors,
+                               long mutateInErrors,
+                               HistogramSnapshot lookupInLatency,
+                               HistogramSnapshot mutateInLatency) {
+
+    /**
+     * An interval of a run without sub-document operations.
+     */
+    public IntervalSnapshot(long startOffsetNanos, long durationNanos, long writeOperations, long readOperations,
+                            long writeErrors, long readErrors, HistogramSnapshot writeLatency, HistogramSnapshot readLatency) {
+        this(startOffsetNanos, durationNanos, writeOperations, readOperations, writeErrors, readErrors, writeLatency, readLatency,
+                0, 0, 0, 0, HistogramSnapshot.empty(), HistogramSnapshot.empty());
+    }
+
+    /**
+     * Completed operations of every kind, successful or failed, per second of the interval.
+     */
+    public double getOperationsPerSecond() {
+        if (durationNanos <= 0) {
+            return 0;
+        }
+        return getCompletedOperations() / (durationNanos / 1_000_000_000.0);
+    }
+
+    /**
+     * Completed operations of every kind in the interval, successful or failed.
+     */
+    public long getCompletedOperations() {
+        return writeOperations + readOperations + writeErrors + readErrors
+                + lookupInOperations + mutateInOperations + lookupInErrors + mutateInErrors;
+    }
+
+    /**
+     * Failed operations of every kind in the interval.
+     */
+    public long getErrors() {
+        return writeErrors + readErrors + lookupInErrors + mutateInErrors;
+    }
+
+    /**
+     * Coefficient of variation (standard deviation divided by mean) of the throughput of the given intervals.
+     *
+     * @param intervals Intervals to compare.
+     * @return The coefficient of variation, or NaN if there are fewer than two intervals or no operations.
+     */
+    public static double throughputCoefficientOfVariation(List<IntervalSnapshot> intervals) {
+        if (intervals.size() < 2) {
+            return Double.NaN;
+        }
+        double mean = intervals.stream().mapToDouble(IntervalSnapshot::getOperationsPerSecond).average().orElse(0);
+        if (mean == 0) {
+            return Double.NaN;
+        }
+        double variance = intervals.stream()
+                .mapToDouble(interval -> Math.pow(interval.getOperationsPerSecond() - mean, 2))
+                .sum() / (intervals.size() - 1);
+        return Math.sqrt(variance) / mean;
+    }
+}
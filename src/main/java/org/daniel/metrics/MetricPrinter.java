@@ -1,16 +1,32 @@
 package org.daniel.metrics;
 
+import org.daniel.profiling.JfrSummary;
+import org.daniel.results.LevelResult;
+import org.daniel.results.RunResult;
+import org.daniel.util.JsonUtils;
+import org.daniel.util.PayloadCorpus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.DoubleSummaryStatistics;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
 
 /**
  * Prints metrics collected during the benchmark runs.
  */
 public class MetricPrinter {
     private static final Logger logger = LoggerFactory.getLogger(MetricPrinter.class);
+    // Beyond these the client, not the backend, is likely what limits throughput
+    private static final double CLIENT_CPU_SATURATION = 0.85;
+    private static final double CLIENT_GC_OVERHEAD = 0.05;
+    // A sub-document mutation writes a long timestamp, at most this many JSON bytes
+    private static final int MUTATE_IN_VALUE_BYTES = 20;
 
     private MetricPrinter() {
     }
@@ -30,13 +46,91 @@ public class MetricPrinter {
         logger.info("Thread Count: {}", threadCount);
         logger.info("Total Write Operations: {} (Errors: {})", writeOps, writeErrors);
         logger.info("Total Read Operations: {} (Errors: {})", readOps, readErrors);
+        printThroughput(metricsCollector.getTargetOpsPerSecond(), metricsCollector.getOperationsPerSecond());
+        logger.info("Operations Excluded at Window Boundaries: {}", metricsCollector.getExcludedOperations());
+        printClientCost(metricsCollector.getCpuNanosPerOperation(), metricsCollector.getAllocatedBytesPerOperation(),
+                metricsCollector.getKeyGenerationNanosPerOperation());
+        printClientResources(metricsCollector);
 
         if (writeOps > 0) {
             logger.info("Average Write Latency (ns): {}", metricsCollector.getAverageWriteLatency());
+            printLatencyPercentiles("Write", metricsCollector.getWriteLatencySnapshot());
         }
         if (readOps > 0) {
             logger.info("Average Read Latency (ns): {}", metricsCollector.getAverageReadLatency());
+            printLatencyPercentiles("Read", metricsCollector.getReadLatencySnapshot());
         }
+        printSubdocumentResults(metricsCollector);
+        printLatencyByDocumentSize(List.of(metricsCollector));
+        printFailures(metricsCollector.getErrorsByType(), metricsCollector.getFailedLatencySnapshot(),
+                metricsCollector.getFailedTimeFraction());
+        long batches = metricsCollector.getBatchOperations();
+        if (batches > 0) {
+            logger.info("Total Batches: {} ({} items per batch on average)", batches,
+                    String.format("%.1f", (double) metricsCollector.getCompletedOperations() / batches));
+            printLatencyPercentiles("Batch", metricsCollector.getBatchLatencySnapshot());
+        }
+    }
+
+    /**
+     * Prints the interval time series of a single run, followed by a summary of its throughput stability.
+     *
+     * @param metricsCollector Metrics collected during the run.
+     */
+    public static void printIntervals(MetricsCollector metricsCollector) {
+        List<IntervalSnapshot> intervals = metricsCollector.getIntervals();
+        if (intervals.isEmpty()) {
+            return;
+        }
+        boolean subdocument = metricsCollector.getSubdocumentOperations() > 0;
+        for (IntervalSnapshot interval : intervals) {
+            String line = String.format("[%6.1fs] ops/s=%.1f errors=%d write p50=%d p99=%d max=%d | read p50=%d p99=%d max=%d",
+                    interval.startOffsetNanos() / 1e9,
+                    interval.getOperationsPerSecond(),
+                    interval.getErrors(),
+                    interval.writeLatency().getValueAtPercentile(50),
+                    interval.writeLatency().getValueAtPercentile(99),
+                    interval.writeLatency().getMaxValue(),
+                    interval.readLatency().getValueAtPercentile(50),
+                    interval.readLatency().getValueAtPercentile(99),
+                    interval.readLatency().getMaxValue());
+            if (subdocument) {
+                line += String.format(" | lookup-in p50=%d p99=%d | mutate-in p50=%d p99=%d",
+                        interval.lookupInLatency().getValueAtPercentile(50),
+                        interval.lookupInLatency().getValueAtPercentile(99),
+                        interval.mutateInLatency().getValueAtPercentile(50),
+                        interval.mutateInLatency().getValueAtPercentile(99));
+            }
+            logger.info(line);
+            printClusterSamples(metricsCollector, interval);
+        }
+        DoubleSummaryStatistics throughput = intervals.stream().mapToDouble(IntervalSnapshot::getOperationsPerSecond).summaryStatistics();
+        logger.info("Interval Throughput (ops/s): min={} max={} CV={}",
+                String.format("%.1f", throughput.getMin()),
+                String.format("%.1f", throughput.getMax()),
+                String.format("%.3f", IntervalSnapshot.throughputCoefficientOfVariation(intervals)));
+    }
+
+    /**
+     * Prints the server-side metrics averaged over the time span of an interval.
+     *
+     * @param metricsCollector Metrics collected during the run.
+     * @param interval         Interval to align the server-side samples with.
+     */
+    private static void printClusterSamples(MetricsCollector metricsCollector, IntervalSnapshot interval) {
+        List<ClusterSample> samples = metricsCollector.getClusterSamples();
+        if (samples.isEmpty()) {
+            return;
+        }
+        long from = metricsCollector.getRunStartEpochMillis() + interval.startOffsetNanos() / 1_000_000;
+        long to = from + interval.durationNanos() / 1_000_000;
+        Map<String, Double> averages = ClusterMetricsSampler.averageBetween(samples, from, to);
+        if (averages.isEmpty()) {
+            return;
+        }
+        StringBuilder line = new StringBuilder();
+        averages.forEach((key, value) -> line.append(' ').append(key).append('=').append(String.format("%.2f", value)));
+        logger.info("        server:{}", line);
     }
 
     /**
@@ -53,6 +147,16 @@ public class MetricPrinter {
         long totalReadErrors = 0;
         long totalWriteLatency = 0;
         long totalReadLatency = 0;
+        double totalOpsPerSecond = 0;
+        List<HistogramSnapshot> writeSnapshots = new ArrayList<>();
+        List<HistogramSnapshot> readSnapshots = new ArrayList<>();
+        List<HistogramSnapshot> batchSnapshots = new ArrayList<>();
+        List<HistogramSnapshot> lookupInSnapshots = new ArrayList<>();
+        List<HistogramSnapshot> mutateInSnapshots = new ArrayList<>();
+        List<HistogramSnapshot> failedSnapshots = new ArrayList<>();
+        Map<String, Long> errorsByType = new TreeMap<>();
+        long totalFailedLatency = 0;
+        long totalLatency = 0;
 
         for (MetricsCollector mc : metricsCollectors) {
             totalWriteOps += mc.getWriteOperations();
@@ -61,6 +165,17 @@ public class MetricPrinter {
             totalReadErrors += mc.getReadErrors();
             totalWriteLatency += mc.getTotalWriteLatency();
             totalReadLatency += mc.getTotalReadLatency();
+            totalOpsPerSecond += mc.getOperationsPerSecond();
+            writeSnapshots.add(mc.getWriteLatencySnapshot());
+            readSnapshots.add(mc.getReadLatencySnapshot());
+            batchSnapshots.add(mc.getBatchLatencySnapshot());
+            lookupInSnapshots.add(mc.getLookupInLatencySnapshot());
+            mutateInSnapshots.add(mc.getMutateInLatencySnapshot());
+            failedSnapshots.add(mc.getFailedLatencySnapshot());
+            mc.getErrorsByType().forEach((type, count) -> errorsByType.merge(type, count, Long::sum));
+            totalFailedLatency += mc.getTotalFailedLatency();
+            totalLatency += mc.getTotalFailedLatency() + mc.getTotalWriteLatency() + mc.getTotalReadLatency()
+                    + mc.getTotalLookupInLatency() + mc.getTotalMutateInLatency();
         }
 
         long avgWriteOps = totalWriteOps / runs;
@@ -76,6 +191,327 @@ public class MetricPrinter {
         logger.info("Average Total Read Operations: {} (Errors: {})", avgReadOps, avgReadErrors);
         logger.info("Average Write Latency (ns): {}", avgWriteLatency);
         logger.info("Average Read Latency (ns): {}", avgReadLatency);
+        printThroughput(metricsCollectors.get(0).getTargetOpsPerSecond(), totalOpsPerSecond / runs);
+        printClientCost(averageMeasured(metricsCollectors, MetricsCollector::getCpuNanosPerOperation),
+                averageMeasured(metricsCollectors, MetricsCollector::getAllocatedBytesPerOperation),
+                averageMeasured(metricsCollectors, MetricsCollector::getKeyGenerationNanosPerOperation));
+        printLatencyPercentiles("Write", HistogramSnapshot.merge(writeSnapshots));
+        printLatencyPercentiles("Read", HistogramSnapshot.merge(readSnapshots));
+        HistogramSnapshot lookupInLatency = HistogramSnapshot.merge(lookupInSnapshots);
+        if (lookupInLatency.getTotalCount() > 0) {
+            printLatencyPercentiles("Lookup-In", lookupInLatency);
+        }
+        HistogramSnapshot mutateInLatency = HistogramSnapshot.merge(mutateInSnapshots);
+        if (mutateInLatency.getTotalCount() > 0) {
+            printLatencyPercentiles("Mutate-In", mutateInLatency);
+        }
+        HistogramSnapshot batchLatency = HistogramSnapshot.merge(batchSnapshots);
+        if (batchLatency.getTotalCount() > 0) {
+            printLatencyPercentiles("Batch", batchLatency);
+        }
+        printLatencyByDocumentSize(metricsCollectors);
+        printFailures(errorsByType, HistogramSnapshot.merge(failedSnapshots),
+                totalLatency > 0 ? (double) totalFailedLatency / totalLatency : 0);
+    }
+
+    /**
+     * Averages a per-operation cost over the runs that measured it, skipping the -1 of runs that could not.
+     *
+     * @return The average, or -1 if no run measured the cost.
+     */
+    private static double averageMeasured(List<MetricsCollector> runs, ToDoubleFunction<MetricsCollector> cost) {
+        return runs.stream().mapToDouble(cost).filter(value -> value >= 0).average().orElse(-1);
+    }
+
+    /**
+     * Prints the sub-document lookups and mutations of a run, if it issued any.
+     */
+    private static void printSubdocumentResults(MetricsCollector metricsCollector) {
+        if (metricsCollector.getSubdocumentOperations() == 0) {
+            return;
+        }
+        long lookupInOps = metricsCollector.getLookupInOperations();
+        long mutateInOps = metricsCollector.getMutateInOperations();
+        logger.info("Total Lookup-In Operations: {} (Errors: {})", lookupInOps, metricsCollector.getLookupInErrors());
+        logger.info("Total Mutate-In Operations: {} (Errors: {})", mutateInOps, metricsCollector.getMutateInErrors());
+        if (lookupInOps > 0) {
+            logger.info("Average Lookup-In Latency (ns): {}", metricsCollector.getAverageLookupInLatency());
+            printLatencyPercentiles("Lookup-In", metricsCollector.getLookupInLatencySnapshot());
+        }
+        if (mutateInOps > 0) {
+            logger.info("Average Mutate-In Latency (ns): {}", metricsCollector.getAverageMutateInLatency());
+            printLatencyPercentiles("Mutate-In", metricsCollector.getMutateInLatencySnapshot());
+        }
+    }
+
+    /**
+     * Prints the failed operations by exception type, how long they took to fail and the share of the operation time
+     * they took up, if any operation failed.
+     *
+     * @param errorsByType       Failed operations by exception type.
+     * @param failedLatency      Time the failed operations took to fail.
+     * @param failedTimeFraction Share of the operation time spent in failed operations.
+     */
+    private static void printFailures(Map<String, Long> errorsByType, HistogramSnapshot failedLatency, double failedTimeFraction) {
+        if (errorsByType.isEmpty()) {
+            return;
+        }
+        logger.info("Errors by Type: {}", errorsByType.entrySet().stream()
+                .map(entry -> entry.getKey() + "=" + entry.getValue())
+                .collect(Collectors.joining(", ")));
+        printLatencyPercentiles("Failed Operation", failedLatency);
+        logger.info("Operation Time Spent in Failed Operations: {}%", String.format("%.1f", failedTimeFraction * 100));
+    }
+
+    /**
+     * Prints the latencies of each kind of operation per size class of the targeted documents, merged over the runs,
+     * so full-document reads and writes can be compared with sub-document lookups and mutations on the same documents.
+     * Prints nothing for runs that did not break their latencies down by document size.
+     */
+    private static void printLatencyByDocumentSize(List<MetricsCollector> runs) {
+        // Size class, then kind in the order printed, then the latencies of every run
+        TreeMap<Integer, Map<String, List<HistogramSnapshot>>> sizeClasses = new TreeMap<>();
+        for (MetricsCollector run : runs) {
+            run.getLatencyByDocumentSize().forEach((kind, bySize) -> bySize.forEach((sizeClass, latency) ->
+                    sizeClasses.computeIfAbsent(sizeClass, size -> new TreeMap<>())
+                            .computeIfAbsent(kind, k -> new ArrayList<>())
+                            .add(latency)));
+        }
+        if (sizeClasses.isEmpty()) {
+            return;
+        }
+        logger.info("=== Latency by Document Size (p50/p99 ns) ===");
+        for (Map.Entry<Integer, Map<String, List<HistogramSnapshot>>> entry : sizeClasses.entrySet()) {
+            StringBuilder line = new StringBuilder("Documents up to " + entry.getKey() + " bytes:");
+            for (String kind : List.of("read", "lookup-in", "write", "mutate-in")) {
+                List<HistogramSnapshot> latencies = entry.getValue().get(kind);
+                if (latencies != null) {
+                    HistogramSnapshot latency = HistogramSnapshot.merge(latencies);
+                    line.append(' ').append(kind).append('=').append(latency.getValueAtPercentile(50))
+                            .append('/').append(latency.getValueAtPercentile(99))
+                            .append(" (").append(latency.getTotalCount()).append(" ops)");
+                }
+            }
+            logger.info(line.toString());
+        }
+    }
+
+    /**
+     * Prints, per document size class of the corpus, the payload of a full-document round trip next to that of the
+     * sub-document operations on the given paths. Documents are grouped by size rounded up to a power of two.
+     * Sizes are JSON payload bytes; protocol headers are the same either way and left out.
+     * A lookup returns the values found at its paths; a mutation sends its paths and a value each.
+     *
+     * @param corpus        Documents of the run.
+     * @param lookupInPaths Paths read by sub-document lookups.
+     * @param mutateInPaths Paths written by sub-document mutations.
+     */
+    public static void printSubdocumentPayloadSizes(PayloadCorpus corpus, List<String> lookupInPaths, List<String> mutateInPaths) {
+        int mutateInBytes = 0;
+        for (String path : mutateInPaths) {
+            mutateInBytes += path.length() + MUTATE_IN_VALUE_BYTES;
+        }
+        // Per size class: documents, document bytes, looked-up bytes, paths found
+        TreeMap<Integer, long[]> sizeClasses = new TreeMap<>();
+        for (int i = 0; i < corpus.size(); i++) {
+            Object document = corpus.get(i);
+            int documentBytes = corpus.documentBytes(i);
+            long[] totals = sizeClasses.computeIfAbsent(DocumentSizeLatencies.sizeClass(documentBytes), size -> new long[4]);
+            totals[0]++;
+            totals[1] += documentBytes;
+            for (int size : JsonUtils.pathValueSizes(document, lookupInPaths)) {
+                if (size >= 0) {
+                    totals[2] += size;
+                    totals[3]++;
+                }
+            }
+        }
+        logger.info("=== Sub-Document Payload Sizes ===");
+        for (Map.Entry<Integer, long[]> entry : sizeClasses.entrySet()) {
+            long[] totals = entry.getValue();
+            double documentBytes = (double) totals[1] / totals[0];
+            double lookupInBytes = (double) totals[2] / totals[0];
+            logger.info("Documents up to {} bytes ({}): full document {} bytes, lookup-in {} bytes ({}% of a read, {} of {} paths found), mutate-in {} bytes ({}% of a write)",
+                    entry.getKey(), totals[0],
+                    String.format("%.0f", documentBytes),
+                    String.format("%.0f", lookupInBytes),
+                    String.format("%.1f", 100 * lookupInBytes / documentBytes),
+                    String.format("%.1f", (double) totals[3] / totals[0]), lookupInPaths.size(),
+                    mutateInBytes,
+                    String.format("%.1f", 100 * mutateInBytes / documentBytes));
+        }
+    }
+
+    /**
+     * Prints the achieved throughput, and for open-loop runs how it compares to the target rate.
+     *
+     * @param targetOpsPerSecond   Target arrival rate, or 0 for closed-loop runs.
+     * @param achievedOpsPerSecond Completed operations per second.
+     */
+    private static void printThroughput(double targetOpsPerSecond, double achievedOpsPerSecond) {
+        if (targetOpsPerSecond > 0) {
+            logger.info("Throughput (ops/s): {} (Target: {}, {}% of target)",
+                    String.format("%.1f", achievedOpsPerSecond),
+                    String.format("%.1f", targetOpsPerSecond),
+                    String.format("%.1f", achievedOpsPerSecond / targetOpsPerSecond * 100));
+        } else {
+            logger.info("Throughput (ops/s): {}", String.format("%.1f", achievedOpsPerSecond));
+        }
+    }
+
+    /**
+     * Prints one line per client settings, payload encoding and concurrency level comparing throughput, client cost
+     * and failures.
+     *
+     * @param results Run metrics keyed by a label naming the client settings, encoding and concurrency level.
+     */
+    public static void printClientCostComparison(Map<String, List<MetricsCollector>> results) {
+        logger.info("=== Client Cost Comparison ===");
+        for (Map.Entry<String, List<MetricsCollector>> entry : results.entrySet()) {
+            List<MetricsCollector> runs = entry.getValue();
+            if (runs.isEmpty()) {
+                continue;
+            }
+            List<HistogramSnapshot> writeSnapshots = runs.stream().map(MetricsCollector::getWriteLatencySnapshot).toList();
+            long errors = runs.stream().mapToLong(mc -> mc.getErrorsByType().values().stream().mapToLong(Long::longValue).sum()).sum();
+            logger.info("{}: ops/s={} CPU/op (us)={} alloc/op (bytes)={} write p99 (ns)={} errors={} failed time={}%",
+                    entry.getKey(),
+                    String.format("%.1f", runs.stream().mapToDouble(MetricsCollector::getOperationsPerSecond).average().orElse(0)),
+                    String.format("%.2f", averageMeasured(runs, MetricsCollector::getCpuNanosPerOperation) / 1000),
+                    String.format("%.0f", averageMeasured(runs, MetricsCollector::getAllocatedBytesPerOperation)),
+                    HistogramSnapshot.merge(writeSnapshots).getValueAtPercentile(99),
+                    errors,
+                    String.format("%.1f", runs.stream().mapToDouble(MetricsCollector::getFailedTimeFraction).average().orElse(0) * 100));
+        }
+    }
+
+    /**
+     * Prints the executor strategies of one concurrency level side by side, averaged over their runs.
+     *
+     * @param level   Concurrency level the strategies ran at, e.g. "20 threads".
+     * @param results Metrics of each run, keyed by executor strategy.
+     */
+    public static void printExecutorStrategyComparison(String level, Map<String, List<MetricsCollector>> results) {
+        logger.info("=== Executor Strategy Comparison at {} ===", level);
+        for (Map.Entry<String, List<MetricsCollector>> entry : results.entrySet()) {
+            List<MetricsCollector> runs = entry.getValue();
+            if (runs.isEmpty()) {
+                logger.info("{}: no completed runs", entry.getKey());
+                continue;
+            }
+            HistogramSnapshot read = HistogramSnapshot.merge(runs.stream().map(MetricsCollector::getReadLatencySnapshot).toList());
+            HistogramSnapshot write = HistogramSnapshot.merge(runs.stream().map(MetricsCollector::getWriteLatencySnapshot).toList());
+            logger.info("{}: ops/s={} read p50/p99 (ns)={}/{} write p50/p99 (ns)={}/{} CPU/op (us)={} peak threads={}",
+                    entry.getKey(),
+                    String.format("%.1f", runs.stream().mapToDouble(MetricsCollector::getOperationsPerSecond).average().orElse(0)),
+                    read.getValueAtPercentile(50), read.getValueAtPercentile(99),
+                    write.getValueAtPercentile(50), write.getValueAtPercentile(99),
+                    String.format("%.2f", averageMeasured(runs, MetricsCollector::getCpuNanosPerOperation) / 1000),
+                    runs.stream().map(MetricsCollector::getClientResourceUsage).filter(Objects::nonNull)
+                            .mapToInt(ClientResourceSample::peakThreads).max().orElse(-1));
+        }
+    }
+
+    /**
+     * Prints one line per completed cell of a benchmark matrix with its throughput, latency and errors averaged over its runs.
+     *
+     * @param levels     Results of the completed cells, labeled with the cell IDs.
+     * @param totalCells Number of cells in the matrix.
+     */
+    public static void printMatrixSummary(List<LevelResult> levels, int totalCells) {
+        logger.info("=== Benchmark Matrix Summary ({}/{} cells completed) ===", levels.size(), totalCells);
+        for (LevelResult level : levels) {
+            List<RunResult> runs = level.runs();
+            logger.info("{}: ops/s={} read p99 (ns)={} write p99 (ns)={} errors={}",
+                    level.label(),
+                    String.format("%.1f", runs.stream().mapToDouble(RunResult::operationsPerSecond).average().orElse(0)),
+                    String.format("%.0f", runs.stream().mapToLong(run -> run.readLatency().p99()).average().orElse(0)),
+                    String.format("%.0f", runs.stream().mapToLong(run -> run.writeLatency().p99()).average().orElse(0)),
+                    runs.stream().mapToLong(run -> run.readErrors() + run.writeErrors() + run.lookupInErrors() + run.mutateInErrors()).sum());
+        }
+    }
+
+    /**
+     * Prints the client CPU time and heap allocation per operation, if the JVM reported them,
+     * and the time spent generating the key of an operation, if it was measured.
+     *
+     * @param cpuNanosPerOp           CPU time per operation, negative if unavailable.
+     * @param allocatedBytesPerOp     Allocated bytes per operation, negative if unavailable.
+     * @param keyGenerationNanosPerOp Key generation time per operation, negative if unavailable.
+     */
+    private static void printClientCost(double cpuNanosPerOp, double allocatedBytesPerOp, double keyGenerationNanosPerOp) {
+        if (cpuNanosPerOp >= 0 || allocatedBytesPerOp >= 0) {
+            logger.info("Client Cost per Operation: CPU={} us, Allocation={} bytes",
+                    cpuNanosPerOp < 0 ? "n/a" : String.format("%.2f", cpuNanosPerOp / 1000),
+                    allocatedBytesPerOp < 0 ? "n/a" : String.format("%.0f", allocatedBytesPerOp));
+        }
+        if (keyGenerationNanosPerOp >= 0) {
+            logger.info("Key Generation per Operation: {} ns", String.format("%.1f", keyGenerationNanosPerOp));
+        }
+    }
+
+    /**
+     * Prints the client process's CPU utilization, garbage collection and thread counts during the measured window,
+     * and warns if the client looks like the bottleneck of the run.
+     *
+     * @param metricsCollector Metrics collected during the run.
+     */
+    private static void printClientResources(MetricsCollector metricsCollector) {
+        ClientResourceSample usage = metricsCollector.getClientResourceUsage();
+        if (usage == null) {
+            return;
+        }
+        double cpuUtilization = metricsCollector.getClientCpuUtilization();
+        double gcTimeFraction = metricsCollector.getGcTimeFraction();
+        logger.info("Client Resources: CPU={}% of {} processors, GC={} pauses ({}% of the window), Platform Threads={} (peak {})",
+                cpuUtilization < 0 ? "n/a" : String.format("%.1f", cpuUtilization * 100), usage.processors(),
+                usage.gcCount() < 0 ? "n/a" : usage.gcCount(),
+                gcTimeFraction < 0 ? "n/a" : String.format("%.2f", gcTimeFraction * 100),
+                usage.liveThreads(), usage.peakThreads());
+        if (cpuUtilization > CLIENT_CPU_SATURATION) {
+            logger.warn("Client CPU utilization is {}%: the client may be the bottleneck rather than the backend",
+                    String.format("%.1f", cpuUtilization * 100));
+        }
+        if (gcTimeFraction > CLIENT_GC_OVERHEAD) {
+            logger.warn("Client GC pauses took {}% of the window: the client may be the bottleneck rather than the backend",
+                    String.format("%.1f", gcTimeFraction * 100));
+        }
+    }
+
+    /**
+     * Prints the summary of a run's JFR recording: virtual-thread pinning, GC pauses and the hottest and
+     * most allocating frames.
+     *
+     * @param summary Summary of the recording.
+     */
+    public static void printJfrSummary(JfrSummary summary) {
+        logger.info("Virtual Thread Pinned Events: {} (total {} ms)", summary.pinnedEvents(),
+                String.format("%.1f", summary.pinnedNanos() / 1e6));
+        logger.info("Garbage Collections: {} (paused {} ms in total)", summary.gcCount(), String.format("%.1f", summary.gcPauseNanos() / 1e6));
+        logger.info("Hottest Frames ({} execution samples):", summary.executionSamples());
+        for (JfrSummary.FrameWeight frame : summary.hottestFrames()) {
+            logger.info("  {}% {}", String.format("%5.1f", frame.share() * 100), frame.frame());
+        }
+        logger.info("Top Allocating Frames ({} MB sampled):", String.format("%.1f", summary.allocatedBytes() / 1e6));
+        for (JfrSummary.FrameWeight frame : summary.topAllocatingFrames()) {
+            logger.info("  {}% {}", String.format("%5.1f", frame.share() * 100), frame.frame());
+        }
+    }
+
+    /**
+     * Prints the tail latency percentiles of a latency histogram.
+     *
+     * @param operationType Label of the operation type, e.g. "Read" or "Write".
+     * @param snapshot      Histogram of the recorded latencies.
+     */
+    private static void printLatencyPercentiles(String operationType, HistogramSnapshot snapshot) {
+        logger.info("{} Latency Percentiles (ns): p50={} p90={} p99={} p99.9={} max={}",
+                operationType,
+                snapshot.getValueAtPercentile(50),
+                snapshot.getValueAtPercentile(90),
+                snapshot.getValueAtPercentile(99),
+                snapshot.getValueAtPercentile(99.9),
+                snapshot.getMaxValue());
     }
 
     /**
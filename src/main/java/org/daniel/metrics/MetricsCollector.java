@@ -1,26 +1,232 @@
 package org.daniel.metrics;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Collects metrics during the benchmark runs.
+ * While interval sampling is active, a background thread also records a snapshot of every reporting interval.
+ * Interval metrics are the difference between consecutive cumulative snapshots, so the recording path is unchanged.
+ * Sub-document lookups and mutations are kept apart from the full-document reads and writes, so the two can be compared;
+ * they count towards throughput, client cost and the intervals like any other operation. For the comparison, a run can
+ * also break the latencies of each kind down by the size of the targeted document.
+ * Failed operations are additionally counted by exception type, and how long they took to fail is recorded in a
+ * histogram of its own, since a timeout holds a worker for the whole timeout.
  */
 public class MetricsCollector {
+    private static final long DEFAULT_INTERVAL_MILLIS = 1000;
+
     private final LongAdder totalWriteLatency = new LongAdder();
     private final LongAdder totalReadLatency = new LongAdder();
     private final LongAdder writeOperations = new LongAdder();
     private final LongAdder readOperations = new LongAdder();
     private final LongAdder writeErrors = new LongAdder();
     private final LongAdder readErrors = new LongAdder();
+    private final LatencyHistogram writeLatencyHistogram = new LatencyHistogram();
+    private final LatencyHistogram readLatencyHistogram = new LatencyHistogram();
+    private final LongAdder totalLookupInLatency = new LongAdder();
+    private final LongAdder totalMutateInLatency = new LongAdder();
+    private final LongAdder lookupInOperations = new LongAdder();
+    private final LongAdder mutateInOperations = new LongAdder();
+    private final LongAdder lookupInErrors = new LongAdder();
+    private final LongAdder mutateInErrors = new LongAdder();
+    private final LatencyHistogram lookupInLatencyHistogram = new LatencyHistogram();
+    private final LatencyHistogram mutateInLatencyHistogram = new LatencyHistogram();
+    private final DocumentSizeLatencies readLatencyBySize = new DocumentSizeLatencies();
+    private final DocumentSizeLatencies writeLatencyBySize = new DocumentSizeLatencies();
+    private final DocumentSizeLatencies lookupInLatencyBySize = new DocumentSizeLatencies();
+    private final DocumentSizeLatencies mutateInLatencyBySize = new DocumentSizeLatencies();
+    private final Map<String, DocumentSizeLatencies> latencyBySize = Map.of(
+            "read", readLatencyBySize, "write", writeLatencyBySize,
+            "lookup-in", lookupInLatencyBySize, "mutate-in", mutateInLatencyBySize);
+    private final ConcurrentHashMap<String, LongAdder> errorsByType = new ConcurrentHashMap<>();
+    private final LongAdder totalFailedLatency = new LongAdder();
+    private final LatencyHistogram failedLatencyHistogram = new LatencyHistogram();
+    private final LongAdder batchOperations = new LongAdder();
+    private final LongAdder excludedOperations = new LongAdder();
+    private final LatencyHistogram batchLatencyHistogram = new LatencyHistogram();
+    private volatile long measuredDurationNanos;
+    private volatile double targetOpsPerSecond;
+    private volatile ClientResourceSample clientResourceUsage;
+    private volatile int clientProcesses = 1;
+    private volatile double keyGenerationNanosPerOperation = -1;
+    private final long intervalMillis;
+    private final List<IntervalSnapshot> intervals = Collections.synchronizedList(new ArrayList<>());
+    private volatile ScheduledExecutorService intervalScheduler;
+    private long intervalStartNanos;
+    private long runStartNanos;
+    private long samplingEndNanos;
+    private volatile long runStartEpochMillis;
+    private volatile List<ClusterSample> clusterSamples = List.of();
+    private long previousWriteOperations;
+    private long previousReadOperations;
+    private long previousWriteErrors;
+    private long previousReadErrors;
+    private long previousLookupInOperations;
+    private long previousMutateInOperations;
+    private long previousLookupInErrors;
+    private long previousMutateInErrors;
+    private HistogramSnapshot previousWriteLatency = HistogramSnapshot.empty();
+    private HistogramSnapshot previousReadLatency = HistogramSnapshot.empty();
+    private HistogramSnapshot previousLookupInLatency = HistogramSnapshot.empty();
+    private HistogramSnapshot previousMutateInLatency = HistogramSnapshot.empty();
+
+    public MetricsCollector() {
+        this(DEFAULT_INTERVAL_MILLIS);
+    }
+
+    /**
+     * @param intervalMillis Length of the reporting intervals recorded while interval sampling is active.
+     */
+    public MetricsCollector(long intervalMillis) {
+        this.intervalMillis = intervalMillis;
+    }
 
     public void recordWriteLatency(long latency) {
         totalWriteLatency.add(latency);
         writeOperations.increment();
+        writeLatencyHistogram.record(latency);
     }
 
     public void recordReadLatency(long latency) {
         totalReadLatency.add(latency);
         readOperations.increment();
+        readLatencyHistogram.record(latency);
+    }
+
+    public void recordLookupInLatency(long latency) {
+        totalLookupInLatency.add(latency);
+        lookupInOperations.increment();
+        lookupInLatencyHistogram.record(latency);
+    }
+
+    public void recordMutateInLatency(long latency) {
+        totalMutateInLatency.add(latency);
+        mutateInOperations.increment();
+        mutateInLatencyHistogram.record(latency);
+    }
+
+    /**
+     * Records the exception type of a failed operation and the time it took to fail.
+     * The failure is counted as a read, write or sub-document error separately.
+     *
+     * @param error   Exception the operation failed with; completion and execution exceptions are unwrapped.
+     * @param latency Time from the start of the operation until it failed.
+     */
+    public void recordFailedOperation(Throwable error, long latency) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        String type = error != null ? error.getClass().getSimpleName() : "Unknown";
+        errorsByType.computeIfAbsent(type, t -> new LongAdder()).increment();
+        totalFailedLatency.add(latency);
+        failedLatencyHistogram.record(latency);
+    }
+
+    /**
+     * Records the latency of a whole batch, from issuing its first item until its last item completed.
+     * The items themselves are recorded individually as reads or writes.
+     */
+    public void recordBatchLatency(long latency) {
+        batchOperations.increment();
+        batchLatencyHistogram.record(latency);
+    }
+
+    /**
+     * Adds operations recorded elsewhere, such as by a distributed worker, as if they had been recorded here.
+     * The operation counts are the total counts of the latency snapshots.
+     *
+     * @param writeLatency      Latencies of the successful writes.
+     * @param totalWriteLatency Sum of the write latencies.
+     * @param writeErrorCount   Failed writes.
+     * @param readLatency       Latencies of the successful reads.
+     * @param totalReadLatency  Sum of the read latencies.
+     * @param readErrorCount    Failed reads.
+     * @param batchLatency      Latencies of the batches.
+     */
+    public void addRecorded(HistogramSnapshot writeLatency, long totalWriteLatency, long writeErrorCount,
+                            HistogramSnapshot readLatency, long totalReadLatency, long readErrorCount,
+                            HistogramSnapshot batchLatency) {
+        writeLatencyHistogram.add(writeLatency);
+        writeOperations.add(writeLatency.getTotalCount());
+        this.totalWriteLatency.add(totalWriteLatency);
+        writeErrors.add(writeErrorCount);
+        readLatencyHistogram.add(readLatency);
+        readOperations.add(readLatency.getTotalCount());
+        this.totalReadLatency.add(totalReadLatency);
+        readErrors.add(readErrorCount);
+        batchLatencyHistogram.add(batchLatency);
+        batchOperations.add(batchLatency.getTotalCount());
+    }
+
+    /**
+     * Adds sub-document operations recorded elsewhere, such as by a distributed worker, as if they had been recorded here.
+     *
+     * @param lookupInLatency      Latencies of the successful sub-document lookups.
+     * @param totalLookupInLatency Sum of the lookup latencies.
+     * @param lookupInErrorCount   Failed lookups.
+     * @param mutateInLatency      Latencies of the successful sub-document mutations.
+     * @param totalMutateInLatency Sum of the mutation latencies.
+     * @param mutateInErrorCount   Failed mutations.
+     */
+    public void addRecordedSubdocument(HistogramSnapshot lookupInLatency, long totalLookupInLatency, long lookupInErrorCount,
+                                       HistogramSnapshot mutateInLatency, long totalMutateInLatency, long mutateInErrorCount) {
+        lookupInLatencyHistogram.add(lookupInLatency);
+        lookupInOperations.add(lookupInLatency.getTotalCount());
+        this.totalLookupInLatency.add(totalLookupInLatency);
+        lookupInErrors.add(lookupInErrorCount);
+        mutateInLatencyHistogram.add(mutateInLatency);
+        mutateInOperations.add(mutateInLatency.getTotalCount());
+        this.totalMutateInLatency.add(totalMutateInLatency);
+        mutateInErrors.add(mutateInErrorCount);
+    }
+
+    /**
+     * Adds failed operations recorded elsewhere, such as by a distributed worker, as if they had been recorded here.
+     *
+     * @param errorCounts        Failed operations by exception type.
+     * @param failedLatency      Time the failed operations took to fail.
+     * @param totalFailedLatency Sum of the failed operations' latencies.
+     */
+    public void addRecordedFailures(Map<String, Long> errorCounts, HistogramSnapshot failedLatency, long totalFailedLatency) {
+        errorCounts.forEach((type, count) -> errorsByType.computeIfAbsent(type, t -> new LongAdder()).add(count));
+        failedLatencyHistogram.add(failedLatency);
+        this.totalFailedLatency.add(totalFailedLatency);
+    }
+
+    /**
+     * Appends an interval recorded elsewhere, such as intervals combined from several distributed workers.
+     */
+    public void addInterval(IntervalSnapshot interval) {
+        intervals.add(interval);
+    }
+
+    /**
+     * Counts an operation left out of the results because it started or completed outside the measured window.
+     */
+    public void incrementExcludedOperations() {
+        excludedOperations.increment();
+    }
+
+    /**
+     * Adds operations excluded by another collector, such as those of another worker process.
+     */
+    public void addExcludedOperations(long count) {
+        excludedOperations.add(count);
+    }
+
+    public long getExcludedOperations() {
+        return excludedOperations.sum();
     }
 
     public void incrementWriteErrors() {
@@ -31,6 +237,14 @@ public class MetricsCollector {
         readErrors.increment();
     }
 
+    public void incrementLookupInErrors() {
+        lookupInErrors.increment();
+    }
+
+    public void incrementMutateInErrors() {
+        mutateInErrors.increment();
+    }
+
     public long getTotalWriteLatency() {
         return totalWriteLatency.sum();
     }
@@ -64,4 +278,419 @@ public class MetricsCollector {
         long readOps = getReadOperations();
         return readOps > 0 ? getTotalReadLatency() / readOps : 0;
     }
+
+    public HistogramSnapshot getWriteLatencySnapshot() {
+        return writeLatencyHistogram.snapshot();
+    }
+
+    public HistogramSnapshot getReadLatencySnapshot() {
+        return readLatencyHistogram.snapshot();
+    }
+
+    public long getTotalLookupInLatency() {
+        return totalLookupInLatency.sum();
+    }
+
+    public long getTotalMutateInLatency() {
+        return totalMutateInLatency.sum();
+    }
+
+    public long getLookupInOperations() {
+        return lookupInOperations.sum();
+    }
+
+    public long getMutateInOperations() {
+        return mutateInOperations.sum();
+    }
+
+    public long getLookupInErrors() {
+        return lookupInErrors.sum();
+    }
+
+    public long getMutateInErrors() {
+        return mutateInErrors.sum();
+    }
+
+    public long getAverageLookupInLatency() {
+        long lookupInOps = getLookupInOperations();
+        return lookupInOps > 0 ? getTotalLookupInLatency() / lookupInOps : 0;
+    }
+
+    public long getAverageMutateInLatency() {
+        long mutateInOps = getMutateInOperations();
+        return mutateInOps > 0 ? getTotalMutateInLatency() / mutateInOps : 0;
+    }
+
+    public HistogramSnapshot getLookupInLatencySnapshot() {
+        return lookupInLatencyHistogram.snapshot();
+    }
+
+    public HistogramSnapshot getMutateInLatencySnapshot() {
+        return mutateInLatencyHistogram.snapshot();
+    }
+
+    public DocumentSizeLatencies getReadLatencyBySize() {
+        return readLatencyBySize;
+    }
+
+    public DocumentSizeLatencies getWriteLatencyBySize() {
+        return writeLatencyBySize;
+    }
+
+    public DocumentSizeLatencies getLookupInLatencyBySize() {
+        return lookupInLatencyBySize;
+    }
+
+    public DocumentSizeLatencies getMutateInLatencyBySize() {
+        return mutateInLatencyBySize;
+    }
+
+    /**
+     * Returns the latencies by document size class of each kind of operation that has any: read, write, lookup-in
+     * and mutate-in. Empty unless the run broke its latencies down by document size.
+     */
+    public Map<String, Map<Integer, HistogramSnapshot>> getLatencyByDocumentSize() {
+        Map<String, Map<Integer, HistogramSnapshot>> latencies = new TreeMap<>();
+        latencyBySize.forEach((kind, bySize) -> {
+            Map<Integer, HistogramSnapshot> snapshots = bySize.snapshots();
+            if (!snapshots.isEmpty()) {
+                latencies.put(kind, snapshots);
+            }
+        });
+        return latencies;
+    }
+
+    /**
+     * Adds latencies by document size class recorded elsewhere, such as by a distributed worker.
+     *
+     * @param latencies Latencies by kind of operation and size class, as returned by {@link #getLatencyByDocumentSize()}.
+     */
+    public void addLatencyByDocumentSize(Map<String, Map<Integer, HistogramSnapshot>> latencies) {
+        latencies.forEach((kind, bySize) -> {
+            DocumentSizeLatencies target = latencyBySize.get(kind);
+            if (target != null) {
+                bySize.forEach(target::add);
+            }
+        });
+    }
+
+    /**
+     * Returns the failed operations by the simple name of their exception type, sorted by name.
+     */
+    public Map<String, Long> getErrorsByType() {
+        Map<String, Long> counts = new TreeMap<>();
+        errorsByType.forEach((type, count) -> counts.put(type, count.sum()));
+        return counts;
+    }
+
+    public long getTotalFailedLatency() {
+        return totalFailedLatency.sum();
+    }
+
+    public HistogramSnapshot getFailedLatencySnapshot() {
+        return failedLatencyHistogram.snapshot();
+    }
+
+    /**
+     * Returns the share of the time spent in operations that was spent in operations that eventually failed,
+     * or 0 if no operation was recorded. This is the share of worker capacity lost to failures in closed-loop modes.
+     */
+    public double getFailedTimeFraction() {
+        long failed = getTotalFailedLatency();
+        long total = failed + getTotalWriteLatency() + getTotalReadLatency() + getTotalLookupInLatency() + getTotalMutateInLatency();
+        return total > 0 ? (double) failed / total : 0;
+    }
+
+    /**
+     * Returns the number of completed sub-document operations, including failed ones.
+     */
+    public long getSubdocumentOperations() {
+        return getLookupInOperations() + getMutateInOperations() + getLookupInErrors() + getMutateInErrors();
+    }
+
+    public long getBatchOperations() {
+        return batchOperations.sum();
+    }
+
+    public HistogramSnapshot getBatchLatencySnapshot() {
+        return batchLatencyHistogram.snapshot();
+    }
+
+    public void setMeasuredDurationNanos(long measuredDurationNanos) {
+        this.measuredDurationNanos = measuredDurationNanos;
+    }
+
+    public long getMeasuredDurationNanos() {
+        return measuredDurationNanos;
+    }
+
+    public void setTargetOpsPerSecond(double targetOpsPerSecond) {
+        this.targetOpsPerSecond = targetOpsPerSecond;
+    }
+
+    /**
+     * Target arrival rate of an open-loop run, or 0 for closed-loop runs.
+     */
+    public double getTargetOpsPerSecond() {
+        return targetOpsPerSecond;
+    }
+
+    /**
+     * Completed operations, successful or failed, per second of the measured duration.
+     */
+    public double getOperationsPerSecond() {
+        if (measuredDurationNanos <= 0) {
+            return 0;
+        }
+        return getCompletedOperations() / (measuredDurationNanos / 1_000_000_000.0);
+    }
+
+    /**
+     * Returns the number of completed operations, including failed ones.
+     */
+    public long getCompletedOperations() {
+        return getWriteOperations() + getReadOperations() + getWriteErrors() + getReadErrors() + getSubdocumentOperations();
+    }
+
+    /**
+     * Sets the client CPU time and allocation used during the measured window.
+     *
+     * @param clientResourceUsage Difference between the samples taken at the start and end of the window.
+     */
+    public void setClientResourceUsage(ClientResourceSample clientResourceUsage) {
+        setClientResourceUsage(clientResourceUsage, 1);
+    }
+
+    /**
+     * Sets the combined client resource usage of several processes during the measured window.
+     *
+     * @param clientResourceUsage Sum of the processes' usage.
+     * @param processes           Number of processes that generated the load.
+     */
+    public void setClientResourceUsage(ClientResourceSample clientResourceUsage, int processes) {
+        this.clientResourceUsage = clientResourceUsage;
+        this.clientProcesses = processes;
+    }
+
+    /**
+     * Returns the client resources used during the measured window, or null if not measured.
+     */
+    public ClientResourceSample getClientResourceUsage() {
+        return clientResourceUsage;
+    }
+
+    /**
+     * Returns the client CPU time per completed operation, or -1 if it was not measured.
+     */
+    public double getCpuNanosPerOperation() {
+        long operations = getCompletedOperations();
+        if (clientResourceUsage == null || clientResourceUsage.cpuNanos() < 0 || operations == 0) {
+            return -1;
+        }
+        return (double) clientResourceUsage.cpuNanos() / operations;
+    }
+
+    /**
+     * Returns the fraction of the client's available processor time used during the measured window,
+     * or -1 if it was not measured.
+     */
+    public double getClientCpuUtilization() {
+        if (clientResourceUsage == null || clientResourceUsage.cpuNanos() < 0 || measuredDurationNanos == 0) {
+            return -1;
+        }
+        return (double) clientResourceUsage.cpuNanos() / ((double) measuredDurationNanos * clientResourceUsage.processors());
+    }
+
+    /**
+     * Returns the fraction of the measured window the client spent in GC pauses, averaged over the client processes,
+     * or -1 if it was not measured.
+     */
+    public double getGcTimeFraction() {
+        if (clientResourceUsage == null || clientResourceUsage.gcPauseNanos() < 0 || measuredDurationNanos == 0) {
+            return -1;
+        }
+        return (double) clientResourceUsage.gcPauseNanos() / ((double) measuredDurationNanos * clientProcesses);
+    }
+
+    /**
+     * Returns the heap bytes allocated by the client per completed operation, or -1 if it was not measured.
+     */
+    public double getAllocatedBytesPerOperation() {
+        long operations = getCompletedOperations();
+        if (clientResourceUsage == null || clientResourceUsage.allocatedBytes() < 0 || operations == 0) {
+            return -1;
+        }
+        return (double) clientResourceUsage.allocatedBytes() / operations;
+    }
+
+    /**
+     * Sets the mean time the workers spent choosing and formatting the key of an operation during the measured window.
+     *
+     * @param keyGenerationNanosPerOperation Mean key generation time, or -1 if it was not measured.
+     */
+    public void setKeyGenerationNanosPerOperation(double keyGenerationNanosPerOperation) {
+        this.keyGenerationNanosPerOperation = keyGenerationNanosPerOperation;
+    }
+
+    /**
+     * Returns the mean time spent generating the key of an operation, or -1 if it was not measured.
+     */
+    public double getKeyGenerationNanosPerOperation() {
+        return keyGenerationNanosPerOperation;
+    }
+
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    /**
+     * Starts recording a snapshot every reporting interval. Intervals are measured from this call.
+     */
+    public void startIntervalSampling() {
+        startIntervalSampling(System.nanoTime(), Long.MAX_VALUE);
+    }
+
+    /**
+     * Starts recording a snapshot every reporting interval of a window with known bounds.
+     * No interval is recorded past the end of the window; the final interval is recorded by
+     * {@link #stopIntervalSampling()}, so operations completing just before the end are still included.
+     *
+     * @param startNanos Start of the window, in System.nanoTime() terms.
+     * @param endNanos   End of the window, in System.nanoTime() terms.
+     */
+    public synchronized void startIntervalSampling(long startNanos, long endNanos) {
+        long now = System.nanoTime();
+        runStartEpochMillis = System.currentTimeMillis() - TimeUnit.NANOSECONDS.toMillis(now - startNanos);
+        runStartNanos = startNanos;
+        samplingEndNanos = endNanos;
+        intervalStartNanos = runStartNanos;
+        intervalScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "interval-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        intervalScheduler.scheduleAtFixedRate(this::samplePeriodicInterval,
+                Math.max(0, startNanos + intervalNanos - now), intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stops interval sampling and records the final, possibly shorter, interval, ending no later than the window.
+     */
+    public synchronized void stopIntervalSampling() {
+        if (intervalScheduler == null) {
+            return;
+        }
+        intervalScheduler.shutdownNow();
+        intervalScheduler = null;
+        sampleInterval(Math.min(System.nanoTime(), samplingEndNanos));
+    }
+
+    /**
+     * Snapshots recorded so far, in chronological order.
+     */
+    public List<IntervalSnapshot> getIntervals() {
+        synchronized (intervals) {
+            return List.copyOf(intervals);
+        }
+    }
+
+    /**
+     * The most recently recorded interval, or null if there is none yet. Does not touch the live histograms,
+     * so it can be called while operations are being recorded.
+     */
+    public IntervalSnapshot getLatestInterval() {
+        synchronized (intervals) {
+            return intervals.isEmpty() ? null : intervals.get(intervals.size() - 1);
+        }
+    }
+
+    /**
+     * Whether interval sampling is active, i.e. the measured window of the run is open.
+     */
+    public boolean isIntervalSamplingActive() {
+        return intervalScheduler != null;
+    }
+
+    /**
+     * Wall-clock time at which interval sampling started, in epoch milliseconds; maps interval offsets
+     * onto the timeline of server-side samples.
+     */
+    public long getRunStartEpochMillis() {
+        return runStartEpochMillis;
+    }
+
+    /**
+     * Sets the wall-clock start of a run whose intervals were recorded elsewhere.
+     */
+    public void setRunStartEpochMillis(long runStartEpochMillis) {
+        this.runStartEpochMillis = runStartEpochMillis;
+    }
+
+    /**
+     * Sets the server-side samples polled during the run.
+     */
+    public void setClusterSamples(List<ClusterSample> clusterSamples) {
+        this.clusterSamples = List.copyOf(clusterSamples);
+    }
+
+    /**
+     * Server-side samples polled during the run, ordered by time; empty for local backends.
+     */
+    public List<ClusterSample> getClusterSamples() {
+        return clusterSamples;
+    }
+
+    private synchronized void samplePeriodicInterval() {
+        long now = System.nanoTime();
+        if (now < samplingEndNanos) {
+            sampleInterval(now);
+        }
+    }
+
+    private void sampleInterval(long now) {
+        long writeOps = getWriteOperations();
+        long readOps = getReadOperations();
+        long writeErrorCount = getWriteErrors();
+        long readErrorCount = getReadErrors();
+        long lookupInOps = getLookupInOperations();
+        long mutateInOps = getMutateInOperations();
+        long lookupInErrorCount = getLookupInErrors();
+        long mutateInErrorCount = getMutateInErrors();
+        HistogramSnapshot writeLatency = getWriteLatencySnapshot();
+        HistogramSnapshot readLatency = getReadLatencySnapshot();
+        HistogramSnapshot lookupInLatency = getLookupInLatencySnapshot();
+        HistogramSnapshot mutateInLatency = getMutateInLatencySnapshot();
+
+        intervals.add(new IntervalSnapshot(
+                intervalStartNanos - runStartNanos,
+                now - intervalStartNanos,
+                writeOps - previousWriteOperations,
+                readOps - previousReadOperations,
+                writeErrorCount - previousWriteErrors,
+                readErrorCount - previousReadErrors,
+                writeLatency.minus(previousWriteLatency),
+                readLatency.minus(previousReadLatency),
+                lookupInOps - previousLookupInOperations,
+                mutateInOps - previousMutateInOperations,
+                lookupInErrorCount - previousLookupInErrors,
+                mutateInErrorCount - previousMutateInErrors,
+                lookupInLatency.minus(previousLookupInLatency),
+                mutateInLatency.minus(previousMutateInLatency)
+        ));
+
+        intervalStartNanos = now;
+        previousWriteOperations = writeOps;
+        previousReadOperations = readOps;
+        previousWriteErrors = writeErrorCount;
+        previousReadErrors = readErrorCount;
+        previousLookupInOperations = lookupInOps;
+        previousMutateInOperations = mutateInOps;
+        previousLookupInErrors = lookupInErrorCount;
+        previousMutateInErrors = mutateInErrorCount;
+        previousWriteLatency = writeLatency;
+        previousReadLatency = readLatency;
+        previousLookupInLatency = lookupInLatency;
+        previousMutateInLatency = mutateInLatency;
+    }
 }
@@ -0,0 +1,212 @@
+package org.daniel.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Embedded HTTP endpoint serving the progress and live metrics of a benchmark sweep at /metrics in the OpenMetrics
+ * text format, so a long sweep can be followed from Prometheus while it runs.
+ * A scrape only reads what the run maintains anyway: the operation totals, which are summed without writing to them,
+ * and the latency histograms of the last reporting interval, already copied by the interval sampler. It never copies
+ * the live histograms, so scrapes do not contend with the workers recording operations. Throughput and latency
+ * percentiles therefore lag by up to one interval and, like the intervals, cover full-document reads and writes.
+ * Operations are only counted in the measured window, not during the warmup. Runs executed by distributed workers
+ * return their metrics at the end, so for them only the progress is live.
+ */
+public class MetricsEndpoint implements AutoCloseable {
+    private static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final HttpServer server;
+    private final LongAdder completedRuns = new LongAdder();
+    private volatile Progress progress = new Progress("", 0, 0, 0, null, false);
+
+    /**
+     * Position of the sweep: the level being benchmarked and its run in progress.
+     *
+     * @param level       Label of the concurrency level.
+     * @param concurrency Thread count, in-flight window or open-loop worker count of the level.
+     * @param run         Run in progress or last run of the level, starting at 1; 0 before the first run.
+     * @param runs        Number of runs of the level.
+     * @param metrics     Metrics of the run, or null if they are recorded elsewhere.
+     * @param active      Whether the run is in progress.
+     */
+    private record Progress(String level, int concurrency, int run, int runs, MetricsCollector metrics, boolean active) {
+    }
+
+    private MetricsEndpoint(HttpServer server) {
+        this.server = server;
+    }
+
+    /**
+     * Starts serving the metrics on all interfaces.
+     *
+     * @param port Port to listen on, or 0 for any free port.
+     * @return The running endpoint.
+     * @throws IOException If the port cannot be bound.
+     */
+    public static MetricsEndpoint start(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        MetricsEndpoint endpoint = new MetricsEndpoint(server);
+        server.createContext("/metrics", endpoint::handle);
+        server.start();
+        return endpoint;
+    }
+
+    /**
+     * Port the endpoint listens on.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Publishes the start of a concurrency level.
+     *
+     * @param level       Label of the level.
+     * @param concurrency Thread count, in-flight window or open-loop worker count.
+     * @param runs        Number of runs of the level.
+     */
+    public void levelStarted(String level, int concurrency, int runs) {
+        progress = new Progress(level, concurrency, 0, runs, null, false);
+    }
+
+    /**
+     * Publishes the start of a run of the current level.
+     *
+     * @param run     Run number, starting at 1.
+     * @param metrics Metrics the run records into, or null if they are recorded elsewhere.
+     */
+    public void runStarted(int run, MetricsCollector metrics) {
+        Progress current = progress;
+        progress = new Progress(current.level(), current.concurrency(), run, current.runs(), metrics, true);
+    }
+
+    /**
+     * Publishes the end of the run in progress. Its metrics stay exposed until the next run starts.
+     */
+    public void runFinished() {
+        Progress current = progress;
+        progress = new Progress(current.level(), current.concurrency(), current.run(), current.runs(), current.metrics(), false);
+        completedRuns.increment();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private String render() {
+        Progress current = progress;
+        StringBuilder out = new StringBuilder();
+        family(out, "benchmark_level", "info", "Concurrency level being benchmarked.");
+        sample(out, "benchmark_level_info", "level", current.level(), 1);
+        family(out, "benchmark_concurrency", "gauge", "Thread count, in-flight window or open-loop worker count of the level.");
+        sample(out, "benchmark_concurrency", current.concurrency());
+        family(out, "benchmark_active_workers", "gauge", "Workers of the run in progress, 0 between runs.");
+        sample(out, "benchmark_active_workers", current.active() ? current.concurrency() : 0);
+        family(out, "benchmark_run", "gauge", "Run in progress or last run of the level, starting at 1.");
+        sample(out, "benchmark_run", current.run());
+        family(out, "benchmark_runs_per_level", "gauge", "Number of runs of each level.");
+        sample(out, "benchmark_runs_per_level", current.runs());
+        family(out, "benchmark_runs_completed", "counter", "Runs completed since the sweep started.");
+        sample(out, "benchmark_runs_completed_total", completedRuns.sum());
+
+        MetricsCollector metrics = current.metrics();
+        if (metrics != null) {
+            renderRunMetrics(out, metrics);
+        }
+        out.append("# EOF\n");
+        return out.toString();
+    }
+
+    private static void renderRunMetrics(StringBuilder out, MetricsCollector metrics) {
+        family(out, "benchmark_measuring", "gauge", "1 while the measured window of the run is open.");
+        sample(out, "benchmark_measuring", metrics.isIntervalSamplingActive() ? 1 : 0);
+        family(out, "benchmark_operations", "counter", "Successful operations in the measured window of the run.");
+        sample(out, "benchmark_operations_total", "type", "read", metrics.getReadOperations());
+        sample(out, "benchmark_operations_total", "type", "write", metrics.getWriteOperations());
+        sample(out, "benchmark_operations_total", "type", "lookup_in", metrics.getLookupInOperations());
+        sample(out, "benchmark_operations_total", "type", "mutate_in", metrics.getMutateInOperations());
+        family(out, "benchmark_errors", "counter", "Failed operations in the measured window of the run.");
+        sample(out, "benchmark_errors_total", "type", "read", metrics.getReadErrors());
+        sample(out, "benchmark_errors_total", "type", "write", metrics.getWriteErrors());
+        sample(out, "benchmark_errors_total", "type", "lookup_in", metrics.getLookupInErrors());
+        sample(out, "benchmark_errors_total", "type", "mutate_in", metrics.getMutateInErrors());
+        family(out, "benchmark_errors_by_exception", "counter", "Failed operations of the run by exception class.");
+        for (Map.Entry<String, Long> errors : metrics.getErrorsByType().entrySet()) {
+            sample(out, "benchmark_errors_by_exception_total", "exception", errors.getKey(), errors.getValue());
+        }
+
+        IntervalSnapshot interval = metrics.getLatestInterval();
+        if (interval == null) {
+            return;
+        }
+        family(out, "benchmark_operations_per_second", "gauge", "Completed operations per second in the last interval.");
+        sample(out, "benchmark_operations_per_second", interval.getOperationsPerSecond());
+        family(out, "benchmark_latency_seconds", "gauge", "Latency percentiles of the last interval.");
+        latencyPercentiles(out, "read", interval.readLatency());
+        latencyPercentiles(out, "write", interval.writeLatency());
+        latencyPercentiles(out, "lookup_in", interval.lookupInLatency());
+        latencyPercentiles(out, "mutate_in", interval.mutateInLatency());
+    }
+
+    private static void latencyPercentiles(StringBuilder out, String type, HistogramSnapshot latency) {
+        if (latency.getTotalCount() == 0) {
+            return;
+        }
+        for (double percentile : PERCENTILES) {
+            out.append("benchmark_latency_seconds{type=\"").append(type)
+                    .append("\",percentile=\"").append(formatPercentile(percentile)).append("\"} ")
+                    .append(latency.getValueAtPercentile(percentile) / 1e9).append('\n');
+        }
+    }
+
+    private static void family(StringBuilder out, String name, String type, String help) {
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n')
+                .append("# HELP ").append(name).append(' ').append(help).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, double value) {
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, long value) {
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String label, String labelValue, long value) {
+        out.append(name).append('{').append(label).append("=\"").append(escape(labelValue)).append("\"} ")
+                .append(value).append('\n');
+    }
+
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+    private static String escape(String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,96 @@
+package org.daniel.profiling;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.daniel.benchmark.MeasurementListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Records the measured window of a run with JDK Flight Recorder. Captures virtual-thread pinning, garbage
+ * collections, allocation samples and execution samples, then writes the .jfr file and a JSON summary of it.
+ * One recorder records one run.
+ */
+public class JfrRecorder implements MeasurementListener {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final Path recordingFile;
+    private final Path summaryFile;
+    private final Duration pinnedThreshold;
+    private final Duration samplingPeriod;
+    private final int topFrames;
+    private Recording recording;
+
+    /**
+     * @param baseFile        Path of the output files without extension; ".jfr" and "-jfr-summary.json" are appended.
+     * @param pinnedThreshold Shortest pinned block recorded; zero records every one.
+     * @param samplingPeriod  Time between execution samples of each thread.
+     * @param topFrames       Number of frames listed per ranking in the summary.
+     */
+    public JfrRecorder(Path baseFile, Duration pinnedThreshold, Duration samplingPeriod, int topFrames) {
+        this.recordingFile = baseFile.resolveSibling(baseFile.getFileName() + ".jfr");
+        this.summaryFile = baseFile.resolveSibling(baseFile.getFileName() + "-jfr-summary.json");
+        this.pinnedThreshold = pinnedThreshold;
+        this.samplingPeriod = samplingPeriod;
+        this.topFrames = topFrames;
+    }
+
+    @Override
+    public void windowOpened() {
+        recording = new Recording();
+        recording.setName("benchmark-run");
+        recording.enable(JfrSummary.PINNED_EVENT).withThreshold(pinnedThreshold).withStackTrace();
+        recording.enable(JfrSummary.GC_EVENT);
+        recording.enable(JfrSummary.ALLOCATION_EVENT).withStackTrace();
+        recording.enable(JfrSummary.EXECUTION_EVENT).withPeriod(samplingPeriod).withStackTrace();
+        recording.setToDisk(true);
+        recording.start();
+    }
+
+    @Override
+    public void windowClosed() {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+    }
+
+    /**
+     * Writes the recording and its summary next to the results. Parsing the recording takes a moment,
+     * so call this after the run rather than from {@link #windowClosed()}.
+     *
+     * @return The summary, or null if the window never opened.
+     * @throws IOException If the files cannot be written.
+     */
+    public JfrSummary finish() throws IOException {
+        if (recording == null) {
+            return null;
+        }
+        try {
+            // Stops the recording if the run was interrupted before the window closed
+            windowClosed();
+            if (recordingFile.getParent() != null) {
+                Files.createDirectories(recordingFile.getParent());
+            }
+            recording.dump(recordingFile);
+        } finally {
+            recording.close();
+            recording = null;
+        }
+        JfrSummary summary = JfrSummary.read(recordingFile, topFrames);
+        OBJECT_MAPPER.writeValue(summaryFile.toFile(), summary);
+        return summary;
+    }
+
+    public Path getRecordingFile() {
+        return recordingFile;
+    }
+
+    public Path getSummaryFile() {
+        return summaryFile;
+    }
+}
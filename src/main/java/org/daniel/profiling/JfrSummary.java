@@ -0,0 +1,112 @@
+package org.daniel.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What a JFR recording of a measured window says about the client: how often and how long virtual threads pinned
+ * their carrier, how long GC paused the application, and which frames allocate the most and are sampled the most.
+ *
+ * @param pinnedEvents        Number of times a virtual thread blocked while pinned to its carrier for longer than the threshold.
+ * @param pinnedNanos         Total time virtual threads spent pinned in those events.
+ * @param gcCount             Number of garbage collections; a collection can pause the application several times.
+ * @param gcPauseNanos        Total time the application was paused by them, the sum of all their pauses.
+ * @param executionSamples    Number of execution samples taken.
+ * @param allocatedBytes      Bytes allocated, as estimated by the allocation samples.
+ * @param hottestFrames       Top frames of the execution samples with the most samples.
+ * @param topAllocatingFrames Top frames of the allocation samples with the most allocated bytes.
+ */
+public record JfrSummary(long pinnedEvents, long pinnedNanos, long gcCount, long gcPauseNanos,
+                         long executionSamples, long allocatedBytes,
+                         List<FrameWeight> hottestFrames, List<FrameWeight> topAllocatingFrames) {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    static final String GC_EVENT = "jdk.GarbageCollection";
+    static final String ALLOCATION_EVENT = "jdk.ObjectAllocationSample";
+    static final String EXECUTION_EVENT = "jdk.ExecutionSample";
+
+    /**
+     * A frame and its weight: samples for execution, bytes for allocation.
+     *
+     * @param frame  Method and line of the frame.
+     * @param weight Weight of the frame.
+     * @param share  Fraction of the total weight.
+     */
+    public record FrameWeight(String frame, long weight, double share) {
+    }
+
+    /**
+     * Reads a recording and summarizes it.
+     *
+     * @param recording Recording file.
+     * @param topFrames Number of frames listed per ranking.
+     * @return The summary.
+     * @throws IOException If the recording cannot be read.
+     */
+    public static JfrSummary read(Path recording, int topFrames) throws IOException {
+        long pinnedEvents = 0;
+        long pinnedNanos = 0;
+        long gcCount = 0;
+        long gcPauseNanos = 0;
+        long executionSamples = 0;
+        long allocatedBytes = 0;
+        Map<String, Long> executionFrames = new HashMap<>();
+        Map<String, Long> allocationFrames = new HashMap<>();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                switch (event.getEventType().getName()) {
+                    case PINNED_EVENT -> {
+                        pinnedEvents++;
+                        pinnedNanos += event.getDuration().toNanos();
+                    }
+                    case GC_EVENT -> {
+                        gcCount++;
+                        Duration sumOfPauses = event.getDuration("sumOfPauses");
+                        gcPauseNanos += sumOfPauses.toNanos();
+                    }
+                    case EXECUTION_EVENT -> {
+                        executionSamples++;
+                        executionFrames.merge(topFrame(event), 1L, Long::sum);
+                    }
+                    case ALLOCATION_EVENT -> {
+                        long weight = event.getLong("weight");
+                        allocatedBytes += weight;
+                        allocationFrames.merge(topFrame(event), weight, Long::sum);
+                    }
+                    default -> {
+                    }
+                }
+            }
+        }
+        return new JfrSummary(pinnedEvents, pinnedNanos, gcCount, gcPauseNanos, executionSamples, allocatedBytes,
+                rank(executionFrames, executionSamples, topFrames), rank(allocationFrames, allocatedBytes, topFrames));
+    }
+
+    private static String topFrame(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "<no stack trace>";
+        }
+        RecordedFrame frame = stackTrace.getFrames().get(0);
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    private static List<FrameWeight> rank(Map<String, Long> frames, long total, int topFrames) {
+        return frames.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(topFrames)
+                .map(entry -> new FrameWeight(entry.getKey(), entry.getValue(), (double) entry.getValue() / total))
+                .toList();
+    }
+}
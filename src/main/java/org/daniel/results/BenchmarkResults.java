@@ -0,0 +1,17 @@
+package org.daniel.results;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * All results of one benchmark invocation, together with the configuration it ran with.
+ *
+ * @param startedAt     Start time of the invocation, ISO-8601.
+ * @param backend       Name of the backend benchmarked.
+ * @param executionMode Execution mode of the runs.
+ * @param config        Application properties, without credentials.
+ * @param levels        Results of every benchmarked configuration, in the order they ran.
+ */
+public record BenchmarkResults(String startedAt, String backend, String executionMode, Map<String, String> config,
+                               List<LevelResult> levels) {
+}
@@ -0,0 +1,56 @@
+package org.daniel.results;
+
+import org.daniel.metrics.HistogramSnapshot;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Exported form of a latency histogram: its headline percentiles plus the non-empty bucket counts,
+ * from which the full histogram can be rebuilt. Values are in nanoseconds.
+ */
+public record HistogramData(long totalCount, long p50, long p90, long p99, long p999, long max, Map<Integer, Long> counts) {
+
+    public static HistogramData of(HistogramSnapshot snapshot) {
+        return new HistogramData(
+                snapshot.getTotalCount(),
+                snapshot.getValueAtPercentile(50),
+                snapshot.getValueAtPercentile(90),
+                snapshot.getValueAtPercentile(99),
+                snapshot.getValueAtPercentile(99.9),
+                snapshot.getMaxValue(),
+                snapshot.getNonZeroCounts()
+        );
+    }
+
+    /**
+     * Exports latencies by kind of operation and document size class, such as those of
+     * {@link org.daniel.metrics.MetricsCollector#getLatencyByDocumentSize()}.
+     */
+    public static Map<String, Map<Integer, HistogramData>> of(Map<String, Map<Integer, HistogramSnapshot>> snapshots) {
+        Map<String, Map<Integer, HistogramData>> data = new TreeMap<>();
+        snapshots.forEach((kind, bySize) -> {
+            Map<Integer, HistogramData> sizes = new TreeMap<>();
+            bySize.forEach((sizeClass, snapshot) -> sizes.put(sizeClass, of(snapshot)));
+            data.put(kind, sizes);
+        });
+        return data;
+    }
+
+    /**
+     * Rebuilds latencies by kind of operation and document size class exported by {@link #of(Map)}.
+     */
+    public static Map<String, Map<Integer, HistogramSnapshot>> toSnapshots(Map<String, Map<Integer, HistogramData>> data) {
+        Map<String, Map<Integer, HistogramSnapshot>> snapshots = new TreeMap<>();
+        data.forEach((kind, bySize) -> {
+            Map<Integer, HistogramSnapshot> sizes = new TreeMap<>();
+            bySize.forEach((sizeClass, histogram) -> sizes.put(sizeClass, histogram.toSnapshot()));
+            snapshots.put(kind, sizes);
+        });
+        return snapshots;
+    }
+
+    public HistogramSnapshot toSnapshot() {
+        return HistogramSnapshot.fromNonZeroCounts(counts, max);
+    }
+}
@@ -0,0 +1,37 @@
+package org.daniel.results;
+
+import org.daniel.metrics.IntervalSnapshot;
+
+/**
+ * Exported form of one reporting interval of a run. Latencies are in nanoseconds.
+ */
+public record IntervalResult(double startSeconds, double durationSeconds, long writeOperations, long readOperations,
+                             long writeErrors, long readErrors, double operationsPerSecond,
+                             long writeP50, long writeP99, long readP50, long readP99,
+                             long lookupInOperations, long mutateInOperations, long lookupInErrors, long mutateInErrors,
+                             long lookupInP50, long lookupInP99, long mutateInP50, long mutateInP99) {
+
+    public static IntervalResult of(IntervalSnapshot interval) {
+        return new IntervalResult(
+                interval.startOffsetNanos() / 1e9,
+                interval.durationNanos() / 1e9,
+                interval.writeOperations(),
+                interval.readOperations(),
+                interval.writeErrors(),
+                interval.readErrors(),
+                interval.getOperationsPerSecond(),
+                interval.writeLatency().getValueAtPercentile(50),
+                interval.writeLatency().getValueAtPercentile(99),
+                interval.readLatency().getValueAtPercentile(50),
+                interval.readLatency().getValueAtPercentile(99),
+                interval.lookupInOperations(),
+                interval.mutateInOperations(),
+                interval.lookupInErrors(),
+                interval.mutateInErrors(),
+                interval.lookupInLatency().getValueAtPercentile(50),
+                interval.lookupInLatency().getValueAtPercentile(99),
+                interval.mutateInLatency().getValueAtPercentile(50),
+                interval.mutateInLatency().getValueAtPercentile(99)
+        );
+    }
+}
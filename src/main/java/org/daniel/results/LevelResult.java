@@ -0,0 +1,17 @@
+package org.daniel.results;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exported runs of one benchmark configuration, e.g. one thread count with one payload encoding.
+ *
+ * @param label              Identifies the configuration; result sets are compared level by level on it.
+ * @param concurrency        Thread count, in-flight window or open-loop worker count.
+ * @param targetOpsPerSecond Target arrival rate of open-loop runs, or 0 for closed-loop runs.
+ * @param runs               Runs of the level.
+ * @param clusterMetrics     Couchbase cluster metrics retrieved after the runs; empty for local backends.
+ */
+public record LevelResult(String label, int concurrency, double targetOpsPerSecond, List<RunResult> runs,
+                          Map<String, Double> clusterMetrics) {
+}
@@ -0,0 +1,140 @@
+package org.daniel.results;
+
+import java.util.Arrays;
+
+/**
+ * Two-sided Mann-Whitney U test, which tells whether two samples come from different distributions
+ * without assuming normality. Suited to the handful of runs per level, where throughput and tail
+ * latency are often skewed. Up to {@value #EXACT_MAX_SAMPLES} values in total, the p-value is exact: it counts the
+ * splits of the observed ranks, ties included, that are at least as extreme. Larger samples use the normal
+ * approximation with tie and continuity corrections.
+ * Small samples cannot reach every significance level; {@link #minimumPValue} tells which levels are reachable.
+ */
+public final class MannWhitneyTest {
+    static final int EXACT_MAX_SAMPLES = 20;
+
+    private MannWhitneyTest() {
+    }
+
+    /**
+     * Returns the two-sided p-value of the hypothesis that both samples come from the same distribution.
+     *
+     * @param first  First sample.
+     * @param second Second sample.
+     * @return The p-value, or 1 if either sample is empty or all values are equal.
+     */
+    public static double pValue(double[] first, double[] second) {
+        int n1 = first.length;
+        int n2 = second.length;
+        if (n1 == 0 || n2 == 0) {
+            return 1.0;
+        }
+        int n = n1 + n2;
+        double[][] combined = new double[n][];
+        for (int i = 0; i < n1; i++) {
+            combined[i] = new double[]{first[i], 0};
+        }
+        for (int i = 0; i < n2; i++) {
+            combined[n1 + i] = new double[]{second[i], 1};
+        }
+        Arrays.sort(combined, (a, b) -> Double.compare(a[0], b[0]));
+
+        // Rank sum of the first sample, with tied values sharing their average rank. Ranks are kept doubled,
+        // so the average ranks of ties are integers too
+        int[] doubledRanks = new int[n];
+        int doubledRankSumFirst = 0;
+        double tieCorrection = 0;
+        int i = 0;
+        while (i < n) {
+            int j = i;
+            while (j + 1 < n && combined[j + 1][0] == combined[i][0]) {
+                j++;
+            }
+            int doubledRank = i + j + 2;
+            for (int k = i; k <= j; k++) {
+                doubledRanks[k] = doubledRank;
+                if (combined[k][1] == 0) {
+                    doubledRankSumFirst += doubledRank;
+                }
+            }
+            int ties = j - i + 1;
+            tieCorrection += (double) ties * ties * ties - ties;
+            i = j + 1;
+        }
+        if (n <= EXACT_MAX_SAMPLES) {
+            return exactPValue(doubledRanks, n1, doubledRankSumFirst);
+        }
+
+        double rankSumFirst = doubledRankSumFirst / 2.0;
+        double u = rankSumFirst - n1 * (n1 + 1) / 2.0;
+        double mean = n1 * (double) n2 / 2.0;
+        double variance = n1 * (double) n2 / 12.0 * ((n + 1) - tieCorrection / ((double) n * (n - 1)));
+        if (variance <= 0) {
+            return 1.0;
+        }
+        double z = Math.max(0, Math.abs(u - mean) - 0.5) / Math.sqrt(variance);
+        return Math.min(1.0, erfc(z / Math.sqrt(2)));
+    }
+
+    /**
+     * Returns the smallest two-sided p-value samples of the given sizes can produce, reached when they do not overlap.
+     * A difference between samples whose minimum is not below alpha can never be significant at alpha.
+     *
+     * @param n1 Size of the first sample.
+     * @param n2 Size of the second sample.
+     * @return The smallest p-value, 1 if either sample is empty.
+     */
+    public static double minimumPValue(int n1, int n2) {
+        if (n1 == 0 || n2 == 0) {
+            return 1.0;
+        }
+        // Both completely separated orderings out of all ways to split n1 + n2 ranks
+        double splits = 1;
+        for (int k = 1; k <= Math.min(n1, n2); k++) {
+            splits = splits * (n1 + n2 - k + 1) / k;
+        }
+        return Math.min(1.0, 2 / splits);
+    }
+
+    /**
+     * Exact two-sided p-value: the fraction of all ways to pick the first sample's ranks from the observed ranks
+     * whose rank sum is at least as far from its mean as the observed one.
+     *
+     * @param doubledRanks        Doubled ranks of all values.
+     * @param n1                  Size of the first sample.
+     * @param doubledRankSumFirst Doubled rank sum of the first sample.
+     */
+    private static double exactPValue(int[] doubledRanks, int n1, int doubledRankSumFirst) {
+        int maxSum = Arrays.stream(doubledRanks).sum();
+        // counts[k][s]: number of ways to pick k of the ranks seen so far with doubled rank sum s
+        double[][] counts = new double[n1 + 1][maxSum + 1];
+        counts[0][0] = 1;
+        for (int rank : doubledRanks) {
+            for (int k = n1; k >= 1; k--) {
+                for (int sum = maxSum; sum >= rank; sum--) {
+                    counts[k][sum] += counts[k - 1][sum - rank];
+                }
+            }
+        }
+        int doubledMean = n1 * (doubledRanks.length + 1);
+        int observedDeviation = Math.abs(doubledRankSumFirst - doubledMean);
+        double extreme = 0;
+        double total = 0;
+        for (int sum = 0; sum <= maxSum; sum++) {
+            total += counts[n1][sum];
+            if (Math.abs(sum - doubledMean) >= observedDeviation) {
+                extreme += counts[n1][sum];
+            }
+        }
+        return Math.min(1.0, extreme / total);
+    }
+
+    /**
+     * Complementary error function for non-negative arguments (Abramowitz and Stegun 7.1.26, error below 1.5e-7).
+     */
+    private static double erfc(double x) {
+        double t = 1 / (1 + 0.3275911 * x);
+        double polynomial = t * (0.254829592 + t * (-0.284496736 + t * (1.421413741 + t * (-1.453152027 + t * 1.061405429))));
+        return polynomial * Math.exp(-x * x);
+    }
+}
@@ -0,0 +1,140 @@
+package org.daniel.results;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Compares two result sets level by level and flags statistically significant regressions.
+ * For every level present in both sets, the per-run throughput and latency percentiles of the baseline and
+ * candidate runs are compared with a Mann-Whitney U test; a change is significant if its p-value is below alpha.
+ * With few runs, such as single-run search probes or matrix cells, no p-value can fall below alpha; those findings
+ * are flagged inconclusive rather than reported as showing no change.
+ */
+public class ResultsComparison {
+    private static final Logger logger = LoggerFactory.getLogger(ResultsComparison.class);
+
+    private static final List<Metric> METRICS = List.of(
+            new Metric("throughput (ops/s)", true, RunResult::operationsPerSecond),
+            new Metric("write p50 (ns)", false, run -> run.writeLatency().p50()),
+            new Metric("write p99 (ns)", false, run -> run.writeLatency().p99()),
+            new Metric("write p99.9 (ns)", false, run -> run.writeLatency().p999()),
+            new Metric("read p50 (ns)", false, run -> run.readLatency().p50()),
+            new Metric("read p99 (ns)", false, run -> run.readLatency().p99()),
+            new Metric("read p99.9 (ns)", false, run -> run.readLatency().p999()),
+            new Metric("lookup-in p50 (ns)", false, run -> run.lookupInLatency().p50()),
+            new Metric("lookup-in p99 (ns)", false, run -> run.lookupInLatency().p99()),
+            new Metric("lookup-in p99.9 (ns)", false, run -> run.lookupInLatency().p999()),
+            new Metric("mutate-in p50 (ns)", false, run -> run.mutateInLatency().p50()),
+            new Metric("mutate-in p99 (ns)", false, run -> run.mutateInLatency().p99()),
+            new Metric("mutate-in p99.9 (ns)", false, run -> run.mutateInLatency().p999())
+    );
+
+    private record Metric(String name, boolean higherIsBetter, ToDoubleFunction<RunResult> extractor) {
+    }
+
+    /**
+     * Comparison of one metric of one level.
+     *
+     * @param level            Label of the level.
+     * @param metric           Name of the metric.
+     * @param baselineMedian   Median of the baseline runs.
+     * @param candidateMedian  Median of the candidate runs.
+     * @param changePercent    Change of the candidate median relative to the baseline median.
+     * @param pValue           Two-sided Mann-Whitney p-value.
+     * @param minimumPValue    Smallest p-value the numbers of runs can produce.
+     * @param conclusive       Whether the numbers of runs can produce a p-value below alpha at all.
+     * @param significant      Whether the p-value is below alpha.
+     * @param regression       Whether the change is significant and for the worse.
+     */
+    public record Finding(String level, String metric, double baselineMedian, double candidateMedian,
+                          double changePercent, double pValue, double minimumPValue, boolean conclusive,
+                          boolean significant, boolean regression) {
+    }
+
+    private ResultsComparison() {
+    }
+
+    /**
+     * Compares every metric of every level present in both result sets.
+     *
+     * @param baseline  Baseline results.
+     * @param candidate Candidate results.
+     * @param alpha     Significance level, e.g. 0.05.
+     * @return One finding per level and metric; metrics that are zero in both sets are skipped.
+     */
+    public static List<Finding> compare(BenchmarkResults baseline, BenchmarkResults candidate, double alpha) {
+        Map<String, LevelResult> candidateLevels = candidate.levels().stream()
+                .collect(Collectors.toMap(LevelResult::label, level -> level, (first, second) -> second));
+        List<Finding> findings = new ArrayList<>();
+        for (LevelResult baselineLevel : baseline.levels()) {
+            LevelResult candidateLevel = candidateLevels.get(baselineLevel.label());
+            if (candidateLevel == null) {
+                continue;
+            }
+            for (Metric metric : METRICS) {
+                double[] baselineValues = baselineLevel.runs().stream().mapToDouble(metric.extractor()).toArray();
+                double[] candidateValues = candidateLevel.runs().stream().mapToDouble(metric.extractor()).toArray();
+                double baselineMedian = median(baselineValues);
+                double candidateMedian = median(candidateValues);
+                if (baselineMedian == 0 && candidateMedian == 0) {
+                    continue;
+                }
+                double pValue = MannWhitneyTest.pValue(baselineValues, candidateValues);
+                double minimumPValue = MannWhitneyTest.minimumPValue(baselineValues.length, candidateValues.length);
+                boolean significant = pValue < alpha;
+                boolean worse = metric.higherIsBetter() ? candidateMedian < baselineMedian : candidateMedian > baselineMedian;
+                double changePercent = baselineMedian != 0 ? (candidateMedian - baselineMedian) / baselineMedian * 100 : Double.NaN;
+                findings.add(new Finding(baselineLevel.label(), metric.name(), baselineMedian, candidateMedian,
+                        changePercent, pValue, minimumPValue, minimumPValue < alpha, significant, significant && worse));
+            }
+        }
+        return findings;
+    }
+
+    /**
+     * Prints the findings, marking significant regressions and improvements.
+     *
+     * @param findings Findings of a comparison.
+     */
+    public static void print(List<Finding> findings) {
+        logger.info("=== Comparison against Baseline ===");
+        for (Finding finding : findings) {
+            String verdict = finding.regression() ? "REGRESSION"
+                    : finding.significant() ? "improved"
+                    : finding.conclusive() ? "no significant change"
+                    : "inconclusive, too few runs (p >= " + String.format("%.4f", finding.minimumPValue()) + " whatever the change)";
+            logger.info("{} | {}: {} -> {} ({}%, p={}) {}",
+                    finding.level(),
+                    finding.metric(),
+                    String.format("%.1f", finding.baselineMedian()),
+                    String.format("%.1f", finding.candidateMedian()),
+                    String.format("%+.1f", finding.changePercent()),
+                    String.format("%.4f", finding.pValue()),
+                    verdict);
+        }
+        long regressions = findings.stream().filter(Finding::regression).count();
+        logger.info("{} significant regression(s) in {} comparisons", regressions, findings.size());
+        long inconclusive = findings.stream().filter(finding -> !finding.conclusive()).count();
+        if (inconclusive > 0) {
+            logger.warn("{} comparison(s) had too few runs to ever reach significance; increase thread-pool-runs "
+                    + "(3 vs 3 runs cannot go below p=0.1, 5 vs 5 can reach p=0.008)", inconclusive);
+        }
+    }
+
+    private static double median(double[] values) {
+        if (values.length == 0) {
+            return 0;
+        }
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+}
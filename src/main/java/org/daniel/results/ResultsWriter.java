@@ -0,0 +1,163 @@
+package org.daniel.results;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.daniel.benchmark.ExecutorStrategy;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Writes the results of a benchmark invocation to a JSON file with everything needed for later comparison,
+ * and a CSV file with one summary row per run.
+ * Both files are rewritten after every level, so the results of completed levels survive an aborted invocation.
+ */
+public class ResultsWriter {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final String CSV_HEADER = "label,concurrency,target_ops_per_sec,run,duration_s,ops_per_sec,write_ops,read_ops,"
+            + "write_errors,read_errors,cpu_ns_per_op,alloc_bytes_per_op,write_p50_ns,write_p99_ns,write_p999_ns,"
+            + "read_p50_ns,read_p99_ns,read_p999_ns,lookup_in_ops,mutate_in_ops,lookup_in_errors,mutate_in_errors,"
+            + "lookup_in_p50_ns,lookup_in_p99_ns,lookup_in_p999_ns,mutate_in_p50_ns,mutate_in_p99_ns,mutate_in_p999_ns,"
+            + "failed_time_fraction,failed_p50_ns,failed_p99_ns,failed_max_ns";
+
+    private final Path jsonFile;
+    private final Path csvFile;
+    private final String startedAt;
+    private final String backend;
+    private final String executionMode;
+    private final Map<String, String> config;
+    private final List<LevelResult> levels = new ArrayList<>();
+
+    /**
+     * @param directory     Directory the result files are written to.
+     * @param backend       Name of the backend benchmarked.
+     * @param executionMode Execution mode of the runs.
+     * @param properties    Application properties; entries whose key contains "password" are left out.
+     */
+    public ResultsWriter(Path directory, String backend, String executionMode, Properties properties) {
+        String baseName = String.format("%s-%s-%s", backend, executionMode,
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+        this.jsonFile = directory.resolve(baseName + ".json");
+        this.csvFile = directory.resolve(baseName + "-runs.csv");
+        this.startedAt = OffsetDateTime.now().toString();
+        this.backend = backend;
+        this.executionMode = executionMode;
+        this.config = exportedConfig(properties);
+    }
+
+    /**
+     * Returns the properties as exported with the results: sorted, and without entries whose key contains "password".
+     * The carrier parallelism of the process's virtual threads is added, since it is set per process rather than by
+     * the properties and results of different values must be told apart.
+     */
+    public static Map<String, String> exportedConfig(Properties properties) {
+        Map<String, String> config = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (!key.toLowerCase(Locale.ROOT).contains("password")) {
+                config.put(key, properties.getProperty(key));
+            }
+        }
+        config.put(ExecutorStrategy.CARRIER_PARALLELISM_PROPERTY, String.valueOf(ExecutorStrategy.carrierParallelism()));
+        return config;
+    }
+
+    /**
+     * Adds the results of a level and rewrites the result files.
+     *
+     * @param level Results of the level.
+     * @throws IOException If the files cannot be written.
+     */
+    public synchronized void addLevel(LevelResult level) throws IOException {
+        levels.add(level);
+        if (jsonFile.getParent() != null) {
+            Files.createDirectories(jsonFile.getParent());
+        }
+        OBJECT_MAPPER.writeValue(jsonFile.toFile(), new BenchmarkResults(startedAt, backend, executionMode, config, levels));
+        writeCsv();
+    }
+
+    public Path getJsonFile() {
+        return jsonFile;
+    }
+
+    /**
+     * Writes results assembled elsewhere, e.g. combined from several result files, as a JSON result file.
+     *
+     * @param file    JSON result file.
+     * @param results Results to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(Path file, BenchmarkResults results) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        OBJECT_MAPPER.writeValue(file.toFile(), results);
+    }
+
+    /**
+     * Reads a JSON result file written by this class.
+     *
+     * @param file JSON result file.
+     * @return The results it contains.
+     * @throws IOException If the file cannot be read or parsed.
+     */
+    public static BenchmarkResults read(Path file) throws IOException {
+        return OBJECT_MAPPER.readValue(file.toFile(), BenchmarkResults.class);
+    }
+
+    private void writeCsv() throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(csvFile)) {
+            writer.write(CSV_HEADER);
+            writer.newLine();
+            for (LevelResult level : levels) {
+                for (RunResult run : level.runs()) {
+                    writer.write(String.format(Locale.ROOT, "\"%s\",%d,%.1f,%d,%.3f,%.1f,%d,%d,%d,%d,%.1f,%.1f,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%.4f,%d,%d,%d",
+                            level.label(),
+                            level.concurrency(),
+                            level.targetOpsPerSecond(),
+                            run.run(),
+                            run.durationSeconds(),
+                            run.operationsPerSecond(),
+                            run.writeOperations(),
+                            run.readOperations(),
+                            run.writeErrors(),
+                            run.readErrors(),
+                            run.cpuNanosPerOperation(),
+                            run.allocatedBytesPerOperation(),
+                            run.writeLatency().p50(),
+                            run.writeLatency().p99(),
+                            run.writeLatency().p999(),
+                            run.readLatency().p50(),
+                            run.readLatency().p99(),
+                            run.readLatency().p999(),
+                            run.lookupInOperations(),
+                            run.mutateInOperations(),
+                            run.lookupInErrors(),
+                            run.mutateInErrors(),
+                            run.lookupInLatency().p50(),
+                            run.lookupInLatency().p99(),
+                            run.lookupInLatency().p999(),
+                            run.mutateInLatency().p50(),
+                            run.mutateInLatency().p99(),
+                            run.mutateInLatency().p999(),
+                            run.failedTimeFraction(),
+                            run.failedLatency().p50(),
+                            run.failedLatency().p99(),
+                            run.failedLatency().max()));
+                    writer.newLine();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.daniel.results;
+
+import org.daniel.metrics.ClusterSample;
+import org.daniel.metrics.MetricsCollector;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exported form of a single benchmark run.
+ * Cluster samples carry wall-clock timestamps; subtracting runStartEpochMillis puts them on the timeline of the intervals.
+ * Latencies by document size are keyed by kind of operation, then by size class in bytes; empty unless the run had
+ * sub-document operations.
+ */
+public record RunResult(int run, double durationSeconds, long writeOperations, long readOperations,
+                        long writeErrors, long readErrors, long lookupInOperations, long mutateInOperations,
+                        long lookupInErrors, long mutateInErrors, Map<String, Long> errorsByType, double failedTimeFraction,
+                        long excludedOperations, double operationsPerSecond,
+                        double cpuNanosPerOperation, double allocatedBytesPerOperation, double keyGenerationNanosPerOperation,
+                        double clientCpuUtilization, double gcTimeFraction,
+                        HistogramData writeLatency, HistogramData readLatency, HistogramData lookupInLatency,
+                        HistogramData mutateInLatency, HistogramData failedLatency, HistogramData batchLatency,
+                        Map<String, Map<Integer, HistogramData>> latencyByDocumentSize, List<IntervalResult> intervals, long runStartEpochMillis, List<ClusterSample> clusterSamples) {
+
+    /**
+     * @param run              Run number, starting at 1.
+     * @param metricsCollector Metrics collected during the run.
+     */
+    public static RunResult of(int run, MetricsCollector metricsCollector) {
+        return new RunResult(
+                run,
+                metricsCollector.getMeasuredDurationNanos() / 1e9,
+                metricsCollector.getWriteOperations(),
+                metricsCollector.getReadOperations(),
+                metricsCollector.getWriteErrors(),
+                metricsCollector.getReadErrors(),
+                metricsCollector.getLookupInOperations(),
+                metricsCollector.getMutateInOperations(),
+                metricsCollector.getLookupInErrors(),
+                metricsCollector.getMutateInErrors(),
+                metricsCollector.getErrorsByType(),
+                metricsCollector.getFailedTimeFraction(),
+                metricsCollector.getExcludedOperations(),
+                metricsCollector.getOperationsPerSecond(),
+                metricsCollector.getCpuNanosPerOperation(),
+                metricsCollector.getAllocatedBytesPerOperation(),
+                metricsCollector.getKeyGenerationNanosPerOperation(),
+                metricsCollector.getClientCpuUtilization(),
+                metricsCollector.getGcTimeFraction(),
+                HistogramData.of(metricsCollector.getWriteLatencySnapshot()),
+                HistogramData.of(metricsCollector.getReadLatencySnapshot()),
+                HistogramData.of(metricsCollector.getLookupInLatencySnapshot()),
+                HistogramData.of(metricsCollector.getMutateInLatencySnapshot()),
+                HistogramData.of(metricsCollector.getFailedLatencySnapshot()),
+                HistogramData.of(metricsCollector.getBatchLatencySnapshot()),
+                HistogramData.of(metricsCollector.getLatencyByDocumentSize()),
+                metricsCollector.getIntervals().stream().map(IntervalResult::of).toList(),
+                metricsCollector.getRunStartEpochMillis(),
+                metricsCollector.getClusterSamples()
+        );
+    }
+}
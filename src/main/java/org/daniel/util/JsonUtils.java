@@ -1,10 +1,14 @@
 package org.daniel.util;
 
+import com.couchbase.client.java.json.JsonObject;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -13,13 +17,13 @@ import java.util.Map;
 import java.util.stream.Stream;
 
 public class JsonUtils {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
     private JsonUtils() {
     }
 
     public static Map<String, Object> loadJsonData(String filePath) throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        return mapper.readValue(new File(filePath), new TypeReference<>() {
+        return OBJECT_MAPPER.readValue(new File(filePath), new TypeReference<>() {
         });
     }
 
@@ -32,4 +36,82 @@ public class JsonUtils {
             throw new IOException("Json file not loaded from correct path", e);
         }
     }
+
+    /**
+     * Encodes a document as JSON bytes. Byte arrays are assumed to be encoded already and are returned as is;
+     * the remaining bytes of a ByteBuffer, such as a slice of a packed corpus, are copied.
+     *
+     * @param document A byte array, a ByteBuffer, a JsonObject or any object Jackson can serialize.
+     * @return The JSON bytes of the document.
+     */
+    public static byte[] toBytes(Object document) {
+        if (document instanceof byte[] bytes) {
+            return bytes;
+        }
+        if (document instanceof ByteBuffer buffer) {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(buffer.position(), bytes);
+            return bytes;
+        }
+        if (document instanceof JsonObject jsonObject) {
+            return jsonObject.toBytes();
+        }
+        try {
+            return OBJECT_MAPPER.writeValueAsBytes(document);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Document cannot be encoded as JSON", e);
+        }
+    }
+
+    /**
+     * Returns the encoded size of the value at each of a set of sub-document paths, the payload a sub-document
+     * lookup of those paths returns instead of the whole document.
+     *
+     * @param document A document in any form {@link #toBytes} accepts.
+     * @param paths    Paths in sub-document syntax, such as "address.city" or "phoneNumbers[0].number".
+     * @return The JSON size of each path's value in bytes, or -1 for a path the document does not contain.
+     */
+    public static int[] pathValueSizes(Object document, List<String> paths) {
+        JsonNode root;
+        try {
+            root = OBJECT_MAPPER.readTree(toBytes(document));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Document is not valid JSON", e);
+        }
+        int[] sizes = new int[paths.size()];
+        for (int i = 0; i < sizes.length; i++) {
+            JsonNode value = resolvePath(root, paths.get(i));
+            try {
+                sizes[i] = value == null ? -1 : OBJECT_MAPPER.writeValueAsBytes(value).length;
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Value at path '" + paths.get(i) + "' cannot be encoded", e);
+            }
+        }
+        return sizes;
+    }
+
+    private static JsonNode resolvePath(JsonNode root, String path) {
+        JsonNode node = root;
+        for (String segment : path.split("\\.")) {
+            int bracket = segment.indexOf('[');
+            String field = bracket < 0 ? segment : segment.substring(0, bracket);
+            if (!field.isEmpty()) {
+                node = node.get(field);
+            }
+            // Array indexes follow the field name, e.g. "phoneNumbers[0]"; negative indexes count from the end
+            while (node != null && bracket >= 0) {
+                int close = segment.indexOf(']', bracket);
+                if (close < 0) {
+                    throw new IllegalArgumentException("Malformed sub-document path: " + path);
+                }
+                int index = Integer.parseInt(segment.substring(bracket + 1, close));
+                node = node.isArray() ? node.get(index < 0 ? node.size() + index : index) : null;
+                bracket = segment.indexOf('[', close);
+            }
+            if (node == null) {
+                return null;
+            }
+        }
+        return node;
+    }
 }
@@ -0,0 +1,194 @@
+package org.daniel.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A corpus of JSON documents packed into one indexed file and memory-mapped for reading.
+ * The file holds a header, a table with the file offset of every document plus the end offset, and the documents'
+ * JSON bytes back to back. Documents are handed out as read-only slices of the mapping, so opening takes
+ * constant time and the corpus occupies no heap however large it is; the operating system pages it in as needed.
+ * Files larger than a single mapping are mapped in several regions, each holding whole documents.
+ */
+public final class PackedCorpus {
+    private static final int MAGIC = 0x4B56_4350;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    // Largest region a single MappedByteBuffer can address
+    private static final long MAX_REGION_BYTES = Integer.MAX_VALUE;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final int count;
+    private final LongBuffer offsets;
+    private final MappedByteBuffer[] regions;
+    private final long[] regionStarts;
+    // Index of the first document of each region
+    private final int[] regionFirstDocuments;
+
+    private PackedCorpus(int count, LongBuffer offsets, MappedByteBuffer[] regions, long[] regionStarts, int[] regionFirstDocuments) {
+        this.count = count;
+        this.offsets = offsets;
+        this.regions = regions;
+        this.regionStarts = regionStarts;
+        this.regionFirstDocuments = regionFirstDocuments;
+    }
+
+    /**
+     * Packs JSON documents into a corpus file. Every document is checked to be well-formed JSON and stored as is.
+     *
+     * @param jsonFilePaths JSON files to pack, in the order they are indexed.
+     * @param target        Corpus file to write; replaced if it exists.
+     * @return The number of bytes written.
+     * @throws IOException If a document cannot be read or is not valid JSON, or the file cannot be written.
+     */
+    public static long pack(List<Path> jsonFilePaths, Path target) throws IOException {
+        if (jsonFilePaths.isEmpty()) {
+            throw new IOException("No JSON files to pack");
+        }
+        long[] documentOffsets = new long[jsonFilePaths.size() + 1];
+        long tableEnd = HEADER_BYTES + (long) documentOffsets.length * Long.BYTES;
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = tableEnd;
+            for (int i = 0; i < jsonFilePaths.size(); i++) {
+                byte[] document = Files.readAllBytes(jsonFilePaths.get(i));
+                validate(document, jsonFilePaths.get(i));
+                documentOffsets[i] = position;
+                position += writeFully(channel, ByteBuffer.wrap(document), position);
+            }
+            documentOffsets[jsonFilePaths.size()] = position;
+
+            ByteBuffer table = ByteBuffer.allocate((int) tableEnd);
+            table.putInt(MAGIC).putInt(VERSION).putInt(jsonFilePaths.size()).putInt(0);
+            table.asLongBuffer().put(documentOffsets);
+            writeFully(channel, table.clear(), 0);
+            return position;
+        }
+    }
+
+    /**
+     * Memory-maps a corpus file written by {@link #pack}.
+     *
+     * @param file Corpus file.
+     * @return The mapped corpus.
+     * @throws IOException If the file cannot be read or is not a corpus file.
+     */
+    public static PackedCorpus open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException(file + " is not a packed corpus file");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported corpus file version " + version + " in " + file);
+            }
+            int count = header.getInt();
+            if (count <= 0) {
+                throw new IOException("Corpus file " + file + " holds no documents");
+            }
+            LongBuffer offsets = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, (long) (count + 1) * Long.BYTES).asLongBuffer();
+            if (offsets.get(count) != channel.size()) {
+                throw new IOException("Corpus file " + file + " is truncated");
+            }
+
+            // Start a new region at the first document that would not fit in the current one
+            List<MappedByteBuffer> regions = new ArrayList<>();
+            List<Long> regionStarts = new ArrayList<>();
+            List<Integer> regionFirstDocuments = new ArrayList<>();
+            int first = 0;
+            while (first < count) {
+                long start = offsets.get(first);
+                int end = first + 1;
+                while (end < count && offsets.get(end + 1) - start <= MAX_REGION_BYTES) {
+                    end++;
+                }
+                long length = offsets.get(end) - start;
+                if (length > MAX_REGION_BYTES) {
+                    throw new IOException("Document " + first + " of " + file + " is larger than 2 GB");
+                }
+                regions.add(channel.map(FileChannel.MapMode.READ_ONLY, start, length));
+                regionStarts.add(start);
+                regionFirstDocuments.add(first);
+                first = end;
+            }
+            return new PackedCorpus(count, offsets, regions.toArray(MappedByteBuffer[]::new),
+                    regionStarts.stream().mapToLong(Long::longValue).toArray(),
+                    regionFirstDocuments.stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns a document as a read-only slice of the mapping, without copying it.
+     * Each call returns a new slice, so slices can be used from several threads.
+     *
+     * @param index Index of the document, from 0 to size() - 1.
+     * @return The JSON bytes of the document, between the slice's position and limit.
+     */
+    public ByteBuffer get(int index) {
+        int region = regionOf(index);
+        long start = offsets.get(index);
+        int length = (int) (offsets.get(index + 1) - start);
+        return regions[region].slice((int) (start - regionStarts[region]), length).asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the size of a document in bytes, without touching the mapping.
+     *
+     * @param index Index of the document, from 0 to size() - 1.
+     */
+    public int length(int index) {
+        return (int) (offsets.get(index + 1) - offsets.get(index));
+    }
+
+    private int regionOf(int index) {
+        if (regions.length == 1) {
+            return 0;
+        }
+        int position = Arrays.binarySearch(regionFirstDocuments, index);
+        return position >= 0 ? position : -position - 2;
+    }
+
+    private static void validate(byte[] document, Path path) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(document)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException(path + " does not hold a JSON object");
+            }
+            parser.skipChildren();
+            if (parser.nextToken() != null) {
+                throw new IOException(path + " holds more than one JSON value");
+            }
+        }
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int length = buffer.remaining();
+        long current = position;
+        while (buffer.hasRemaining()) {
+            current += channel.write(buffer, current);
+        }
+        return length;
+    }
+}
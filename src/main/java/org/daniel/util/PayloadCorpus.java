@@ -0,0 +1,99 @@
+package org.daniel.util;
+
+import com.couchbase.client.java.json.JsonObject;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The benchmark documents, read and parsed once and held in the form of a {@link PayloadEncoding}.
+ * A corpus opened from a packed file instead hands out slices of the memory-mapped file as raw JSON.
+ * The documents are shared by all tasks and runs and must not be modified.
+ */
+public final class PayloadCorpus {
+    private final PayloadEncoding encoding;
+    private final List<Object> documents;
+    // JSON sizes of the loaded documents; a packed corpus knows the sizes of its own
+    private final int[] documentBytes;
+    private final PackedCorpus packed;
+
+    private PayloadCorpus(PayloadEncoding encoding, List<Object> documents, int[] documentBytes, PackedCorpus packed) {
+        this.encoding = encoding;
+        this.documents = documents;
+        this.documentBytes = documentBytes;
+        this.packed = packed;
+    }
+
+    /**
+     * Loads the JSON files and prepares their documents for the given encoding.
+     *
+     * @param jsonFilePaths JSON files to load.
+     * @param encoding      Form the documents are held in.
+     * @return The loaded corpus.
+     * @throws IOException if a JSON file cannot be read.
+     */
+    public static PayloadCorpus load(List<Path> jsonFilePaths, PayloadEncoding encoding) throws IOException {
+        if (jsonFilePaths.isEmpty()) {
+            throw new IOException("No JSON files to load");
+        }
+        List<Object> documents = new ArrayList<>(jsonFilePaths.size());
+        int[] documentBytes = new int[jsonFilePaths.size()];
+        for (Path jsonFilePath : jsonFilePaths) {
+            Map<String, Object> jsonData = JsonUtils.loadJsonData(jsonFilePath.toString());
+            byte[] json = JsonUtils.toBytes(jsonData);
+            documentBytes[documents.size()] = json.length;
+            documents.add(switch (encoding) {
+                case JSON_OBJECT -> JsonObject.from(jsonData);
+                case JACKSON -> jsonData;
+                case RAW -> json;
+            });
+        }
+        return new PayloadCorpus(encoding, Collections.unmodifiableList(documents), documentBytes, null);
+    }
+
+    /**
+     * Opens a corpus file written by {@link PackedCorpus#pack}. Its documents are raw JSON, handed out as read-only
+     * ByteBuffer slices of the mapped file.
+     *
+     * @param corpusFile Packed corpus file.
+     * @return The corpus, with the RAW encoding.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static PayloadCorpus open(Path corpusFile) throws IOException {
+        return new PayloadCorpus(PayloadEncoding.RAW, null, null, PackedCorpus.open(corpusFile));
+    }
+
+    public PayloadEncoding getEncoding() {
+        return encoding;
+    }
+
+    public int size() {
+        return packed != null ? packed.size() : documents.size();
+    }
+
+    /**
+     * Returns a document of the corpus, wrapping around when the index exceeds the number of documents.
+     *
+     * @param index Non-negative index, e.g. a task number or key.
+     * @return The document.
+     */
+    public Object get(long index) {
+        int position = (int) (index % size());
+        return packed != null ? packed.get(position) : documents.get(position);
+    }
+
+    /**
+     * Returns the JSON size of a document, wrapping around like {@link #get(long)}.
+     *
+     * @param index Non-negative index, e.g. a key.
+     * @return The size of the document in bytes.
+     */
+    public int documentBytes(long index) {
+        int position = (int) (index % size());
+        return packed != null ? packed.length(position) : documentBytes[position];
+    }
+}
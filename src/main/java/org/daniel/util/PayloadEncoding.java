@@ -0,0 +1,23 @@
+package org.daniel.util;
+
+/**
+ * How benchmark documents are handed to the backend, which determines how much encoding work each mutation does.
+ */
+public enum PayloadEncoding {
+    /**
+     * A Couchbase JsonObject, serialized by the SDK on every mutation.
+     */
+    JSON_OBJECT,
+    /**
+     * A plain Map, encoded on every mutation with the application's Jackson ObjectMapper and stored as raw JSON.
+     */
+    JACKSON,
+    /**
+     * JSON encoded once up front and stored through the raw JSON transcoder, without per-mutation encoding.
+     */
+    RAW;
+
+    public static PayloadEncoding fromProperty(String value) {
+        return valueOf(value.trim().toUpperCase().replace('-', '_'));
+    }
+}
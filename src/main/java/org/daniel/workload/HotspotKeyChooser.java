@@ -0,0 +1,28 @@
+package org.daniel.workload;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sends a fixed fraction of operations to the first hotspotDataFraction of the key space, and the rest uniformly
+ * to the remaining keys.
+ */
+public class HotspotKeyChooser implements KeyChooser {
+    private final long hotKeys;
+    private final long coldKeys;
+    private final double hotspotOperationFraction;
+
+    public HotspotKeyChooser(long keySpaceSize, double hotspotDataFraction, double hotspotOperationFraction) {
+        this.hotKeys = Math.max(1, (long) (keySpaceSize * hotspotDataFraction));
+        this.coldKeys = keySpaceSize - hotKeys;
+        this.hotspotOperationFraction = hotspotOperationFraction;
+    }
+
+    @Override
+    public long nextKey(long latestKey) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (coldKeys <= 0 || random.nextDouble() < hotspotOperationFraction) {
+            return random.nextLong(hotKeys);
+        }
+        return hotKeys + random.nextLong(coldKeys);
+    }
+}
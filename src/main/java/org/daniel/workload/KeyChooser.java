@@ -0,0 +1,31 @@
+package org.daniel.workload;
+
+/**
+ * Picks the keys of operations according to a {@link KeyDistribution}.
+ * Implementations are thread-safe and draw randomness from ThreadLocalRandom.
+ */
+public interface KeyChooser {
+
+    /**
+     * Picks the next key.
+     *
+     * @param latestKey Highest key inserted so far.
+     * @return A key between 0 and latestKey, inclusive.
+     */
+    long nextKey(long latestKey);
+
+    /**
+     * Creates the key chooser for a workload definition.
+     *
+     * @param definition Workload definition.
+     * @return Key chooser configured from the definition.
+     */
+    static KeyChooser create(WorkloadDefinition definition) {
+        return switch (definition.keyDistribution()) {
+            case UNIFORM -> new UniformKeyChooser(definition.keySpaceSize());
+            case ZIPFIAN -> new ZipfianKeyChooser(definition.keySpaceSize(), definition.zipfianConstant());
+            case LATEST -> new LatestKeyChooser(new ZipfianKeyChooser(definition.keySpaceSize(), definition.zipfianConstant()));
+            case HOTSPOT -> new HotspotKeyChooser(definition.keySpaceSize(), definition.hotspotDataFraction(), definition.hotspotOperationFraction());
+        };
+    }
+}
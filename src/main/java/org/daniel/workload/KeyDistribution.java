@@ -0,0 +1,27 @@
+package org.daniel.workload;
+
+/**
+ * Distributions used to pick the key of each operation from the key space.
+ */
+public enum KeyDistribution {
+    /**
+     * Every key is equally likely.
+     */
+    UNIFORM,
+    /**
+     * A few keys receive most operations, following a Zipf distribution.
+     */
+    ZIPFIAN,
+    /**
+     * Recently inserted keys are the most popular, with Zipf-distributed recency.
+     */
+    LATEST,
+    /**
+     * A fixed fraction of operations goes to a fixed hot subset of the key space.
+     */
+    HOTSPOT;
+
+    public static KeyDistribution fromProperty(String value) {
+        return valueOf(value.trim().toUpperCase());
+    }
+}
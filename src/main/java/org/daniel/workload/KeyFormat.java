@@ -0,0 +1,51 @@
+package org.daniel.workload;
+
+/**
+ * How numeric keys are turned into document IDs and handed out to workers.
+ *
+ * @param prefix    Text placed before the key number.
+ * @param padding   Minimum number of digits; shorter key numbers are padded with leading zeros, 0 disables padding.
+ * @param blockSize Number of new keys a worker reserves from the shared key space at a time.
+ * @param ringSize  Number of the lowest keys whose document IDs are formatted once up front and reused, 0 disables the ring.
+ */
+public record KeyFormat(String prefix, int padding, int blockSize, int ringSize) {
+
+    /**
+     * Plain decimal keys without prefix or padding, as the benchmark has always used.
+     */
+    public static final KeyFormat DEFAULT = new KeyFormat("", 0, 1024, 100_000);
+
+    // Digits of the largest long value
+    static final int MAX_DIGITS = 19;
+
+    public KeyFormat {
+        if (prefix == null) {
+            prefix = "";
+        }
+        if (padding < 0 || padding > MAX_DIGITS) {
+            throw new IllegalArgumentException("Key padding must be between 0 and " + MAX_DIGITS + ": " + padding);
+        }
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Key block size must be positive: " + blockSize);
+        }
+        if (ringSize < 0) {
+            throw new IllegalArgumentException("Key ring size must not be negative: " + ringSize);
+        }
+    }
+
+    /**
+     * Formats a key as a document ID.
+     *
+     * @param key Key number, not negative.
+     * @return The document ID.
+     */
+    public String format(long key) {
+        String digits = Long.toString(key);
+        if (prefix.isEmpty() && digits.length() >= padding) {
+            return digits;
+        }
+        StringBuilder documentId = new StringBuilder(prefix.length() + Math.max(padding, digits.length())).append(prefix);
+        documentId.repeat('0', Math.max(0, padding - digits.length()));
+        return documentId.append(digits).toString();
+    }
+}
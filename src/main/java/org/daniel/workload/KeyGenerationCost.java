@@ -0,0 +1,27 @@
+package org.daniel.workload;
+
+/**
+ * Cumulative time spent choosing and formatting keys, over the operations that were timed.
+ *
+ * @param sampledNanos Total time of the timed key generations.
+ * @param samples      Number of timed key generations.
+ */
+public record KeyGenerationCost(long sampledNanos, long samples) {
+
+    /**
+     * Returns the cost incurred since an earlier sample.
+     *
+     * @param earlier Sample taken earlier from the same workload.
+     * @return The difference.
+     */
+    public KeyGenerationCost minus(KeyGenerationCost earlier) {
+        return new KeyGenerationCost(sampledNanos - earlier.sampledNanos, samples - earlier.samples);
+    }
+
+    /**
+     * Returns the mean time per key, or -1 if no key generation was timed.
+     */
+    public double nanosPerKey() {
+        return samples > 0 ? (double) sampledNanos / samples : -1;
+    }
+}
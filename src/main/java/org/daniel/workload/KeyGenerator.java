@@ -0,0 +1,73 @@
+package org.daniel.workload;
+
+/**
+ * Produces the document IDs of one worker without touching shared state on every operation.
+ * New keys come from a block of the 64-bit key space reserved from the {@link Workload}, so the shared counter is
+ * only touched once per block. Keys inside the workload's key ring are looked up pre-formatted; other keys are
+ * rendered into a reusable buffer, leaving the returned String as the only allocation.
+ * Not thread-safe; each worker owns one, through its {@link OperationGenerator}.
+ */
+public class KeyGenerator {
+    private final Workload workload;
+    private final KeyFormat keyFormat;
+    private final char[] buffer;
+    private final int digitsStart;
+    private long blockNext;
+    private long blockEnd;
+
+    KeyGenerator(Workload workload) {
+        this.workload = workload;
+        this.keyFormat = workload.getKeyFormat();
+        String prefix = keyFormat.prefix();
+        this.buffer = new char[prefix.length() + KeyFormat.MAX_DIGITS];
+        prefix.getChars(0, prefix.length(), buffer, 0);
+        this.digitsStart = prefix.length();
+    }
+
+    /**
+     * Returns the ID of a key that has not been handed out before, reserving a new block when the current one is used up.
+     */
+    public String nextNewKey() {
+        return documentId(reserveNewKey());
+    }
+
+    /**
+     * Returns the number of a key that has not been handed out before, reserving a new block when the current one is used up.
+     */
+    public long reserveNewKey() {
+        if (blockNext == blockEnd) {
+            blockNext = workload.reserveKeyBlock();
+            blockEnd = blockNext + keyFormat.blockSize();
+        }
+        return blockNext++;
+    }
+
+    /**
+     * Returns the document ID of a key.
+     *
+     * @param key Key number, not negative.
+     * @return The document ID, taken from the key ring when the key is inside it.
+     */
+    public String documentId(long key) {
+        String cached = workload.ringKey(key);
+        return cached != null ? cached : render(key);
+    }
+
+    private String render(long key) {
+        // Write the digits backwards from the end of the buffer, then pad and shift them behind the prefix
+        int position = buffer.length;
+        long remaining = key;
+        do {
+            buffer[--position] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining > 0);
+        int digits = buffer.length - position;
+        int length = Math.max(digits, keyFormat.padding());
+        int padding = length - digits;
+        System.arraycopy(buffer, position, buffer, digitsStart + padding, digits);
+        for (int i = 0; i < padding; i++) {
+            buffer[digitsStart + i] = '0';
+        }
+        return new String(buffer, 0, digitsStart + length);
+    }
+}
@@ -0,0 +1,17 @@
+package org.daniel.workload;
+
+/**
+ * Picks keys close to the most recently inserted one; the distance back from the latest key is Zipf-distributed.
+ */
+public class LatestKeyChooser implements KeyChooser {
+    private final ZipfianKeyChooser recency;
+
+    public LatestKeyChooser(ZipfianKeyChooser recency) {
+        this.recency = recency;
+    }
+
+    @Override
+    public long nextKey(long latestKey) {
+        return Math.max(0, latestKey - recency.nextKey(latestKey));
+    }
+}
@@ -0,0 +1,23 @@
+package org.daniel.workload;
+
+import java.util.List;
+
+/**
+ * A single operation produced by a workload.
+ *
+ * @param type      Operation type.
+ * @param key       Document key the operation targets.
+ * @param paths     Paths a sub-document operation reads or writes, shared with the workload definition; empty otherwise.
+ * @param keyNumber Number the document key was formatted from, or -1 if unknown. Full-document writes store the
+ *                  corpus document of this number, so a key's document always has the same size.
+ */
+public record Operation(OperationType type, String key, List<String> paths, long keyNumber) {
+
+    public Operation(OperationType type, String key) {
+        this(type, key, List.of());
+    }
+
+    public Operation(OperationType type, String key, List<String> paths) {
+        this(type, key, paths, -1);
+    }
+}
@@ -0,0 +1,122 @@
+package org.daniel.workload;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Produces the sequence of operations issued by one worker.
+ * Generators are not thread-safe; each worker owns one, created by {@link Workload#newGenerator()}.
+ * Every {@value #KEY_TIMING_INTERVAL}th key generation is timed, so that the cost of choosing and formatting
+ * keys can be reported without reading the clock on every operation.
+ */
+public class OperationGenerator {
+    static final int KEY_TIMING_INTERVAL = 64;
+    // Order of the cumulative proportions of a random mix
+    private static final OperationType[] MIX_TYPES = {
+            OperationType.READ, OperationType.INSERT, OperationType.UPDATE, OperationType.DELETE,
+            OperationType.REPLACE, OperationType.LOOKUP_IN, OperationType.MUTATE_IN
+    };
+
+    private final Workload workload;
+    private final WorkloadDefinition definition;
+    private final KeyGenerator keyGenerator;
+    private final double[] cumulativeProportions;
+    private String cycleKey;
+    private long cycleKeyNumber;
+    private int cycleReadsRemaining;
+    private int untimedKeys;
+    private long lastKeyNumber;
+
+    OperationGenerator(Workload workload) {
+        this.workload = workload;
+        this.definition = workload.getDefinition();
+        this.keyGenerator = new KeyGenerator(workload);
+        double[] proportions = {
+                definition.readProportion(),
+                definition.insertProportion(),
+                definition.updateProportion(),
+                definition.deleteProportion(),
+                definition.replaceProportion(),
+                definition.lookupInProportion(),
+                definition.mutateInProportion()
+        };
+        double total = 0;
+        for (double proportion : proportions) {
+            total += proportion;
+        }
+        this.cumulativeProportions = new double[proportions.length];
+        double cumulative = 0;
+        for (int i = 0; i < proportions.length; i++) {
+            cumulative += proportions[i];
+            // Once every type of the mix is included the draw must always match, whatever the rounding
+            cumulativeProportions[i] = cumulative >= total ? 1.0 : cumulative / total;
+        }
+    }
+
+    /**
+     * Returns the next operation of this worker.
+     */
+    public Operation next() {
+        if (definition.isWriteThenRead()) {
+            return nextInCycle();
+        }
+        OperationType type = nextOperationType();
+        String key = timedKey(type == OperationType.INSERT);
+        return switch (type) {
+            case LOOKUP_IN -> new Operation(type, key, definition.lookupInPaths(), lastKeyNumber);
+            case MUTATE_IN -> new Operation(type, key, definition.mutateInPaths(), lastKeyNumber);
+            default -> new Operation(type, key, List.of(), lastKeyNumber);
+        };
+    }
+
+    private Operation nextInCycle() {
+        if (cycleReadsRemaining == 0) {
+            cycleKey = timedKey(true);
+            cycleKeyNumber = lastKeyNumber;
+            cycleReadsRemaining = definition.readsPerWrite();
+            return new Operation(OperationType.UPDATE, cycleKey, List.of(), cycleKeyNumber);
+        }
+        cycleReadsRemaining--;
+        return new Operation(OperationType.READ, cycleKey, List.of(), cycleKeyNumber);
+    }
+
+    /**
+     * Reports that an operation of this generator has completed, so that reads can start choosing the key a
+     * successful insert created. Unlike {@link #next()}, may be called from any thread, such as the completion
+     * callbacks of async operations.
+     *
+     * @param operation Operation returned by {@link #next()}.
+     * @param succeeded Whether the operation succeeded; a failed insert may not have created its key.
+     */
+    public void completed(Operation operation, boolean succeeded) {
+        if (succeeded && operation.type() == OperationType.INSERT) {
+            workload.insertCompleted(operation.keyNumber());
+        }
+    }
+
+    private String timedKey(boolean newKey) {
+        if (++untimedKeys < KEY_TIMING_INTERVAL) {
+            return nextKey(newKey);
+        }
+        untimedKeys = 0;
+        long start = System.nanoTime();
+        String key = nextKey(newKey);
+        workload.recordKeyGeneration(System.nanoTime() - start);
+        return key;
+    }
+
+    private String nextKey(boolean newKey) {
+        lastKeyNumber = newKey ? keyGenerator.reserveNewKey() : workload.chooseExistingKey();
+        return keyGenerator.documentId(lastKeyNumber);
+    }
+
+    private OperationType nextOperationType() {
+        double u = ThreadLocalRandom.current().nextDouble();
+        for (int i = 0; i < cumulativeProportions.length - 1; i++) {
+            if (u < cumulativeProportions[i]) {
+                return MIX_TYPES[i];
+            }
+        }
+        return MIX_TYPES[MIX_TYPES.length - 1];
+    }
+}
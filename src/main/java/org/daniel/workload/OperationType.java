@@ -0,0 +1,30 @@
+package org.daniel.workload;
+
+/**
+ * Key-value operation types a workload can issue.
+ * LOOKUP_IN and MUTATE_IN are sub-document operations: they read or write only the workload's paths of a document
+ * instead of the whole document, and are recorded separately from the full-document reads and writes.
+ */
+public enum OperationType {
+    READ,
+    INSERT,
+    UPDATE,
+    DELETE,
+    REPLACE,
+    LOOKUP_IN,
+    MUTATE_IN;
+
+    /**
+     * Whether the operation modifies a document; full-document mutations are recorded as writes.
+     */
+    public boolean isMutation() {
+        return this != READ && this != LOOKUP_IN;
+    }
+
+    /**
+     * Whether the operation accesses paths inside a document rather than the whole document.
+     */
+    public boolean isSubdocument() {
+        return this == LOOKUP_IN || this == MUTATE_IN;
+    }
+}
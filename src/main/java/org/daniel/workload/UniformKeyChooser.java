@@ -0,0 +1,19 @@
+package org.daniel.workload;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks keys uniformly from the pre-loaded key space.
+ */
+public class UniformKeyChooser implements KeyChooser {
+    private final long keySpaceSize;
+
+    public UniformKeyChooser(long keySpaceSize) {
+        this.keySpaceSize = keySpaceSize;
+    }
+
+    @Override
+    public long nextKey(long latestKey) {
+        return ThreadLocalRandom.current().nextLong(keySpaceSize);
+    }
+}
@@ -0,0 +1,160 @@
+package org.daniel.workload;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Run-wide state of a workload: the key chooser, the 64-bit key space new keys are reserved from in blocks,
+ * and the ring of pre-formatted document IDs of the lowest keys.
+ * Shared by all workers of a run; each worker draws its operations from its own {@link OperationGenerator}.
+ * When several processes apply the same workload, each is given a partition: new-key blocks are interleaved
+ * between the partitions, so processes never insert the same key.
+ * Reads only choose keys known to exist: the pre-loaded keys and the keys this process inserted successfully, in the
+ * order their inserts completed, so a read never targets a key that is reserved but not written yet, nor one another
+ * process owns, and a new key is readable as soon as its insert has completed. Inserted keys are kept for the
+ * lifetime of the workload, 8 bytes each.
+ */
+public class Workload {
+    private static final int INSERTED_CHUNK_BITS = 12;
+    private static final int INSERTED_CHUNK_MASK = (1 << INSERTED_CHUNK_BITS) - 1;
+
+    private final WorkloadDefinition definition;
+    private final KeyFormat keyFormat;
+    private final KeyChooser keyChooser;
+    private final int partition;
+    private final int partitionCount;
+    private final AtomicLong nextBlock = new AtomicLong();
+    // Keys inserted by this process in completion order, in chunks; appended under this and published by insertedCount
+    private volatile long[][] insertedChunks = new long[16][];
+    private volatile long insertedCount;
+    private final String[] keyRing;
+    private final LongAdder keyGenerationNanos = new LongAdder();
+    private final LongAdder keyGenerationSamples = new LongAdder();
+
+    public Workload(WorkloadDefinition definition) {
+        this(definition, KeyFormat.DEFAULT);
+    }
+
+    public Workload(WorkloadDefinition definition, KeyFormat keyFormat) {
+        this(definition, keyFormat, 0, 1);
+    }
+
+    /**
+     * @param definition     Workload definition.
+     * @param keyFormat      Document ID format and key reservation settings.
+     * @param partition      Partition of the new-key space this process inserts into, starting at 0.
+     * @param partitionCount Number of processes applying the workload together.
+     */
+    public Workload(WorkloadDefinition definition, KeyFormat keyFormat, int partition, int partitionCount) {
+        if (partition < 0 || partition >= partitionCount) {
+            throw new IllegalArgumentException("Partition " + partition + " is outside 0.." + (partitionCount - 1));
+        }
+        this.definition = definition;
+        this.keyFormat = keyFormat;
+        this.keyChooser = definition.isWriteThenRead() ? null : KeyChooser.create(definition);
+        this.partition = partition;
+        this.partitionCount = partitionCount;
+        // Only pre-loaded keys are read repeatedly; the write-then-read cycle uses each new key just a few times
+        this.keyRing = new String[(int) Math.min(keyFormat.ringSize(), definition.preloadKeyCount())];
+        for (int key = 0; key < keyRing.length; key++) {
+            keyRing[key] = keyFormat.format(key);
+        }
+    }
+
+    public WorkloadDefinition getDefinition() {
+        return definition;
+    }
+
+    public KeyFormat getKeyFormat() {
+        return keyFormat;
+    }
+
+    /**
+     * Creates the operation generator of a single worker.
+     */
+    public OperationGenerator newGenerator() {
+        return new OperationGenerator(this);
+    }
+
+    /**
+     * Returns the document ID of a key. Thread-safe, for callers outside the workers such as the pre-load.
+     *
+     * @param key Key number, not negative.
+     * @return The document ID.
+     */
+    public String documentId(long key) {
+        String cached = ringKey(key);
+        return cached != null ? cached : keyFormat.format(key);
+    }
+
+    /**
+     * Returns the time spent generating keys so far. Take a sample at the start and end of a window and subtract them.
+     */
+    public KeyGenerationCost getKeyGenerationCost() {
+        return new KeyGenerationCost(keyGenerationNanos.sum(), keyGenerationSamples.sum());
+    }
+
+    String ringKey(long key) {
+        return key < keyRing.length ? keyRing[(int) key] : null;
+    }
+
+    /**
+     * Reserves the next block of new keys.
+     *
+     * @return The first key of the block.
+     */
+    long reserveKeyBlock() {
+        return blockStart(nextBlock.getAndIncrement());
+    }
+
+    /**
+     * Picks an existing key. The key chooser picks among the pre-loaded keys followed by the inserted keys in the order
+     * their inserts completed, so with the latest distribution the most recently inserted key is the most popular.
+     */
+    long chooseExistingKey() {
+        long preloaded = definition.preloadKeyCount();
+        long inserted = insertedCount;
+        long index = keyChooser.nextKey(Math.max(0, preloaded + inserted - 1));
+        if (index < preloaded || inserted == 0) {
+            return index;
+        }
+        long position = index - preloaded;
+        return insertedChunks[(int) (position >>> INSERTED_CHUNK_BITS)][(int) (position & INSERTED_CHUNK_MASK)];
+    }
+
+    /**
+     * Records that the insert of a new key has succeeded, which makes the key readable.
+     *
+     * @param key Key returned by {@link #reserveKeyBlock()} or one after it in its block.
+     */
+    void insertCompleted(long key) {
+        if (keyChooser == null) {
+            return;
+        }
+        synchronized (this) {
+            long position = insertedCount;
+            long[][] chunks = insertedChunks;
+            int chunk = (int) (position >>> INSERTED_CHUNK_BITS);
+            if (chunk == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunks.length * 2);
+                insertedChunks = chunks;
+            }
+            if (chunks[chunk] == null) {
+                chunks[chunk] = new long[1 << INSERTED_CHUNK_BITS];
+            }
+            chunks[chunk][(int) (position & INSERTED_CHUNK_MASK)] = key;
+            // Publishes the key to readers, which read the count before the chunks
+            insertedCount = position + 1;
+        }
+    }
+
+    private long blockStart(long block) {
+        return definition.preloadKeyCount() + (block * partitionCount + partition) * keyFormat.blockSize();
+    }
+
+    void recordKeyGeneration(long nanos) {
+        keyGenerationNanos.add(nanos);
+        keyGenerationSamples.increment();
+    }
+}
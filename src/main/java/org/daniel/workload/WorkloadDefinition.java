@@ -0,0 +1,129 @@
+package org.daniel.workload;
+
+import java.util.List;
+
+/**
+ * Describes the operation mix and key access pattern of a benchmark workload.
+ * A definition with readsPerWrite greater than zero describes a fixed cycle instead of a random mix:
+ * each worker writes a new key and then reads that same key readsPerWrite times.
+ * Sub-document lookups and mutations are part of the mix next to the full-document operations, so the two can be
+ * compared in the same run against the same documents.
+ *
+ * @param name                     Preset name, for reporting.
+ * @param readsPerWrite            Reads after each write in the write-then-read cycle, or 0 for a random mix.
+ * @param readProportion           Fraction of reads in the mix.
+ * @param insertProportion         Fraction of inserts of new keys in the mix.
+ * @param updateProportion         Fraction of upserts of existing keys in the mix.
+ * @param deleteProportion         Fraction of removals of existing keys in the mix.
+ * @param replaceProportion        Fraction of replacements of existing keys in the mix.
+ * @param lookupInProportion       Fraction of sub-document lookups of existing keys in the mix.
+ * @param mutateInProportion       Fraction of sub-document mutations of existing keys in the mix.
+ * @param keyDistribution          How existing keys are chosen.
+ * @param keySpaceSize             Number of keys loaded before the run and chosen from.
+ * @param zipfianConstant          Skew of the zipfian and latest distributions.
+ * @param hotspotDataFraction      Fraction of the key space that is hot for the hotspot distribution.
+ * @param hotspotOperationFraction Fraction of operations that go to the hot keys.
+ * @param lookupInPaths            Paths read by each sub-document lookup.
+ * @param mutateInPaths            Paths written by each sub-document mutation; missing paths are created.
+ */
+public record WorkloadDefinition(String name,
+                                 int readsPerWrite,
+                                 double readProportion,
+                                 double insertProportion,
+                                 double updateProportion,
+                                 double deleteProportion,
+                                 double replaceProportion,
+                                 double lookupInProportion,
+                                 double mutateInProportion,
+                                 KeyDistribution keyDistribution,
+                                 long keySpaceSize,
+                                 double zipfianConstant,
+                                 double hotspotDataFraction,
+                                 double hotspotOperationFraction,
+                                 List<String> lookupInPaths,
+                                 List<String> mutateInPaths) {
+
+    public static final String WRITE_THEN_READ = "write-then-read";
+    public static final String READ_HEAVY = "read-heavy";
+    public static final String BALANCED = "balanced";
+    public static final String WRITE_ONLY = "write-only";
+    public static final String SUBDOCUMENT = "subdocument";
+
+    private static final long DEFAULT_KEY_SPACE_SIZE = 100_000;
+    private static final double DEFAULT_ZIPFIAN_CONSTANT = 0.99;
+    private static final List<String> DEFAULT_LOOKUP_IN_PATHS = List.of("firstName", "address.city");
+    private static final List<String> DEFAULT_MUTATE_IN_PATHS = List.of("benchmark.updated");
+
+    public WorkloadDefinition {
+        if (readsPerWrite == 0 && readProportion + insertProportion + updateProportion + deleteProportion + replaceProportion
+                + lookupInProportion + mutateInProportion <= 0) {
+            throw new IllegalArgumentException("Workload '" + name + "' has no operations");
+        }
+        if (keySpaceSize <= 0) {
+            throw new IllegalArgumentException("Workload key space size must be positive: " + keySpaceSize);
+        }
+        lookupInPaths = lookupInPaths == null ? List.of() : List.copyOf(lookupInPaths);
+        mutateInPaths = mutateInPaths == null ? List.of() : List.copyOf(mutateInPaths);
+        if (lookupInProportion > 0 && lookupInPaths.isEmpty()) {
+            throw new IllegalArgumentException("Workload '" + name + "' has sub-document lookups but no lookup-in paths");
+        }
+        if (mutateInProportion > 0 && mutateInPaths.isEmpty()) {
+            throw new IllegalArgumentException("Workload '" + name + "' has sub-document mutations but no mutate-in paths");
+        }
+    }
+
+    /**
+     * Returns a named preset. Any field of a preset can be overridden through the workload.* properties.
+     * <ul>
+     *     <li>write-then-read: upsert a new key, then read it three times (the original benchmark pattern)</li>
+     *     <li>read-heavy: 95% reads, 5% updates, zipfian keys</li>
+     *     <li>balanced: 50% reads, 50% updates, zipfian keys</li>
+     *     <li>write-only: 100% updates, zipfian keys</li>
+     *     <li>subdocument: 45% reads, 45% sub-document lookups, 5% updates, 5% sub-document mutations, zipfian keys</li>
+     * </ul>
+     *
+     * @param name Preset name.
+     * @return The preset definition.
+     */
+    public static WorkloadDefinition preset(String name) {
+        return switch (name.trim()) {
+            case WRITE_THEN_READ -> mix(WRITE_THEN_READ, 3, 0, 0, KeyDistribution.UNIFORM);
+            case READ_HEAVY -> mix(READ_HEAVY, 0, 0.95, 0.05, KeyDistribution.ZIPFIAN);
+            case BALANCED -> mix(BALANCED, 0, 0.5, 0.5, KeyDistribution.ZIPFIAN);
+            case WRITE_ONLY -> mix(WRITE_ONLY, 0, 0, 1.0, KeyDistribution.ZIPFIAN);
+            case SUBDOCUMENT -> mix(SUBDOCUMENT, 0.45, 0.05, 0.45, 0.05);
+            default -> throw new IllegalArgumentException("Unknown workload preset: " + name);
+        };
+    }
+
+    private static WorkloadDefinition mix(String name, int readsPerWrite, double read, double update, KeyDistribution distribution) {
+        return new WorkloadDefinition(name, readsPerWrite, read, 0, update, 0, 0, 0, 0, distribution,
+                DEFAULT_KEY_SPACE_SIZE, DEFAULT_ZIPFIAN_CONSTANT, 0.2, 0.8, DEFAULT_LOOKUP_IN_PATHS, DEFAULT_MUTATE_IN_PATHS);
+    }
+
+    private static WorkloadDefinition mix(String name, double read, double update, double lookupIn, double mutateIn) {
+        return new WorkloadDefinition(name, 0, read, 0, update, 0, 0, lookupIn, mutateIn, KeyDistribution.ZIPFIAN,
+                DEFAULT_KEY_SPACE_SIZE, DEFAULT_ZIPFIAN_CONSTANT, 0.2, 0.8, DEFAULT_LOOKUP_IN_PATHS, DEFAULT_MUTATE_IN_PATHS);
+    }
+
+    /**
+     * Whether this definition is the fixed write-then-read cycle rather than a random mix.
+     */
+    public boolean isWriteThenRead() {
+        return readsPerWrite > 0;
+    }
+
+    /**
+     * Whether the mix contains sub-document operations.
+     */
+    public boolean hasSubdocumentOperations() {
+        return !isWriteThenRead() && lookupInProportion + mutateInProportion > 0;
+    }
+
+    /**
+     * Number of keys that must exist before the run starts. The write-then-read cycle only reads keys it wrote itself.
+     */
+    public long preloadKeyCount() {
+        return isWriteThenRead() ? 0 : keySpaceSize;
+    }
+}
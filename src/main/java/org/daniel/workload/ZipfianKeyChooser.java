@@ -0,0 +1,59 @@
+package org.daniel.workload;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks keys from a Zipf distribution where key 0 is the most popular.
+ * Uses the rejection-free algorithm from Gray et al., "Quickly Generating Billion-Record Synthetic Databases",
+ * as YCSB does; the zeta constant is computed once for the key space.
+ */
+public class ZipfianKeyChooser implements KeyChooser {
+    private final long keySpaceSize;
+    private final double theta;
+    private final double alpha;
+    private final double zetaN;
+    private final double eta;
+    private final double halfPowTheta;
+
+    /**
+     * @param keySpaceSize Number of keys to choose from.
+     * @param theta        Skew of the distribution; must be between 0 and 1 exclusive, YCSB uses 0.99.
+     */
+    public ZipfianKeyChooser(long keySpaceSize, double theta) {
+        if (theta <= 0 || theta >= 1) {
+            throw new IllegalArgumentException("Zipfian constant must be between 0 and 1 exclusive: " + theta);
+        }
+        this.keySpaceSize = keySpaceSize;
+        this.theta = theta;
+        this.alpha = 1.0 / (1.0 - theta);
+        this.zetaN = zeta(keySpaceSize, theta);
+        this.eta = (1 - Math.pow(2.0 / keySpaceSize, 1 - theta)) / (1 - zeta(2, theta) / zetaN);
+        this.halfPowTheta = 1 + Math.pow(0.5, theta);
+    }
+
+    @Override
+    public long nextKey(long latestKey) {
+        double u = ThreadLocalRandom.current().nextDouble();
+        double uz = u * zetaN;
+        if (uz < 1.0) {
+            return 0;
+        }
+        if (uz < halfPowTheta) {
+            return 1;
+        }
+        long key = (long) (keySpaceSize * Math.pow(eta * u - eta + 1, alpha));
+        return Math.min(key, keySpaceSize - 1);
+    }
+
+    public double getTheta() {
+        return theta;
+    }
+
+    private static double zeta(long n, double theta) {
+        double sum = 0;
+        for (long i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, theta);
+        }
+        return sum;
+    }
+}
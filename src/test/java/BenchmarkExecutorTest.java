@@ -0,0 +1,308 @@
+import com.couchbase.client.core.error.TemporaryFailureException;
+import org.daniel.backend.FailureInjection;
+import org.daniel.backend.InMemoryBackend;
+import org.daniel.backend.KeyValueBackend;
+import org.daniel.backend.LatencyDistribution;
+import org.daniel.benchmark.AsyncBenchmarkDriver;
+import org.daniel.benchmark.CouchbaseBenchmarkExecutor;
+import org.daniel.benchmark.ExecutorStrategy;
+import org.daniel.benchmark.MeasurementWindow;
+import org.daniel.benchmark.RateSchedule;
+import org.daniel.benchmark.WarmupPolicy;
+import org.daniel.metrics.HistogramSnapshot;
+import org.daniel.metrics.MetricsCollector;
+import org.daniel.util.JsonUtils;
+import org.daniel.util.PayloadCorpus;
+import org.daniel.util.PayloadEncoding;
+import org.daniel.workload.Workload;
+import org.daniel.workload.WorkloadDefinition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs every execution mode end-to-end against the in-memory backend, so no Couchbase server is needed.
+ */
+class BenchmarkExecutorTest {
+
+    private PayloadCorpus payloadCorpus;
+    private MetricsCollector metricsCollector;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        payloadCorpus = PayloadCorpus.load(JsonUtils.loadJsonFilePaths("json-files"), PayloadEncoding.RAW);
+        metricsCollector = new MetricsCollector();
+    }
+
+    @Test
+    void testThreadMode() throws IOException {
+        createExecutor(WorkloadDefinition.WRITE_THEN_READ).runBenchmarkWithThreadCount(4, 1, true);
+        assertTrue(metricsCollector.getWriteOperations() > 0);
+        assertTrue(metricsCollector.getReadOperations() > 0);
+        assertTrue(metricsCollector.getOperationsPerSecond() > 0);
+    }
+
+    @Test
+    void testAsyncMode() throws IOException {
+        createExecutor(WorkloadDefinition.READ_HEAVY).runAsyncBenchmark(16, 1, 2);
+        assertTrue(metricsCollector.getReadOperations() > 0);
+        assertEquals(0, metricsCollector.getReadErrors());
+    }
+
+    @Test
+    void testOpenLoopMode() throws IOException {
+        RateSchedule schedule = RateSchedule.constant(500);
+        createExecutor(WorkloadDefinition.BALANCED).runOpenLoopBenchmark(8, 1, schedule, true);
+        long completed = metricsCollector.getReadOperations() + metricsCollector.getWriteOperations();
+        // Operations never start ahead of their intended time, so the window holds at most those scheduled before
+        // it closed; the schedule starts when the workers are released, shortly before the window opens
+        long scheduled = 0;
+        while (schedule.intendedOffsetNanos(scheduled) < 1_100_000_000L) {
+            scheduled++;
+        }
+        assertTrue(completed <= scheduled, completed + " > " + scheduled);
+        // Only a generous lower bound, as a loaded machine may fall behind the schedule
+        assertTrue(completed >= 50, String.valueOf(completed));
+        assertEquals(500, metricsCollector.getTargetOpsPerSecond());
+    }
+
+    @Test
+    void testBatchMode() {
+        createExecutor(WorkloadDefinition.WRITE_THEN_READ).runBatchBenchmark(2, 8, 1, true);
+        long batches = metricsCollector.getBatchOperations();
+        assertTrue(batches > 0);
+        // Every batch holds 8 operations of one kind, and reads only run once their key's write has; batches crossing
+        // an edge of the window are counted in part
+        assertEquals(batches * 8, metricsCollector.getCompletedOperations(), 8 * 2 * 2);
+        assertEquals(metricsCollector.getWriteOperations() * 3, metricsCollector.getReadOperations(), 8 * 2 * 3);
+        assertEquals(0, metricsCollector.getReadErrors());
+        // A batch lasts at least as long as the backend's fixed 100 us latency
+        assertTrue(metricsCollector.getBatchLatencySnapshot().getValueAtPercentile(1) >= 100_000);
+    }
+
+    @Test
+    void testAsyncReadsWaitForTheirWrite() {
+        createExecutor(WorkloadDefinition.WRITE_THEN_READ).runAsyncBenchmark(16, 1, 2);
+        assertTrue(metricsCollector.getReadOperations() > 0);
+        // Each read targets the key written just before it, which exists only once that write has completed
+        assertEquals(0, metricsCollector.getReadErrors());
+        assertEquals(0, metricsCollector.getWriteErrors());
+    }
+
+    @Test
+    void testAsyncDriverDrainsWithinTheDrainTimeout() throws InterruptedException {
+        // Operations take a minute, far longer than the drain timeout of one second
+        InMemoryBackend backend = new InMemoryBackend(LatencyDistribution.parse("fixed:60000000"));
+        AtomicBoolean isRunning = new AtomicBoolean(true);
+        AsyncBenchmarkDriver driver = new AsyncBenchmarkDriver(backend,
+                new Workload(WorkloadDefinition.preset(WorkloadDefinition.WRITE_THEN_READ)).newGenerator(),
+                new MeasurementWindow(metricsCollector, null), payloadCorpus, isRunning, 4, 1);
+        Thread thread = Thread.ofPlatform().start(driver);
+        Thread.sleep(200);
+        isRunning.set(false);
+        long stopped = System.nanoTime();
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(thread.isAlive());
+        assertTrue(System.nanoTime() - stopped < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    void testSubdocumentOperationsAreRecordedSeparately() throws IOException {
+        createExecutor(WorkloadDefinition.SUBDOCUMENT).runAsyncBenchmark(16, 1, 2);
+        assertTrue(metricsCollector.getLookupInOperations() > 0);
+        assertTrue(metricsCollector.getMutateInOperations() > 0);
+        assertEquals(0, metricsCollector.getLookupInErrors() + metricsCollector.getMutateInErrors());
+        assertEquals(metricsCollector.getLookupInOperations(), metricsCollector.getLookupInLatencySnapshot().getTotalCount());
+        // Lookups and reads are drawn in equal proportions but recorded apart
+        assertEquals(metricsCollector.getReadOperations(), metricsCollector.getLookupInOperations(),
+                metricsCollector.getReadOperations() * 0.2);
+        assertEquals(metricsCollector.getCompletedOperations(), metricsCollector.getReadOperations()
+                + metricsCollector.getWriteOperations() + metricsCollector.getSubdocumentOperations());
+        // Every lookup is broken down by the size of the document it targeted
+        assertEquals(metricsCollector.getLookupInOperations(), metricsCollector.getLatencyByDocumentSize()
+                .get("lookup-in").values().stream().mapToLong(HistogramSnapshot::getTotalCount).sum());
+    }
+
+    @Test
+    void testClientCostIsMeasured() {
+        createExecutor(WorkloadDefinition.WRITE_THEN_READ).runBenchmarkWithThreadCount(4, 1, true);
+        assertTrue(metricsCollector.getCpuNanosPerOperation() > 0);
+        assertTrue(metricsCollector.getAllocatedBytesPerOperation() > 0);
+    }
+
+    @Test
+    void testFixedWarmupIsExcludedFromMeasurement() throws IOException {
+        WarmupPolicy warmup = new WarmupPolicy(WarmupPolicy.Mode.FIXED, 1, 0, 0, 0);
+        createExecutor(WorkloadDefinition.BALANCED, warmup).runOpenLoopBenchmark(8, 1, RateSchedule.constant(500), true);
+        // One second of warmup plus one measured second at 500 ops/s: only the measured half is counted
+        long completed = metricsCollector.getReadOperations() + metricsCollector.getWriteOperations();
+        assertEquals(500, completed, 100);
+        assertEquals(1.0, metricsCollector.getMeasuredDurationNanos() / 1e9, 0.2);
+    }
+
+    @Test
+    void testAutoWarmupStopsAtMaximum() throws IOException {
+        metricsCollector = new MetricsCollector(100);
+        // An unreachable threshold keeps warming up until the maximum
+        WarmupPolicy warmup = new WarmupPolicy(WarmupPolicy.Mode.AUTO, 0, 0.0, 3, 1);
+        long start = System.nanoTime();
+        createExecutor(WorkloadDefinition.READ_HEAVY, warmup).runBenchmarkWithThreadCount(2, 1, true);
+        assertTrue(System.nanoTime() - start >= 2_000_000_000L);
+        assertTrue(metricsCollector.getReadOperations() > 0);
+    }
+
+    @Test
+    void testOperationsCrossingTheWindowAreExcluded() {
+        // With 300 ms operations, each thread has one operation in flight at the start and at the end of the window
+        createExecutor(WorkloadDefinition.READ_HEAVY, WarmupPolicy.none(), "fixed:300000").runBenchmarkWithThreadCount(2, 1, true);
+        assertEquals(1_000_000_000L, metricsCollector.getMeasuredDurationNanos());
+        assertTrue(metricsCollector.getExcludedOperations() >= 2);
+        // Only operations that ran entirely inside the window are counted
+        assertTrue(metricsCollector.getCompletedOperations() <= 2 * 3);
+        assertEquals(metricsCollector.getCompletedOperations(), metricsCollector.getOperationsPerSecond(), 1e-9);
+        assertTrue(metricsCollector.getReadLatencySnapshot().getMaxValue() < 1_000_000_000L);
+    }
+
+    @Test
+    void testInjectedFailuresAreClassified() {
+        FailureInjection failures = new FailureInjection(0.2, 0, true, TimeUnit.SECONDS.toNanos(1));
+        createExecutor(WorkloadDefinition.WRITE_THEN_READ, WarmupPolicy.none(), "fixed:100", failures)
+                .runBenchmarkWithThreadCount(4, 1, true);
+        assertTrue(metricsCollector.getErrorsByType().get("TemporaryFailureException") > 0);
+        long errors = metricsCollector.getReadErrors() + metricsCollector.getWriteErrors();
+        assertEquals(errors, metricsCollector.getErrorsByType().values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(errors, metricsCollector.getFailedLatencySnapshot().getTotalCount());
+        assertTrue(metricsCollector.getFailedTimeFraction() > 0);
+    }
+
+    @Test
+    void testPreloadIsNotFailureInjected() {
+        FailureInjection failures = new FailureInjection(0.2, 0, true, TimeUnit.SECONDS.toNanos(1));
+        createExecutor(WorkloadDefinition.READ_HEAVY, WarmupPolicy.none(), "fixed:100", failures)
+                .runBenchmarkWithThreadCount(4, 1, true);
+        // Every document was loaded, so reads only fail where a failure is injected
+        assertTrue(metricsCollector.getReadErrors() > 0);
+        assertFalse(metricsCollector.getErrorsByType().containsKey("DocumentNotFoundException"));
+    }
+
+    @Test
+    void testFailedPreloadAbortsTheRun() {
+        InMemoryBackend backend = new InMemoryBackend(LatencyDistribution.parse("fixed:100")) {
+            @Override
+            public void preload(String key, Object document) {
+                throw new TemporaryFailureException(null);
+            }
+        };
+        CouchbaseBenchmarkExecutor executor = createExecutor(WorkloadDefinition.READ_HEAVY, backend);
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> executor.runBenchmarkWithThreadCount(4, 1, true));
+        assertInstanceOf(TemporaryFailureException.class, e.getCause());
+        assertEquals(0, metricsCollector.getCompletedOperations());
+    }
+
+    @Test
+    void testExecutorStrategies() {
+        for (String spec : new String[]{"platform:256", "virtual", "fork-join", "structured"}) {
+            metricsCollector = new MetricsCollector();
+            createExecutor(WorkloadDefinition.WRITE_THEN_READ).runBenchmarkWithThreadCount(4, 1, ExecutorStrategy.parse(spec));
+            assertTrue(metricsCollector.getCompletedOperations() > 0, spec);
+            assertEquals(0, metricsCollector.getReadErrors() + metricsCollector.getWriteErrors(), spec);
+        }
+    }
+
+    @Test
+    void testStructuredScopeCancelsWorkersOnFailure() throws InterruptedException {
+        ExecutorService scope = ExecutorStrategy.parse("structured").create(2);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        scope.submit(() -> {
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+                cancelled.countDown();
+            }
+        });
+        scope.submit(() -> {
+            throw new IllegalStateException("worker failed");
+        });
+        assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+        scope.shutdown();
+        assertTrue(scope.awaitTermination(5, TimeUnit.SECONDS));
+        assertThrows(RejectedExecutionException.class, () -> scope.execute(() -> {
+        }));
+    }
+
+    @Test
+    void testStructuredRunWithFailedWorkerIsDiscarded() {
+        InMemoryBackend backend = new InMemoryBackend(LatencyDistribution.parse("fixed:100")) {
+            @Override
+            public Object get(String key) {
+                throw new AssertionError("worker failed");
+            }
+        };
+        CouchbaseBenchmarkExecutor executor = createExecutor(WorkloadDefinition.READ_HEAVY, backend);
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> executor.runBenchmarkWithThreadCount(4, 1, ExecutorStrategy.parse("structured")));
+        assertInstanceOf(AssertionError.class, e.getCause());
+    }
+
+    @Test
+    void testParseExecutorStrategy() {
+        for (String spec : new String[]{"platform", "platform:256", "virtual", "fork-join", "structured"}) {
+            assertEquals(spec, ExecutorStrategy.parse(spec).label());
+        }
+        assertEquals(ExecutorStrategy.VIRTUAL, ExecutorStrategy.of(true));
+        assertThrows(IllegalArgumentException.class, () -> ExecutorStrategy.parse("virtual-threads"));
+        assertThrows(IllegalArgumentException.class, () -> ExecutorStrategy.parse("fork-join:8"));
+        assertThrows(IllegalArgumentException.class, () -> ExecutorStrategy.parse("virtual:4"));
+        assertTrue(ExecutorStrategy.parse("structured").usesVirtualThreads());
+        assertFalse(ExecutorStrategy.parse("fork-join").usesVirtualThreads());
+        System.setProperty(ExecutorStrategy.CARRIER_PARALLELISM_PROPERTY, "3");
+        try {
+            assertEquals(3, ExecutorStrategy.carrierParallelism());
+        } finally {
+            System.clearProperty(ExecutorStrategy.CARRIER_PARALLELISM_PROPERTY);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new ExecutorStrategy(ExecutorStrategy.Kind.VIRTUAL, 256));
+    }
+
+    private CouchbaseBenchmarkExecutor createExecutor(String preset) {
+        return createExecutor(preset, WarmupPolicy.none());
+    }
+
+    private CouchbaseBenchmarkExecutor createExecutor(String preset, WarmupPolicy warmupPolicy) {
+        return createExecutor(preset, warmupPolicy, "fixed:100");
+    }
+
+    private CouchbaseBenchmarkExecutor createExecutor(String preset, WarmupPolicy warmupPolicy, String latency) {
+        return createExecutor(preset, warmupPolicy, latency, FailureInjection.NONE);
+    }
+
+    private CouchbaseBenchmarkExecutor createExecutor(String preset, WarmupPolicy warmupPolicy, String latency,
+                                                      FailureInjection failures) {
+        return createExecutor(preset, warmupPolicy, new InMemoryBackend(LatencyDistribution.parse(latency), failures));
+    }
+
+    private CouchbaseBenchmarkExecutor createExecutor(String preset, KeyValueBackend backend) {
+        return createExecutor(preset, WarmupPolicy.none(), backend);
+    }
+
+    private CouchbaseBenchmarkExecutor createExecutor(String preset, WarmupPolicy warmupPolicy, KeyValueBackend backend) {
+        WorkloadDefinition definition = WorkloadDefinition.preset(preset);
+        // A small key space keeps the preload fast
+        WorkloadDefinition small = new WorkloadDefinition(definition.name(), definition.readsPerWrite(),
+                definition.readProportion(), definition.insertProportion(), definition.updateProportion(),
+                definition.deleteProportion(), definition.replaceProportion(), definition.lookupInProportion(),
+                definition.mutateInProportion(), definition.keyDistribution(), 1000, definition.zipfianConstant(),
+                definition.hotspotDataFraction(), definition.hotspotOperationFraction(), definition.lookupInPaths(),
+                definition.mutateInPaths());
+        return new CouchbaseBenchmarkExecutor(backend, payloadCorpus, metricsCollector, new Workload(small), warmupPolicy);
+    }
+}
@@ -0,0 +1,99 @@
+import org.daniel.backend.InMemoryBackend;
+import org.daniel.backend.LatencyDistribution;
+import org.daniel.benchmark.BenchmarkMatrix;
+import org.daniel.benchmark.BenchmarkRunner;
+import org.daniel.config.AppConfig;
+import org.daniel.metrics.MetricsCollector;
+import org.daniel.results.BenchmarkResults;
+import org.daniel.results.LevelResult;
+import org.daniel.results.ResultsWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs small matrices against the in-memory backend.
+ */
+class BenchmarkMatrixTest {
+
+    @Test
+    void testCellsAreTheCartesianProduct() throws IOException {
+        BenchmarkMatrix matrix = new BenchmarkMatrix(config(Map.of(
+                "thread-count", "1,20,50",
+                "virtual-threads", "true,false",
+                "workload", "read-heavy,balanced",
+                "payload-encoding", "raw,jackson",
+                "couchbase.env.kv-connections", "1,4")));
+        List<BenchmarkMatrix.Cell> cells = matrix.cells();
+        assertEquals(3 * 2 * 2 * 2 * 2, cells.size());
+        assertEquals(cells.size(), cells.stream().map(BenchmarkMatrix.Cell::id).distinct().count());
+        BenchmarkMatrix.Cell first = cells.get(0);
+        assertEquals("read-heavy-virtual-raw-t1-kv-connections=1", first.id());
+        assertEquals("1", first.overrides().get("thread-count"));
+        assertEquals("1", first.overrides().get("couchbase.env.kv-connections"));
+
+        // The same seed gives the same order, so a randomized matrix can be repeated
+        assertEquals(matrix.schedule(new Random(42)), matrix.schedule(new Random(42)));
+        assertNotEquals(cells, matrix.schedule(new Random(42)));
+    }
+
+    @Test
+    void testCompletedCellsAreSkippedOnRestart() throws IOException {
+        AppConfig config = config(Map.of("thread-count", "1,2", "matrix.order", "random"));
+        BenchmarkMatrix matrix = new BenchmarkMatrix(config);
+        assertEquals(2, matrix.schedule(null).size());
+
+        matrix.run();
+        assertTrue(matrix.cells().stream().allMatch(matrix::isCompleted));
+        assertTrue(matrix.schedule(null).isEmpty());
+        Path combined = config.getMatrixDirectory().resolve("matrix-results.json");
+        BenchmarkResults results = ResultsWriter.read(combined);
+        assertEquals(List.of("write-then-read-virtual-raw-t1", "write-then-read-virtual-raw-t2"),
+                results.levels().stream().map(LevelResult::label).toList());
+
+        // A restart runs nothing and only rewrites the combined results
+        Path marker = Path.of(matrix.cells().get(0).overrides().get("results-directory"), "cell.json");
+        long completedAt = Files.getLastModifiedTime(marker).toMillis();
+        new BenchmarkMatrix(config).run();
+        assertEquals(completedAt, Files.getLastModifiedTime(marker).toMillis());
+        assertEquals(2, ResultsWriter.read(combined).levels().size());
+    }
+
+    @Test
+    void testExecutorStrategiesRunSideBySide() throws IOException {
+        AppConfig config = config(Map.of("thread-count", "2", "executor-strategy", "platform:256,fork-join",
+                "results-directory", Files.createTempDirectory("results").toString()));
+        assertEquals(List.of("write-then-read-platform-256-raw-t2", "write-then-read-fork-join-raw-t2"),
+                new BenchmarkMatrix(config).cells().stream().map(BenchmarkMatrix.Cell::id).toList());
+
+        // Without a matrix, every level runs with each strategy
+        Map<String, List<MetricsCollector>> results = new BenchmarkRunner(config, new InMemoryBackend(LatencyDistribution.parse("fixed:100"))).runBenchmarks();
+        assertEquals(List.of("raw [platform:256] @ 2", "raw [fork-join] @ 2"), List.copyOf(results.keySet()));
+        assertTrue(results.values().stream().allMatch(runs -> runs.size() == 1));
+    }
+
+    @Test
+    void testParseOverrides() {
+        assertEquals(Map.of("thread-count", "1,2", "workload", "balanced"),
+                AppConfig.parseOverrides(List.of("thread-count=1,2", "workload = balanced")));
+        assertThrows(IllegalArgumentException.class, () -> AppConfig.parseOverrides(List.of("thread-count")));
+    }
+
+    private static AppConfig config(Map<String, String> scenario) throws IOException {
+        return new AppConfig("application.properties").withOverrides(Map.of(
+                "backend", "memory",
+                "thread-pool-runs", "1",
+                "process-seconds", "1",
+                "sleep-between-runs", "0",
+                "warmup-seconds", "0",
+                "workload.key-space-size", "1000",
+                "matrix.directory", Files.createTempDirectory("matrix").toString())).withOverrides(scenario);
+    }
+}
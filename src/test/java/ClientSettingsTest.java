@@ -0,0 +1,40 @@
+import org.daniel.couchbase.ClientSetting;
+import org.daniel.couchbase.ClientSettings;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientSettingsTest {
+
+    @Test
+    void testWithoutSettingsOnlySdkDefaults() {
+        List<ClientSettings> combinations = ClientSettings.combinations(new Properties());
+        assertEquals(List.of(ClientSettings.DEFAULT), combinations);
+        assertEquals("sdk-defaults", combinations.get(0).label());
+    }
+
+    @Test
+    void testEveryCombinationIsSwept() {
+        Properties properties = new Properties();
+        properties.setProperty("couchbase.env.kv-connections", "1, 4");
+        properties.setProperty("couchbase.env.compression", "true,false");
+        properties.setProperty("couchbase.env.retry-strategy", "fail-fast");
+
+        List<ClientSettings> combinations = ClientSettings.combinations(properties);
+        assertEquals(4, combinations.size());
+        // The first setting varies slowest
+        assertEquals("kv-connections=1 compression=true retry-strategy=fail-fast", combinations.get(0).label());
+        assertEquals("kv-connections=1 compression=false retry-strategy=fail-fast", combinations.get(1).label());
+        assertEquals("4", combinations.get(3).values().get(ClientSetting.KV_CONNECTIONS));
+        assertEquals("false", combinations.get(3).values().get(ClientSetting.COMPRESSION));
+    }
+
+    @Test
+    void testPropertyKeys() {
+        assertEquals("couchbase.env.kv-timeout-millis", ClientSetting.KV_TIMEOUT_MILLIS.getPropertyKey());
+        assertEquals("couchbase.env.io-threads", ClientSetting.IO_THREADS.getPropertyKey());
+    }
+}
@@ -0,0 +1,58 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.daniel.metrics.ClusterMetricsSampler;
+import org.daniel.metrics.ClusterSample;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClusterMetricsSamplerTest {
+
+    @Test
+    void testParseBucketStatsKeepsFullSampleArrays() throws IOException {
+        String json = """
+                {"op": {"samples": {
+                    "timestamp": [1000, 2000, 3000],
+                    "ops": [10, 20, 30],
+                    "ep_cache_miss_rate": [0.5, 0.25, 0],
+                    "unrelated": [1, 2, 3]
+                }}}""";
+        List<ClusterSample> samples = ClusterMetricsSampler.parseBucketStats("node1:8091", new ObjectMapper().readTree(json));
+
+        assertEquals(6, samples.size());
+        assertTrue(samples.contains(new ClusterSample(2000, "node1:8091", "ops", 20)));
+        assertTrue(samples.contains(new ClusterSample(3000, "node1:8091", "ep_cache_miss_rate", 0)));
+    }
+
+    @Test
+    void testParseBucketStatsWithoutSamples() throws IOException {
+        assertTrue(ClusterMetricsSampler.parseBucketStats(ClusterSample.BUCKET, new ObjectMapper().readTree("{}")).isEmpty());
+    }
+
+    @Test
+    void testAverageBetweenAlignsSamplesWithWindow() {
+        List<ClusterSample> samples = List.of(
+                new ClusterSample(1000, "a", "ops", 10),
+                new ClusterSample(1500, "a", "ops", 30),
+                new ClusterSample(1500, "b", "ops", 5),
+                new ClusterSample(2000, "a", "ops", 100));
+
+        Map<String, Double> averages = ClusterMetricsSampler.averageBetween(samples, 1000, 2000);
+        assertEquals(20.0, averages.get("a ops"), 1e-9);
+        assertEquals(5.0, averages.get("b ops"), 1e-9);
+        assertEquals(2, averages.size());
+    }
+
+    @Test
+    void testClockOffsetComesFromTheNewestServerSample() {
+        List<ClusterSample> samples = List.of(
+                new ClusterSample(1000, "bucket", "ops", 10),
+                new ClusterSample(2000, "bucket", "ops", 20));
+        // The response arrived 5.3 s after the newest sample by the client clock
+        assertEquals(5300, ClusterMetricsSampler.estimateClockOffset(7300, samples));
+        assertEquals(Long.MAX_VALUE, ClusterMetricsSampler.estimateClockOffset(7300, List.of()));
+    }
+}
@@ -0,0 +1,83 @@
+import org.daniel.benchmark.ConcurrencySearch;
+import org.daniel.metrics.MetricsCollector;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencySearchTest {
+
+    @Test
+    void testFindsThroughputKnee() {
+        // Throughput scales linearly up to 32 workers and is flat beyond
+        ConcurrencySearch search = new ConcurrencySearch(1, 1024, 2.0, 0.25, 0, 0.1);
+        ConcurrencySearch.Result result = search.search(concurrency -> collector(Math.min(concurrency, 32) * 1000, 1_000_000));
+
+        assertEquals(32, result.optimal().concurrency());
+        assertEquals(32_000, result.maxSustainableThroughput(), 1);
+        // Far fewer probes than a grid over the same range
+        assertTrue(result.probes().size() < 15);
+    }
+
+    @Test
+    void testStopsAtLatencyBudget() {
+        // p99 latency grows by 1 ms per worker; the budget is 20 ms
+        ConcurrencySearch search = new ConcurrencySearch(1, 1024, 2.0, 0.25, 20, 0.05);
+        ConcurrencySearch.Result result = search.search(concurrency -> collector(concurrency * 1000, concurrency * 1_000_000L));
+
+        int optimal = result.optimal().concurrency();
+        assertTrue(optimal >= 16 && optimal <= 20, "optimal concurrency " + optimal);
+        assertTrue(result.optimal().p99LatencyNanos() <= 20_000_000);
+    }
+
+    @Test
+    void testNoOptimumWhenFirstProbeExceedsBudget() {
+        ConcurrencySearch search = new ConcurrencySearch(4, 64, 2.0, 0.25, 1, 0.1);
+        ConcurrencySearch.Result result = search.search(concurrency -> collector(1000, 5_000_000));
+
+        assertNull(result.optimal());
+        assertEquals(1, result.probes().size());
+    }
+
+    @Test
+    void testStopsAtMaxConcurrency() {
+        ConcurrencySearch search = new ConcurrencySearch(1, 48, 2.0, 0.25, 0, 0.1);
+        ConcurrencySearch.Result result = search.search(concurrency -> collector(concurrency * 1000, 1_000_000));
+
+        assertEquals(48, result.optimal().concurrency());
+    }
+
+    @Test
+    void testMaxSustainableThroughputCoversProbesPastTheKnee() {
+        // Beyond 32 workers each one adds only 1 ops/s: past the knee, but still more throughput within the budget
+        ConcurrencySearch search = new ConcurrencySearch(1, 64, 2.0, 0.25, 0, 0.1);
+        ConcurrencySearch.Result result = search.search(concurrency -> collector(Math.min(concurrency, 32) * 1000 + concurrency, 1_000_000));
+
+        assertEquals(32, result.optimal().concurrency());
+        assertEquals(32_064, result.maxSustainableThroughput(), 1);
+    }
+
+    @Test
+    void testFailedProbeCountsAsSaturated() {
+        ConcurrencySearch search = new ConcurrencySearch(1, 1024, 2.0, 0.25, 0, 0.1);
+        ConcurrencySearch.Result result = search.search(concurrency -> {
+            if (concurrency > 20) {
+                throw new IllegalStateException("probe failed");
+            }
+            return collector(concurrency * 1000, 1_000_000);
+        });
+
+        int optimal = result.optimal().concurrency();
+        assertTrue(optimal >= 16 && optimal <= 20, "optimal concurrency " + optimal);
+        assertTrue(result.probes().stream().anyMatch(ConcurrencySearch.ProbeResult::failed));
+        assertEquals(optimal * 1000, result.maxSustainableThroughput(), 1);
+    }
+
+    private static MetricsCollector collector(int operationsPerSecond, long latencyNanos) {
+        MetricsCollector metricsCollector = new MetricsCollector();
+        for (int i = 0; i < operationsPerSecond; i++) {
+            metricsCollector.recordWriteLatency(latencyNanos);
+        }
+        metricsCollector.setMeasuredDurationNanos(1_000_000_000L);
+        return metricsCollector;
+    }
+}
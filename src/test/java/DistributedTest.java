@@ -0,0 +1,134 @@
+import org.daniel.config.AppConfig;
+import org.daniel.distributed.DistributedCoordinator;
+import org.daniel.distributed.DistributedWorker;
+import org.daniel.distributed.RunPlan;
+import org.daniel.distributed.WorkerRunResult;
+import org.daniel.metrics.IntervalSnapshot;
+import org.daniel.metrics.MetricsCollector;
+import org.junit.jupiter.api.Test;
+
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs a coordinator with two workers on localhost against the in-memory backend.
+ * The workers run as threads here; as separate JVMs they connect with the "worker" arguments of Main.
+ */
+class DistributedTest {
+
+    @Test
+    void testPlanIsSplitBetweenWorkers() {
+        RunPlan plan = new RunPlan("RAW", 5, 1001, 10, 30, "virtual");
+        assertEquals(3, plan.forWorker(0, 2).concurrency());
+        assertEquals(2, plan.forWorker(1, 2).concurrency());
+        assertEquals(501, plan.forWorker(0, 2).targetOpsPerSecond());
+        assertEquals(500, plan.forWorker(1, 2).targetOpsPerSecond());
+        assertEquals(1, new RunPlan("RAW", 3, 0, 10, 30, "virtual").forWorker(2, 3).concurrency());
+    }
+
+    @Test
+    void testWorkerResultsMergeIntoOneRun() {
+        MetricsCollector first = new MetricsCollector();
+        MetricsCollector second = new MetricsCollector();
+        for (int i = 1; i <= 99; i++) {
+            first.recordReadLatency(1_000);
+        }
+        second.recordReadLatency(1_000_000);
+        second.incrementWriteErrors();
+        first.setMeasuredDurationNanos(1_000_000_000L);
+        second.setMeasuredDurationNanos(2_000_000_000L);
+        first.addInterval(new IntervalSnapshot(0, 1_000_000_000L, 0, 99, 0, 0,
+                first.getWriteLatencySnapshot(), first.getReadLatencySnapshot()));
+
+        MetricsCollector merged = WorkerRunResult.merge(
+                List.of(WorkerRunResult.of(0, first), WorkerRunResult.of(1, second)), 1000);
+        assertEquals(100, merged.getReadOperations());
+        assertEquals(1, merged.getWriteErrors());
+        assertEquals(101 / 2.0, merged.getOperationsPerSecond(), 1e-9);
+        // Percentiles come from the combined histogram, not from averaging the workers' percentiles
+        assertEquals(1_000, merged.getReadLatencySnapshot().getValueAtPercentile(99), 20);
+        assertEquals(1_000_000, merged.getReadLatencySnapshot().getMaxValue());
+        assertEquals(1, merged.getIntervals().size());
+        assertEquals(99, merged.getIntervals().get(0).readOperations());
+    }
+
+    @Test
+    void testCoordinatorRunsWorkersOnLocalhost() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        Properties properties = new AppConfig("application.properties").getProperties();
+        properties.setProperty("backend", "memory");
+        properties.setProperty("backend.latency", "fixed:100");
+        properties.setProperty("execution-mode", "open-loop");
+        properties.setProperty("workload", "balanced");
+        properties.setProperty("workload.key-space-size", "1000");
+        properties.setProperty("warmup-seconds", "0");
+        properties.setProperty("results-directory", Files.createTempDirectory("distributed").toString());
+
+        // A dedicated pool, as the coordinator and the workers block on their sockets for the whole session
+        try (ExecutorService executor = Executors.newCachedThreadPool()) {
+            Future<DistributedCoordinator> accepted = executor.submit(() -> DistributedCoordinator.accept(port, 2, 10, 200, 30, properties));
+            List<Future<Void>> workers = List.of(startWorker(executor, port), startWorker(executor, port));
+
+            try (DistributedCoordinator coordinator = accepted.get(10, TimeUnit.SECONDS)) {
+                MetricsCollector merged = coordinator.run(new RunPlan("RAW", 8, 400, 1, 1, "platform"), 1000);
+                List<WorkerRunResult> results = coordinator.getLastRunResults();
+                assertEquals(List.of(0, 1), results.stream().map(WorkerRunResult::workerIndex).toList());
+                assertEquals(400, merged.getTargetOpsPerSecond());
+                for (WorkerRunResult result : results) {
+                    assertEquals(200, result.targetOpsPerSecond());
+                    // An open-loop worker cannot issue more than its share of the schedule in the one-second window
+                    assertTrue(result.readLatency().totalCount() + result.writeLatency().totalCount() <= 220);
+                }
+                // The merged run holds exactly the operations of the workers, and nothing failed
+                assertEquals(results.stream().mapToLong(result -> result.readLatency().totalCount()).sum(), merged.getReadOperations());
+                assertEquals(results.stream().mapToLong(result -> result.writeLatency().totalCount()).sum(), merged.getWriteOperations());
+                assertTrue(merged.getCompletedOperations() > 0);
+                assertEquals(0, merged.getReadErrors() + merged.getWriteErrors());
+                assertEquals(results.stream().mapToLong(result -> result.intervals().stream()
+                                .mapToLong(interval -> interval.readOperations() + interval.writeOperations()).sum()).sum(),
+                        merged.getIntervals().stream().mapToLong(interval -> interval.readOperations() + interval.writeOperations()).sum());
+                assertFalse(merged.getIntervals().isEmpty());
+            }
+            for (Future<Void> worker : workers) {
+                worker.get(10, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    private static Future<Void> startWorker(ExecutorService executor, int port) {
+        return executor.submit(() -> {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (true) {
+                try {
+                    DistributedWorker.run("localhost", port);
+                    return null;
+                } catch (ConnectException e) {
+                    // The coordinator is not listening yet
+                    if (System.nanoTime() > deadline) {
+                        throw e;
+                    }
+                    Thread.sleep(50);
+                }
+            }
+        });
+    }
+
+    @Test
+    void testConcurrencyBelowWorkerCountIsRejected() {
+        RunPlan plan = new RunPlan("RAW", 1, 0, 10, 30, "virtual");
+        assertThrows(IllegalArgumentException.class, () -> plan.forWorker(0, 2));
+        assertEquals(1, plan.forWorker(0, 1).concurrency());
+    }
+}
@@ -0,0 +1,65 @@
+import org.daniel.profiling.JfrRecorder;
+import org.daniel.profiling.JfrSummary;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrRecorderTest {
+
+    @Test
+    void testRecordingIsSummarized() throws Exception {
+        Path directory = Files.createTempDirectory("jfr");
+        JfrRecorder recorder = new JfrRecorder(directory.resolve("run1"), Duration.ofMillis(50), Duration.ofMillis(10), 5);
+        recorder.windowOpened();
+
+        // Sleeping inside a synchronized block pins the virtual thread to its carrier; only the pin above the
+        // threshold is recorded, so brief pins elsewhere in the JVM cannot change the count
+        pinVirtualThread(Duration.ofMillis(1));
+        pinVirtualThread(Duration.ofMillis(200));
+        // Work that allocates and calls methods, so it shows up in both allocation and execution samples
+        long sink = 0;
+        long end = System.nanoTime() + 500_000_000L;
+        while (System.nanoTime() < end) {
+            sink += String.valueOf(System.nanoTime()).repeat(8).hashCode() & 1;
+            sink += new byte[1024].length;
+        }
+        assertTrue(sink > 0);
+        System.gc();
+
+        recorder.windowClosed();
+        JfrSummary summary = recorder.finish();
+        assertTrue(Files.size(recorder.getRecordingFile()) > 0);
+        assertTrue(Files.exists(recorder.getSummaryFile()));
+        assertEquals(1, summary.pinnedEvents());
+        assertTrue(summary.pinnedNanos() >= Duration.ofMillis(200).toNanos());
+        assertTrue(summary.gcCount() >= 1);
+        assertTrue(summary.executionSamples() > 0);
+        assertFalse(summary.hottestFrames().isEmpty());
+        assertTrue(summary.hottestFrames().size() <= 5);
+        assertFalse(summary.topAllocatingFrames().isEmpty());
+    }
+
+    private static void pinVirtualThread(Duration duration) throws InterruptedException {
+        Object lock = new Object();
+        Thread.ofVirtual().start(() -> {
+            synchronized (lock) {
+                try {
+                    Thread.sleep(duration);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }).join();
+    }
+
+    @Test
+    void testFinishWithoutWindowWritesNothing() throws Exception {
+        JfrRecorder recorder = new JfrRecorder(Files.createTempDirectory("jfr").resolve("run1"), Duration.ZERO, Duration.ofMillis(10), 5);
+        assertNull(recorder.finish());
+        assertFalse(Files.exists(recorder.getRecordingFile()));
+    }
+}
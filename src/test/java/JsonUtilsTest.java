@@ -1,8 +1,15 @@
+import com.couchbase.client.java.json.JsonObject;
 import org.daniel.util.JsonUtils;
+import org.daniel.util.PackedCorpus;
+import org.daniel.util.PayloadCorpus;
+import org.daniel.util.PayloadEncoding;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -26,4 +33,61 @@ class JsonUtilsTest {
         assertFalse(jsonFilePaths.isEmpty());
         assertTrue(jsonFilePaths.stream().allMatch(path -> path.toString().endsWith(".json")));
     }
+
+    @Test
+    void testPayloadCorpusEncodings() throws IOException {
+        List<Path> jsonFilePaths = List.of(Path.of("src/test/resources/test.json"));
+        assertInstanceOf(JsonObject.class, PayloadCorpus.load(jsonFilePaths, PayloadEncoding.JSON_OBJECT).get(0));
+        assertInstanceOf(Map.class, PayloadCorpus.load(jsonFilePaths, PayloadEncoding.JACKSON).get(0));
+
+        PayloadCorpus raw = PayloadCorpus.load(jsonFilePaths, PayloadEncoding.RAW);
+        assertEquals("{\"key\":\"value\"}", new String((byte[]) raw.get(0)));
+        // Indices wrap around the corpus, so every document is the same instance on each access
+        assertSame(raw.get(0), raw.get(raw.size()));
+    }
+
+    @Test
+    void testPackedCorpusRoundTrip() throws IOException {
+        Path directory = Files.createTempDirectory("corpus");
+        List<Path> jsonFilePaths = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Path file = directory.resolve("doc" + i + ".json");
+            Files.writeString(file, "{\"id\":" + i + ",\"padding\":\"" + "x".repeat(i * 100) + "\"}");
+            jsonFilePaths.add(file);
+        }
+        Path corpusFile = directory.resolve("packed/corpus.bin");
+        PackedCorpus.pack(jsonFilePaths, corpusFile);
+
+        PayloadCorpus corpus = PayloadCorpus.open(corpusFile);
+        assertEquals(3, corpus.size());
+        assertEquals(PayloadEncoding.RAW, corpus.getEncoding());
+        for (int i = 0; i < 3; i++) {
+            ByteBuffer slice = (ByteBuffer) corpus.get(i);
+            assertTrue(slice.isReadOnly());
+            assertArrayEquals(Files.readAllBytes(jsonFilePaths.get(i)), JsonUtils.toBytes(slice));
+        }
+
+        // Key numbers beyond the corpus wrap around, and each key always gets the same document and size
+        assertEquals(corpus.get(2), corpus.get(5));
+        assertEquals(Files.size(jsonFilePaths.get(1)), corpus.documentBytes(4));
+    }
+
+    @Test
+    void testPathValueSizes() {
+        Map<String, Object> document = Map.of(
+                "name", "Ada",
+                "address", Map.of("city", "London"),
+                "phoneNumbers", List.of(Map.of("number", "123"), Map.of("number", "4567")));
+        int[] sizes = JsonUtils.pathValueSizes(JsonUtils.toBytes(document),
+                List.of("name", "address.city", "phoneNumbers[1].number", "phoneNumbers[-1]", "address.zip", "name[0]"));
+        assertArrayEquals(new int[]{5, 8, 6, 17, -1, -1}, sizes);
+    }
+
+    @Test
+    void testPackRejectsInvalidJson() throws IOException {
+        Path directory = Files.createTempDirectory("corpus");
+        Path file = Files.writeString(directory.resolve("broken.json"), "{\"id\":");
+        assertThrows(IOException.class, () -> PackedCorpus.pack(List.of(file), directory.resolve("corpus.bin")));
+        assertThrows(IOException.class, () -> PayloadCorpus.open(file));
+    }
 }
@@ -0,0 +1,195 @@
+import com.couchbase.client.core.error.AmbiguousTimeoutException;
+import com.couchbase.client.core.error.DocumentExistsException;
+import com.couchbase.client.core.error.DocumentNotFoundException;
+import com.couchbase.client.core.error.TemporaryFailureException;
+import com.couchbase.client.core.error.UnambiguousTimeoutException;
+import org.daniel.backend.FailureInjection;
+import org.daniel.backend.InMemoryBackend;
+import org.daniel.backend.KeyValueBackend;
+import org.daniel.backend.LatencyDistribution;
+import org.daniel.backend.OffHeapBackend;
+import org.daniel.couchbase.ClientSetting;
+import org.daniel.couchbase.ClientSettings;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalBackendTest {
+
+    @Test
+    void testInMemoryOperations() {
+        verifyOperations(new InMemoryBackend(LatencyDistribution.NONE));
+    }
+
+    @Test
+    void testOffHeapOperations() {
+        verifyOperations(new OffHeapBackend(1 << 20, LatencyDistribution.NONE));
+    }
+
+    @Test
+    void testOffHeapRoundTripsBytes() {
+        OffHeapBackend backend = new OffHeapBackend(1 << 20, LatencyDistribution.NONE);
+        byte[] small = "{\"a\":1}".getBytes(StandardCharsets.UTF_8);
+        byte[] large = new byte[5000];
+        backend.upsert("doc", small);
+        assertArrayEquals(small, (byte[]) backend.get("doc"));
+        backend.upsert("doc", large);
+        assertArrayEquals(large, (byte[]) backend.get("doc"));
+        assertTrue(backend.getAsync("missing").handle((result, error) -> error != null).join());
+    }
+
+    @Test
+    void testOffHeapStoresBufferSlices() {
+        OffHeapBackend backend = new OffHeapBackend(1 << 20, LatencyDistribution.NONE);
+        ByteBuffer slice = ByteBuffer.wrap("xx{\"a\":1}yy".getBytes(StandardCharsets.UTF_8)).slice(2, 7).asReadOnlyBuffer();
+        backend.upsert("doc", slice);
+        assertEquals("{\"a\":1}", new String((byte[]) backend.get("doc"), StandardCharsets.UTF_8));
+        // The slice can be written again, e.g. by the next worker that draws it
+        assertEquals(0, slice.position());
+    }
+
+    @Test
+    void testOffHeapRecyclesMemory() {
+        OffHeapBackend backend = new OffHeapBackend(1 << 16, LatencyDistribution.NONE);
+        byte[] document = new byte[1000];
+        // 64 KB holds 64 chunks of 1 KB; rewriting the same keys must not run out of memory
+        for (int round = 0; round < 100; round++) {
+            for (int key = 0; key < 32; key++) {
+                backend.upsert(String.valueOf(key), document);
+            }
+            backend.remove("0");
+        }
+        assertTrue(backend.getAllocatedBytes() <= 1 << 16);
+    }
+
+    @Test
+    void testOffHeapReadsOfARewrittenKeyAreWhole() throws InterruptedException {
+        OffHeapBackend backend = new OffHeapBackend(1 << 20, LatencyDistribution.NONE);
+        backend.upsert("hot", new byte[1000]);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger tornReads = new AtomicInteger();
+        // Every version of the document repeats a single byte, so a read mixing two versions is detected
+        Thread writer = Thread.ofPlatform().start(() -> {
+            for (int version = 0; running.get(); version++) {
+                byte[] document = new byte[1000];
+                Arrays.fill(document, (byte) version);
+                backend.upsert("hot", document);
+                backend.upsert("other" + (version & 7), document);
+            }
+        });
+        Thread[] readers = new Thread[4];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = Thread.ofPlatform().start(() -> {
+                for (int read = 0; read < 20_000; read++) {
+                    byte[] content = (byte[]) backend.get("hot");
+                    for (byte b : content) {
+                        if (b != content[0]) {
+                            tornReads.incrementAndGet();
+                            break;
+                        }
+                    }
+                }
+            });
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        running.set(false);
+        writer.join();
+        assertEquals(0, tornReads.get());
+    }
+
+    @Test
+    void testInjectedLatency() {
+        KeyValueBackend backend = new InMemoryBackend(LatencyDistribution.parse("fixed:2000"));
+        long start = System.nanoTime();
+        backend.upsert("doc", "value");
+        assertTrue(System.nanoTime() - start >= 2_000_000);
+        start = System.nanoTime();
+        backend.getAsync("doc").join();
+        assertTrue(System.nanoTime() - start >= 2_000_000);
+    }
+
+    @Test
+    void testParseLatencyDistributions() {
+        assertEquals(0, LatencyDistribution.parse("none").nextDelayNanos());
+        assertEquals(150_000, LatencyDistribution.parse("fixed:150").nextDelayNanos());
+        long uniform = LatencyDistribution.parse("uniform:100:200").nextDelayNanos();
+        assertTrue(uniform >= 100_000 && uniform <= 200_000);
+        assertTrue(LatencyDistribution.parse("lognormal:250:0.5").nextDelayNanos() > 0);
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.parse("gamma:1"));
+    }
+
+    @Test
+    void testFailFastSurfacesTemporaryFailures() {
+        KeyValueBackend backend = new InMemoryBackend(LatencyDistribution.NONE,
+                new FailureInjection(1.0, 0, true, TimeUnit.SECONDS.toNanos(1)));
+        assertThrows(TemporaryFailureException.class, () -> backend.upsert("doc", "value"));
+        CompletionException async = assertThrows(CompletionException.class, () -> backend.getAsync("doc").join());
+        assertInstanceOf(TemporaryFailureException.class, async.getCause());
+    }
+
+    @Test
+    void testBestEffortRetriesUntilTimeout() {
+        long timeout = TimeUnit.MILLISECONDS.toNanos(50);
+        KeyValueBackend backend = new OffHeapBackend(1 << 16, LatencyDistribution.NONE,
+                new FailureInjection(1.0, 0, false, timeout));
+        long start = System.nanoTime();
+        // A mutation that timed out may have been applied, a read has no side effect
+        assertThrows(AmbiguousTimeoutException.class, () -> backend.upsert("doc", "value"));
+        assertTrue(System.nanoTime() - start >= timeout);
+        assertThrows(UnambiguousTimeoutException.class, () -> backend.get("doc"));
+        CompletionException async = assertThrows(CompletionException.class, () -> backend.upsertAsync("doc", "value").join());
+        assertInstanceOf(AmbiguousTimeoutException.class, async.getCause());
+    }
+
+    @Test
+    void testBestEffortRetriesHideOccasionalFailures() {
+        KeyValueBackend backend = new InMemoryBackend(LatencyDistribution.NONE,
+                new FailureInjection(0.5, 0, false, TimeUnit.SECONDS.toNanos(5)));
+        for (int i = 0; i < 20; i++) {
+            backend.upsert("doc" + i, "value");
+            assertNotNull(backend.getAsync("doc" + i).join());
+        }
+    }
+
+    @Test
+    void testParseFailureInjection() {
+        ClientSettings settings = new ClientSettings(Map.of(
+                ClientSetting.RETRY_STRATEGY, "fail-fast", ClientSetting.KV_TIMEOUT_MILLIS, "100"));
+        FailureInjection failures = FailureInjection.parse("temporary:0.05, timeout:0.01", settings);
+        assertEquals(0.05, failures.temporaryFailureRate(), 1e-9);
+        assertEquals(0.01, failures.timeoutRate(), 1e-9);
+        assertTrue(failures.failFast());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), failures.timeoutNanos());
+        assertFalse(FailureInjection.parse("none", ClientSettings.DEFAULT).isEnabled());
+        assertFalse(FailureInjection.parse("none", ClientSettings.DEFAULT).failFast());
+        assertThrows(IllegalArgumentException.class, () -> FailureInjection.parse("temporary:0.8,timeout:0.4", settings));
+        assertThrows(IllegalArgumentException.class, () -> FailureInjection.parse("crash:0.1", settings));
+    }
+
+    private void verifyOperations(KeyValueBackend backend) {
+        backend.insert("doc", Map.of("name", "first"));
+        assertThrows(DocumentExistsException.class, () -> backend.insert("doc", Map.of("name", "second")));
+        backend.replace("doc", Map.of("name", "second"));
+        assertNotNull(backend.get("doc"));
+        backend.remove("doc");
+        assertThrows(DocumentNotFoundException.class, () -> backend.get("doc"));
+        assertThrows(DocumentNotFoundException.class, () -> backend.replace("doc", Map.of()));
+        assertThrows(DocumentNotFoundException.class, () -> backend.remove("doc"));
+        backend.upsertAsync("async", Map.of("name", "async")).join();
+        assertNotNull(backend.getAsync("async").join());
+        backend.clear();
+        assertThrows(DocumentNotFoundException.class, () -> backend.get("async"));
+        backend.close();
+    }
+}
@@ -1,7 +1,15 @@
+import com.couchbase.client.core.error.AmbiguousTimeoutException;
+import com.couchbase.client.core.error.TemporaryFailureException;
+import org.daniel.metrics.ClientResourceSample;
+import org.daniel.metrics.IntervalSnapshot;
 import org.daniel.metrics.MetricsCollector;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class MetricsCollectorTest {
@@ -54,4 +62,116 @@ class MetricsCollectorTest {
         assertEquals(2, metricsCollector.getReadOperations());
         assertEquals(450, metricsCollector.getAverageReadLatency());
     }
+
+    @Test
+    void testGetLatencyPercentiles() {
+        for (int i = 1; i <= 100; i++) {
+            metricsCollector.recordReadLatency(i);
+        }
+        assertEquals(50, metricsCollector.getReadLatencySnapshot().getValueAtPercentile(50));
+        assertEquals(100, metricsCollector.getReadLatencySnapshot().getMaxValue());
+    }
+
+    @Test
+    void testIntervalSampling() throws InterruptedException {
+        MetricsCollector collector = new MetricsCollector(50);
+        collector.startIntervalSampling();
+        collector.recordWriteLatency(100);
+        Thread.sleep(120);
+        collector.recordReadLatency(200);
+        collector.recordReadLatency(300);
+        collector.incrementReadErrors();
+        collector.stopIntervalSampling();
+
+        List<IntervalSnapshot> intervals = collector.getIntervals();
+        assertTrue(intervals.size() >= 2);
+        assertEquals(1, intervals.stream().mapToLong(IntervalSnapshot::writeOperations).sum());
+        assertEquals(2, intervals.stream().mapToLong(IntervalSnapshot::readOperations).sum());
+        assertEquals(1, intervals.stream().mapToLong(IntervalSnapshot::readErrors).sum());
+        assertEquals(2, intervals.stream().mapToLong(interval -> interval.readLatency().getTotalCount()).sum());
+        // The first interval only contains the write
+        assertEquals(1, intervals.get(0).writeOperations());
+        assertEquals(0, intervals.get(0).readOperations());
+    }
+
+    @Test
+    void testSubdocumentOperationsAreSampledInIntervals() {
+        MetricsCollector collector = new MetricsCollector(50);
+        collector.startIntervalSampling();
+        collector.recordLookupInLatency(100);
+        collector.recordLookupInLatency(200);
+        collector.recordMutateInLatency(300);
+        collector.incrementMutateInErrors();
+        collector.stopIntervalSampling();
+
+        List<IntervalSnapshot> intervals = collector.getIntervals();
+        assertEquals(2, intervals.stream().mapToLong(IntervalSnapshot::lookupInOperations).sum());
+        assertEquals(1, intervals.stream().mapToLong(IntervalSnapshot::mutateInOperations).sum());
+        assertEquals(1, intervals.stream().mapToLong(IntervalSnapshot::mutateInErrors).sum());
+        assertEquals(2, intervals.stream().mapToLong(interval -> interval.lookupInLatency().getTotalCount()).sum());
+        assertEquals(4, intervals.stream().mapToLong(IntervalSnapshot::getCompletedOperations).sum());
+        assertEquals(1, intervals.stream().mapToLong(IntervalSnapshot::getErrors).sum());
+    }
+
+    @Test
+    void testLatencyByDocumentSize() {
+        metricsCollector.getReadLatencyBySize().record(100, 1_000);
+        metricsCollector.getLookupInLatencyBySize().record(128, 2_000);
+        metricsCollector.getLookupInLatencyBySize().record(129, 3_000);
+
+        // Sizes are rounded up to a power of two, and kinds without latencies are left out
+        var latencyBySize = metricsCollector.getLatencyByDocumentSize();
+        assertEquals(List.of("lookup-in", "read"), List.copyOf(latencyBySize.keySet()));
+        assertEquals(List.of(128), List.copyOf(latencyBySize.get("read").keySet()));
+        assertEquals(List.of(128, 256), List.copyOf(latencyBySize.get("lookup-in").keySet()));
+        assertEquals(1, latencyBySize.get("lookup-in").get(256).getTotalCount());
+
+        MetricsCollector merged = new MetricsCollector();
+        merged.addLatencyByDocumentSize(latencyBySize);
+        merged.addLatencyByDocumentSize(latencyBySize);
+        assertEquals(2, merged.getLatencyByDocumentSize().get("read").get(128).getTotalCount());
+    }
+
+    @Test
+    void testClientSaturationRatios() {
+        metricsCollector.setMeasuredDurationNanos(1_000_000_000L);
+        // 3.6 s of CPU over 1 s on 4 processors, 60 ms of GC pauses
+        metricsCollector.setClientResourceUsage(new ClientResourceSample(3_600_000_000L, 1000, 3, 60_000_000L, 20, 25, 4));
+        assertEquals(0.9, metricsCollector.getClientCpuUtilization(), 1e-9);
+        assertEquals(0.06, metricsCollector.getGcTimeFraction(), 1e-9);
+
+        // Two processes: pauses are averaged over them, CPU over all their processors
+        ClientResourceSample worker = new ClientResourceSample(2_000_000_000L, 1000, 1, 20_000_000L, 20, 25, 4);
+        metricsCollector.setClientResourceUsage(worker.plus(worker), 2);
+        assertEquals(0.5, metricsCollector.getClientCpuUtilization(), 1e-9);
+        assertEquals(0.02, metricsCollector.getGcTimeFraction(), 1e-9);
+    }
+
+    @Test
+    void testClientResourceSampleDifference() {
+        ClientResourceSample start = ClientResourceSample.now();
+        ClientResourceSample end = ClientResourceSample.now().minus(start);
+        assertTrue(end.gcCount() >= 0);
+        assertTrue(end.liveThreads() > 0);
+        assertEquals(Runtime.getRuntime().availableProcessors(), end.processors());
+        // Values the JVM does not report stay unavailable
+        assertEquals(-1, new ClientResourceSample(-1, -1, -1, -1, 1, 1, 1).minus(start).cpuNanos());
+        assertEquals(-1, new MetricsCollector().getClientCpuUtilization());
+    }
+
+    @Test
+    void testFailedOperationsAreClassified() {
+        metricsCollector.recordReadLatency(1_000_000);
+        metricsCollector.recordFailedOperation(new TemporaryFailureException(null), 1_000_000);
+        // Async failures are unwrapped to the exception the backend threw
+        metricsCollector.recordFailedOperation(new CompletionException(new TemporaryFailureException(null)), 1_000_000);
+        metricsCollector.recordFailedOperation(new AmbiguousTimeoutException("timed out", null), 7_000_000);
+
+        assertEquals(Map.of("AmbiguousTimeoutException", 1L, "TemporaryFailureException", 2L),
+                metricsCollector.getErrorsByType());
+        assertEquals(9_000_000, metricsCollector.getTotalFailedLatency());
+        assertEquals(3, metricsCollector.getFailedLatencySnapshot().getTotalCount());
+        assertEquals(7_000_000, metricsCollector.getFailedLatencySnapshot().getMaxValue(), 7_000);
+        assertEquals(0.9, metricsCollector.getFailedTimeFraction(), 1e-9);
+    }
 }
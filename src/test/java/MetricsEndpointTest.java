@@ -0,0 +1,71 @@
+import org.daniel.metrics.IntervalSnapshot;
+import org.daniel.metrics.MetricsCollector;
+import org.daniel.metrics.MetricsEndpoint;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsEndpointTest {
+
+    @Test
+    void testServesProgressAndLiveMetrics() throws Exception {
+        MetricsCollector metrics = new MetricsCollector();
+        metrics.recordReadLatency(2_000_000);
+        metrics.recordWriteLatency(4_000_000);
+        metrics.recordFailedOperation(new TimeoutException(), 1_000_000);
+        metrics.incrementReadErrors();
+        metrics.addInterval(new IntervalSnapshot(0, 1_000_000_000L, 1, 1, 0, 1,
+                metrics.getWriteLatencySnapshot(), metrics.getReadLatencySnapshot()));
+
+        try (MetricsEndpoint endpoint = MetricsEndpoint.start(0)) {
+            endpoint.levelStarted("[compression=\"true\"] raw @ 20", 20, 5);
+            endpoint.runStarted(2, metrics);
+            HttpResponse<String> response = scrape(endpoint, "GET");
+            assertEquals(200, response.statusCode());
+            assertTrue(response.headers().firstValue("Content-Type").orElseThrow().startsWith("application/openmetrics-text"));
+            String body = response.body();
+            assertTrue(body.contains("benchmark_level_info{level=\"[compression=\\\"true\\\"] raw @ 20\"} 1\n"));
+            assertTrue(body.contains("benchmark_active_workers 20\n"));
+            assertTrue(body.contains("benchmark_run 2\n"));
+            assertTrue(body.contains("benchmark_runs_per_level 5\n"));
+            assertTrue(body.contains("benchmark_operations_total{type=\"read\"} 1\n"));
+            assertTrue(body.contains("benchmark_errors_total{type=\"read\"} 1\n"));
+            assertTrue(body.contains("benchmark_errors_by_exception_total{exception=\"TimeoutException\"} 1\n"));
+            assertTrue(body.contains("benchmark_operations_per_second 3.0\n"));
+            assertTrue(body.contains("benchmark_latency_seconds{type=\"write\",percentile=\"99.9\"} 0.004"));
+            assertTrue(body.endsWith("# EOF\n"));
+
+            endpoint.runFinished();
+            body = scrape(endpoint, "GET").body();
+            assertTrue(body.contains("benchmark_active_workers 0\n"));
+            assertTrue(body.contains("benchmark_runs_completed_total 1\n"));
+            assertEquals(405, scrape(endpoint, "POST").statusCode());
+        }
+    }
+
+    @Test
+    void testServesProgressBeforeTheFirstRun() throws Exception {
+        try (MetricsEndpoint endpoint = MetricsEndpoint.start(0)) {
+            String body = scrape(endpoint, "GET").body();
+            assertTrue(body.contains("benchmark_run 0\n"));
+            assertFalse(body.contains("benchmark_operations_total"));
+            assertTrue(body.endsWith("# EOF\n"));
+        }
+    }
+
+    private static HttpResponse<String> scrape(MetricsEndpoint endpoint, String method) throws IOException, InterruptedException {
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + endpoint.getPort() + "/metrics"))
+                    .method(method, HttpRequest.BodyPublishers.noBody())
+                    .build();
+            return client.send(request, HttpResponse.BodyHandlers.ofString());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+import org.daniel.benchmark.RateSchedule;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateScheduleTest {
+
+    @Test
+    void testConstantRate() {
+        RateSchedule schedule = RateSchedule.constant(1000);
+        assertEquals(0, schedule.intendedOffsetNanos(0));
+        assertEquals(1_000_000, schedule.intendedOffsetNanos(1), 1);
+        assertEquals(5_000_000_000L, schedule.intendedOffsetNanos(5000), 1000);
+        assertEquals(1000, schedule.getTargetOpsPerSecond());
+    }
+
+    @Test
+    void testRampReachesTargetRate() {
+        // Ramp from 0 to 100 ops/s over 10s issues 500 operations during the ramp
+        RateSchedule schedule = RateSchedule.ramp(0, 100, 10);
+        assertEquals(10_000_000_000L, schedule.intendedOffsetNanos(500), 1_000_000);
+        // Afterwards the rate is held at 100 ops/s
+        assertEquals(11_000_000_000L, schedule.intendedOffsetNanos(600), 1_000_000);
+        // Early operations are spaced further apart than later ones
+        long firstGap = schedule.intendedOffsetNanos(2) - schedule.intendedOffsetNanos(1);
+        long lastGap = schedule.intendedOffsetNanos(500) - schedule.intendedOffsetNanos(499);
+        assertTrue(firstGap > lastGap);
+    }
+
+    @Test
+    void testStepSchedule() {
+        // Two 5s steps at 10 and 20 ops/s
+        RateSchedule schedule = RateSchedule.step(10, 20, 2, 10);
+        assertEquals(5_000_000_000L, schedule.intendedOffsetNanos(50), 1_000_000);
+        assertEquals(10_000_000_000L, schedule.intendedOffsetNanos(150), 1_000_000);
+    }
+}
@@ -0,0 +1,129 @@
+import org.daniel.metrics.MetricsCollector;
+import org.daniel.results.BenchmarkResults;
+import org.daniel.results.LevelResult;
+import org.daniel.results.MannWhitneyTest;
+import org.daniel.results.ResultsComparison;
+import org.daniel.results.ResultsWriter;
+import org.daniel.results.RunResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testMannWhitneyPValue() {
+        double[] baseline = {100, 101, 102, 103, 104};
+        assertEquals(1.0, MannWhitneyTest.pValue(baseline, baseline.clone()), 0.2);
+        // Completely separated samples of five runs each
+        assertTrue(MannWhitneyTest.pValue(baseline, new double[]{90, 91, 92, 93, 94}) < 0.05);
+        // Overlapping samples
+        assertTrue(MannWhitneyTest.pValue(baseline, new double[]{99, 101.5, 102.5, 105, 100.5}) > 0.05);
+        assertEquals(1.0, MannWhitneyTest.pValue(new double[]{5, 5}, new double[]{5, 5}));
+    }
+
+    @Test
+    void testMannWhitneyExactPValueAtThreeRuns() {
+        // Separated samples are the 2 most extreme of the 20 ways to split six ranks
+        assertEquals(0.1, MannWhitneyTest.pValue(new double[]{1, 2, 3}, new double[]{4, 5, 6}), 1e-12);
+        assertEquals(0.1, MannWhitneyTest.minimumPValue(3, 3), 1e-12);
+        // One swapped pair: 4 of the 20 splits are at least as extreme
+        assertEquals(0.2, MannWhitneyTest.pValue(new double[]{1, 2, 4}, new double[]{3, 5, 6}), 1e-12);
+        assertEquals(1.0, MannWhitneyTest.minimumPValue(1, 1));
+    }
+
+    @Test
+    void testMannWhitneyExactPValueAtFiveRuns() {
+        double[] baseline = {100, 101, 102, 103, 104};
+        assertEquals(2.0 / 252, MannWhitneyTest.pValue(baseline, new double[]{90, 91, 92, 93, 94}), 1e-12);
+        assertEquals(2.0 / 252, MannWhitneyTest.minimumPValue(5, 5), 1e-12);
+        // Ties are ranked exactly too: a tied pair at the boundary makes the split less extreme
+        double tied = MannWhitneyTest.pValue(baseline, new double[]{90, 91, 92, 93, 100});
+        assertTrue(tied > 2.0 / 252 && tied < 0.05, String.valueOf(tied));
+    }
+
+    @Test
+    void testWriteAndReadResults() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("thread-count", "4");
+        properties.setProperty("couchbase.password", "secret");
+        ResultsWriter writer = new ResultsWriter(tempDir, "memory", "threads", properties);
+        writer.addLevel(level("raw @ 4", 1000, 1_000_000));
+
+        BenchmarkResults results = ResultsWriter.read(writer.getJsonFile());
+        assertEquals("memory", results.backend());
+        assertEquals("4", results.config().get("thread-count"));
+        assertFalse(results.config().containsKey("couchbase.password"));
+        // The carrier parallelism is set per process, so it is recorded next to the properties
+        assertEquals(String.valueOf(Runtime.getRuntime().availableProcessors()),
+                results.config().get("jdk.virtualThreadScheduler.parallelism"));
+        RunResult run = results.levels().get(0).runs().get(0);
+        assertEquals(1001, run.writeOperations());
+        assertEquals(1001, run.operationsPerSecond(), 0.1);
+        assertEquals(run.writeLatency().p99(), run.writeLatency().toSnapshot().getValueAtPercentile(99));
+        assertTrue(Files.exists(tempDir.resolve(writer.getJsonFile().getFileName().toString().replace(".json", "-runs.csv"))));
+    }
+
+    @Test
+    void testComparisonFlagsRegression() {
+        BenchmarkResults baseline = results(level("raw @ 4", 1000, 1_000_000));
+        BenchmarkResults slower = results(level("raw @ 4", 800, 2_000_000));
+        BenchmarkResults same = results(level("raw @ 4", 1000, 1_000_000));
+
+        List<ResultsComparison.Finding> findings = ResultsComparison.compare(baseline, slower, 0.05);
+        assertTrue(findings.stream().anyMatch(finding -> finding.metric().startsWith("throughput") && finding.regression()));
+        assertTrue(findings.stream().anyMatch(finding -> finding.metric().startsWith("write p99") && finding.regression()));
+
+        assertTrue(ResultsComparison.compare(baseline, same, 0.05).stream().noneMatch(ResultsComparison.Finding::regression));
+        // Improvements are significant but not regressions
+        assertTrue(ResultsComparison.compare(slower, baseline, 0.05).stream().noneMatch(ResultsComparison.Finding::regression));
+    }
+
+    @Test
+    void testComparisonFlagsTooFewRunsAsInconclusive() {
+        // Three runs per side cannot reach p < 0.05, however large the change
+        List<ResultsComparison.Finding> findings = ResultsComparison.compare(
+                results(level("raw @ 4", 3, 1000, 1_000_000)), results(level("raw @ 4", 3, 500, 4_000_000)), 0.05);
+        assertTrue(findings.stream().noneMatch(ResultsComparison.Finding::conclusive));
+        assertTrue(findings.stream().noneMatch(ResultsComparison.Finding::regression));
+        // At alpha 0.1 the same runs are conclusive and the regression is flagged
+        assertTrue(ResultsComparison.compare(results(level("raw @ 4", 3, 1000, 1_000_000)),
+                results(level("raw @ 4", 3, 500, 4_000_000)), 0.11).stream().anyMatch(ResultsComparison.Finding::regression));
+    }
+
+    private static BenchmarkResults results(LevelResult level) {
+        return new BenchmarkResults("2024-01-01T00:00:00Z", "memory", "threads", Map.of(), List.of(level));
+    }
+
+    private static LevelResult level(String label, int operationsPerSecond, long latencyNanos) {
+        return level(label, 5, operationsPerSecond, latencyNanos);
+    }
+
+    /**
+     * A level of one-second runs with slightly varying throughput and latency around the given values.
+     */
+    private static LevelResult level(String label, int runCount, int operationsPerSecond, long latencyNanos) {
+        List<RunResult> runs = new ArrayList<>();
+        for (int run = 1; run <= runCount; run++) {
+            MetricsCollector metricsCollector = new MetricsCollector();
+            for (int i = 0; i < operationsPerSecond + run; i++) {
+                metricsCollector.recordWriteLatency(latencyNanos + run * latencyNanos / 100);
+            }
+            metricsCollector.setMeasuredDurationNanos(1_000_000_000L);
+            runs.add(RunResult.of(run, metricsCollector));
+        }
+        return new LevelResult(label, 4, 0, runs, Map.of());
+    }
+}
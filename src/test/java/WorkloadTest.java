@@ -0,0 +1,218 @@
+import org.daniel.backend.InMemoryBackend;
+import org.daniel.backend.LatencyDistribution;
+import org.daniel.workload.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkloadTest {
+
+    @Test
+    void testWriteThenReadCycle() {
+        OperationGenerator generator = new Workload(WorkloadDefinition.preset(WorkloadDefinition.WRITE_THEN_READ)).newGenerator();
+        Operation write = generator.next();
+        assertEquals(OperationType.UPDATE, write.type());
+        for (int i = 0; i < 3; i++) {
+            Operation read = generator.next();
+            assertEquals(OperationType.READ, read.type());
+            assertEquals(write.key(), read.key());
+        }
+        assertNotEquals(write.key(), generator.next().key());
+    }
+
+    @Test
+    void testReadHeavyMix() {
+        WorkloadDefinition definition = WorkloadDefinition.preset(WorkloadDefinition.READ_HEAVY);
+        assertEquals(definition.keySpaceSize(), definition.preloadKeyCount());
+        OperationGenerator generator = new Workload(definition).newGenerator();
+        int reads = 0;
+        for (int i = 0; i < 10_000; i++) {
+            Operation operation = generator.next();
+            assertTrue(Long.parseLong(operation.key()) < definition.keySpaceSize());
+            if (operation.type() == OperationType.READ) {
+                reads++;
+            }
+        }
+        assertEquals(9_500, reads, 300);
+    }
+
+    @Test
+    void testSubdocumentMixCarriesPaths() {
+        WorkloadDefinition definition = WorkloadDefinition.preset(WorkloadDefinition.SUBDOCUMENT);
+        assertTrue(definition.hasSubdocumentOperations());
+        OperationGenerator generator = new Workload(definition).newGenerator();
+        int lookups = 0;
+        int subdocumentMutations = 0;
+        for (int i = 0; i < 10_000; i++) {
+            Operation operation = generator.next();
+            switch (operation.type()) {
+                case LOOKUP_IN -> {
+                    lookups++;
+                    assertEquals(definition.lookupInPaths(), operation.paths());
+                }
+                case MUTATE_IN -> {
+                    subdocumentMutations++;
+                    assertEquals(definition.mutateInPaths(), operation.paths());
+                }
+                default -> assertTrue(operation.paths().isEmpty());
+            }
+        }
+        assertEquals(4_500, lookups, 300);
+        assertEquals(500, subdocumentMutations, 150);
+        assertTrue(OperationType.MUTATE_IN.isMutation());
+        assertFalse(OperationType.LOOKUP_IN.isMutation());
+    }
+
+    @Test
+    void testSubdocumentOperationsNeedPaths() {
+        assertThrows(IllegalArgumentException.class, () -> new WorkloadDefinition("lookups", 0, 0, 0, 0, 0, 0, 1, 0,
+                KeyDistribution.UNIFORM, 10, 0.99, 0.2, 0.8, List.of(), List.of()));
+    }
+
+    @Test
+    void testInsertsUseNewKeys() {
+        WorkloadDefinition definition = new WorkloadDefinition("inserts", 0, 0, 1, 0, 0, 0, 0, 0,
+                KeyDistribution.UNIFORM, 10, 0.99, 0.2, 0.8, List.of(), List.of());
+        OperationGenerator generator = new Workload(definition).newGenerator();
+        assertEquals("10", generator.next().key());
+        assertEquals("11", generator.next().key());
+    }
+
+    @Test
+    void testWorkersReserveKeyBlocks() {
+        WorkloadDefinition definition = new WorkloadDefinition("inserts", 0, 0, 1, 0, 0, 0, 0, 0,
+                KeyDistribution.UNIFORM, 10, 0.99, 0.2, 0.8, List.of(), List.of());
+        Workload workload = new Workload(definition, new KeyFormat("doc-", 6, 4, 5));
+        OperationGenerator first = workload.newGenerator();
+        OperationGenerator second = workload.newGenerator();
+        assertEquals("doc-000010", first.next().key());
+        assertEquals("doc-000014", second.next().key());
+        assertEquals("doc-000011", first.next().key());
+        for (int i = 0; i < 2; i++) {
+            first.next();
+        }
+        // The first block is used up, so the next key comes from a new block after the second worker's
+        assertEquals("doc-000018", first.next().key());
+    }
+
+    @Test
+    void testLatestReadsNeverMissWhileInserting() throws InterruptedException {
+        WorkloadDefinition definition = new WorkloadDefinition("latest", 0, 0.5, 0.5, 0, 0, 0, 0, 0,
+                KeyDistribution.LATEST, 100, 0.99, 0.2, 0.8, List.of(), List.of());
+        // The second of two processes: reads must stay off the blocks of the other partition, which nobody inserts here
+        Workload workload = new Workload(definition, new KeyFormat("", 0, 4, 100), 1, 2);
+        InMemoryBackend backend = new InMemoryBackend(LatencyDistribution.NONE);
+        for (int key = 0; key < definition.preloadKeyCount(); key++) {
+            backend.insert(workload.documentId(key), "preloaded");
+        }
+        AtomicInteger misses = new AtomicInteger();
+        AtomicInteger newKeyReads = new AtomicInteger();
+        Thread[] workers = new Thread[4];
+        for (int i = 0; i < workers.length; i++) {
+            OperationGenerator generator = workload.newGenerator();
+            workers[i] = Thread.ofPlatform().start(() -> {
+                for (int n = 0; n < 20_000; n++) {
+                    Operation operation = generator.next();
+                    if (operation.type() == OperationType.INSERT) {
+                        backend.insert(operation.key(), "inserted");
+                    } else {
+                        try {
+                            backend.get(operation.key());
+                        } catch (RuntimeException e) {
+                            misses.incrementAndGet();
+                        }
+                        if (Long.parseLong(operation.key()) >= definition.preloadKeyCount()) {
+                            newKeyReads.incrementAndGet();
+                        }
+                    }
+                    generator.completed(operation, true);
+                }
+            });
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(0, misses.get());
+        assertTrue(newKeyReads.get() > 0, "reads never reached the inserted keys");
+    }
+
+    @Test
+    void testLatestReadsReachAnInsertedKeySoon() {
+        WorkloadDefinition definition = new WorkloadDefinition("latest", 0, 0.95, 0.05, 0, 0, 0, 0, 0,
+                KeyDistribution.LATEST, 1000, 0.99, 0.2, 0.8, List.of(), List.of());
+        OperationGenerator generator = new Workload(definition).newGenerator();
+        String insertedKey = null;
+        int insertedAt = 0;
+        for (int n = 0; n < 100_000; n++) {
+            Operation operation = generator.next();
+            if (operation.type() == OperationType.INSERT && insertedKey == null && n >= 1000) {
+                insertedKey = operation.key();
+                insertedAt = n;
+            } else if (operation.type() == OperationType.READ && operation.key().equals(insertedKey)) {
+                // Far fewer operations than the 1024 inserts of a reservation block
+                assertTrue(n - insertedAt <= 1000, "read after " + (n - insertedAt) + " operations");
+                return;
+            }
+            generator.completed(operation, true);
+        }
+        fail("the inserted key was never read");
+    }
+
+    @Test
+    void testKeyFormat() {
+        Workload workload = new Workload(WorkloadDefinition.preset(WorkloadDefinition.READ_HEAVY), new KeyFormat("k", 3, 16, 10));
+        assertEquals("k007", workload.documentId(7));
+        assertEquals("k123456", workload.documentId(123_456));
+        assertSame(workload.documentId(3), workload.documentId(3));
+        assertEquals(String.valueOf(Long.MAX_VALUE), new KeyFormat("", 0, 1, 0).format(Long.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> new KeyFormat("", 0, 0, 0));
+    }
+
+    @Test
+    void testKeyGenerationCostIsSampled() {
+        Workload workload = new Workload(WorkloadDefinition.preset(WorkloadDefinition.READ_HEAVY));
+        OperationGenerator generator = workload.newGenerator();
+        for (int i = 0; i < 64 * 10; i++) {
+            generator.next();
+        }
+        KeyGenerationCost cost = workload.getKeyGenerationCost();
+        assertEquals(10, cost.samples());
+        assertTrue(cost.nanosPerKey() >= 0);
+        assertEquals(-1.0, cost.minus(cost).nanosPerKey());
+    }
+
+    @Test
+    void testZipfianFavoursLowKeys() {
+        ZipfianKeyChooser chooser = new ZipfianKeyChooser(1000, 0.99);
+        int first = 0;
+        for (int i = 0; i < 10_000; i++) {
+            long key = chooser.nextKey(999);
+            assertTrue(key >= 0 && key < 1000);
+            if (key == 0) {
+                first++;
+            }
+        }
+        // Key 0 has ~13% probability with 1000 keys and theta 0.99, against 0.1% for uniform
+        assertTrue(first > 800, "key 0 chosen " + first + " times");
+    }
+
+    @Test
+    void testHotspotSendsOperationsToHotKeys() {
+        HotspotKeyChooser chooser = new HotspotKeyChooser(1000, 0.1, 0.9);
+        int hot = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (chooser.nextKey(999) < 100) {
+                hot++;
+            }
+        }
+        assertEquals(9_000, hot, 300);
+    }
+
+    @Test
+    void testUnknownPreset() {
+        assertThrows(IllegalArgumentException.class, () -> WorkloadDefinition.preset("unknown"));
+    }
+}